@@ -0,0 +1,174 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.questdb;
+
+import io.questdb.cutlass.line.tcp.LineTcpBinaryParser;
+import io.questdb.cutlass.line.tcp.LineTcpParser;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Rnd;
+import io.questdb.std.Unsafe;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server side parsing cost of text and binary line protocol for the rows sent by
+ * {@link LineTCPSenderMain} and {@link LineTCPBinarySenderMain}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LineTcpParserBenchmark {
+    private static final int ROW_COUNT = 10_000;
+    private static final int BUF_SIZE = 1024 * 1024;
+    private final LineTcpParser textParser = new LineTcpParser();
+    private final LineTcpBinaryParser binaryParser = new LineTcpBinaryParser();
+    private long textLo;
+    private long textHi;
+    private long binaryLo;
+    private long binaryHi;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(LineTcpParserBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROW_COUNT)
+    public int testBinary() {
+        binaryParser.clear();
+        binaryParser.of(binaryLo);
+        int n = 0;
+        while (binaryParser.parse(binaryHi) == LineTcpParser.ParseResult.MEASUREMENT_COMPLETE) {
+            n += binaryParser.getMeasurement().getnEntities();
+            binaryParser.nextMeasurement();
+        }
+        return n;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROW_COUNT)
+    public int testText() {
+        textParser.of(textLo);
+        int n = 0;
+        while (textParser.parseMeasurement(textHi) == LineTcpParser.ParseResult.MEASUREMENT_COMPLETE) {
+            n += textParser.getnEntities();
+            textParser.startNextMeasurement();
+        }
+        return n;
+    }
+
+    @Setup
+    public void setUp() {
+        final Rnd rnd = new Rnd();
+        final StringBuilder text = new StringBuilder();
+        binaryLo = Unsafe.malloc(BUF_SIZE, MemoryTag.NATIVE_DEFAULT);
+        long p = binaryLo;
+        p = putName(p, LineTcpBinaryParser.FRAME_TABLE, 0, -1, (byte) 0, "weather");
+        p = putName(p, LineTcpBinaryParser.FRAME_COLUMN, 0, 0, LineTcpParser.ENTITY_TYPE_TAG, "location");
+        p = putName(p, LineTcpBinaryParser.FRAME_COLUMN, 0, 1, LineTcpParser.ENTITY_TYPE_TAG, "by");
+        p = putName(p, LineTcpBinaryParser.FRAME_COLUMN, 0, 2, LineTcpParser.ENTITY_TYPE_INTEGER, "temp");
+        p = putName(p, LineTcpBinaryParser.FRAME_COLUMN, 0, 3, LineTcpParser.ENTITY_TYPE_INTEGER, "ok");
+        Unsafe.getUnsafe().putByte(p, LineTcpBinaryParser.FRAME_ROWS);
+        Unsafe.getUnsafe().putShort(p + 1, (short) 0);
+        Unsafe.getUnsafe().putShort(p + 3, (short) 4);
+        Unsafe.getUnsafe().putInt(p + 5, ROW_COUNT);
+        p += LineTcpBinaryParser.ROWS_FRAME_HEADER_SIZE;
+        for (int i = 0; i < 4; i++) {
+            Unsafe.getUnsafe().putShort(p, (short) i);
+            p += Short.BYTES;
+        }
+
+        for (int i = 0; i < ROW_COUNT; i++) {
+            final CharSequence by = rnd.nextString(5);
+            final long temp = rnd.nextPositiveLong();
+            final long ok = rnd.nextPositiveInt();
+            final long timestamp = rnd.nextLong(5000000000000L);
+            text.append("weather,location=london,by=").append(by)
+                    .append(" temp=").append(temp).append("i,ok=").append(ok).append("i ")
+                    .append(timestamp).append('\n');
+
+            Unsafe.getUnsafe().putLong(p, timestamp);
+            p = putValue(p + Long.BYTES, "london");
+            p = putValue(p, by);
+            Unsafe.getUnsafe().putLong(p, temp);
+            Unsafe.getUnsafe().putLong(p + Long.BYTES, ok);
+            p += 2 * Long.BYTES;
+        }
+        binaryHi = p;
+
+        final byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        textLo = Unsafe.malloc(bytes.length, MemoryTag.NATIVE_DEFAULT);
+        textHi = textLo + bytes.length;
+        for (int i = 0; i < bytes.length; i++) {
+            Unsafe.getUnsafe().putByte(textLo + i, bytes[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Unsafe.free(binaryLo, BUF_SIZE, MemoryTag.NATIVE_DEFAULT);
+        Unsafe.free(textLo, textHi - textLo, MemoryTag.NATIVE_DEFAULT);
+        textParser.close();
+        binaryParser.close();
+    }
+
+    private static long putName(long p, byte frame, int tableId, int columnId, byte type, String name) {
+        Unsafe.getUnsafe().putByte(p++, frame);
+        Unsafe.getUnsafe().putShort(p, (short) tableId);
+        p += Short.BYTES;
+        if (columnId > -1) {
+            Unsafe.getUnsafe().putShort(p, (short) columnId);
+            p += Short.BYTES;
+            Unsafe.getUnsafe().putByte(p++, type);
+        }
+        Unsafe.getUnsafe().putShort(p, (short) name.length());
+        p += Short.BYTES;
+        for (int i = 0, n = name.length(); i < n; i++) {
+            Unsafe.getUnsafe().putByte(p++, (byte) name.charAt(i));
+        }
+        return p;
+    }
+
+    private static long putValue(long p, CharSequence value) {
+        Unsafe.getUnsafe().putInt(p, value.length());
+        p += Integer.BYTES;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            Unsafe.getUnsafe().putByte(p++, (byte) value.charAt(i));
+        }
+        return p;
+    }
+}
@@ -39,14 +39,32 @@ public interface MessageBus extends Closeable {
         Misc.free(getTableWriterEventQueue());
     }
 
+    Sequence getColumnCopyPubSeq();
+
+    RingQueue<ColumnCopyTask> getColumnCopyQueue();
+
+    Sequence getColumnCopySubSeq();
+
     CairoConfiguration getConfiguration();
 
+    Sequence getHashJoinBuildPubSeq();
+
+    RingQueue<HashJoinBuildTask> getHashJoinBuildQueue();
+
+    Sequence getHashJoinBuildSubSeq();
+
     Sequence getIndexerPubSequence();
 
     RingQueue<ColumnIndexerTask> getIndexerQueue();
 
     Sequence getIndexerSubSequence();
 
+    Sequence getLatestByAllSymbolPubSeq();
+
+    RingQueue<LatestByAllSymbolTask> getLatestByAllSymbolQueue();
+
+    Sequence getLatestByAllSymbolSubSeq();
+
     Sequence getLatestByPubSeq();
 
     RingQueue<LatestByTask> getLatestByQueue();
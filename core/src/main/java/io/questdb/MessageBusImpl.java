@@ -68,6 +68,18 @@ public class MessageBusImpl implements MessageBus {
     private final MPSequence latestByPubSeq;
     private final MCSequence latestBySubSeq;
 
+    private final RingQueue<LatestByAllSymbolTask> latestByAllSymbolQueue;
+    private final MPSequence latestByAllSymbolPubSeq;
+    private final MCSequence latestByAllSymbolSubSeq;
+
+    private final RingQueue<HashJoinBuildTask> hashJoinBuildQueue;
+    private final MPSequence hashJoinBuildPubSeq;
+    private final MCSequence hashJoinBuildSubSeq;
+
+    private final RingQueue<ColumnCopyTask> columnCopyQueue;
+    private final MPSequence columnCopyPubSeq;
+    private final MCSequence columnCopySubSeq;
+
     private final RingQueue<TableWriterTask> tableWriterCommandQueue;
     private final MPSequence tableWriterCommandPubSeq;
     private final FanOut tableWriterCommandSubSeq;
@@ -124,6 +136,21 @@ public class MessageBusImpl implements MessageBus {
         this.latestBySubSeq = new MCSequence(latestByQueue.getCycle());
         latestByPubSeq.then(latestBySubSeq).then(latestByPubSeq);
 
+        this.latestByAllSymbolQueue = new RingQueue<>(LatestByAllSymbolTask::new, configuration.getLatestByQueueCapacity());
+        this.latestByAllSymbolPubSeq = new MPSequence(latestByAllSymbolQueue.getCycle());
+        this.latestByAllSymbolSubSeq = new MCSequence(latestByAllSymbolQueue.getCycle());
+        latestByAllSymbolPubSeq.then(latestByAllSymbolSubSeq).then(latestByAllSymbolPubSeq);
+
+        this.hashJoinBuildQueue = new RingQueue<>(HashJoinBuildTask::new, configuration.getHashJoinBuildQueueCapacity());
+        this.hashJoinBuildPubSeq = new MPSequence(hashJoinBuildQueue.getCycle());
+        this.hashJoinBuildSubSeq = new MCSequence(hashJoinBuildQueue.getCycle());
+        hashJoinBuildPubSeq.then(hashJoinBuildSubSeq).then(hashJoinBuildPubSeq);
+
+        this.columnCopyQueue = new RingQueue<>(ColumnCopyTask::new, configuration.getColumnCopyQueueCapacity());
+        this.columnCopyPubSeq = new MPSequence(columnCopyQueue.getCycle());
+        this.columnCopySubSeq = new MCSequence(columnCopyQueue.getCycle());
+        columnCopyPubSeq.then(columnCopySubSeq).then(columnCopyPubSeq);
+
         // todo: move to configuration
         this.tableWriterCommandQueue = new RingQueue<>(
                 TableWriterTask::new,
@@ -147,11 +174,41 @@ public class MessageBusImpl implements MessageBus {
         this.tableWriterEventPubSeq.then(this.tableWriterEventSubSeq).then(this.tableWriterEventPubSeq);
     }
 
+    @Override
+    public Sequence getColumnCopyPubSeq() {
+        return columnCopyPubSeq;
+    }
+
+    @Override
+    public RingQueue<ColumnCopyTask> getColumnCopyQueue() {
+        return columnCopyQueue;
+    }
+
+    @Override
+    public Sequence getColumnCopySubSeq() {
+        return columnCopySubSeq;
+    }
+
     @Override
     public CairoConfiguration getConfiguration() {
         return configuration;
     }
 
+    @Override
+    public Sequence getHashJoinBuildPubSeq() {
+        return hashJoinBuildPubSeq;
+    }
+
+    @Override
+    public RingQueue<HashJoinBuildTask> getHashJoinBuildQueue() {
+        return hashJoinBuildQueue;
+    }
+
+    @Override
+    public Sequence getHashJoinBuildSubSeq() {
+        return hashJoinBuildSubSeq;
+    }
+
     @Override
     public Sequence getIndexerPubSequence() {
         return indexerPubSeq;
@@ -167,6 +224,21 @@ public class MessageBusImpl implements MessageBus {
         return indexerSubSeq;
     }
 
+    @Override
+    public Sequence getLatestByAllSymbolPubSeq() {
+        return latestByAllSymbolPubSeq;
+    }
+
+    @Override
+    public RingQueue<LatestByAllSymbolTask> getLatestByAllSymbolQueue() {
+        return latestByAllSymbolQueue;
+    }
+
+    @Override
+    public Sequence getLatestByAllSymbolSubSeq() {
+        return latestByAllSymbolSubSeq;
+    }
+
     @Override
     public Sequence getLatestByPubSeq() {
         return latestByPubSeq;
@@ -92,6 +92,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long spinLockTimeoutUs;
     private final int sqlCacheRows;
     private final int sqlCacheBlocks;
+    private final int sqlCachePoolSize;
     private final int sqlCharacterStoreCapacity;
     private final int sqlCharacterStoreSequencePoolCapacity;
     private final int sqlColumnPoolCapacity;
@@ -99,6 +100,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final double sqlCompactMapLoadFactor;
     private final int sqlExpressionPoolCapacity;
     private final double sqlFastMapLoadFactor;
+    private final int sqlFilterSampleSize;
+    private final int sqlFilterSampleInterval;
     private final int sqlJoinContextPoolCapacity;
     private final int sqlLexerPoolCapacity;
     private final int sqlMapKeyCapacity;
@@ -107,6 +110,10 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlMapMaxResizes;
     private final int sqlModelPoolCapacity;
     private final long sqlSortKeyPageSize;
+    private final int sqlSetSpillPartitionCount;
+    private final long sqlSetSpillPageSize;
+    private final long sqlResultCacheSize;
+    private final long sqlResultCacheEntryMaxSize;
     private final int sqlSortKeyMaxPages;
     private final long sqlSortLightValuePageSize;
     private final int sqlSortLightValueMaxPages;
@@ -115,6 +122,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long sqlLatestByRowCount;
     private final int sqlHashJoinLightValuePageSize;
     private final int sqlHashJoinLightValueMaxPages;
+    private final int sqlHashJoinPartitionCount;
     private final int sqlSortValuePageSize;
     private final int sqlSortValueMaxPages;
     private final long workStealTimeoutNanos;
@@ -127,6 +135,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int lineUdpMsgCount;
     private final int lineUdpReceiveBufferSize;
     private final int lineUdpCommitMode;
+    private final int lineUdpSocketCount;
     private final int[] sharedWorkerAffinity;
     private final int sharedWorkerCount;
     private final boolean sharedWorkerHaltOnError;
@@ -193,6 +202,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int rerunMaxProcessingQueueSize;
     private final BuildInformation buildInformation;
     private final int columnIndexerQueueCapacity;
+    private final int columnCopyQueueCapacity;
     private final int vectorAggregateQueueCapacity;
     private final int o3CallbackQueueCapacity;
     private final int o3PartitionQueueCapacity;
@@ -330,9 +340,14 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int lineTcpNUpdatesPerLoadRebalance;
     private double lineTcpMaxLoadRatio;
     private long lineTcpMaintenanceInterval;
+    private long lineTcpMaintenanceCommitSlack;
     private String lineTcpAuthDbPath;
     private int lineDefaultPartitionBy;
     private int lineTcpAggressiveReadRetryCount;
+    private boolean lineTcpAckEnabled;
+    private long lineTcpAckCommitInterval;
+    private int lineTcpConnectionMaxRowsPerSecond;
+    private int lineTcpTableMaxRowsPerSecond;
     private long minIdleMsBeforeWriterRelease;
     private String httpVersion;
     private int httpMinWorkerCount;
@@ -350,6 +365,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int httpMinRcvBufSize;
     private int httpMinSndBufSize;
     private final int latestByQueueCapacity;
+    private final int hashJoinBuildQueueCapacity;
     private final int sampleByIndexSearchPageSize;
     private final int binaryEncodingMaxLength;
     private final long writerDataIndexKeyAppendPageSize;
@@ -580,12 +596,15 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.spinLockTimeoutUs = getLong(properties, env, "cairo.spin.lock.timeout", 1_000_000);
             this.sqlCacheRows = getInt(properties, env, "cairo.cache.rows", 16);
             this.sqlCacheBlocks = getIntSize(properties, env, "cairo.cache.blocks", 4);
+            this.sqlCachePoolSize = getInt(properties, env, "cairo.cache.pool.size", 4);
             this.sqlCharacterStoreCapacity = getInt(properties, env, "cairo.character.store.capacity", 1024);
             this.sqlCharacterStoreSequencePoolCapacity = getInt(properties, env, "cairo.character.store.sequence.pool.capacity", 64);
             this.sqlColumnPoolCapacity = getInt(properties, env, "cairo.column.pool.capacity", 4096);
             this.sqlCompactMapLoadFactor = getDouble(properties, env, "cairo.compact.map.load.factor", 0.7);
             this.sqlExpressionPoolCapacity = getInt(properties, env, "cairo.expression.pool.capacity", 8192);
             this.sqlFastMapLoadFactor = getDouble(properties, env, "cairo.fast.map.load.factor", 0.5);
+            this.sqlFilterSampleSize = getInt(properties, env, "cairo.sql.filter.sample.size", 1024);
+            this.sqlFilterSampleInterval = getInt(properties, env, "cairo.sql.filter.sample.interval", 1024 * 1024);
             this.sqlJoinContextPoolCapacity = getInt(properties, env, "cairo.sql.join.context.pool.capacity", 64);
             this.sqlLexerPoolCapacity = getInt(properties, env, "cairo.lexer.pool.capacity", 2048);
             this.sqlMapKeyCapacity = getInt(properties, env, "cairo.sql.map.key.capacity", 2048 * 1024);
@@ -593,6 +612,10 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlMapMaxPages = getIntSize(properties, env, "cairo.sql.map.max.pages", Integer.MAX_VALUE);
             this.sqlMapMaxResizes = getIntSize(properties, env, "cairo.sql.map.max.resizes", Integer.MAX_VALUE);
             this.sqlModelPoolCapacity = getInt(properties, env, "cairo.model.pool.capacity", 1024);
+            this.sqlSetSpillPartitionCount = Numbers.ceilPow2(getInt(properties, env, "cairo.sql.set.spill.partition.count", 16));
+            this.sqlSetSpillPageSize = getLongSize(properties, env, "cairo.sql.set.spill.page.size", 1024 * 1024);
+            this.sqlResultCacheSize = getLongSize(properties, env, "cairo.sql.result.cache.size", 0);
+            this.sqlResultCacheEntryMaxSize = getLongSize(properties, env, "cairo.sql.result.cache.entry.max.size", 1024 * 1024);
             this.sqlSortKeyPageSize = getLongSize(properties, env, "cairo.sql.sort.key.page.size", 4 * 1024 * 1024);
             this.sqlSortKeyMaxPages = getIntSize(properties, env, "cairo.sql.sort.key.max.pages", Integer.MAX_VALUE);
             this.sqlSortLightValuePageSize = getLongSize(properties, env, "cairo.sql.sort.light.value.page.size", 8 * 1048576);
@@ -602,6 +625,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlLatestByRowCount = getInt(properties, env, "cairo.sql.latest.by.row.count", 1000);
             this.sqlHashJoinLightValuePageSize = getIntSize(properties, env, "cairo.sql.hash.join.light.value.page.size", 1048576);
             this.sqlHashJoinLightValueMaxPages = getIntSize(properties, env, "cairo.sql.hash.join.light.value.max.pages", Integer.MAX_VALUE);
+            this.sqlHashJoinPartitionCount = Numbers.ceilPow2(getInt(properties, env, "cairo.sql.hash.join.partition.count", 8));
             this.sqlSortValuePageSize = getIntSize(properties, env, "cairo.sql.sort.value.page.size", 16777216);
             this.sqlSortValueMaxPages = getIntSize(properties, env, "cairo.sql.sort.value.max.pages", Integer.MAX_VALUE);
             this.workStealTimeoutNanos = getLong(properties, env, "cairo.work.steal.timeout.nanos", 10_000);
@@ -676,6 +700,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlAnalyticTreeKeyMaxPages = Numbers.ceilPow2(getInt(properties, env, "cairo.sql.analytic.tree.max.pages", Integer.MAX_VALUE));
             this.sqlTxnScoreboardEntryCount = Numbers.ceilPow2(getInt(properties, env, "cairo.o3.txn.scoreboard.entry.count", 16384));
             this.latestByQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.latestby.queue.capacity", 32));
+            this.hashJoinBuildQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.hash.join.build.queue.capacity", 64));
+            this.columnCopyQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.column.copy.queue.capacity", 64));
             this.telemetryEnabled = getBoolean(properties, env, "telemetry.enabled", true);
             this.telemetryDisableCompletely = getBoolean(properties, env, "telemetry.disable.completely", false);
             this.telemetryQueueCapacity = getInt(properties, env, "telemetry.queue.capacity", 512);
@@ -696,6 +722,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.lineUdpUnicast = getBoolean(properties, env, "line.udp.unicast", false);
             this.lineUdpCommitMode = getCommitMode(properties, env, "line.udp.commit.mode");
             this.lineUdpTimestampAdapter = getLineTimestampAdaptor(properties, env, "line.udp.timestamp");
+            this.lineUdpSocketCount = getInt(properties, env, "line.udp.socket.count", 1);
 
             this.lineTcpEnabled = getBoolean(properties, env, "line.tcp.enabled", true);
             if (lineTcpEnabled) {
@@ -746,6 +773,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.lineTcpNUpdatesPerLoadRebalance = getInt(properties, env, "line.tcp.n.updates.per.load.balance", 10_000_000);
                 this.lineTcpMaxLoadRatio = getDouble(properties, env, "line.tcp.max.load.ratio", 1.9);
                 this.lineTcpMaintenanceInterval = getInt(properties, env, "line.tcp.maintenance.job.interval", 30_000);
+                this.lineTcpMaintenanceCommitSlack = getLong(properties, env, "line.tcp.maintenance.job.commit.slack", 1_000);
                 this.lineTcpAuthDbPath = getString(properties, env, "line.tcp.auth.db.path", null);
                 String defaultPartitionByProperty = getString(properties, env, "line.tcp.default.partition.by", "DAY");
                 this.lineDefaultPartitionBy = PartitionBy.fromString(defaultPartitionByProperty);
@@ -757,6 +785,10 @@ public class PropServerConfiguration implements ServerConfiguration {
                     this.lineTcpAuthDbPath = new File(root, this.lineTcpAuthDbPath).getAbsolutePath();
                 }
                 this.lineTcpAggressiveReadRetryCount = getInt(properties, env, "line.tcp.aggressive.read.retry.count", 0);
+                this.lineTcpAckEnabled = getBoolean(properties, env, "line.tcp.ack.enabled", false);
+                this.lineTcpAckCommitInterval = getLong(properties, env, "line.tcp.ack.commit.interval", 100);
+                this.lineTcpConnectionMaxRowsPerSecond = getInt(properties, env, "line.tcp.connection.max.rows.per.second", 0);
+                this.lineTcpTableMaxRowsPerSecond = getInt(properties, env, "line.tcp.table.max.rows.per.second", 0);
                 this.minIdleMsBeforeWriterRelease = getLong(properties, env, "line.tcp.min.idle.ms.before.writer.release", 10_000);
             }
 
@@ -1416,16 +1448,6 @@ public class PropServerConfiguration implements ServerConfiguration {
             return jsonQueryProcessorConfiguration;
         }
 
-        @Override
-        public int getQueryCacheBlocks() {
-            return sqlCacheBlocks;
-        }
-
-        @Override
-        public int getQueryCacheRows() {
-            return sqlCacheRows;
-        }
-
         @Override
         public WaitProcessorConfiguration getWaitProcessorConfiguration() {
             return httpWaitProcessorConfiguration;
@@ -1644,6 +1666,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return spinLockTimeoutUs;
         }
 
+        @Override
+        public int getSqlCacheBlocks() {
+            return sqlCacheBlocks;
+        }
+
+        @Override
+        public int getSqlCachePoolSize() {
+            return sqlCachePoolSize;
+        }
+
+        @Override
+        public int getSqlCacheRows() {
+            return sqlCacheRows;
+        }
+
         @Override
         public int getSqlCharacterStoreCapacity() {
             return sqlCharacterStoreCapacity;
@@ -1674,6 +1711,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlFastMapLoadFactor;
         }
 
+        @Override
+        public int getSqlFilterSampleSize() {
+            return sqlFilterSampleSize;
+        }
+
+        @Override
+        public int getSqlFilterSampleInterval() {
+            return sqlFilterSampleInterval;
+        }
+
         @Override
         public int getSqlJoinContextPoolCapacity() {
             return sqlJoinContextPoolCapacity;
@@ -1719,6 +1766,26 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlModelPoolCapacity;
         }
 
+        @Override
+        public long getSqlResultCacheEntryMaxSize() {
+            return sqlResultCacheEntryMaxSize;
+        }
+
+        @Override
+        public long getSqlResultCacheSize() {
+            return sqlResultCacheSize;
+        }
+
+        @Override
+        public int getSqlSetSpillPartitionCount() {
+            return sqlSetSpillPartitionCount;
+        }
+
+        @Override
+        public long getSqlSetSpillPageSize() {
+            return sqlSetSpillPageSize;
+        }
+
         @Override
         public long getSqlSortKeyPageSize() {
             return sqlSortKeyPageSize;
@@ -1794,6 +1861,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlHashJoinLightValueMaxPages;
         }
 
+        @Override
+        public int getSqlHashJoinPartitionCount() {
+            return sqlHashJoinPartitionCount;
+        }
+
         @Override
         public int getSqlSortValuePageSize() {
             return sqlSortValuePageSize;
@@ -1909,6 +1981,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return tableBlockWriterQueueCapacity;
         }
 
+        @Override
+        public int getColumnCopyQueueCapacity() {
+            return columnCopyQueueCapacity;
+        }
+
         @Override
         public int getColumnIndexerQueueCapacity() {
             return columnIndexerQueueCapacity;
@@ -1984,6 +2061,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return latestByQueueCapacity;
         }
 
+        @Override
+        public int getHashJoinBuildQueueCapacity() {
+            return hashJoinBuildQueueCapacity;
+        }
+
         @Override
         public int getBinaryEncodingMaxLength() {
             return binaryEncodingMaxLength;
@@ -2041,6 +2123,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineUdpReceiveBufferSize;
         }
 
+        @Override
+        public int getSocketCount() {
+            return lineUdpSocketCount;
+        }
+
         @Override
         public CairoSecurityContext getCairoSecurityContext() {
             return AllowAllCairoSecurityContext.INSTANCE;
@@ -2271,6 +2358,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineTcpMaintenanceInterval;
         }
 
+        @Override
+        public long getMaintenanceCommitSlack() {
+            return lineTcpMaintenanceCommitSlack;
+        }
+
         @Override
         public double getMaxLoadRatio() {
             return lineTcpMaxLoadRatio;
@@ -2340,6 +2432,26 @@ public class PropServerConfiguration implements ServerConfiguration {
         public int getAggressiveReadRetryCount() {
             return lineTcpAggressiveReadRetryCount;
         }
+
+        @Override
+        public long getAckCommitInterval() {
+            return lineTcpAckCommitInterval;
+        }
+
+        @Override
+        public boolean isAckEnabled() {
+            return lineTcpAckEnabled;
+        }
+
+        @Override
+        public int getConnectionMaxRowsPerSecond() {
+            return lineTcpConnectionMaxRowsPerSecond;
+        }
+
+        @Override
+        public int getTableMaxRowsPerSecond() {
+            return lineTcpTableMaxRowsPerSecond;
+        }
     }
 
     private class PropJsonQueryProcessorConfiguration implements JsonQueryProcessorConfiguration {
@@ -28,6 +28,7 @@ import io.questdb.cairo.*;
 import io.questdb.cutlass.http.HttpServer;
 import io.questdb.cutlass.json.JsonException;
 import io.questdb.cutlass.line.tcp.LineTcpReceiver;
+import io.questdb.cutlass.line.tcp.MultiSocketLineUdpReceiver;
 import io.questdb.cutlass.line.udp.LineUdpReceiver;
 import io.questdb.cutlass.line.udp.LinuxMMLineUdpReceiver;
 import io.questdb.cutlass.pgwire.PGWireServer;
@@ -163,6 +164,7 @@ public class ServerMain {
         } else {
             metrics = Metrics.disabled();
         }
+        cairoEngine.getQueryPlanCache().setMetrics(metrics.queryPlanCache());
 
         try {
             initQuestDb(workerPool, cairoEngine, log);
@@ -182,7 +184,15 @@ public class ServerMain {
             }
 
             if (configuration.getLineUdpReceiverConfiguration().isEnabled()) {
-                if (Os.type == Os.LINUX_AMD64 || Os.type == Os.LINUX_ARM64) {
+                if (configuration.getLineUdpReceiverConfiguration().getSocketCount() > 1) {
+                    instancesToClean.add(MultiSocketLineUdpReceiver.create(
+                            configuration.getLineUdpReceiverConfiguration(),
+                            configuration.getLineTcpReceiverConfiguration(),
+                            workerPool,
+                            log,
+                            cairoEngine
+                    ));
+                } else if (Os.type == Os.LINUX_AMD64 || Os.type == Os.LINUX_ARM64) {
                     instancesToClean.add(new LinuxMMLineUdpReceiver(
                             configuration.getLineUdpReceiverConfiguration(),
                             cairoEngine,
@@ -201,7 +211,8 @@ public class ServerMain {
                     configuration.getLineTcpReceiverConfiguration(),
                     workerPool,
                     log,
-                    cairoEngine
+                    cairoEngine,
+                    metrics
             ));
 
             startQuestDb(workerPool, cairoEngine, log);
@@ -63,6 +63,8 @@ public interface CairoConfiguration {
 
     int getColumnCastModelPoolCapacity();
 
+    int getColumnCopyQueueCapacity();
+
     int getColumnIndexerQueueCapacity();
 
     /**
@@ -113,6 +115,8 @@ public interface CairoConfiguration {
 
     int getGroupByPoolCapacity();
 
+    int getHashJoinBuildQueueCapacity();
+
     long getIdleCheckInterval();
 
     long getInactiveReaderTTL();
@@ -197,6 +201,25 @@ public interface CairoConfiguration {
 
     int getSqlAnalyticTreeKeyPageSize();
 
+    /**
+     * Number of blocks in server-wide cache of compiled queries. Together with
+     * {@link #getSqlCacheRows()} defines how many distinct query texts are cached.
+     *
+     * @return number of cache blocks
+     */
+    int getSqlCacheBlocks();
+
+    /**
+     * Maximum number of idle factories cached for the same query text. Factories are
+     * used exclusively, so this is how many connections can run the query concurrently
+     * without recompiling it.
+     *
+     * @return factory pool size per query
+     */
+    int getSqlCachePoolSize();
+
+    int getSqlCacheRows();
+
     int getSqlCharacterStoreCapacity();
 
     int getSqlCharacterStoreSequencePoolCapacity();
@@ -215,10 +238,33 @@ public interface CairoConfiguration {
 
     double getSqlFastMapLoadFactor();
 
+    /**
+     * Number of rows row filter samples to order AND-ed predicates by their cost and selectivity,
+     * 0 keeps predicates in the order they are written in.
+     *
+     * @return number of sampled rows
+     */
+    int getSqlFilterSampleSize();
+
+    /**
+     * Number of filtered rows after which predicate order is sampled again.
+     *
+     * @return number of rows
+     */
+    int getSqlFilterSampleInterval();
+
     int getSqlHashJoinLightValueMaxPages();
 
     int getSqlHashJoinLightValuePageSize();
 
+    /**
+     * Number of partitions slave side of inner hash join is split into by key hash.
+     * Partitions are built in parallel. Value of 1 disables partitioning.
+     *
+     * @return power of 2 partition count
+     */
+    int getSqlHashJoinPartitionCount();
+
     int getSqlHashJoinValueMaxPages();
 
     int getSqlHashJoinValuePageSize();
@@ -248,6 +294,36 @@ public interface CairoConfiguration {
 
     int getSqlModelPoolCapacity();
 
+    /**
+     * Maximum size of a single result kept in the query result cache. Larger results are
+     * streamed from tables as usual and are not cached.
+     *
+     * @return entry size limit in bytes
+     */
+    long getSqlResultCacheEntryMaxSize();
+
+    /**
+     * Total size of query results cached in memory, 0 disables the cache.
+     *
+     * @return cache size in bytes
+     */
+    long getSqlResultCacheSize();
+
+    /**
+     * Number of partitions DISTINCT, UNION, EXCEPT and INTERSECT split their input into by key hash
+     * when their in-memory map runs out of space. Partitions are processed one at a time.
+     *
+     * @return power of 2 partition count
+     */
+    int getSqlSetSpillPartitionCount();
+
+    /**
+     * Size of the segment spill files of set operations are extended by.
+     *
+     * @return memory page size
+     */
+    long getSqlSetSpillPageSize();
+
     int getSqlSortKeyMaxPages();
 
     long getSqlSortKeyPageSize();
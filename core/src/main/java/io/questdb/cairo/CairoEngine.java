@@ -33,6 +33,9 @@ import io.questdb.cairo.pool.WriterPool;
 import io.questdb.cairo.pool.WriterSource;
 import io.questdb.cairo.sql.ReaderOutOfDateException;
 import io.questdb.cairo.vm.api.MemoryMARW;
+import io.questdb.griffin.QueryPlanCache;
+import io.questdb.griffin.QueryResultCache;
+import io.questdb.griffin.engine.RowIdSpill;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.*;
@@ -59,6 +62,9 @@ public class CairoEngine implements Closeable, WriterSource {
     private final RingQueue<TableWriterTask> tableWriterCmdQueue;
     private final MCSequence tableWriterCmdSubSeq;
     private final long tableIdMemSize;
+    private final ConcurrentHashMap<TableStatistics> tableStatistics = new ConcurrentHashMap<>();
+    private final QueryPlanCache queryPlanCache;
+    private final QueryResultCache queryResultCache;
     private long tableIdFd = -1;
     private long tableIdMem = 0;
 
@@ -68,6 +74,8 @@ public class CairoEngine implements Closeable, WriterSource {
         this.writerPool = new WriterPool(configuration, messageBus);
         this.readerPool = new ReaderPool(configuration);
         this.writerMaintenanceJob = new WriterMaintenanceJob(configuration);
+        this.queryPlanCache = new QueryPlanCache(configuration);
+        this.queryResultCache = new QueryResultCache(configuration);
         if (configuration.getTelemetryConfiguration().getEnabled()) {
             this.telemetryQueue = new RingQueue<>(TelemetryTask::new, configuration.getTelemetryConfiguration().getQueueCapacity());
             this.telemetryPubSeq = new MPSequence(telemetryQueue.getCycle());
@@ -84,6 +92,7 @@ public class CairoEngine implements Closeable, WriterSource {
         final FanOut fanOut = messageBus.getTableWriterCommandFanOut();
         fanOut.and(tableWriterCmdSubSeq = new MCSequence(fanOut.current(), tableWriterCmdQueue.getCycle()));
         openTableId();
+        removeSpillDir();
         try {
             EngineMigration.migrateEngineTo(this, ColumnType.VERSION, false);
         } catch (Throwable e) {
@@ -93,6 +102,8 @@ public class CairoEngine implements Closeable, WriterSource {
     }
 
     public boolean clear() {
+        queryPlanCache.clear();
+        queryResultCache.clear();
         boolean b1 = readerPool.releaseAll();
         boolean b2 = writerPool.releaseAll();
         return b1 & b2;
@@ -100,6 +111,8 @@ public class CairoEngine implements Closeable, WriterSource {
 
     @Override
     public void close() {
+        Misc.free(queryPlanCache);
+        Misc.free(queryResultCache);
         Misc.free(writerPool);
         Misc.free(readerPool);
         freeTableId();
@@ -201,6 +214,14 @@ public class CairoEngine implements Closeable, WriterSource {
         return this.writerPool.getPoolListener();
     }
 
+    public QueryPlanCache getQueryPlanCache() {
+        return queryPlanCache;
+    }
+
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
+    }
+
     public void setPoolListener(PoolListener poolListener) {
         this.writerPool.setPoolListener(poolListener);
         this.readerPool.setPoolListener(poolListener);
@@ -228,6 +249,39 @@ public class CairoEngine implements Closeable, WriterSource {
         return reader;
     }
 
+    /**
+     * @param tableName table name
+     * @param tableId   id of the table instance statistics must belong to or {@link TableUtils#ANY_TABLE_ID}
+     * @return statistics collected by the last ANALYZE of the table or null when there are none
+     */
+    @Nullable
+    public TableStatistics getTableStatistics(CharSequence tableName, int tableId) {
+        final TableStatistics statistics = tableStatistics.get(tableName);
+        if (statistics != null && tableId > -1 && statistics.getTableId() != tableId) {
+            return null;
+        }
+        return statistics;
+    }
+
+    /**
+     * @param reader reader of the table
+     * @return statistics collected by the last ANALYZE of the table or null when there are none
+     * or table has been truncated since
+     */
+    @Nullable
+    public TableStatistics getTableStatistics(TableReader reader) {
+        final TableStatistics statistics = getTableStatistics(reader.getTableName(), reader.getMetadata().getId());
+        return statistics != null && statistics.getDataVersion() == reader.getDataVersion() ? statistics : null;
+    }
+
+    public void putTableStatistics(CharSequence tableName, TableStatistics statistics) {
+        tableStatistics.put(Chars.toString(tableName), statistics);
+    }
+
+    public void removeTableStatistics(CharSequence tableName) {
+        tableStatistics.remove(tableName);
+    }
+
     public int getStatus(
             CairoSecurityContext securityContext,
             Path path,
@@ -346,6 +400,7 @@ public class CairoEngine implements Closeable, WriterSource {
                     LOG.error().$("remove failed [tableName='").utf8(tableName).$("', error=").$(errno).$(']').$();
                     throw CairoException.instance(errno).put("Table remove failed");
                 }
+                tableStatistics.remove(tableName);
                 return;
             } finally {
                 unlock(securityContext, tableName, null, false);
@@ -372,6 +427,7 @@ public class CairoEngine implements Closeable, WriterSource {
         if (null == lockedReason) {
             try {
                 rename0(path, tableName, otherPath, newName);
+                tableStatistics.remove(tableName);
             } finally {
                 unlock(securityContext, tableName, null, false);
             }
@@ -385,6 +441,10 @@ public class CairoEngine implements Closeable, WriterSource {
     // It is useful for testing only
     public void resetTableId() {
         Unsafe.getUnsafe().putLong(tableIdMem, 0);
+        // statistics and cached plans and results are matched by table ID, which is no longer unique
+        tableStatistics.clear();
+        queryPlanCache.clear();
+        queryResultCache.clear();
     }
 
     public void tick() {
@@ -457,6 +517,18 @@ public class CairoEngine implements Closeable, WriterSource {
         writerPool.unlock(tableName);
     }
 
+    private void removeSpillDir() {
+        // spill files are named by per-process counter, files left over by previous process must go
+        final FilesFacade ff = configuration.getFilesFacade();
+        final Path path = Path.getThreadLocal(configuration.getRoot()).concat(RowIdSpill.SPILL_DIR).slash$();
+        if (ff.exists(path)) {
+            final int errno = ff.rmdir(path);
+            if (errno != 0) {
+                LOG.error().$("could not remove spill directory [path=").$(path).$(", errno=").$(errno).$(']').$();
+            }
+        }
+    }
+
     private void rename0(Path path, CharSequence tableName, Path otherPath, CharSequence to) {
         final FilesFacade ff = configuration.getFilesFacade();
         final CharSequence root = configuration.getRoot();
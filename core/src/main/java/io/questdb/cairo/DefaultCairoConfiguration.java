@@ -233,6 +233,21 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 5000000;
     }
 
+    @Override
+    public int getSqlCacheBlocks() {
+        return 4;
+    }
+
+    @Override
+    public int getSqlCachePoolSize() {
+        return 4;
+    }
+
+    @Override
+    public int getSqlCacheRows() {
+        return 16;
+    }
+
     @Override
     public int getSqlCharacterStoreCapacity() {
         // 1024 seems like a good fit, but tests need
@@ -265,6 +280,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 0.5;
     }
 
+    @Override
+    public int getSqlFilterSampleSize() {
+        return 1024;
+    }
+
+    @Override
+    public int getSqlFilterSampleInterval() {
+        return 1024 * 1024;
+    }
+
     @Override
     public int getSqlJoinContextPoolCapacity() {
         return 64;
@@ -310,6 +335,26 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024;
     }
 
+    @Override
+    public long getSqlResultCacheEntryMaxSize() {
+        return Numbers.SIZE_1MB;
+    }
+
+    @Override
+    public long getSqlResultCacheSize() {
+        return 0;
+    }
+
+    @Override
+    public int getSqlSetSpillPartitionCount() {
+        return 16;
+    }
+
+    @Override
+    public long getSqlSetSpillPageSize() {
+        return Numbers.SIZE_1MB;
+    }
+
     @Override
     public long getSqlSortKeyPageSize() {
         return 4 * Numbers.SIZE_1MB;
@@ -385,6 +430,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024;
     }
 
+    @Override
+    public int getSqlHashJoinPartitionCount() {
+        return 8;
+    }
+
     @Override
     public int getSqlSortValuePageSize() {
         return Numbers.SIZE_1MB * 16;
@@ -500,6 +550,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 4;
     }
 
+    @Override
+    public int getColumnCopyQueueCapacity() {
+        return 64;
+    }
+
     @Override
     public int getColumnIndexerQueueCapacity() {
         return 1024;
@@ -575,6 +630,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 32;
     }
 
+    @Override
+    public int getHashJoinBuildQueueCapacity() {
+        return 64;
+    }
+
     @Override
     public int getBinaryEncodingMaxLength() {
         return 32768;
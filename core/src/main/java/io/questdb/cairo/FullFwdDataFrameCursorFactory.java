@@ -38,4 +38,9 @@ public class FullFwdDataFrameCursorFactory extends AbstractDataFrameCursorFactor
     public DataFrameCursor getCursor(SqlExecutionContext executionContext) {
         return cursor.of(getReader(executionContext.getCairoSecurityContext()));
     }
-}
\ No newline at end of file
+
+    @Override
+    public int getOrder() {
+        return ORDER_ASC;
+    }
+}
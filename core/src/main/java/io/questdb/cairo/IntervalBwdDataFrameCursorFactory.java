@@ -58,4 +58,8 @@ public class IntervalBwdDataFrameCursorFactory extends AbstractDataFrameCursorFa
         Misc.free(intervals);
     }
 
+    @Override
+    public int getOrder() {
+        return ORDER_DESC;
+    }
 }
@@ -57,4 +57,9 @@ public class IntervalFwdDataFrameCursorFactory extends AbstractDataFrameCursorFa
     public void close() {
         Misc.free(intervals);
     }
+
+    @Override
+    public int getOrder() {
+        return ORDER_ASC;
+    }
 }
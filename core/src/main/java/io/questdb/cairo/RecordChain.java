@@ -91,6 +91,16 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         close();
     }
 
+    /**
+     * Discards records without releasing memory. Records that are put after this call overwrite
+     * memory from the start, which lets single row be re-used for every row of a stream.
+     */
+    public void rewind() {
+        mem.jumpTo(0);
+        nextRecordOffset = -1L;
+        varAppendOffset = 0L;
+    }
+
     @Override
     public void close() {
         mem.close();
@@ -103,6 +113,12 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         return addressOf(getOffsetOfColumn(recordOffset, columnIndex));
     }
 
+    @Override
+    public Record getRecordAt(long recordOffset) {
+        recordAt(recordB, recordOffset);
+        return recordB;
+    }
+
     public long getOffsetOfColumn(long recordOffset, int columnIndex) {
         return rowToDataOffset(recordOffset) + varOffset + columnOffsets[columnIndex];
     }
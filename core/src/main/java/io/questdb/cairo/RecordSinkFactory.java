@@ -220,6 +220,9 @@ public class RecordSinkFactory {
                     asm.invokeInterface(wSkip, 1);
                     break;
                 case -ColumnType.LONG:
+                case -ColumnType.DOUBLE:
+                case -ColumnType.DATE:
+                case -ColumnType.TIMESTAMP:
                     asm.aload(2);
                     asm.iconst(Long.BYTES);
                     asm.invokeInterface(wSkip, 1);
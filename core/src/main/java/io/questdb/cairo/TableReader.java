@@ -312,6 +312,35 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
     }
 
+    /**
+     * Checks whether any partition has rows written before the column was added, such rows read as nulls.
+     * Partitions are checked on disk, they are not opened.
+     *
+     * @param columnIndex column index
+     * @return true when column has top in at least one non-empty partition
+     */
+    public boolean hasColumnTop(int columnIndex) {
+        final CharSequence name = metadata.getColumnName(columnIndex);
+        try {
+            for (int i = 0; i < partitionCount; i++) {
+                if (txFile.getPartitionSize(i) == 0) {
+                    continue;
+                }
+                final Path path = pathGenPartitioned(i);
+                TableUtils.txnPartitionConditionally(path, txFile.getPartitionNameTxn(i));
+                final int plen = path.length();
+                if (TableUtils.readColumnTop(ff, path, name, plen, tempMem8b, false) > 0
+                        || !ff.exists(TableUtils.dFile(path.trimTo(plen), name))) {
+                    return true;
+                }
+                path.trimTo(rootLen);
+            }
+            return false;
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     public boolean isOpen() {
         return tempMem8b != 0;
     }
@@ -759,7 +788,7 @@ public class TableReader implements Closeable, SymbolTableSource {
         return txFile.getTransientRowCount();
     }
 
-    long getTxn() {
+    public long getTxn() {
         return txn;
     }
 
@@ -0,0 +1,201 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.*;
+
+/**
+ * Snapshot of table statistics collected by ANALYZE TABLE. Statistics include row count,
+ * per partition row counts and, for each column, estimated number of distinct values
+ * and number of nulls. Distinct counts are estimated with {@link HyperLogLog} sketches,
+ * except for symbol columns where the symbol table is exact.
+ * <p>
+ * Statistics are immutable once collected and are safe to share between threads.
+ */
+public class TableStatistics {
+    public static final long UNKNOWN = -1;
+    private static final int SKETCH_PRECISION = 14;
+    private final int tableId;
+    private final long dataVersion;
+    private final long rowCount;
+    private final LongList partitionRowCounts = new LongList();
+    private final LowerCaseCharSequenceIntHashMap columnIndexes = new LowerCaseCharSequenceIntHashMap();
+    private final LongList distinctCounts = new LongList();
+    private final LongList nullCounts = new LongList();
+
+    private TableStatistics(int tableId, long dataVersion, long rowCount) {
+        this.tableId = tableId;
+        this.dataVersion = dataVersion;
+        this.rowCount = rowCount;
+    }
+
+    public static TableStatistics collect(TableReader reader) {
+        final TableReaderMetadata metadata = reader.getMetadata();
+        final int columnCount = metadata.getColumnCount();
+        final TableStatistics statistics = new TableStatistics(metadata.getId(), reader.getDataVersion(), reader.size());
+
+        for (int i = 0, n = reader.getPartitionCount(); i < n; i++) {
+            statistics.partitionRowCounts.add(reader.openPartition(i));
+        }
+
+        final long sketchSize = HyperLogLog.sizeOf(SKETCH_PRECISION);
+        final long sketches = Unsafe.malloc(sketchSize * columnCount, MemoryTag.NATIVE_DEFAULT);
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                HyperLogLog.clear(sketches + i * sketchSize, SKETCH_PRECISION);
+                statistics.nullCounts.add(0);
+            }
+
+            final TableReaderRecordCursor cursor = reader.getCursor();
+            final Record record = cursor.getRecord();
+            while (cursor.hasNext()) {
+                for (int i = 0; i < columnCount; i++) {
+                    final long hash = hashOrNull(record, i, metadata.getColumnType(i));
+                    if (hash == UNKNOWN) {
+                        statistics.nullCounts.increment(i);
+                    } else {
+                        HyperLogLog.add(sketches + i * sketchSize, SKETCH_PRECISION, hash);
+                    }
+                }
+            }
+
+            for (int i = 0; i < columnCount; i++) {
+                statistics.columnIndexes.put(metadata.getColumnName(i), i);
+                final int columnType = metadata.getColumnType(i);
+                final long distinctCount;
+                if (ColumnType.isSymbol(columnType)) {
+                    distinctCount = reader.getSymbolMapReader(i).size();
+                } else if (ColumnType.tagOf(columnType) == ColumnType.BINARY) {
+                    distinctCount = UNKNOWN;
+                } else {
+                    distinctCount = Math.min(HyperLogLog.estimate(sketches + i * sketchSize, SKETCH_PRECISION), statistics.rowCount);
+                }
+                statistics.distinctCounts.add(distinctCount);
+            }
+        } finally {
+            Unsafe.free(sketches, sketchSize * columnCount, MemoryTag.NATIVE_DEFAULT);
+        }
+        return statistics;
+    }
+
+    /**
+     * @param columnName column name
+     * @return estimated number of distinct non-null values in column or {@link #UNKNOWN}
+     */
+    public long getDistinctCount(CharSequence columnName) {
+        final int index = columnIndexes.get(columnName);
+        return index > -1 ? distinctCounts.getQuick(index) : UNKNOWN;
+    }
+
+    /**
+     * @param columnName column name
+     * @return number of null values in column or {@link #UNKNOWN}
+     */
+    public long getNullCount(CharSequence columnName) {
+        final int index = columnIndexes.get(columnName);
+        return index > -1 ? nullCounts.getQuick(index) : UNKNOWN;
+    }
+
+    /**
+     * @return data version of the table at the time statistics were collected, truncate changes it
+     */
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public int getPartitionCount() {
+        return partitionRowCounts.size();
+    }
+
+    public long getPartitionRowCount(int partitionIndex) {
+        return partitionRowCounts.getQuick(partitionIndex);
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getTableId() {
+        return tableId;
+    }
+
+    private static long hashOrNull(Record record, int col, int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                return HyperLogLog.hash(record.getBool(col) ? 1 : 0);
+            case ColumnType.BYTE:
+                return HyperLogLog.hash(record.getByte(col));
+            case ColumnType.SHORT:
+                return HyperLogLog.hash(record.getShort(col));
+            case ColumnType.CHAR:
+                return HyperLogLog.hash(record.getChar(col));
+            case ColumnType.INT:
+                final int i = record.getInt(col);
+                return i != Numbers.INT_NaN ? HyperLogLog.hash(i) : UNKNOWN;
+            case ColumnType.SYMBOL:
+                final int key = record.getInt(col);
+                return key != SymbolTable.VALUE_IS_NULL ? HyperLogLog.hash(key) : UNKNOWN;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                final long l = record.getLong(col);
+                return l != Numbers.LONG_NaN ? HyperLogLog.hash(l) : UNKNOWN;
+            case ColumnType.FLOAT:
+                final float f = record.getFloat(col);
+                return f == f ? HyperLogLog.hash(Float.floatToIntBits(f)) : UNKNOWN;
+            case ColumnType.DOUBLE:
+                final double d = record.getDouble(col);
+                return d == d ? HyperLogLog.hash(Double.doubleToLongBits(d)) : UNKNOWN;
+            case ColumnType.STRING:
+                final CharSequence s = record.getStr(col);
+                return s != null ? HyperLogLog.hash(s) : UNKNOWN;
+            case ColumnType.LONG256:
+                final Long256 v = record.getLong256A(col);
+                if (v.getLong0() == Numbers.LONG_NaN && v.getLong1() == Numbers.LONG_NaN
+                        && v.getLong2() == Numbers.LONG_NaN && v.getLong3() == Numbers.LONG_NaN) {
+                    return UNKNOWN;
+                }
+                return HyperLogLog.hash(v.getLong0(), v.getLong1(), v.getLong2(), v.getLong3());
+            case ColumnType.GEOBYTE:
+                final byte gb = record.getGeoByte(col);
+                return gb != GeoHashes.BYTE_NULL ? HyperLogLog.hash(gb) : UNKNOWN;
+            case ColumnType.GEOSHORT:
+                final short gs = record.getGeoShort(col);
+                return gs != GeoHashes.SHORT_NULL ? HyperLogLog.hash(gs) : UNKNOWN;
+            case ColumnType.GEOINT:
+                final int gi = record.getGeoInt(col);
+                return gi != GeoHashes.INT_NULL ? HyperLogLog.hash(gi) : UNKNOWN;
+            case ColumnType.GEOLONG:
+                final long gl = record.getGeoLong(col);
+                return gl != GeoHashes.NULL ? HyperLogLog.hash(gl) : UNKNOWN;
+            case ColumnType.BINARY:
+                return record.getBinLen(col) != TableUtils.NULL_LEN ? 0 : UNKNOWN;
+            default:
+                return 0;
+        }
+    }
+}
@@ -27,6 +27,8 @@ package io.questdb.cairo;
 import io.questdb.MessageBus;
 import io.questdb.MessageBusImpl;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameCursor;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.cairo.sql.SymbolTable;
@@ -127,6 +129,9 @@ public class TableWriter implements Closeable {
     private final O3ColumnUpdateMethod oooSortVarColumnRef = this::o3SortVarColumn;
     private final O3ColumnUpdateMethod oooSortFixColumnRef = this::o3SortFixColumn;
     private final SOUnboundedCountDownLatch o3DoneLatch = new SOUnboundedCountDownLatch();
+    private final SOUnboundedCountDownLatch columnCopyLatch = new SOUnboundedCountDownLatch();
+    // source symbol key to writer symbol key, per column, for the duration of appendPageFrames()
+    private final ObjList<IntList> columnCopySymbolKeys = new ObjList<>();
     private final AtomicLong o3PartitionUpdRemaining = new AtomicLong();
     private final AtomicInteger o3ErrorCount = new AtomicInteger();
     private final MemoryMARW todoMem = Vm.getMARWInstance();
@@ -177,11 +182,13 @@ public class TableWriter implements Closeable {
     private String designatedTimestampColumnName;
     private long o3RowCount;
     private final O3ColumnUpdateMethod o3MoveUncommittedRef = this::o3MoveUncommitted0;
+    private final O3ColumnUpdateMethod syncColumnRef = this::syncColumn;
     private long lastPartitionTimestamp;
     private boolean o3InError = false;
     private ObjList<? extends MemoryA> activeColumns;
     private ObjList<Runnable> activeNullSetters;
     private int rowActon = ROW_ACTION_OPEN_PARTITION;
+    private volatile Throwable columnCopyError;
 
     public TableWriter(CairoConfiguration configuration, CharSequence tableName) {
         this(configuration, tableName, null, new MessageBusImpl(configuration), true, DefaultLifecycleManager.INSTANCE, configuration.getRoot());
@@ -583,6 +590,83 @@ public class TableWriter implements Closeable {
         LOG.info().$("ADDED index to '").utf8(columnName).$('[').$(ColumnType.nameOf(existingType)).$("]' to ").$(path).$();
     }
 
+    /**
+     * Appends all rows of page frame cursor to this table, column by column. Cursor columns must be of
+     * the same types and in the same order as table columns and rows must be in ascending order of the
+     * designated timestamp, if the table has one. Columns are copied in parallel by {@link ColumnCopyJob},
+     * one task per column, while this thread copies the last column and steals outstanding tasks.
+     * <p>
+     * Rows are appended without committing. When rows of the cursor start before max timestamp of the table,
+     * nothing is appended and caller is expected to fall back to row-by-row append, which handles
+     * out-of-order data.
+     *
+     * @param cursor page frame cursor, its columns match table columns
+     * @return number of appended rows or -1 when rows cannot be appended in bulk
+     */
+    public long appendPageFrames(PageFrameCursor cursor) {
+        checkDistressed();
+        if (hasO3() || (masterRef & 1) != 0) {
+            // uncommitted out-of-order rows or a row that is being built
+            return -1;
+        }
+
+        for (int i = 0; i < columnCount; i++) {
+            if (ColumnType.isSymbol(metadata.getColumnType(i))) {
+                IntList keys = columnCopySymbolKeys.getQuiet(i);
+                if (keys == null) {
+                    keys = new IntList();
+                    columnCopySymbolKeys.extendAndSet(i, keys);
+                }
+                keys.setAll(cursor.getSymbolMapReader(i).size(), -1);
+            }
+        }
+
+        final int timestampIndex = metadata.getTimestampIndex();
+        long rowCount = 0;
+        PageFrame frame;
+        while ((frame = cursor.next()) != null) {
+            final long frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+            if (frameRowCount == 0) {
+                continue;
+            }
+
+            if (timestampIndex == -1) {
+                if (rowActon != ROW_ACTION_NO_TIMESTAMP) {
+                    // partition is yet to be opened, e.g. after truncate
+                    return -1;
+                }
+                appendPageFrameRows(frame, cursor, 0, frameRowCount);
+                txWriter.append(frameRowCount);
+            } else {
+                final long timestampAddress = frame.getPageAddress(timestampIndex);
+                long lo = 0;
+                while (lo < frameRowCount) {
+                    final long timestamp = Unsafe.getUnsafe().getLong(timestampAddress + lo * Long.BYTES);
+                    if (rowCount == 0 && lo == 0) {
+                        if (timestamp < Timestamps.O3_MIN_TS) {
+                            throw CairoException.instance(0).put("timestamp before 1970-01-01 is not allowed");
+                        }
+                        if (timestamp < txWriter.getMaxTimestamp()) {
+                            return -1;
+                        }
+                    }
+                    switchPartitionForAppend(timestamp);
+
+                    // split frame on partition boundary, rows of one partition are copied at a time
+                    final long hi = partitionBy == PartitionBy.NONE
+                            ? frameRowCount
+                            : Vect.boundedBinarySearch64Bit(timestampAddress, partitionTimestampHi, lo, frameRowCount - 1, BinarySearch.SCAN_DOWN) + 1;
+                    appendPageFrameRows(frame, cursor, lo, hi);
+                    txWriter.append(hi - lo);
+                    txWriter.updateMaxTimestamp(Unsafe.getUnsafe().getLong(timestampAddress + (hi - 1) * Long.BYTES));
+                    lo = hi;
+                }
+            }
+            rowCount += frameRowCount;
+        }
+        return rowCount;
+    }
+
     public int attachPartition(long timestamp) {
         // Partitioned table must have a timestamp
         // SQL compiler will check that table is partitioned
@@ -725,6 +809,52 @@ public class TableWriter implements Closeable {
         commit(commitMode, metadata.getCommitLag());
     }
 
+    /**
+     * Copies rows of one column of the page frame to the end of the same column of this table.
+     * Invoked by {@link io.questdb.tasks.ColumnCopyTask}, possibly on a worker thread. Errors are
+     * not thrown, they are reported to the thread that runs {@link #appendPageFrames(PageFrameCursor)}.
+     *
+     * @param columnIndex index of both page frame column and table column
+     * @param frame       page frame
+     * @param cursor      page frame cursor, provides symbol tables of the frame
+     * @param lo          first row of the frame to copy, inclusive
+     * @param hi          last row of the frame to copy, exclusive
+     */
+    public void copyPageFrameColumn(int columnIndex, PageFrame frame, PageFrameCursor cursor, long lo, long hi) {
+        try {
+            final long pageAddress = frame.getPageAddress(columnIndex);
+            if (pageAddress == 0) {
+                // column was added to the source after these rows were written
+                final Runnable nullSetter = nullSetters.getQuick(columnIndex);
+                for (long row = lo; row < hi; row++) {
+                    nullSetter.run();
+                }
+                return;
+            }
+
+            final int columnType = metadata.getColumnType(columnIndex);
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.STRING:
+                case ColumnType.BINARY:
+                    copyPageFrameVarColumn(columnIndex, frame, pageAddress, lo, hi);
+                    break;
+                case ColumnType.SYMBOL:
+                    copyPageFrameSymbolColumn(columnIndex, cursor.getSymbolMapReader(columnIndex), pageAddress, lo, hi);
+                    break;
+                default:
+                    final int shl = ColumnType.pow2SizeOf(columnType);
+                    getPrimaryColumn(columnIndex).putBlockOfBytes(pageAddress + (lo << shl), (hi - lo) << shl);
+                    break;
+            }
+        } catch (Throwable e) {
+            LOG.error().$("could not copy column [table=").$(tableName)
+                    .$(", column=").$(metadata.getColumnName(columnIndex))
+                    .$(", e=").$(e)
+                    .I$();
+            columnCopyError = e;
+        }
+    }
+
     public int getColumnIndex(CharSequence name) {
         int index = metadata.getColumnIndexQuiet(name);
         if (index > -1) {
@@ -1334,6 +1464,24 @@ public class TableWriter implements Closeable {
         }
     }
 
+    /**
+     * Starts write-back of column data appended in the current transaction without waiting for it to finish.
+     * Commit that follows still syncs columns, but it finds write-back already in flight. Calling this on
+     * several tables before committing them lets disk serve their writes together rather than one commit
+     * at a time. Out-of-order rows are not covered, they are written to partitions by the commit itself.
+     */
+    public void scheduleColumnSync() {
+        if (inTransaction()) {
+            for (int i = 0; i < columnCount; i++) {
+                columns.getQuick(getPrimaryColumnIndex(i)).sync(true);
+                final MemoryMAR m2 = columns.getQuick(getSecondaryColumnIndex(i));
+                if (m2 != null) {
+                    m2.sync(true);
+                }
+            }
+        }
+    }
+
     public void setLifecycleManager(LifecycleManager lifecycleManager) {
         this.lifecycleManager = lifecycleManager;
     }
@@ -1739,6 +1887,50 @@ public class TableWriter implements Closeable {
         return index;
     }
 
+    private void appendPageFrameRows(PageFrame frame, PageFrameCursor cursor, long lo, long hi) {
+        final RingQueue<ColumnCopyTask> queue = messageBus.getColumnCopyQueue();
+        final Sequence pubSeq = messageBus.getColumnCopyPubSeq();
+        final Sequence subSeq = messageBus.getColumnCopySubSeq();
+
+        columnCopyError = null;
+        columnCopyLatch.reset();
+        int queuedCount = 0;
+        // last column is copied by this thread while other columns are on the queue
+        for (int i = 0, n = columnCount - 1; i < n; i++) {
+            final long seq = pubSeq.next();
+            if (seq < 0) {
+                copyPageFrameColumn(i, frame, cursor, lo, hi);
+            } else {
+                queue.get(seq).of(this, i, frame, cursor, lo, hi, columnCopyLatch);
+                pubSeq.done(seq);
+                queuedCount++;
+            }
+        }
+        copyPageFrameColumn(columnCount - 1, frame, cursor, lo, hi);
+
+        // process outstanding tasks while waiting for workers
+        while (columnCopyLatch.getCount() > -queuedCount) {
+            final long seq = subSeq.next();
+            if (seq > -1) {
+                queue.get(seq).run();
+                subSeq.done(seq);
+            }
+        }
+        columnCopyLatch.await(queuedCount);
+
+        final Throwable error = columnCopyError;
+        if (error != null) {
+            columnCopyError = null;
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+            throw new CairoError(error);
+        }
+    }
+
     private void bumpMasterRef() {
         if ((masterRef & 1) == 0) {
             masterRef++;
@@ -2014,6 +2206,53 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void copyPageFrameSymbolColumn(int columnIndex, SymbolMapReader symbolMapReader, long pageAddress, long lo, long hi) {
+        // symbol keys of the source are translated to keys of this table, each distinct key is looked up once
+        final MemoryA primary = getPrimaryColumn(columnIndex);
+        final SymbolMapWriter symbolMapWriter = symbolMapWriters.getQuick(columnIndex);
+        final IntList keys = columnCopySymbolKeys.getQuick(columnIndex);
+        for (long row = lo; row < hi; row++) {
+            final int key = Unsafe.getUnsafe().getInt(pageAddress + row * Integer.BYTES);
+            if (key < 0) {
+                primary.putInt(symbolMapWriter.put(null));
+                continue;
+            }
+            int writerKey = keys.getQuiet(key);
+            if (writerKey == -1) {
+                writerKey = symbolMapWriter.put(symbolMapReader.valueOf(key));
+                if (key < keys.size()) {
+                    keys.setQuick(key, writerKey);
+                }
+            }
+            primary.putInt(writerKey);
+        }
+    }
+
+    private void copyPageFrameVarColumn(int columnIndex, PageFrame frame, long pageAddress, long lo, long hi) {
+        // frame index holds offsets of row values in the source column file, there is an offset
+        // past the last row of the frame, which is where the next row would have started
+        final long indexAddress = frame.getIndexPageAddress(columnIndex);
+        final long frameOffset = Unsafe.getUnsafe().getLong(indexAddress);
+        final long srcLo = Unsafe.getUnsafe().getLong(indexAddress + lo * Long.BYTES);
+        final long srcHi = Unsafe.getUnsafe().getLong(indexAddress + hi * Long.BYTES);
+
+        final MemoryMAR primary = getPrimaryColumn(columnIndex);
+        final MemoryMAR secondary = getSecondaryColumn(columnIndex);
+        final long shift = srcLo - primary.getAppendOffset();
+        primary.putBlockOfBytes(pageAddress + srcLo - frameOffset, srcHi - srcLo);
+
+        // our index already has offset of the first row, append offsets of subsequent rows
+        final long indexSize = (hi - lo) * Long.BYTES;
+        if (secondary.getAppendAddressSize() > indexSize) {
+            Vect.shiftCopyFixedSizeColumnData(shift, indexAddress, lo + 1, hi, secondary.getAppendAddress());
+            secondary.skip(indexSize);
+        } else {
+            for (long row = lo + 1; row <= hi; row++) {
+                secondary.putLong(Unsafe.getUnsafe().getLong(indexAddress + row * Long.BYTES) - shift);
+            }
+        }
+    }
+
     private int copyMetadataAndSetIndexed(int columnIndex, int indexValueBlockSize) {
         try {
             int index = openMetaSwapFile(ff, ddlMem, path, rootLen, configuration.getMaxSwapFileCount());
@@ -4633,15 +4872,83 @@ public class TableWriter implements Closeable {
         setAppendPosition(0, false);
     }
 
+    private void switchPartitionForAppend(long timestamp) {
+        // same partition transitions as newRow() makes for the first row of the batch
+        if (rowActon == ROW_ACTION_OPEN_PARTITION) {
+            if (txWriter.getMaxTimestamp() == Long.MIN_VALUE) {
+                txWriter.setMinTimestamp(timestamp);
+                openFirstPartition(timestamp);
+            }
+            rowActon = ROW_ACTION_SWITCH_PARTITION;
+        }
+        if (rowActon == ROW_ACTION_SWITCH_PARTITION && timestamp > partitionTimestampHi && partitionBy != PartitionBy.NONE) {
+            switchPartition(timestamp);
+        }
+    }
+
+    private void syncColumn(int columnIndex, int columnType, long async, long ignore) {
+        columns.getQuick(getPrimaryColumnIndex(columnIndex)).sync(async == 1);
+        final MemoryMAR m2 = columns.getQuick(getSecondaryColumnIndex(columnIndex));
+        if (m2 != null) {
+            m2.sync(false);
+        }
+    }
+
     private void syncColumns(int commitMode) {
-        final boolean async = commitMode == CommitMode.ASYNC;
+        final long async = commitMode == CommitMode.ASYNC ? 1 : 0;
+        if (async == 1 || columnCount < 2) {
+            // async msync only schedules the write-back, it is not worth the queue round trip
+            for (int i = 0; i < columnCount; i++) {
+                syncColumn(i, metadata.getColumnType(i), async, 0);
+            }
+            return;
+        }
+
+        // synchronous msync blocks on disk, fan columns out to O3 callback workers
+        // so that a wide table syncs its columns in parallel
+        o3PendingCallbackTasks.clear();
+
+        final Sequence pubSeq = this.messageBus.getO3CallbackPubSeq();
+        final RingQueue<O3CallbackTask> queue = this.messageBus.getO3CallbackQueue();
+
+        o3DoneLatch.reset();
+        int queuedCount = 0;
         for (int i = 0; i < columnCount; i++) {
-            columns.getQuick(i * 2).sync(async);
-            final MemoryMAR m2 = columns.getQuick(i * 2 + 1);
-            if (m2 != null) {
-                m2.sync(false);
+            final int type = metadata.getColumnType(i);
+            long cursor = pubSeq.next();
+            if (cursor > -1) {
+                try {
+                    final O3CallbackTask task = queue.get(cursor);
+                    task.of(
+                            o3DoneLatch,
+                            i,
+                            type,
+                            async,
+                            0,
+                            syncColumnRef
+                    );
+                    o3PendingCallbackTasks.add(task);
+                } finally {
+                    queuedCount++;
+                    pubSeq.done(cursor);
+                }
+            } else {
+                syncColumn(i, type, async, 0);
+            }
+        }
+
+        for (int n = o3PendingCallbackTasks.size() - 1; n > -1; n--) {
+            final O3CallbackTask task = o3PendingCallbackTasks.getQuick(n);
+            if (task.tryLock()) {
+                O3CallbackJob.runCallbackWithCol(
+                        task,
+                        -1,
+                        null
+                );
             }
         }
+
+        o3DoneLatch.await(queuedCount);
     }
 
     private void throwDistressException(Throwable cause) {
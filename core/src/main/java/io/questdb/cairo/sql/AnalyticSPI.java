@@ -26,4 +26,14 @@ package io.questdb.cairo.sql;
 
 public interface AnalyticSPI {
     long getAddress(long recordAddress, int columnIndex);
+
+    /**
+     * Positions secondary record at the given offset. Returned instance is distinct from
+     * the record analytic function receives in pass1, which allows functions to compare
+     * current row with rows they have seen before.
+     *
+     * @param recordOffset offset of the record as passed to pass1
+     * @return record instance, it is reused by subsequent calls
+     */
+    Record getRecordAt(long recordOffset);
 }
@@ -24,6 +24,8 @@
 
 package io.questdb.cairo.sql;
 
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.Sinkable;
@@ -34,10 +36,23 @@ import java.io.Closeable;
 /**
  * A factory interface for dataframe cursors
  */
-public interface DataFrameCursorFactory extends Sinkable, Closeable {
+public interface DataFrameCursorFactory extends Sinkable, Closeable, Plannable {
+    int ORDER_ASC = 0;
+    int ORDER_DESC = 1;
 
     DataFrameCursor getCursor(SqlExecutionContext executionContext) throws SqlException;
 
+    /**
+     * @return ORDER_ASC when data frames and rows within them are in ascending timestamp order,
+     * ORDER_DESC otherwise
+     */
+    int getOrder();
+
+    @Override
+    default void toPlan(PlanSink sink) {
+        sink.type(this);
+    }
+
     /**
      * @param sink to print data frame cursor to
      */
@@ -24,6 +24,8 @@
 
 package io.questdb.cairo.sql;
 
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.Sinkable;
@@ -53,7 +55,7 @@ import java.io.Closeable;
  * }
  *
  */
-public interface RecordCursorFactory extends Closeable, Sinkable {
+public interface RecordCursorFactory extends Closeable, Sinkable, Plannable {
     @Override
     default void close() {
     }
@@ -91,6 +93,17 @@ public interface RecordCursorFactory extends Closeable, Sinkable {
         return false;
     }
 
+    /**
+     * Describes this factory to EXPLAIN. Factories that wrap other factories must override this
+     * method to add their children to the plan, otherwise the plan stops at this node.
+     *
+     * @param sink plan sink
+     */
+    @Override
+    default void toPlan(PlanSink sink) {
+        sink.type(this);
+    }
+
     default void toSink(CharSink sink) {
         throw new UnsupportedOperationException();
     }
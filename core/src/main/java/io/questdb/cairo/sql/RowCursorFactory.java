@@ -25,11 +25,13 @@
 package io.questdb.cairo.sql;
 
 import io.questdb.cairo.TableReader;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.ObjList;
 
-public interface RowCursorFactory {
+public interface RowCursorFactory extends Plannable {
     static void prepareCursor(
             ObjList<? extends RowCursorFactory> factories,
             TableReader tableReader,
@@ -46,4 +48,9 @@ public interface RowCursorFactory {
     }
 
     boolean isEntity();
+
+    @Override
+    default void toPlan(PlanSink sink) {
+        sink.type(this);
+    }
 }
@@ -151,16 +151,6 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
         return jsonQueryProcessorConfiguration;
     }
 
-    @Override
-    public int getQueryCacheBlocks() {
-        return 16;
-    }
-
-    @Override
-    public int getQueryCacheRows() {
-        return 32;
-    }
-
     @Override
     public WaitProcessorConfiguration getWaitProcessorConfiguration() {
         return new WaitProcessorConfiguration() {
@@ -62,6 +62,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     private final NanosecondClock nanosecondClock;
     private final HttpSqlExecutionInterruptor interruptor;
     private final Metrics metrics;
+    private final QueryPlanCache queryPlanCache;
 
     public JsonQueryProcessor(
             JsonQueryProcessorConfiguration configuration,
@@ -105,10 +106,12 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         this.queryExecutors.extendAndSet(CompiledQuery.INSERT_AS_SELECT, sendConfirmation);
         this.queryExecutors.extendAndSet(CompiledQuery.COPY_REMOTE, JsonQueryProcessor::cannotCopyRemote);
         this.queryExecutors.extendAndSet(CompiledQuery.BACKUP_TABLE, sendConfirmation);
+        this.queryExecutors.extendAndSet(CompiledQuery.ANALYZE, sendConfirmation);
         this.sqlExecutionContext = new SqlExecutionContextImpl(engine, workerCount);
         this.nanosecondClock = engine.getConfiguration().getNanosecondClock();
         this.interruptor = new HttpSqlExecutionInterruptor(configuration.getInterruptorConfiguration());
         this.metrics = metrics;
+        this.queryPlanCache = engine.getQueryPlanCache();
     }
 
     @Override
@@ -126,8 +129,8 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         // the only time we need to copy random from state is when we resume request execution
         sqlExecutionContext.with(context.getCairoSecurityContext(), null, null, context.getFd(), interruptor.of(context.getFd()));
         state.info().$("exec [q='").utf8(state.getQuery()).$("']").$();
-        final RecordCursorFactory factory = QueryCache.getInstance().poll(state.getQuery());
         try {
+            final RecordCursorFactory factory = queryPlanCache.poll(state.getQuery(), null);
             if (factory != null) {
                 try {
                     sqlExecutionContext.storeTelemetry(CompiledQuery.SELECT, Telemetry.ORIGIN_HTTP_JSON);
@@ -138,6 +141,8 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
                 } catch (ReaderOutOfDateException e) {
                     LOG.info().$(e.getFlyweightMessage()).$();
                     Misc.free(factory);
+                    // idle siblings of this factory are out of date too
+                    queryPlanCache.remove(state.getQuery());
                     compileQuery(state);
                 }
             } else {
@@ -171,6 +176,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             LV.set(context, state = new JsonQueryProcessorState(
                     context,
                     nanosecondClock,
+                    queryPlanCache,
                     configuration.getFloatScale(),
                     configuration.getDoubleScale()
             ));
@@ -35,6 +35,7 @@ import io.questdb.cutlass.http.HttpConnectionContext;
 import io.questdb.cutlass.http.HttpRequestHeader;
 import io.questdb.cutlass.text.TextUtil;
 import io.questdb.cutlass.text.Utf8Exception;
+import io.questdb.griffin.QueryPlanCache;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContextImpl;
 import io.questdb.log.Log;
@@ -68,6 +69,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private final HttpConnectionContext httpConnectionContext;
     private final IntList columnSkewList = new IntList();
     private final NanosecondClock nanosecondClock;
+    private final QueryPlanCache queryPlanCache;
     private final int floatScale;
     private final int doubleScale;
     private Rnd rnd;
@@ -91,6 +93,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     public JsonQueryProcessorState(
             HttpConnectionContext httpConnectionContext,
             NanosecondClock nanosecondClock,
+            QueryPlanCache queryPlanCache,
             int floatScale,
             int doubleScale
     ) {
@@ -105,6 +108,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         resumeActions.extendAndSet(QUERY_SUFFIX, this::doQuerySuffix);
 
         this.nanosecondClock = nanosecondClock;
+        this.queryPlanCache = queryPlanCache;
         this.floatScale = floatScale;
         this.doubleScale = doubleScale;
     }
@@ -119,7 +123,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         record = null;
         if (null != recordCursorFactory) {
             if (queryCacheable) {
-                QueryCache.getInstance().push(query, recordCursorFactory);
+                queryPlanCache.push(query, recordCursorFactory, null);
             } else {
                 recordCursorFactory.close();
             }
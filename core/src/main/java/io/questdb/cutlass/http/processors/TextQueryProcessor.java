@@ -67,6 +67,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
     private final MillisecondClock clock;
     private final int doubleScale;
     private final HttpSqlExecutionInterruptor interruptor;
+    private final QueryPlanCache queryPlanCache;
 
     public TextQueryProcessor(
             JsonQueryProcessorConfiguration configuration,
@@ -89,6 +90,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         this.sqlExecutionContext = new SqlExecutionContextImpl(engine, workerCount);
         this.doubleScale = configuration.getDoubleScale();
         this.interruptor = new HttpSqlExecutionInterruptor(configuration.getInterruptorConfiguration());
+        this.queryPlanCache = engine.getQueryPlanCache();
     }
 
     @Override
@@ -102,7 +104,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
             TextQueryProcessorState state
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         try {
-            state.recordCursorFactory = QueryCache.getInstance().poll(state.query);
+            state.recordCursorFactory = queryPlanCache.poll(state.query, null);
             state.setQueryCacheable(true);
             sqlExecutionContext.with(context.getCairoSecurityContext(), null, null, context.getFd(), interruptor.of(context.getFd()));
             if (state.recordCursorFactory == null) {
@@ -133,6 +135,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                         } catch (ReaderOutOfDateException e) {
                             info(state).$(e.getFlyweightMessage()).$();
                             state.recordCursorFactory = Misc.free(state.recordCursorFactory);
+                            queryPlanCache.remove(state.query);
                             final CompiledQuery cc = compiler.compile(state.query, sqlExecutionContext);
                             state.recordCursorFactory = cc.getRecordCursorFactory();
                         }
@@ -166,7 +169,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         TextQueryProcessorState state = LV.get(context);
         if (state == null) {
-            LV.set(context, state = new TextQueryProcessorState(context));
+            LV.set(context, state = new TextQueryProcessorState(context, queryPlanCache));
         }
         // new request clears random
         state.rnd = null;
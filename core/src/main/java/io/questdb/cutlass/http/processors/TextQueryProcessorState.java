@@ -29,6 +29,7 @@ import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.cutlass.http.HttpConnectionContext;
+import io.questdb.griffin.QueryPlanCache;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
 import io.questdb.std.Rnd;
@@ -39,6 +40,7 @@ import java.io.Closeable;
 public class TextQueryProcessorState implements Mutable, Closeable {
     final StringSink query = new StringSink();
     private final HttpConnectionContext httpConnectionContext;
+    private final QueryPlanCache queryPlanCache;
     boolean countRows = false;
     boolean noMeta = false;
     RecordCursorFactory recordCursorFactory;
@@ -54,8 +56,9 @@ public class TextQueryProcessorState implements Mutable, Closeable {
     private boolean queryCacheable = false;
     String fileName;
 
-    public TextQueryProcessorState(HttpConnectionContext httpConnectionContext) {
+    public TextQueryProcessorState(HttpConnectionContext httpConnectionContext, QueryPlanCache queryPlanCache) {
         this.httpConnectionContext = httpConnectionContext;
+        this.queryPlanCache = queryPlanCache;
     }
 
     @Override
@@ -65,7 +68,7 @@ public class TextQueryProcessorState implements Mutable, Closeable {
         record = null;
         if (null != recordCursorFactory) {
             if (queryCacheable) {
-                QueryCache.getInstance().push(query, recordCursorFactory);
+                queryPlanCache.push(query, recordCursorFactory, null);
             } else {
                 recordCursorFactory.close();
             }
@@ -0,0 +1,632 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.network.NetworkError;
+import io.questdb.network.NetworkFacade;
+import io.questdb.network.NetworkFacadeImpl;
+import io.questdb.std.*;
+import io.questdb.std.str.AbstractCharSink;
+import io.questdb.std.str.CharSink;
+
+import java.io.Closeable;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ILP client that keeps the producer off the socket. Rows are written into one of several buffers
+ * while a background thread sends the buffers filled earlier, producer only waits when all buffers
+ * are in flight. Buffers are spread over a pool of connections round-robin, rows sent on different
+ * connections can be committed in any order.
+ * <p>
+ * With acknowledgements enabled (server must have line.tcp.ack.enabled set) a buffer is kept until
+ * the server acknowledges all of its lines. When a connection drops the sender reconnects and replays
+ * buffers that are not acknowledged, lines can therefore be delivered more than once. Without
+ * acknowledgements a buffer is recycled as soon as it is written to the socket and only the buffer
+ * that failed to send is replayed.
+ * <p>
+ * The send thread owns the sockets: it writes buffers, drains acknowledgements and reconnects in one loop
+ * without blocking on any of the sockets. Producer parks while it waits for a buffer and the send thread
+ * unparks it when it releases one.
+ * <p>
+ * The row API mirrors {@link LineTcpSender} and does not allocate. Rows must be produced by a single thread.
+ */
+public class LineTcpAsyncSender extends AbstractCharSink implements Closeable {
+    private static final Log LOG = LogFactory.getLog(LineTcpAsyncSender.class);
+    private static final long RECONNECT_INTERVAL_NANOS = 50_000_000;
+    // how long send thread waits before it tries the sockets again when they cannot make progress
+    private static final long IO_RETRY_NANOS = 1_000_000;
+    private final NetworkFacade nf;
+    private final int capacity;
+    private final boolean ackEnabled;
+    private final long reconnectTimeoutMillis;
+    private final long sockaddr;
+    private final ObjList<Buffer> buffers = new ObjList<>();
+    private final ObjList<Connection> connections = new ObjList<>();
+    private final SOCountDownLatch halted = new SOCountDownLatch(1);
+    private final Thread sendThread;
+    // buffers handed over to the send thread, written by producer only
+    private volatile long publishedCount;
+    // buffers the send thread is done with, written by send thread only
+    private volatile long releasedCount;
+    private volatile boolean running = true;
+    private volatile String failure;
+    // producer thread parked in wait for the send thread to release a buffer
+    private volatile Thread waiter;
+    // send thread state
+    private long sentCount;
+    // producer state
+    private Buffer buffer;
+    private long lo;
+    private long hi;
+    private long ptr;
+    private long lineStart;
+    private boolean hasMetric = false;
+    private boolean noFields = true;
+    private boolean quoted = false;
+
+    public LineTcpAsyncSender(int sendToIPv4Address, int sendToPort, int bufferCapacity) {
+        this(NetworkFacadeImpl.INSTANCE, sendToIPv4Address, sendToPort, bufferCapacity, 2, 1, false, 10_000);
+    }
+
+    /**
+     * @param bufferCount            number of buffers, at least 2; with acknowledgements enabled this
+     *                               bounds the data in flight to bufferCount * bufferCapacity bytes
+     * @param connectionCount        number of connections buffers are sent on round-robin
+     * @param ackEnabled             keep buffers until the server acknowledges their lines
+     * @param reconnectTimeoutMillis how long the send thread retries to reconnect before it gives up,
+     *                               after that the producer gets {@link NetworkError} on the next flush
+     */
+    public LineTcpAsyncSender(
+            NetworkFacade nf,
+            int sendToIPv4Address,
+            int sendToPort,
+            int bufferCapacity,
+            int bufferCount,
+            int connectionCount,
+            boolean ackEnabled,
+            long reconnectTimeoutMillis
+    ) {
+        assert bufferCount > 1 && connectionCount > 0;
+        this.nf = nf;
+        this.capacity = bufferCapacity;
+        this.ackEnabled = ackEnabled;
+        this.reconnectTimeoutMillis = reconnectTimeoutMillis;
+        this.sockaddr = nf.sockaddr(sendToIPv4Address, sendToPort);
+        for (int i = 0; i < bufferCount; i++) {
+            buffers.add(new Buffer(Unsafe.malloc(capacity, MemoryTag.NATIVE_DEFAULT)));
+        }
+        try {
+            for (int i = 0; i < connectionCount; i++) {
+                final Connection connection = new Connection();
+                connections.add(connection);
+                connection.connect();
+            }
+        } catch (Throwable e) {
+            free();
+            throw e;
+        }
+        of(buffers.getQuick(0));
+
+        sendThread = new Thread(this::runSerially, "ilp-async-sender");
+        sendThread.setDaemon(true);
+        sendThread.start();
+    }
+
+    public void $(long timestamp) {
+        put(' ').put(timestamp);
+        $();
+    }
+
+    public void $() {
+        put('\n');
+        buffer.lineCount++;
+        lineStart = ptr;
+        hasMetric = false;
+        noFields = true;
+    }
+
+    /**
+     * Hands over complete rows to the send thread and waits for it to finish. Data in flight is lost
+     * unless {@link #flushAndWait(long)} is called first. Send thread that is reconnecting gives up
+     * straight away.
+     */
+    @Override
+    public void close() {
+        if (running) {
+            if (lineStart > lo && failure == null) {
+                publish();
+            }
+            running = false;
+            LockSupport.unpark(sendThread);
+            halted.await();
+            free();
+        }
+    }
+
+    public LineTcpAsyncSender field(CharSequence name, long value) {
+        field(name).put(value).put('i');
+        return this;
+    }
+
+    public LineTcpAsyncSender field(CharSequence name, CharSequence value) {
+        field(name).put('"');
+        quoted = true;
+        encodeUtf8(value);
+        quoted = false;
+        put('"');
+        return this;
+    }
+
+    public LineTcpAsyncSender field(CharSequence name, double value) {
+        field(name).put(value);
+        return this;
+    }
+
+    public LineTcpAsyncSender field(CharSequence name, boolean value) {
+        field(name).put(value ? 't' : 'f');
+        return this;
+    }
+
+    /**
+     * Hands over complete rows to the send thread. Returns as soon as there is a free buffer to
+     * continue with, sending happens in the background.
+     */
+    @Override
+    public void flush() {
+        if (lineStart > lo) {
+            handOver();
+        }
+    }
+
+    /**
+     * Hands over complete rows and waits for the send thread to be done with all buffers. With
+     * acknowledgements enabled this means that all rows are committed, otherwise that they are
+     * written to the socket.
+     *
+     * @param timeoutMillis maximum time to wait
+     * @return true when all buffers are done, false on timeout
+     */
+    public boolean flushAndWait(long timeoutMillis) {
+        flush();
+        final long target = publishedCount;
+        final long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+        waiter = Thread.currentThread();
+        try {
+            while (releasedCount < target) {
+                checkFailure();
+                final long nanos = deadline - System.nanoTime();
+                if (nanos <= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, nanos);
+            }
+        } finally {
+            waiter = null;
+        }
+        return true;
+    }
+
+    public LineTcpAsyncSender metric(CharSequence metric) {
+        if (hasMetric) {
+            throw CairoException.instance(0).put("duplicate metric");
+        }
+        quoted = false;
+        hasMetric = true;
+        encodeUtf8(metric);
+        return this;
+    }
+
+    @Override
+    public LineTcpAsyncSender put(CharSequence cs) {
+        final int len = cs.length();
+        if (ptr + len <= hi) {
+            Chars.asciiStrCpy(cs, len, ptr);
+            ptr += len;
+        } else {
+            for (int i = 0; i < len; i++) {
+                put(cs.charAt(i));
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public LineTcpAsyncSender put(char c) {
+        if (ptr == hi) {
+            if (lineStart == lo) {
+                throw NetworkError.instance(0).put("line too long");
+            }
+            handOver();
+        }
+        Unsafe.getUnsafe().putByte(ptr++, (byte) c);
+        return this;
+    }
+
+    @Override
+    public void putUtf8Special(char c) {
+        switch (c) {
+            case ' ':
+            case ',':
+            case '=':
+                if (!quoted) {
+                    put('\\');
+                }
+            default:
+                put(c);
+                break;
+            case '\n':
+            case '\r':
+                put('\\').put(c);
+                break;
+            case '"':
+                if (quoted) {
+                    put('\\');
+                }
+                put(c);
+                break;
+            case '\\':
+                put('\\').put('\\');
+                break;
+        }
+    }
+
+    public LineTcpAsyncSender tag(CharSequence tag, CharSequence value) {
+        if (hasMetric) {
+            put(',').encodeUtf8(tag).put('=').encodeUtf8(value);
+            return this;
+        }
+        throw CairoException.instance(0).put("metric expected");
+    }
+
+    /**
+     * Adds timestamp column value in microseconds, it is not the designated timestamp of the row.
+     */
+    public LineTcpAsyncSender timestampField(CharSequence name, long micros) {
+        field(name).put(micros).put('t');
+        return this;
+    }
+
+    private void awaitBuffer(long seq) {
+        if (seq - releasedCount >= buffers.size()) {
+            // waiter is set before the count is checked again, send thread either sees it or
+            // has released the buffer by the time producer checks
+            waiter = Thread.currentThread();
+            try {
+                while (seq - releasedCount >= buffers.size()) {
+                    checkFailure();
+                    LockSupport.park(this);
+                }
+            } finally {
+                waiter = null;
+            }
+        }
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw NetworkError.instance(0).put(failure);
+        }
+    }
+
+    private CharSink field(CharSequence name) {
+        if (hasMetric) {
+            if (noFields) {
+                put(' ');
+                noFields = false;
+            } else {
+                put(',');
+            }
+            return encodeUtf8(name).put('=');
+        }
+        throw CairoException.instance(0).put("metric expected");
+    }
+
+    private void free() {
+        for (int i = 0, n = connections.size(); i < n; i++) {
+            connections.getQuick(i).close();
+        }
+        for (int i = 0, n = buffers.size(); i < n; i++) {
+            Unsafe.free(buffers.getQuick(i).address, capacity, MemoryTag.NATIVE_DEFAULT);
+        }
+        buffers.clear();
+        nf.freeSockAddr(sockaddr);
+    }
+
+    private Buffer getBuffer(long seq) {
+        return buffers.getQuick((int) (seq % buffers.size()));
+    }
+
+    private void handOver() {
+        final long rowLo = lineStart;
+        final long rowLen = ptr - lineStart;
+        publish();
+        // partial row moves to the next buffer, send thread does not read past the complete rows
+        final long seq = publishedCount;
+        awaitBuffer(seq);
+        of(getBuffer(seq));
+        Vect.memcpy(lo, rowLo, rowLen);
+        ptr = lo + rowLen;
+    }
+
+    private void of(Buffer buffer) {
+        this.buffer = buffer;
+        buffer.lineCount = 0;
+        lo = buffer.address;
+        hi = lo + capacity;
+        ptr = lineStart = lo;
+    }
+
+    private void publish() {
+        buffer.size = (int) (lineStart - lo);
+        publishedCount++;
+        LockSupport.unpark(sendThread);
+    }
+
+    private boolean pumpConnections() {
+        boolean useful = false;
+        for (int i = 0, n = connections.size(); i < n; i++) {
+            final Connection connection = connections.getQuick(i);
+            try {
+                useful |= connection.send();
+                useful |= connection.receiveAck();
+            } catch (NetworkError e) {
+                reconnect(connection, e);
+                useful = true;
+            }
+        }
+        return useful;
+    }
+
+    private void reconnect(Connection connection, NetworkError e) {
+        LOG.info().$("connection lost, reconnecting [fd=").$(connection.fd).$(", msg=").$(e.getFlyweightMessage()).I$();
+        // buffers the old connection acknowledged are delivered, the rest are replayed in the same order
+        for (long seq = releasedCount; seq < sentCount; seq++) {
+            final Buffer b = getBuffer(seq);
+            if (b.connection == connection && connection.ackedLineCount >= b.lineEnd) {
+                b.connection = null;
+            }
+        }
+
+        final long deadline = System.currentTimeMillis() + reconnectTimeoutMillis;
+        while (true) {
+            connection.close();
+            try {
+                connection.connect();
+                break;
+            } catch (NetworkError retry) {
+                if (!running) {
+                    throw NetworkError.instance(0).put("sender is closed while reconnecting");
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    throw retry;
+                }
+                // close() unparks the thread
+                LockSupport.parkNanos(this, RECONNECT_INTERVAL_NANOS);
+            }
+        }
+
+        for (long seq = releasedCount; seq < sentCount; seq++) {
+            final Buffer b = getBuffer(seq);
+            if (b.connection == connection) {
+                connection.enqueue(b);
+            }
+        }
+        LOG.info().$("reconnected [fd=").$(connection.fd).I$();
+    }
+
+    private void release() {
+        long released = releasedCount;
+        while (released < sentCount) {
+            final Buffer b = getBuffer(released);
+            if (b.connection != null && b.connection.ackedLineCount < b.lineEnd) {
+                break;
+            }
+            released++;
+        }
+        if (released > releasedCount) {
+            releasedCount = released;
+            final Thread w = waiter;
+            if (w != null) {
+                LockSupport.unpark(w);
+            }
+        }
+    }
+
+    private void runSerially() {
+        try {
+            while (true) {
+                boolean useful = sendNext();
+                useful |= pumpConnections();
+                release();
+                if (!useful) {
+                    if (sentCount == publishedCount) {
+                        if (!running && isDone()) {
+                            break;
+                        }
+                        if (releasedCount == sentCount) {
+                            // nothing in flight, producer or close() unparks the thread
+                            LockSupport.park(this);
+                            continue;
+                        }
+                    }
+                    LockSupport.parkNanos(this, IO_RETRY_NANOS);
+                }
+            }
+        } catch (NetworkError e) {
+            LOG.error().$("could not send [msg=").$(e.getFlyweightMessage()).I$();
+            failure = e.getMessage();
+        } catch (Throwable e) {
+            LOG.error().$("could not send [ex=").$(e).I$();
+            failure = String.valueOf(e.getMessage());
+        } finally {
+            final Thread w = waiter;
+            if (w != null) {
+                LockSupport.unpark(w);
+            }
+            halted.countDown();
+        }
+    }
+
+    private boolean isDone() {
+        for (int i = 0, n = connections.size(); i < n; i++) {
+            if (connections.getQuick(i).queue.size() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean sendNext() {
+        if (sentCount < publishedCount) {
+            final Buffer b = getBuffer(sentCount);
+            final Connection connection = connections.getQuick((int) (sentCount % connections.size()));
+            b.connection = connection;
+            sentCount++;
+            connection.enqueue(b);
+            return true;
+        }
+        return false;
+    }
+
+    private static class Buffer {
+        private final long address;
+        private int size;
+        private long lineCount;
+        // connection the buffer was last sent on, null once the buffer is known to be delivered
+        private Connection connection;
+        // line count of the connection at which the buffer is fully acknowledged
+        private long lineEnd;
+
+        private Buffer(long address) {
+            this.address = address;
+        }
+    }
+
+    private class Connection {
+        // buffers to be written to the socket in order, the first one can be partially written
+        private final ObjList<Buffer> queue = new ObjList<>();
+        private long fd = -1;
+        private long ackBuf;
+        private int ackBufPos;
+        // lines sent and acknowledged on the current socket, server counts lines per connection
+        private long lineCount;
+        private long ackedLineCount;
+        private int queueHead;
+        private int sendOffset;
+
+        private void close() {
+            if (fd != -1) {
+                nf.close(fd, LOG);
+                fd = -1;
+            }
+            if (ackBuf != 0) {
+                Unsafe.free(ackBuf, Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+                ackBuf = 0;
+            }
+            queue.clear();
+            queueHead = 0;
+            sendOffset = 0;
+        }
+
+        private void connect() {
+            fd = nf.socketTcp(true);
+            if (fd < 0) {
+                throw NetworkError.instance(nf.errno()).put("could not create socket");
+            }
+            if (nf.connect(fd, sockaddr) != 0) {
+                final int errno = nf.errno();
+                nf.close(fd, LOG);
+                fd = -1;
+                throw NetworkError.instance(errno).put("could not connect");
+            }
+            nf.setSndBuf(fd, 2 * capacity);
+            if (nf.configureNonBlocking(fd) < 0) {
+                throw NetworkError.instance(nf.errno()).put("could not configure non-blocking socket");
+            }
+            ackBuf = Unsafe.malloc(Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+            ackBufPos = 0;
+            lineCount = ackedLineCount = 0;
+        }
+
+        private void enqueue(Buffer b) {
+            lineCount += b.lineCount;
+            b.lineEnd = lineCount;
+            queue.add(b);
+        }
+
+        private boolean receiveAck() {
+            final int n = nf.recv(fd, ackBuf + ackBufPos, Long.BYTES - ackBufPos);
+            if (n < 0) {
+                throw NetworkError.instance(nf.errno()).put("peer disconnected");
+            }
+            ackBufPos += n;
+            if (ackBufPos == Long.BYTES) {
+                if (ackEnabled) {
+                    ackedLineCount = Unsafe.getUnsafe().getLong(ackBuf);
+                }
+                ackBufPos = 0;
+                return true;
+            }
+            return n > 0;
+        }
+
+        /**
+         * Writes queued buffers until the socket would block. State is updated only after successful
+         * writes, connection that fails can be reconnected and its buffers replayed from the start.
+         */
+        private boolean send() {
+            boolean useful = false;
+            while (queueHead < queue.size()) {
+                final Buffer b = queue.getQuick(queueHead);
+                final int n = nf.send(fd, b.address + sendOffset, b.size - sendOffset);
+                if (n < 0) {
+                    throw NetworkError.instance(nf.errno()).put("send error");
+                }
+                if (n == 0) {
+                    break;
+                }
+                useful = true;
+                sendOffset += n;
+                if (sendOffset == b.size) {
+                    sendOffset = 0;
+                    queueHead++;
+                    if (!ackEnabled) {
+                        ackedLineCount = b.lineEnd;
+                    }
+                }
+            }
+            if (queueHead == queue.size() && queueHead > 0) {
+                queue.clear();
+                queueHead = 0;
+            }
+            return useful;
+        }
+    }
+}
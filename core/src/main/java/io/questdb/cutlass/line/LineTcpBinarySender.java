@@ -0,0 +1,343 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cutlass.line.tcp.LineTcpBinaryParser;
+import io.questdb.cutlass.line.tcp.LineTcpParser;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.network.NetworkError;
+import io.questdb.network.NetworkFacade;
+import io.questdb.network.NetworkFacadeImpl;
+import io.questdb.std.*;
+import io.questdb.std.str.AbstractCharSink;
+import io.questdb.std.str.CharSink;
+
+import java.io.Closeable;
+
+/**
+ * Client of the binary line protocol, see {@link LineTcpBinaryParser} for the wire format. The API
+ * mirrors {@link LineTcpSender}. Table and column names are sent once per connection, consecutive
+ * rows of the same table and column list are sent as a single batch.
+ */
+public class LineTcpBinarySender extends AbstractCharSink implements Closeable {
+    private static final Log LOG = LogFactory.getLog(LineTcpBinarySender.class);
+    private static final int MAX_NAME_LEN = Short.MAX_VALUE / 3;
+    private final NetworkFacade nf;
+    private final int capacity;
+    private final long sockaddr;
+    private final long fd;
+    private final long bufLo;
+    private final long bufHi;
+    private final long rowLo;
+    private final long rowHi;
+    private final CharSequenceIntHashMap tableIds = new CharSequenceIntHashMap();
+    private final ObjList<CharSequenceIntHashMap> columnIdsByTable = new ObjList<>();
+    private final ObjList<IntList> columnTypesByTable = new ObjList<>();
+    // number of columns of each table the receiver knows about, -1 when the table is not defined yet
+    private final IntList definedColumnCounts = new IntList();
+    private final IntList rowColumnIds = new IntList();
+    private final IntList batchColumnIds = new IntList();
+    private long bufPos;
+    private long rowPos;
+    // where put(char) writes UTF8 bytes to, either the row or the send buffer
+    private long ptr;
+    private long hi;
+    private int rowTableId = -1;
+    private int batchTableId = -1;
+    private long batchRowCountAddress;
+    private int batchRowCount;
+
+    public LineTcpBinarySender(int sendToIPv4Address, int sendToPort, int bufferCapacity) {
+        this(NetworkFacadeImpl.INSTANCE, sendToIPv4Address, sendToPort, bufferCapacity);
+    }
+
+    public LineTcpBinarySender(NetworkFacade nf, int sendToIPv4Address, int sendToPort, int capacity) {
+        this.nf = nf;
+        this.capacity = capacity;
+        sockaddr = nf.sockaddr(sendToIPv4Address, sendToPort);
+        fd = createSocket(sendToIPv4Address);
+        bufLo = Unsafe.malloc(capacity, MemoryTag.NATIVE_DEFAULT);
+        bufHi = bufLo + capacity;
+        rowLo = Unsafe.malloc(capacity, MemoryTag.NATIVE_DEFAULT);
+        rowHi = rowLo + capacity;
+        Unsafe.getUnsafe().putInt(bufLo, LineTcpBinaryParser.MAGIC);
+        bufPos = bufLo + Integer.BYTES;
+    }
+
+    public void $(long timestamp) {
+        if (rowTableId == -1) {
+            throw CairoException.instance(0).put("metric expected");
+        }
+        if (rowColumnIds.size() == 0) {
+            throw CairoException.instance(0).put("tag or field expected");
+        }
+        Unsafe.getUnsafe().putLong(rowLo, timestamp);
+
+        if (rowTableId != batchTableId
+                || !rowColumnIds.equals(batchColumnIds)
+                || definedColumnCounts.getQuick(rowTableId) < columnTypesByTable.getQuick(rowTableId).size()) {
+            closeBatch();
+            defineTable(rowTableId);
+        }
+
+        final long rowLen = rowPos - rowLo;
+        if (bufPos + rowLen > bufHi) {
+            closeBatch();
+        }
+        if (batchRowCountAddress == 0) {
+            openBatch(rowLen);
+        }
+        Vect.memcpy(bufPos, rowLo, rowLen);
+        bufPos += rowLen;
+        batchRowCount++;
+        rowTableId = -1;
+    }
+
+    public void $() {
+        $(LineTcpParser.NULL_TIMESTAMP);
+    }
+
+    @Override
+    public void close() {
+        if (nf.close(fd) != 0) {
+            LOG.error().$("could not close TCP socket [fd=").$(fd).$(", errno=").$(nf.errno()).$(']').$();
+        }
+        nf.freeSockAddr(sockaddr);
+        Unsafe.free(bufLo, capacity, MemoryTag.NATIVE_DEFAULT);
+        Unsafe.free(rowLo, capacity, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    public LineTcpBinarySender field(CharSequence name, long value) {
+        column(name, LineTcpParser.ENTITY_TYPE_INTEGER);
+        checkRowCapacity(Long.BYTES);
+        Unsafe.getUnsafe().putLong(rowPos, value);
+        rowPos += Long.BYTES;
+        return this;
+    }
+
+    public LineTcpBinarySender field(CharSequence name, CharSequence value) {
+        column(name, LineTcpParser.ENTITY_TYPE_STRING);
+        putValue(value);
+        return this;
+    }
+
+    public LineTcpBinarySender field(CharSequence name, double value) {
+        column(name, LineTcpParser.ENTITY_TYPE_FLOAT);
+        checkRowCapacity(Double.BYTES);
+        Unsafe.getUnsafe().putDouble(rowPos, value);
+        rowPos += Double.BYTES;
+        return this;
+    }
+
+    public LineTcpBinarySender field(CharSequence name, boolean value) {
+        column(name, LineTcpParser.ENTITY_TYPE_BOOLEAN);
+        checkRowCapacity(Byte.BYTES);
+        Unsafe.getUnsafe().putByte(rowPos, (byte) (value ? 1 : 0));
+        rowPos += Byte.BYTES;
+        return this;
+    }
+
+    @Override
+    public void flush() {
+        closeBatch();
+        sendAll();
+    }
+
+    public LineTcpBinarySender metric(CharSequence metric) {
+        if (rowTableId != -1) {
+            throw CairoException.instance(0).put("duplicate metric");
+        }
+        final int index = tableIds.keyIndex(metric);
+        if (index < 0) {
+            rowTableId = tableIds.valueAt(index);
+        } else {
+            rowTableId = tableIds.size();
+            checkName(metric, rowTableId);
+            tableIds.putAt(index, metric, rowTableId);
+            columnIdsByTable.add(new CharSequenceIntHashMap());
+            columnTypesByTable.add(new IntList());
+            definedColumnCounts.add(-1);
+        }
+        rowPos = rowLo + Long.BYTES;
+        rowColumnIds.clear();
+        return this;
+    }
+
+    @Override
+    public CharSink put(char c) {
+        if (ptr >= hi) {
+            throw CairoException.instance(0).put("value too long");
+        }
+        Unsafe.getUnsafe().putByte(ptr++, (byte) c);
+        return this;
+    }
+
+    public LineTcpBinarySender tag(CharSequence tag, CharSequence value) {
+        column(tag, LineTcpParser.ENTITY_TYPE_TAG);
+        putValue(value);
+        return this;
+    }
+
+    private static void checkName(CharSequence name, int id) {
+        if (name.length() == 0 || name.length() > MAX_NAME_LEN) {
+            throw CairoException.instance(0).put("invalid name length [name=").put(name).put(']');
+        }
+        if (id > LineTcpBinaryParser.MAX_ID) {
+            throw CairoException.instance(0).put("too many names [name=").put(name).put(']');
+        }
+    }
+
+    private void checkRowCapacity(int len) {
+        if (rowPos + len > rowHi) {
+            throw CairoException.instance(0).put("row too long");
+        }
+    }
+
+    private void closeBatch() {
+        if (batchRowCountAddress != 0) {
+            Unsafe.getUnsafe().putInt(batchRowCountAddress, batchRowCount);
+            batchRowCountAddress = 0;
+        }
+    }
+
+    private void column(CharSequence name, byte type) {
+        if (rowTableId == -1) {
+            throw CairoException.instance(0).put("metric expected");
+        }
+        final CharSequenceIntHashMap columnIds = columnIdsByTable.getQuick(rowTableId);
+        final IntList columnTypes = columnTypesByTable.getQuick(rowTableId);
+        final int index = columnIds.keyIndex(name);
+        final int columnId;
+        if (index < 0) {
+            columnId = columnIds.valueAt(index);
+            if (columnTypes.getQuick(columnId) != type) {
+                throw CairoException.instance(0).put("column type changed [name=").put(name).put(']');
+            }
+        } else {
+            columnId = columnTypes.size();
+            checkName(name, columnId);
+            columnIds.putAt(index, name, columnId);
+            columnTypes.add(type);
+        }
+        rowColumnIds.add(columnId);
+    }
+
+    private long createSocket(int sendToIPv4Address) throws NetworkError {
+        long fd = nf.socketTcp(true);
+        if (nf.connect(fd, sockaddr) != 0) {
+            throw NetworkError.instance(nf.errno(), "could not connect to ").ip(sendToIPv4Address);
+        }
+        nf.setSndBuf(fd, 2 * capacity);
+        return fd;
+    }
+
+    private void defineTable(int tableId) {
+        if (definedColumnCounts.getQuick(tableId) < 0) {
+            final CharSequence tableName = tableIds.keys().getQuick(tableId);
+            reserve(LineTcpBinaryParser.TABLE_FRAME_HEADER_SIZE + 3L * tableName.length());
+            Unsafe.getUnsafe().putByte(bufPos, LineTcpBinaryParser.FRAME_TABLE);
+            Unsafe.getUnsafe().putShort(bufPos + 1, (short) tableId);
+            bufPos = putName(bufPos + 3, tableName);
+            definedColumnCounts.setQuick(tableId, 0);
+        }
+
+        final ObjList<CharSequence> columnNames = columnIdsByTable.getQuick(tableId).keys();
+        final IntList columnTypes = columnTypesByTable.getQuick(tableId);
+        final int columnCount = columnTypes.size();
+        for (int columnId = definedColumnCounts.getQuick(tableId); columnId < columnCount; columnId++) {
+            final CharSequence columnName = columnNames.getQuick(columnId);
+            reserve(LineTcpBinaryParser.COLUMN_FRAME_HEADER_SIZE + 3L * columnName.length());
+            Unsafe.getUnsafe().putByte(bufPos, LineTcpBinaryParser.FRAME_COLUMN);
+            Unsafe.getUnsafe().putShort(bufPos + 1, (short) tableId);
+            Unsafe.getUnsafe().putShort(bufPos + 3, (short) columnId);
+            Unsafe.getUnsafe().putByte(bufPos + 5, (byte) columnTypes.getQuick(columnId));
+            bufPos = putName(bufPos + 6, columnName);
+        }
+        definedColumnCounts.setQuick(tableId, columnCount);
+    }
+
+    private void openBatch(long rowLen) {
+        final int columnCount = rowColumnIds.size();
+        reserve(LineTcpBinaryParser.ROWS_FRAME_HEADER_SIZE + (long) columnCount * Short.BYTES + rowLen);
+        Unsafe.getUnsafe().putByte(bufPos, LineTcpBinaryParser.FRAME_ROWS);
+        Unsafe.getUnsafe().putShort(bufPos + 1, (short) rowTableId);
+        Unsafe.getUnsafe().putShort(bufPos + 3, (short) columnCount);
+        batchRowCountAddress = bufPos + 5;
+        bufPos += LineTcpBinaryParser.ROWS_FRAME_HEADER_SIZE;
+        for (int i = 0; i < columnCount; i++) {
+            Unsafe.getUnsafe().putShort(bufPos, (short) rowColumnIds.getQuick(i));
+            bufPos += Short.BYTES;
+        }
+        batchRowCount = 0;
+        batchTableId = rowTableId;
+        batchColumnIds.clear();
+        batchColumnIds.addAll(rowColumnIds);
+    }
+
+    // writes short length and UTF8 bytes of the name, returns the address past the name
+    private long putName(long address, CharSequence name) {
+        ptr = address + Short.BYTES;
+        hi = bufHi;
+        encodeUtf8(name);
+        Unsafe.getUnsafe().putShort(address, (short) (ptr - address - Short.BYTES));
+        return ptr;
+    }
+
+    private void putValue(CharSequence value) {
+        checkRowCapacity(Integer.BYTES);
+        if (value == null) {
+            Unsafe.getUnsafe().putInt(rowPos, -1);
+            rowPos += Integer.BYTES;
+            return;
+        }
+        ptr = rowPos + Integer.BYTES;
+        hi = rowHi;
+        encodeUtf8(value);
+        Unsafe.getUnsafe().putInt(rowPos, (int) (ptr - rowPos - Integer.BYTES));
+        rowPos = ptr;
+    }
+
+    private void reserve(long len) {
+        if (bufPos + len > bufHi) {
+            sendAll();
+            if (bufPos + len > bufHi) {
+                throw CairoException.instance(0).put("row too long");
+            }
+        }
+    }
+
+    private void sendAll() {
+        assert batchRowCountAddress == 0;
+        if (bufPos > bufLo) {
+            final int len = (int) (bufPos - bufLo);
+            if (nf.send(fd, bufLo, len) != len) {
+                throw NetworkError.instance(nf.errno()).put("send error");
+            }
+            bufPos = bufLo;
+        }
+    }
+}
@@ -27,14 +27,80 @@ package io.questdb.cutlass.line;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.network.NetworkError;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Os;
+import io.questdb.std.Unsafe;
+
+import java.util.concurrent.locks.LockSupport;
 
 public class LineTcpSender extends AbstractLineSender {
     private static final Log LOG = LogFactory.getLog(LineTcpSender.class);
+    private static final long IO_RETRY_NANOS = 1_000_000;
+    private long ackBuf;
+    private int ackBufPos;
+    private long lineCount;
+    private long ackedLineCount;
+    private boolean nonBlocking;
 
     public LineTcpSender(int sendToIPv4Address, int sendToPort, int bufferCapacity) {
         super(0, sendToIPv4Address, sendToPort, bufferCapacity, 0, LOG);
     }
 
+    @Override
+    public void $() {
+        super.$();
+        lineCount++;
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        if (ackBuf != 0) {
+            Unsafe.free(ackBuf, Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+            ackBuf = 0;
+        }
+    }
+
+    /**
+     * Sends buffered lines and waits for the server to acknowledge that all lines sent on this connection
+     * are committed. Lines the server rejected, e.g. malformed ones, are acknowledged too, they are logged
+     * by the server. Server must have line.tcp.ack.enabled set, otherwise the call times out.
+     *
+     * @param timeoutMillis maximum time to wait for the acknowledgement
+     * @return true when all lines are acknowledged, false on timeout
+     */
+    public boolean flushAndWait(long timeoutMillis) {
+        flush();
+        if (!nonBlocking) {
+            if (nf.configureNonBlocking(fd) < 0) {
+                throw NetworkError.instance(nf.errno()).put("could not configure non-blocking socket");
+            }
+            ackBuf = Unsafe.malloc(Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+            ackBufPos = 0;
+            nonBlocking = true;
+        }
+
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (ackedLineCount < lineCount) {
+            final int n = nf.recv(fd, ackBuf + ackBufPos, Long.BYTES - ackBufPos);
+            if (n < 0) {
+                throw NetworkError.instance(nf.errno()).put("peer disconnected");
+            }
+            ackBufPos += n;
+            if (ackBufPos == Long.BYTES) {
+                ackedLineCount = Unsafe.getUnsafe().getLong(ackBuf);
+                ackBufPos = 0;
+                continue;
+            }
+
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            Os.sleep(1);
+        }
+        return true;
+    }
+
     @Override
     protected long createSocket(int interfaceIPv4Address, int ttl, long sockaddr) throws NetworkError {
         long fd = nf.socketTcp(true);
@@ -50,8 +116,26 @@ public class LineTcpSender extends AbstractLineSender {
 
     @Override
     protected void sendToSocket(long fd, long lo, long sockaddr, int len) throws NetworkError {
-        if (nf.send(fd, lo, len) != len) {
-            throw NetworkError.instance(nf.errno()).put("send error");
+        if (!nonBlocking) {
+            if (nf.send(fd, lo, len) != len) {
+                throw NetworkError.instance(nf.errno()).put("send error");
+            }
+            return;
+        }
+
+        // socket is non-blocking once acknowledgements are awaited
+        while (len > 0) {
+            final int n = nf.send(fd, lo, len);
+            if (n < 0) {
+                throw NetworkError.instance(nf.errno()).put("send error");
+            }
+            if (n == 0) {
+                // socket send buffer is full, give server time to read
+                LockSupport.parkNanos(this, IO_RETRY_NANOS);
+                continue;
+            }
+            lo += n;
+            len -= n;
         }
     }
 
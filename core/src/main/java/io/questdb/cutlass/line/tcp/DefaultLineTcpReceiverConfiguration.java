@@ -47,6 +47,16 @@ public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfi
         return true;
     }
 
+    @Override
+    public boolean isAckEnabled() {
+        return false;
+    }
+
+    @Override
+    public long getAckCommitInterval() {
+        return 100;
+    }
+
     @Override
     public CairoSecurityContext getCairoSecurityContext() {
         return AllowAllCairoSecurityContext.INSTANCE;
@@ -57,11 +67,21 @@ public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfi
         return LineProtoNanoTimestampAdapter.INSTANCE;
     }
 
+    @Override
+    public int getConnectionMaxRowsPerSecond() {
+        return 0;
+    }
+
     @Override
     public int getConnectionPoolInitialCapacity() {
         return 64;
     }
 
+    @Override
+    public int getTableMaxRowsPerSecond() {
+        return 0;
+    }
+
     @Override
     public IODispatcherConfiguration getNetDispatcherConfiguration() {
         return ioDispatcherConfiguration;
@@ -122,6 +142,11 @@ public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfi
         return 100;
     }
 
+    @Override
+    public long getMaintenanceCommitSlack() {
+        return 10;
+    }
+
     @Override
     public String getAuthDbPath() {
         return null;
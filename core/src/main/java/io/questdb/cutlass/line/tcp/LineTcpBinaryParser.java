@@ -0,0 +1,370 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cutlass.line.tcp.LineTcpParser.ParseResult;
+import io.questdb.cutlass.line.tcp.LineTcpParser.ProtoEntity;
+import io.questdb.std.*;
+
+import java.io.Closeable;
+
+/**
+ * Parser of the binary variant of line protocol. A binary connection starts with {@link #MAGIC}
+ * followed by a stream of frames, all values are little-endian:
+ * <pre>
+ * table definition:  'T' | short tableId | short nameLen | name
+ * column definition: 'C' | short tableId | short columnId | byte type | short nameLen | name
+ * row batch:         'R' | short tableId | short columnCount | int rowCount | short[columnCount] columnIds | rows
+ * row:               long timestamp | value for each column of the batch
+ * </pre>
+ * Names are UTF8. Table ids and column ids of each table are assigned by the sender, consecutively
+ * from zero, and must be defined before they are used in a batch. Column types are the
+ * {@link LineTcpParser} entity types: tag and string values are encoded as int length followed
+ * by UTF8 bytes, length -1 being null; float, integer and timestamp values are 8 bytes; boolean
+ * values are a single byte. The row timestamp is in the receiver's line protocol timestamp unit,
+ * {@link LineTcpParser#NULL_TIMESTAMP} stands for server time.
+ * <p>
+ * Decoded rows are presented as a {@link LineTcpParser} measurement, so that they are handed over
+ * to writers exactly like text lines. Every frame and row is consumed only when it is received
+ * in full, which keeps the parser restartable from {@link #getBufferAddress()} after the receive
+ * buffer is compacted.
+ */
+public class LineTcpBinaryParser implements Closeable {
+    // bytes 0x00, 'Q', 'B', protocol version; zero byte cannot start a text line
+    public static final int MAGIC = 0x01425100;
+    public static final byte FRAME_TABLE = 'T';
+    public static final byte FRAME_COLUMN = 'C';
+    public static final byte FRAME_ROWS = 'R';
+    public static final int MAX_ID = Short.MAX_VALUE;
+    public static final int TABLE_FRAME_HEADER_SIZE = Byte.BYTES + 2 * Short.BYTES;
+    public static final int COLUMN_FRAME_HEADER_SIZE = 2 * Byte.BYTES + 3 * Short.BYTES;
+    public static final int ROWS_FRAME_HEADER_SIZE = Byte.BYTES + 2 * Short.BYTES + Integer.BYTES;
+    // name lo and hi offsets in names memory and non-ASCII flag per table
+    private static final int TABLE_ENTRY_SIZE = 3;
+    // name lo and hi offsets, type and non-ASCII flag per column
+    private static final int COLUMN_ENTRY_SIZE = 4;
+    private final LineTcpParser measurement = new LineTcpParser();
+    private final IntList tableNames = new IntList();
+    private final ObjList<IntList> columnsByTable = new ObjList<>();
+    private final IntList batchColumnIds = new IntList();
+    private long namesMem;
+    private int namesCapacity;
+    private int namesSize;
+    private long bufAt;
+    private long measurementHi;
+    private int batchTableId;
+    private int batchRowsRemaining;
+    private String error;
+
+    @Override
+    public void close() {
+        if (namesMem != 0) {
+            Unsafe.free(namesMem, namesCapacity, MemoryTag.NATIVE_DEFAULT);
+            namesMem = 0;
+            namesCapacity = 0;
+        }
+        measurement.close();
+    }
+
+    public void clear() {
+        namesSize = 0;
+        tableNames.clear();
+        for (int i = 0, n = columnsByTable.size(); i < n; i++) {
+            columnsByTable.getQuick(i).clear();
+        }
+        batchRowsRemaining = 0;
+        error = null;
+    }
+
+    public long getBufferAddress() {
+        return bufAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return the row decoded by the last {@link #parse(long)} call that returned
+     * {@link ParseResult#MEASUREMENT_COMPLETE}
+     */
+    public LineTcpParser getMeasurement() {
+        return measurement;
+    }
+
+    /**
+     * Consumes the row returned by the last {@link #parse(long)} call. Until then repeated calls to
+     * parse decode the same row, which is what a producer that could not publish the row needs.
+     */
+    public void nextMeasurement() {
+        assert measurementHi > bufAt;
+        bufAt = measurementHi;
+        batchRowsRemaining--;
+    }
+
+    public LineTcpBinaryParser of(long bufLo) {
+        this.bufAt = bufLo;
+        return this;
+    }
+
+    public ParseResult parse(long bufHi) {
+        while (batchRowsRemaining == 0) {
+            if (bufAt >= bufHi) {
+                return ParseResult.BUFFER_UNDERFLOW;
+            }
+            final ParseResult rc;
+            switch (Unsafe.getUnsafe().getByte(bufAt)) {
+                case FRAME_TABLE:
+                    rc = parseTableFrame(bufHi);
+                    break;
+                case FRAME_COLUMN:
+                    rc = parseColumnFrame(bufHi);
+                    break;
+                case FRAME_ROWS:
+                    rc = parseRowsFrame(bufHi);
+                    break;
+                default:
+                    return error("unknown frame type");
+            }
+            if (rc != null) {
+                return rc;
+            }
+        }
+        return parseRow(bufHi);
+    }
+
+    public void shl(long shl) {
+        // buffer is compacted only on underflow, when there is no decoded row to shift
+        bufAt -= shl;
+    }
+
+    private int addName(long lo, int len) {
+        if (namesSize + len > namesCapacity) {
+            final int capacity = Numbers.ceilPow2(Math.max(namesSize + len, 256));
+            namesMem = namesMem == 0
+                    ? Unsafe.malloc(capacity, MemoryTag.NATIVE_DEFAULT)
+                    : Unsafe.realloc(namesMem, namesCapacity, capacity, MemoryTag.NATIVE_DEFAULT);
+            namesCapacity = capacity;
+        }
+        final int offset = namesSize;
+        Vect.memcpy(namesMem + offset, lo, len);
+        namesSize += len;
+        return offset;
+    }
+
+    private static int nonAsciiFlag(long lo, long hi) {
+        for (long p = lo; p < hi; p++) {
+            if (Unsafe.getUnsafe().getByte(p) < 0) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    private ParseResult error(String error) {
+        this.error = error;
+        return ParseResult.ERROR;
+    }
+
+    private ParseResult parseColumnFrame(long bufHi) {
+        if (bufAt + COLUMN_FRAME_HEADER_SIZE > bufHi) {
+            return ParseResult.BUFFER_UNDERFLOW;
+        }
+        final int tableId = Unsafe.getUnsafe().getShort(bufAt + 1);
+        final int columnId = Unsafe.getUnsafe().getShort(bufAt + 3);
+        final byte type = Unsafe.getUnsafe().getByte(bufAt + 5);
+        final int nameLen = Unsafe.getUnsafe().getShort(bufAt + 6);
+        if (tableId < 0 || tableId >= columnsByTable.size() || tableId * TABLE_ENTRY_SIZE >= tableNames.size()) {
+            return error("column of undefined table");
+        }
+        final IntList columns = columnsByTable.getQuick(tableId);
+        if (columnId != columns.size() / COLUMN_ENTRY_SIZE) {
+            return error("column id is out of sequence");
+        }
+        if (nameLen < 1) {
+            return error("empty column name");
+        }
+        switch (type) {
+            case LineTcpParser.ENTITY_TYPE_TAG:
+            case LineTcpParser.ENTITY_TYPE_STRING:
+            case LineTcpParser.ENTITY_TYPE_FLOAT:
+            case LineTcpParser.ENTITY_TYPE_INTEGER:
+            case LineTcpParser.ENTITY_TYPE_TIMESTAMP:
+            case LineTcpParser.ENTITY_TYPE_BOOLEAN:
+                break;
+            default:
+                return error("unsupported column type");
+        }
+        if (bufAt + COLUMN_FRAME_HEADER_SIZE + nameLen > bufHi) {
+            return ParseResult.BUFFER_UNDERFLOW;
+        }
+        final long nameLo = bufAt + COLUMN_FRAME_HEADER_SIZE;
+        final int lo = addName(nameLo, nameLen);
+        columns.add(lo);
+        columns.add(lo + nameLen);
+        columns.add(type);
+        columns.add(nonAsciiFlag(nameLo, nameLo + nameLen));
+        bufAt += COLUMN_FRAME_HEADER_SIZE + nameLen;
+        return null;
+    }
+
+    private ParseResult parseRow(long bufHi) {
+        long p = bufAt + Long.BYTES;
+        if (p > bufHi) {
+            return ParseResult.BUFFER_UNDERFLOW;
+        }
+        final IntList columns = columnsByTable.getQuick(batchTableId);
+        final int tableIndex = batchTableId * TABLE_ENTRY_SIZE;
+        measurement.startBinaryMeasurement(
+                namesMem + tableNames.getQuick(tableIndex),
+                namesMem + tableNames.getQuick(tableIndex + 1),
+                Unsafe.getUnsafe().getLong(bufAt)
+        );
+        if (tableNames.getQuick(tableIndex + 2) != 0) {
+            measurement.setNonAsciiChars();
+        }
+        for (int i = 0, n = batchColumnIds.size(); i < n; i++) {
+            final int columnIndex = batchColumnIds.getQuick(i) * COLUMN_ENTRY_SIZE;
+            final byte type = (byte) columns.getQuick(columnIndex + 2);
+            final ProtoEntity entity = measurement.addBinaryEntity(
+                    namesMem + columns.getQuick(columnIndex),
+                    namesMem + columns.getQuick(columnIndex + 1)
+            );
+            if (columns.getQuick(columnIndex + 3) != 0) {
+                measurement.setNonAsciiChars();
+            }
+            switch (type) {
+                case LineTcpParser.ENTITY_TYPE_BOOLEAN:
+                    if (p + Byte.BYTES > bufHi) {
+                        return ParseResult.BUFFER_UNDERFLOW;
+                    }
+                    entity.setBooleanValue(Unsafe.getUnsafe().getByte(p) != 0);
+                    p += Byte.BYTES;
+                    break;
+                case LineTcpParser.ENTITY_TYPE_FLOAT:
+                    if (p + Double.BYTES > bufHi) {
+                        return ParseResult.BUFFER_UNDERFLOW;
+                    }
+                    entity.setFloatValue(Unsafe.getUnsafe().getDouble(p));
+                    p += Double.BYTES;
+                    break;
+                case LineTcpParser.ENTITY_TYPE_INTEGER:
+                    if (p + Long.BYTES > bufHi) {
+                        return ParseResult.BUFFER_UNDERFLOW;
+                    }
+                    entity.setIntegerValue(Unsafe.getUnsafe().getLong(p));
+                    p += Long.BYTES;
+                    break;
+                case LineTcpParser.ENTITY_TYPE_TIMESTAMP:
+                    if (p + Long.BYTES > bufHi) {
+                        return ParseResult.BUFFER_UNDERFLOW;
+                    }
+                    entity.setTimestampValue(Unsafe.getUnsafe().getLong(p));
+                    p += Long.BYTES;
+                    break;
+                default:
+                    if (p + Integer.BYTES > bufHi) {
+                        return ParseResult.BUFFER_UNDERFLOW;
+                    }
+                    final int len = Unsafe.getUnsafe().getInt(p);
+                    p += Integer.BYTES;
+                    if (len < 0) {
+                        entity.setNullValue();
+                        break;
+                    }
+                    if (p + len > bufHi) {
+                        return ParseResult.BUFFER_UNDERFLOW;
+                    }
+                    if (nonAsciiFlag(p, p + len) != 0) {
+                        measurement.setNonAsciiChars();
+                    }
+                    entity.setBinaryValue(type, p, p + len);
+                    p += len;
+                    break;
+            }
+        }
+        measurementHi = p;
+        return ParseResult.MEASUREMENT_COMPLETE;
+    }
+
+    private ParseResult parseRowsFrame(long bufHi) {
+        if (bufAt + ROWS_FRAME_HEADER_SIZE > bufHi) {
+            return ParseResult.BUFFER_UNDERFLOW;
+        }
+        final int tableId = Unsafe.getUnsafe().getShort(bufAt + 1);
+        final int columnCount = Unsafe.getUnsafe().getShort(bufAt + 3);
+        final int rowCount = Unsafe.getUnsafe().getInt(bufAt + 5);
+        if (tableId < 0 || tableId * TABLE_ENTRY_SIZE >= tableNames.size()) {
+            return error("rows of undefined table");
+        }
+        if (columnCount < 1 || rowCount < 0) {
+            return error("invalid row batch header");
+        }
+        final long columnIdsLo = bufAt + ROWS_FRAME_HEADER_SIZE;
+        if (columnIdsLo + (long) columnCount * Short.BYTES > bufHi) {
+            return ParseResult.BUFFER_UNDERFLOW;
+        }
+        final int definedColumnCount = columnsByTable.getQuick(tableId).size() / COLUMN_ENTRY_SIZE;
+        batchColumnIds.clear();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnId = Unsafe.getUnsafe().getShort(columnIdsLo + (long) i * Short.BYTES);
+            if (columnId < 0 || columnId >= definedColumnCount) {
+                return error("rows of undefined column");
+            }
+            batchColumnIds.add(columnId);
+        }
+        batchTableId = tableId;
+        batchRowsRemaining = rowCount;
+        bufAt = columnIdsLo + (long) columnCount * Short.BYTES;
+        return null;
+    }
+
+    private ParseResult parseTableFrame(long bufHi) {
+        if (bufAt + TABLE_FRAME_HEADER_SIZE > bufHi) {
+            return ParseResult.BUFFER_UNDERFLOW;
+        }
+        final int tableId = Unsafe.getUnsafe().getShort(bufAt + 1);
+        final int nameLen = Unsafe.getUnsafe().getShort(bufAt + 3);
+        if (tableId != tableNames.size() / TABLE_ENTRY_SIZE) {
+            return error("table id is out of sequence");
+        }
+        if (nameLen < 1) {
+            return error("empty table name");
+        }
+        if (bufAt + TABLE_FRAME_HEADER_SIZE + nameLen > bufHi) {
+            return ParseResult.BUFFER_UNDERFLOW;
+        }
+        final long nameLo = bufAt + TABLE_FRAME_HEADER_SIZE;
+        final int lo = addName(nameLo, nameLen);
+        tableNames.add(lo);
+        tableNames.add(lo + nameLen);
+        tableNames.add(nonAsciiFlag(nameLo, nameLo + nameLen));
+        if (columnsByTable.size() == tableId) {
+            columnsByTable.add(new IntList());
+        }
+        bufAt += TABLE_FRAME_HEADER_SIZE + nameLen;
+        return null;
+    }
+}
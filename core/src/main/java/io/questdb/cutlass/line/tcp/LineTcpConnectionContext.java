@@ -32,6 +32,7 @@ import io.questdb.log.LogFactory;
 import io.questdb.network.IOContext;
 import io.questdb.network.IODispatcher;
 import io.questdb.network.NetworkFacade;
+import io.questdb.std.LongList;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Mutable;
 import io.questdb.std.Unsafe;
@@ -48,7 +49,13 @@ class LineTcpConnectionContext implements IOContext, Mutable {
     private final MillisecondClock milliClock;
     private final DirectByteCharSequence byteCharSequence = new DirectByteCharSequence();
     private final LineTcpParser protoParser = new LineTcpParser();
+    private final LineTcpBinaryParser binaryParser = new LineTcpBinaryParser();
     private final FloatingDirectCharSink charSink = new FloatingDirectCharSink();
+    // pairs of queue sequence and number of lines consumed by the time the sequence was published
+    private final LongList ackSeqAndLineCount = new LongList();
+    private final boolean ackEnabled;
+    private final int maxRowsPerSecond;
+    private final long idleConnectionTimeout;
     protected long fd;
     protected IODispatcher<LineTcpConnectionContext> dispatcher;
     protected long recvBufStart;
@@ -58,6 +65,19 @@ class LineTcpConnectionContext implements IOContext, Mutable {
     protected long recvBufStartOfMeasurement;
     private long lastQueueFullLogMillis = 0;
     private boolean goodMeasurement;
+    private boolean protocolDetected;
+    private boolean binary;
+    private long ackBuf;
+    private int ackBufPos;
+    private int ackSeqAndLineCountPos;
+    // lines received on the connection, including lines that could not be parsed and were skipped,
+    // so that peer can match acknowledged count against the number of lines it has sent
+    private long lineCount;
+    private long ackedLineCount;
+    private long sentAckLineCount;
+    private long rowsInRateWindow;
+    private long rateWindowDeadline;
+    private long lastReadMillis;
 
     LineTcpConnectionContext(LineTcpReceiverConfiguration configuration, LineTcpMeasurementScheduler scheduler) {
         nf = configuration.getNetworkFacade();
@@ -65,6 +85,14 @@ class LineTcpConnectionContext implements IOContext, Mutable {
         this.milliClock = configuration.getMillisecondClock();
         recvBufStart = Unsafe.malloc(configuration.getNetMsgBufferSize(), MemoryTag.NATIVE_DEFAULT);
         recvBufEnd = recvBufStart + configuration.getNetMsgBufferSize();
+        ackEnabled = configuration.isAckEnabled();
+        maxRowsPerSecond = configuration.getConnectionMaxRowsPerSecond();
+        // same as the dispatcher, timeout that is not positive disables idle check
+        final long timeout = configuration.getNetDispatcherConfiguration().getIdleConnectionTimeout();
+        idleConnectionTimeout = timeout > 0 ? timeout : Long.MAX_VALUE;
+        if (ackEnabled) {
+            ackBuf = Unsafe.malloc(Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+        }
         clear();
     }
 
@@ -72,7 +100,15 @@ class LineTcpConnectionContext implements IOContext, Mutable {
     public void clear() {
         recvBufPos = recvBufStart;
         peerDisconnected = false;
+        protocolDetected = false;
+        binary = false;
+        binaryParser.clear();
         resetParser();
+        ackSeqAndLineCount.clear();
+        ackSeqAndLineCountPos = 0;
+        ackBufPos = Long.BYTES;
+        lineCount = ackedLineCount = sentAckLineCount = 0;
+        rowsInRateWindow = rateWindowDeadline = 0;
     }
 
     @Override
@@ -80,7 +116,12 @@ class LineTcpConnectionContext implements IOContext, Mutable {
         this.fd = -1;
         Unsafe.free(recvBufStart, recvBufEnd - recvBufStart, MemoryTag.NATIVE_DEFAULT);
         recvBufStart = recvBufEnd = recvBufPos = 0;
+        if (ackBuf != 0) {
+            Unsafe.free(ackBuf, Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+            ackBuf = 0;
+        }
         protoParser.close();
+        binaryParser.close();
         charSink.close();
     }
 
@@ -125,7 +166,11 @@ class LineTcpConnectionContext implements IOContext, Mutable {
             if (len > 0) {
                 Vect.memmove(recvBufStart, recvBufStartOfMeasurement, len); // Use memmove, there may be an overlap
                 final long shl = recvBufStartOfMeasurement - recvBufStart;
-                protoParser.shl(shl);
+                if (binary) {
+                    binaryParser.shl(shl);
+                } else {
+                    protoParser.shl(shl);
+                }
                 this.recvBufStartOfMeasurement -= shl;
             } else {
                 assert len == 0;
@@ -162,21 +207,183 @@ class LineTcpConnectionContext implements IOContext, Mutable {
         this.fd = clientFd;
         this.dispatcher = dispatcher;
         clear();
+        lastReadMillis = milliClock.getTicks();
         return this;
     }
 
+    /**
+     * Binary senders open the connection with {@link LineTcpBinaryParser#MAGIC}. Its first byte is zero,
+     * which cannot start a text line, so one byte is enough to tell the protocols apart.
+     */
+    private IOContextResult detectProtocol(NetworkIOJob netIoJob) {
+        while (true) {
+            final long len = recvBufPos - recvBufStartOfMeasurement;
+            if (len > 0 && Unsafe.getUnsafe().getByte(recvBufStartOfMeasurement) != 0) {
+                protocolDetected = true;
+                return parseMeasurements(netIoJob);
+            }
+
+            if (len >= Integer.BYTES) {
+                if (Unsafe.getUnsafe().getInt(recvBufStartOfMeasurement) != LineTcpBinaryParser.MAGIC) {
+                    LOG.error().$('[').$(fd).$("] unsupported binary protocol version").$();
+                    return IOContextResult.NEEDS_DISCONNECT;
+                }
+                protocolDetected = true;
+                binary = true;
+                binaryParser.of(recvBufStartOfMeasurement + Integer.BYTES);
+                LOG.info().$('[').$(fd).$("] binary protocol").$();
+                return parseBinaryMeasurements(netIoJob);
+            }
+
+            if (!read()) {
+                return peerDisconnected ? IOContextResult.NEEDS_DISCONNECT : IOContextResult.NEEDS_READ;
+            }
+        }
+    }
+
+    private IOContextResult parseBinaryMeasurements(NetworkIOJob netIoJob) {
+        while (true) {
+            try {
+                switch (binaryParser.parse(recvBufPos)) {
+                    case MEASUREMENT_COMPLETE: {
+                        if (tryButCouldNotCommit(netIoJob, binaryParser.getMeasurement())) {
+                            return IOContextResult.QUEUE_FULL;
+                        }
+                        binaryParser.nextMeasurement();
+                        lineCount++;
+                        continue;
+                    }
+
+                    case ERROR: {
+                        LOG.error().$('[').$(fd).$("] could not parse binary line data [error=").$(binaryParser.getError()).I$();
+                        return IOContextResult.NEEDS_DISCONNECT;
+                    }
+
+                    case BUFFER_UNDERFLOW: {
+                        recvBufStartOfMeasurement = binaryParser.getBufferAddress();
+                        if (recvBufStartOfMeasurement == recvBufPos) {
+                            recvBufStartOfMeasurement = recvBufPos = recvBufStart;
+                            binaryParser.of(recvBufStart);
+                        }
+
+                        if (recvBufPos == recvBufEnd && !compactBuffer(recvBufStartOfMeasurement)) {
+                            LOG.error().$('[').$(fd).$("] buffer overflow [line.tcp.msg.buffer.size=").$(recvBufEnd - recvBufStart).$(']').$();
+                            return IOContextResult.NEEDS_DISCONNECT;
+                        }
+
+                        if (!read()) {
+                            if (peerDisconnected) {
+                                doHandleDisconnectEvent();
+                                return IOContextResult.NEEDS_DISCONNECT;
+                            }
+                            return IOContextResult.NEEDS_READ;
+                        }
+                        break;
+                    }
+                }
+            } catch (CairoException ex) {
+                LOG.error().
+                        $('[').$(fd).$("] could not process binary line data [table=").$(binaryParser.getMeasurement().getMeasurementName())
+                        .$(", msg=").$(ex.getFlyweightMessage())
+                        .$(", errno=").$(ex.getErrno())
+                        .I$();
+                return IOContextResult.NEEDS_DISCONNECT;
+            } catch (Throwable ex) {
+                LOG.error().$('[').$(fd).$("] could not process binary line data [table=").$(binaryParser.getMeasurement().getMeasurementName()).$(", ex=").$(ex).I$();
+                return IOContextResult.NEEDS_DISCONNECT;
+            }
+        }
+    }
+
     protected final IOContextResult parseMeasurements(NetworkIOJob netIoJob) {
+        try {
+            return parseMeasurements0(netIoJob);
+        } finally {
+            // measurements are batched per table, the last batch must not outlive this call
+            scheduler.publishPendingMeasurements(netIoJob);
+            if (ackEnabled) {
+                sendAck(netIoJob);
+            }
+        }
+    }
+
+    /**
+     * @return queue sequence of the oldest batch of lines that are not acknowledged yet, -1 when there is none
+     */
+    long getAckPendingSeq() {
+        return ackSeqAndLineCountPos < ackSeqAndLineCount.size() ? ackSeqAndLineCount.getQuick(ackSeqAndLineCountPos) : -1;
+    }
+
+    boolean isAckPartiallySent() {
+        return ackBufPos < Long.BYTES;
+    }
+
+    /**
+     * Contexts that network IO job holds on to are not seen by the dispatcher's idle connection check,
+     * the job uses this method to apply the same timeout to them.
+     *
+     * @return true when nothing was read from the connection for longer than idle connection timeout
+     */
+    boolean isIdle() {
+        return milliClock.getTicks() - lastReadMillis > idleConnectionTimeout;
+    }
+
+    /**
+     * Sends peer the number of lines it has sent so far that server is done with. The count is sent as 8 byte
+     * little-endian long and it is cumulative, the peer only needs the latest value. Acknowledged lines are
+     * committed, except lines that were rejected, e.g. could not be parsed, which are counted as well. Network IO
+     * job keeps servicing connection while it has lines that are not acknowledged, peer does not have to send anything.
+     */
+    private void sendAck(NetworkIOJob netIoJob) {
+        final int n = ackSeqAndLineCount.size();
+        if (lineCount > (n > 0 ? ackSeqAndLineCount.getQuick(n - 1) : ackedLineCount)) {
+            ackSeqAndLineCount.add(scheduler.getLastPublishedSeq(netIoJob));
+            ackSeqAndLineCount.add(lineCount);
+        }
+
+        if (ackSeqAndLineCountPos < ackSeqAndLineCount.size()) {
+            final long watermark = scheduler.getAckWatermark();
+            while (ackSeqAndLineCountPos < ackSeqAndLineCount.size() && ackSeqAndLineCount.getQuick(ackSeqAndLineCountPos) < watermark) {
+                ackedLineCount = ackSeqAndLineCount.getQuick(ackSeqAndLineCountPos + 1);
+                ackSeqAndLineCountPos += 2;
+            }
+            if (ackSeqAndLineCountPos == ackSeqAndLineCount.size()) {
+                ackSeqAndLineCount.clear();
+                ackSeqAndLineCountPos = 0;
+            }
+        }
+
+        // partially sent acknowledgement has to be finished before the next one is started
+        if (ackBufPos == Long.BYTES && ackedLineCount > sentAckLineCount) {
+            Unsafe.getUnsafe().putLong(ackBuf, ackedLineCount);
+            ackBufPos = 0;
+            sentAckLineCount = ackedLineCount;
+        }
+
+        if (ackBufPos < Long.BYTES) {
+            final int sent = nf.send(fd, ackBuf + ackBufPos, Long.BYTES - ackBufPos);
+            if (sent > 0) {
+                ackBufPos += sent;
+            }
+        }
+    }
+
+    private IOContextResult parseMeasurements0(NetworkIOJob netIoJob) {
+        if (binary) {
+            return parseBinaryMeasurements(netIoJob);
+        }
+        if (!protocolDetected) {
+            return detectProtocol(netIoJob);
+        }
         while (true) {
             try {
                 ParseResult rc = goodMeasurement ? protoParser.parseMeasurement(recvBufPos) : protoParser.skipMeasurement(recvBufPos);
                 switch (rc) {
                     case MEASUREMENT_COMPLETE: {
                         if (goodMeasurement) {
-                            if (scheduler.tryButCouldNotCommit(netIoJob, protoParser, charSink)) {
-                                // Waiting for writer threads to drain queue, request callback as soon as possible
-                                if (checkQueueFullLogHysteresis()) {
-                                    LOG.debug().$('[').$(fd).$("] queue full").$();
-                                }
+                            if (tryButCouldNotCommit(netIoJob, protoParser)) {
+                                // Waiting for writer threads to drain queue or for the rate limit window to pass,
+                                // network IO thread parks the context until then
                                 return IOContextResult.QUEUE_FULL;
                             }
                         } else {
@@ -187,6 +394,7 @@ class LineTcpConnectionContext implements IOContext, Mutable {
                             goodMeasurement = true;
                         }
 
+                        lineCount++;
                         startNewMeasurement();
 
                         continue;
@@ -226,6 +434,32 @@ class LineTcpConnectionContext implements IOContext, Mutable {
         }
     }
 
+    private boolean tryButCouldNotCommit(NetworkIOJob netIoJob, LineTcpParser parser) {
+        if (maxRowsPerSecond > 0) {
+            final long millis = milliClock.getTicks();
+            if (millis >= rateWindowDeadline) {
+                rateWindowDeadline = millis + 1000;
+                rowsInRateWindow = 0;
+            }
+            if (rowsInRateWindow >= maxRowsPerSecond) {
+                scheduler.throttle(netIoJob, rateWindowDeadline);
+                if (checkQueueFullLogHysteresis()) {
+                    LOG.debug().$('[').$(fd).$("] rate limited").$();
+                }
+                return true;
+            }
+        }
+
+        if (scheduler.tryButCouldNotCommit(netIoJob, parser, charSink)) {
+            if (checkQueueFullLogHysteresis()) {
+                LOG.debug().$('[').$(fd).$("] queue full or table rate limited").$();
+            }
+            return true;
+        }
+        rowsInRateWindow++;
+        return false;
+    }
+
     private void startNewMeasurement() {
         protoParser.startNextMeasurement();
         recvBufStartOfMeasurement = protoParser.getBufferAddress();
@@ -244,6 +478,7 @@ class LineTcpConnectionContext implements IOContext, Mutable {
             if (bytesRead > 0) {
                 recvBufPos += bytesRead;
                 bufferRemaining -= bytesRead;
+                lastReadMillis = milliClock.getTicks();
             } else {
                 peerDisconnected = bytesRead < 0;
             }
@@ -254,6 +489,7 @@ class LineTcpConnectionContext implements IOContext, Mutable {
 
     protected void resetParser() {
         protoParser.of(recvBufStart);
+        binaryParser.of(recvBufStart);
         goodMeasurement = true;
         recvBufStartOfMeasurement = recvBufStart;
     }
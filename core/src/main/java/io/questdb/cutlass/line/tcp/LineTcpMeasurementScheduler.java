@@ -34,6 +34,8 @@ import io.questdb.cutlass.line.LineProtoTimestampAdapter;
 import io.questdb.cutlass.line.tcp.LineTcpParser.ProtoEntity;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.metrics.Gauge;
+import io.questdb.metrics.GaugeWithOneLabel;
 import io.questdb.mp.*;
 import io.questdb.network.IODispatcher;
 import io.questdb.network.IOOperation;
@@ -47,8 +49,11 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.Closeable;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 
+import static io.questdb.network.IODispatcher.DISCONNECT_REASON_IDLE;
+import static io.questdb.network.IODispatcher.DISCONNECT_REASON_SHUTDOWN;
 import static io.questdb.network.IODispatcher.DISCONNECT_REASON_UNKNOWN_OPERATION;
 
 class LineTcpMeasurementScheduler implements Closeable {
@@ -62,6 +67,8 @@ class LineTcpMeasurementScheduler implements Closeable {
     private static final int INCOMPLETE_EVENT_ID = -2;
     private static final int RELEASE_WRITER_EVENT_ID = -3;
     private static final int[] DEFAULT_COLUMN_TYPES = new int[LineTcpParser.N_ENTITY_TYPES];
+    // how long connection waiting for acknowledgement is not read from
+    private static final long ACK_POLL_INTERVAL_MILLIS = 1;
     private final CairoEngine engine;
     private final CairoSecurityContext securityContext;
     private final CairoConfiguration cairoConfiguration;
@@ -74,14 +81,32 @@ class LineTcpMeasurementScheduler implements Closeable {
     private final int processedEventCountBeforeReshuffle;
     private final double maxLoadRatio;
     private final long maintenanceInterval;
+    private final long maintenanceCommitSlack;
     private final long writerIdleTimeout;
     private final int defaultPartitionBy;
     private final int commitMode;
     private final NetworkIOJob[] netIoJobs;
+    // queue sequence of the measurement batch each network IO thread is filling, -1 when there is none
+    private final long[] pendingSeqByNetIoJob;
+    private final long[] lastPublishedSeqByNetIoJob;
+    // deadline of the rate limit window that stopped the connection network IO thread is serving, 0 when the
+    // connection is waiting on writer threads to free up the queue
+    private final long[] rateLimitDeadlineByNetIoJob;
+    private final ObjList<Sequence> writerSequences = new ObjList<>();
+    private final ObjList<WriterJob> writerJobs = new ObjList<>();
+    // queue events below this sequence are committed or rejected, writer threads move it forward
+    private final AtomicLong ackWatermark = new AtomicLong();
+    private final boolean ackEnabled;
+    private final long ackCommitInterval;
+    private final int tableMaxRowsPerSecond;
+    private final GaugeWithOneLabel writerQueueDepthGauge;
+    private final Gauge parkedConnectionsGauge;
     private final TableStructureAdapter tableStructureAdapter = new TableStructureAdapter();
     private final Path path = new Path();
     private final MemoryMARW ddlMem = Vm.getMARWInstance();
     private final LineTcpReceiverConfiguration configuration;
+    // sockets read by network IO jobs when lines are received over UDP, null for TCP connections
+    private final ObjList<LineUdpSocket> udpSockets;
     private Sequence pubSeq;
     private int loadCheckCycles = 0;
     private int reshuffleCount = 0;
@@ -92,9 +117,36 @@ class LineTcpMeasurementScheduler implements Closeable {
             CairoEngine engine,
             WorkerPool ioWorkerPool,
             IODispatcher<LineTcpConnectionContext> dispatcher,
-            WorkerPool writerWorkerPool
+            WorkerPool writerWorkerPool,
+            LineTcpMetrics metrics
+    ) {
+        this(lineConfiguration, engine, ioWorkerPool, dispatcher, null, lineConfiguration.getTimestampAdapter(), writerWorkerPool, metrics);
+    }
+
+    LineTcpMeasurementScheduler(
+            LineTcpReceiverConfiguration lineConfiguration,
+            CairoEngine engine,
+            WorkerPool ioWorkerPool,
+            ObjList<LineUdpSocket> udpSockets,
+            LineProtoTimestampAdapter timestampAdapter,
+            WorkerPool writerWorkerPool,
+            LineTcpMetrics metrics
+    ) {
+        this(lineConfiguration, engine, ioWorkerPool, null, udpSockets, timestampAdapter, writerWorkerPool, metrics);
+    }
+
+    private LineTcpMeasurementScheduler(
+            LineTcpReceiverConfiguration lineConfiguration,
+            CairoEngine engine,
+            WorkerPool ioWorkerPool,
+            IODispatcher<LineTcpConnectionContext> dispatcher,
+            ObjList<LineUdpSocket> udpSockets,
+            LineProtoTimestampAdapter timestampAdapter,
+            WorkerPool writerWorkerPool,
+            LineTcpMetrics metrics
     ) {
         this.engine = engine;
+        this.udpSockets = udpSockets;
         this.securityContext = lineConfiguration.getCairoSecurityContext();
         this.cairoConfiguration = engine.getConfiguration();
         this.configuration = lineConfiguration;
@@ -102,6 +154,16 @@ class LineTcpMeasurementScheduler implements Closeable {
         this.commitMode = cairoConfiguration.getCommitMode();
 
         this.netIoJobs = new NetworkIOJob[ioWorkerPool.getWorkerCount()];
+        this.pendingSeqByNetIoJob = new long[ioWorkerPool.getWorkerCount()];
+        Arrays.fill(pendingSeqByNetIoJob, -1);
+        this.lastPublishedSeqByNetIoJob = new long[ioWorkerPool.getWorkerCount()];
+        Arrays.fill(lastPublishedSeqByNetIoJob, -1);
+        this.rateLimitDeadlineByNetIoJob = new long[ioWorkerPool.getWorkerCount()];
+        this.tableMaxRowsPerSecond = lineConfiguration.getTableMaxRowsPerSecond();
+        this.writerQueueDepthGauge = metrics.newWriterQueueDepthGauge(writerWorkerPool.getWorkerCount());
+        this.parkedConnectionsGauge = metrics.parkedConnectionsGauge();
+        this.ackEnabled = lineConfiguration.isAckEnabled();
+        this.ackCommitInterval = lineConfiguration.getAckCommitInterval();
         for (int i = 0; i < ioWorkerPool.getWorkerCount(); i++) {
             NetworkIOJob netIoJob = createNetworkIOJob(dispatcher, i);
             netIoJobs[i] = netIoJob;
@@ -121,7 +183,7 @@ class LineTcpMeasurementScheduler implements Closeable {
                         address,
                         addressSize,
                         lineConfiguration.getMicrosecondClock(),
-                        lineConfiguration.getTimestampAdapter()
+                        timestampAdapter
                 ),
                 getEventSlotSize(maxMeasurementSize),
                 queueSize,
@@ -136,7 +198,9 @@ class LineTcpMeasurementScheduler implements Closeable {
             for (int n = 0; n < nWriterThreads; n++) {
                 SCSequence subSeq = new SCSequence();
                 fanOut.and(subSeq);
+                writerSequences.add(subSeq);
                 WriterJob writerJob = new WriterJob(n, subSeq);
+                writerJobs.add(writerJob);
                 writerWorkerPool.assign(n, writerJob);
                 writerWorkerPool.assign(n, writerJob::close);
             }
@@ -144,7 +208,9 @@ class LineTcpMeasurementScheduler implements Closeable {
         } else {
             SCSequence subSeq = new SCSequence();
             pubSeq.then(subSeq).then(pubSeq);
+            writerSequences.add(subSeq);
             WriterJob writerJob = new WriterJob(0, subSeq);
+            writerJobs.add(writerJob);
             writerWorkerPool.assign(0, writerJob);
             writerWorkerPool.assign(0, writerJob::close);
         }
@@ -152,6 +218,7 @@ class LineTcpMeasurementScheduler implements Closeable {
         processedEventCountBeforeReshuffle = lineConfiguration.getNUpdatesPerLoadRebalance();
         maxLoadRatio = lineConfiguration.getMaxLoadRatio();
         maintenanceInterval = lineConfiguration.getMaintenanceInterval();
+        maintenanceCommitSlack = lineConfiguration.getMaintenanceCommitSlack();
         defaultPartitionBy = lineConfiguration.getDefaultPartitionBy();
         writerIdleTimeout = lineConfiguration.getWriterIdleTimeout();
     }
@@ -225,6 +292,48 @@ class LineTcpMeasurementScheduler implements Closeable {
         return new NetworkIOJobImpl(dispatcher, workerId);
     }
 
+    /**
+     * Queue events below the returned sequence are processed by writer threads and rows they carried
+     * are committed, or rejected by the writer.
+     */
+    long getAckWatermark() {
+        return ackWatermark.get();
+    }
+
+    /**
+     * Moves acknowledgement watermark to the lowest of writer thread watermarks. Each of them only
+     * grows, hence watermark computed from a stale snapshot is lower than the actual one and it is
+     * safe to keep the highest of concurrently computed values.
+     */
+    private void updateAckWatermark() {
+        long watermark = Long.MAX_VALUE;
+        for (int i = 0, n = writerJobs.size(); i < n; i++) {
+            watermark = Math.min(watermark, writerJobs.getQuick(i).ackWatermark);
+        }
+
+        long current;
+        while ((current = ackWatermark.get()) < watermark) {
+            if (ackWatermark.compareAndSet(current, watermark)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return the lowest queue sequence consumed by all writer threads
+     */
+    private long getWriterProgress() {
+        long progress = Long.MAX_VALUE;
+        for (int i = 0, n = writerSequences.size(); i < n; i++) {
+            progress = Math.min(progress, writerSequences.getQuick(i).current());
+        }
+        return progress;
+    }
+
+    long getLastPublishedSeq(NetworkIOJob netIoJob) {
+        return lastPublishedSeqByNetIoJob[netIoJob.getWorkerId()];
+    }
+
     int[] getLoadByWriterThread() {
         return loadByWriterThread;
     }
@@ -351,6 +460,8 @@ class LineTcpMeasurementScheduler implements Closeable {
         if (null != tableUpdateDetails) {
             return tableUpdateDetails;
         }
+        // thread holding the lock may be waiting on the queue, which cannot drain past our unpublished batch
+        publishPendingMeasurements(netIoJob);
         return startNewMeasurementEvent0(netIoJob, protoParser);
     }
 
@@ -407,31 +518,80 @@ class LineTcpMeasurementScheduler implements Closeable {
         }
 
         if (null != tableUpdateDetails) {
-            long seq = getNextPublisherEventSequence();
-            if (seq >= 0) {
-                try {
-                    LineTcpMeasurementEvent event = queue.get(seq);
-                    event.threadId = INCOMPLETE_EVENT_ID;
-                    TableUpdateDetails.ThreadLocalDetails localDetails = tableUpdateDetails.startNewMeasurementEvent(netIoJob.getWorkerId());
-                    event.createMeasurementEvent(tableUpdateDetails, localDetails, protoParser, charSink);
-                    return false;
-                } finally {
-                    pubSeq.done(seq);
-                    if (++tableUpdateDetails.eventsProcessedSinceReshuffle > processedEventCountBeforeReshuffle) {
-                        if (tableUpdateDetailsLock.writeLock().tryLock()) {
-                            try {
-                                reshuffleTablesAcrossWriterThreads();
-                            } finally {
-                                tableUpdateDetailsLock.writeLock().unlock();
-                            }
-                        }
-                    }
+            final int workerId = netIoJob.getWorkerId();
+            if (tableMaxRowsPerSecond > 0) {
+                final long deadline = tableUpdateDetails.getRateLimitDeadline(milliClock.getTicks());
+                if (deadline > 0) {
+                    rateLimitDeadlineByNetIoJob[workerId] = deadline;
+                    return true;
+                }
+            }
+
+            long seq = pendingSeqByNetIoJob[workerId];
+            if (seq > -1) {
+                final LineTcpMeasurementEvent event = queue.get(seq);
+                if (event.tableUpdateDetails != tableUpdateDetails || !event.hasCapacityFor(protoParser)) {
+                    publishPendingMeasurements(netIoJob);
+                    seq = -1;
                 }
             }
+
+            if (seq < 0) {
+                seq = getNextPublisherEventSequence();
+                if (seq < 0) {
+                    return true;
+                }
+                queue.get(seq).startMeasurementBatch(tableUpdateDetails);
+                pendingSeqByNetIoJob[workerId] = seq;
+            }
+
+            TableUpdateDetails.ThreadLocalDetails localDetails = tableUpdateDetails.startNewMeasurementEvent(workerId);
+            queue.get(seq).appendMeasurement(tableUpdateDetails, localDetails, protoParser, charSink);
+            tableUpdateDetails.eventsProcessedSinceReshuffle++;
+            tableUpdateDetails.rowsInRateWindow++;
+            return false;
         }
         return true;
     }
 
+    /**
+     * Publishes measurements of the same table that network IO thread has batched into a single queue event.
+     * Network IO thread must call this before it moves on from the receive buffer it is parsing, the writer
+     * threads cannot progress past an unpublished event.
+     */
+    void publishPendingMeasurements(NetworkIOJob netIoJob) {
+        final int workerId = netIoJob.getWorkerId();
+        final long seq = pendingSeqByNetIoJob[workerId];
+        if (seq > -1) {
+            pendingSeqByNetIoJob[workerId] = -1;
+            final LineTcpMeasurementEvent event = queue.get(seq);
+            final TableUpdateDetails tableUpdateDetails = event.tableUpdateDetails;
+            event.publishMeasurementBatch();
+            if (event.rowCount > 0) {
+                writerQueueDepthGauge.inc((short) event.batchThreadId);
+            }
+            pubSeq.done(seq);
+            lastPublishedSeqByNetIoJob[workerId] = seq;
+            if (tableUpdateDetails.eventsProcessedSinceReshuffle > processedEventCountBeforeReshuffle) {
+                if (tableUpdateDetailsLock.writeLock().tryLock()) {
+                    try {
+                        reshuffleTablesAcrossWriterThreads();
+                    } finally {
+                        tableUpdateDetailsLock.writeLock().unlock();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops connection network IO thread is serving until the deadline, the connection is parked
+     * by the thread once its {@link LineTcpConnectionContext#handleIO(NetworkIOJob)} returns.
+     */
+    void throttle(NetworkIOJob netIoJob, long deadline) {
+        rateLimitDeadlineByNetIoJob[netIoJob.getWorkerId()] = deadline;
+    }
+
     interface NetworkIOJob extends Job {
         void addTableUpdateDetails(TableUpdateDetails tableUpdateDetails);
 
@@ -451,6 +611,9 @@ class LineTcpMeasurementScheduler implements Closeable {
         private int threadId;
         private TableUpdateDetails tableUpdateDetails;
         private long bufLo;
+        private long bufPos;
+        private int rowCount;
+        private int batchThreadId;
         private int rebalanceFromThreadId;
         private int rebalanceToThreadId;
         private volatile boolean rebalanceReleasedByFromThread;
@@ -475,19 +638,20 @@ class LineTcpMeasurementScheduler implements Closeable {
             bufLo = 0;
         }
 
-        void createMeasurementEvent(
+        // Measurement batch is encoded as row count followed by rows. Each row is its length, timestamp,
+        // entity count and entities. Row length lets writer skip the rest of a row it failed to write.
+        void appendMeasurement(
                 TableUpdateDetails tableUpdateDetails,
                 TableUpdateDetails.ThreadLocalDetails localDetails,
                 LineTcpParser protoParser,
                 FloatingDirectCharSink floatingCharSink
         ) {
-            threadId = INCOMPLETE_EVENT_ID;
-            this.tableUpdateDetails = tableUpdateDetails;
             long timestamp = protoParser.getTimestamp();
             if (timestamp != LineTcpParser.NULL_TIMESTAMP) {
                 timestamp = timestampAdapter.getMicros(timestamp);
             }
-            long bufPos = bufLo;
+            final long rowLo = this.bufPos;
+            long bufPos = rowLo + Integer.BYTES;
             long bufMax = bufLo + bufSize;
             Unsafe.getUnsafe().putLong(bufPos, timestamp);
             bufPos += Long.BYTES;
@@ -534,7 +698,7 @@ class LineTcpMeasurementScheduler implements Closeable {
                                     columnValue = floatingCharSink;
                                 }
 
-                                symIndex = tableUpdateDetails.getSymbolIndex(localDetails, colIndex, columnValue);
+                                symIndex = tableUpdateDetails.getSymbolIndex(localDetails, colIndex, entity.getValue(), columnValue);
                                 if (symIndex != SymbolTable.VALUE_NOT_FOUND) {
                                     // We know the symbol int value
                                     // Encode the int
@@ -658,7 +822,52 @@ class LineTcpMeasurementScheduler implements Closeable {
                     throw CairoException.instance(0).put("queue buffer overflow");
                 }
             }
-            threadId = tableUpdateDetails.writerThreadId;
+            Unsafe.getUnsafe().putInt(rowLo, (int) (bufPos - rowLo - Integer.BYTES));
+            this.bufPos = bufPos;
+            rowCount++;
+        }
+
+        /**
+         * Checks, conservatively, that measurement fits the remaining space of the batch. The first measurement
+         * of a batch is always accepted, it fails encoding when it does not fit an empty event.
+         */
+        boolean hasCapacityFor(LineTcpParser protoParser) {
+            if (rowCount == 0) {
+                return true;
+            }
+            // row length, timestamp, entity count and the slack encoder keeps at the end of the buffer
+            long size = Integer.BYTES + Long.BYTES + Integer.BYTES + Long.BYTES;
+            for (int i = 0, n = protoParser.getnEntities(); i < n; i++) {
+                final ProtoEntity entity = protoParser.getEntity(i);
+                size += Integer.BYTES + entity.getName().length() + Byte.BYTES;
+                switch (entity.getType()) {
+                    case LineTcpParser.ENTITY_TYPE_TAG:
+                    case LineTcpParser.ENTITY_TYPE_STRING:
+                    case LineTcpParser.ENTITY_TYPE_SYMBOL:
+                    case LineTcpParser.ENTITY_TYPE_LONG256:
+                        size += Integer.BYTES + Byte.BYTES + 2L * entity.getValue().length();
+                        break;
+                    default:
+                        size += Long.BYTES;
+                        break;
+                }
+            }
+            return bufPos + size <= bufLo + bufSize;
+        }
+
+        void publishMeasurementBatch() {
+            Unsafe.getUnsafe().putInt(bufLo, rowCount);
+            threadId = rowCount > 0 ? batchThreadId : INCOMPLETE_EVENT_ID;
+        }
+
+        void startMeasurementBatch(TableUpdateDetails tableUpdateDetails) {
+            threadId = INCOMPLETE_EVENT_ID;
+            this.tableUpdateDetails = tableUpdateDetails;
+            // the batch belongs to the thread that owns the table when the event is claimed, the event
+            // precedes any reshuffle event published afterwards
+            batchThreadId = tableUpdateDetails.writerThreadId;
+            bufPos = bufLo + Integer.BYTES;
+            rowCount = 0;
         }
 
         void createReshuffleEvent(int fromThreadId, int toThreadId, TableUpdateDetails tableUpdateDetails) {
@@ -676,10 +885,19 @@ class LineTcpMeasurementScheduler implements Closeable {
         }
 
         void processMeasurementEvent(WriterJob job) {
+            long rowLo = bufLo + Integer.BYTES;
+            for (int i = 0, n = Unsafe.getUnsafe().getInt(bufLo); i < n; i++) {
+                final int rowLen = Unsafe.getUnsafe().getInt(rowLo);
+                rowLo += Integer.BYTES;
+                processMeasurement(job, rowLo);
+                rowLo += rowLen;
+            }
+        }
+
+        private void processMeasurement(WriterJob job, long bufPos) {
             TableWriter.Row row = null;
             try {
                 TableWriter writer = tableUpdateDetails.getWriter();
-                long bufPos = bufLo;
                 long timestamp = Unsafe.getUnsafe().getLong(bufPos);
                 bufPos += Long.BYTES;
                 if (timestamp == LineTcpParser.NULL_TIMESTAMP) {
@@ -1002,6 +1220,8 @@ class LineTcpMeasurementScheduler implements Closeable {
     class TableUpdateDetails implements Closeable {
         final String tableName;
         private final ThreadLocalDetails[] localDetailsArray;
+        // symbol value to key caches shared by network IO threads, indexed by column index
+        private final ObjList<SharedSymbolCache> sharedSymbolCacheByColumnIndex = new ObjList<>();
         private int writerThreadId;
         // Number of rows processed since the last reshuffle, this is an estimate because it is incremented by
         // multiple threads without synchronisation
@@ -1011,6 +1231,13 @@ class LineTcpMeasurementScheduler implements Closeable {
         private long lastMeasurementMillis = Long.MAX_VALUE;
         private long lastCommitMillis;
         private int networkIOOwnerCount = 0;
+        // queue sequence of the oldest event with rows that are not committed yet, maintained in ack mode only,
+        // table is committed before it moves to another writer thread
+        private long firstUncommittedSeq = Long.MAX_VALUE;
+        // Rows accepted in the current rate limit window, this is an estimate because it is incremented by
+        // multiple threads without synchronisation
+        private long rowsInRateWindow;
+        private long rateWindowDeadline;
 
         private TableUpdateDetails(String tableName, int writerThreadId, NetworkIOJob[] netIoJobs) {
             this.tableName = tableName;
@@ -1033,11 +1260,44 @@ class LineTcpMeasurementScheduler implements Closeable {
             }
         }
 
+        /**
+         * @return deadline of the current rate limit window when table used up its row allowance, otherwise 0
+         */
+        private long getRateLimitDeadline(long millis) {
+            if (millis >= rateWindowDeadline) {
+                rateWindowDeadline = millis + 1000;
+                rowsInRateWindow = 0;
+            }
+            return rowsInRateWindow < tableMaxRowsPerSecond ? 0 : rateWindowDeadline;
+        }
+
         private void closeLocals() {
             for (int n = 0; n < localDetailsArray.length; n++) {
                 LOG.info().$("closing table parsers [tableName=").$(tableName).$(']').$();
                 localDetailsArray[n] = Misc.free(localDetailsArray[n]);
             }
+            freeSharedSymbolCaches();
+        }
+
+        /**
+         * Frees symbol caches shared by network IO threads. None of the threads must be using the table.
+         */
+        private void freeSharedSymbolCaches() {
+            synchronized (sharedSymbolCacheByColumnIndex) {
+                Misc.freeObjList(sharedSymbolCacheByColumnIndex);
+                sharedSymbolCacheByColumnIndex.clear();
+            }
+        }
+
+        private SharedSymbolCache getSharedSymbolCache(int colIndex) {
+            synchronized (sharedSymbolCacheByColumnIndex) {
+                SharedSymbolCache sharedCache = sharedSymbolCacheByColumnIndex.getQuiet(colIndex);
+                if (sharedCache == null) {
+                    sharedCache = new SharedSymbolCache();
+                    sharedSymbolCacheByColumnIndex.extendAndSet(colIndex, sharedCache);
+                }
+                return sharedCache;
+            }
         }
 
         private void closeNoLock() {
@@ -1053,13 +1313,14 @@ class LineTcpMeasurementScheduler implements Closeable {
                         writer = Misc.free(writer);
                     }
                 }
+                firstUncommittedSeq = Long.MAX_VALUE;
                 writerThreadId = Integer.MIN_VALUE;
             }
         }
 
-        int getSymbolIndex(ThreadLocalDetails localDetails, int colIndex, CharSequence symValue) {
+        int getSymbolIndex(ThreadLocalDetails localDetails, int colIndex, DirectByteCharSequence utf8SymValue, CharSequence symValue) {
             if (colIndex >= 0) {
-                return localDetails.getSymbolIndex(colIndex, symValue);
+                return localDetails.getSymbolIndex(colIndex, utf8SymValue, symValue);
             }
             return SymbolTable.VALUE_NOT_FOUND;
         }
@@ -1071,9 +1332,26 @@ class LineTcpMeasurementScheduler implements Closeable {
             return writer = engine.getWriter(securityContext, tableName, "ilpTcp");
         }
 
+        void handleAckCommit(long ticks) {
+            if (null != writer && firstUncommittedSeq != Long.MAX_VALUE) {
+                LOG.debug().$("ack commit [table=").$(writer.getTableName()).I$();
+                try {
+                    writer.commit();
+                } catch (Throwable e) {
+                    LOG.error().$("could not commit [table=").$(writer.getTableName()).I$();
+                    writer = Misc.free(writer);
+                }
+                firstUncommittedSeq = Long.MAX_VALUE;
+                lastCommitMillis = ticks;
+            }
+        }
+
         void handleRowAppended() {
             if (writer.checkMaxAndCommitLag(commitMode)) {
                 lastCommitMillis = milliClock.getTicks();
+                if (!writer.inTransaction()) {
+                    firstUncommittedSeq = Long.MAX_VALUE;
+                }
             }
         }
 
@@ -1091,14 +1369,12 @@ class LineTcpMeasurementScheduler implements Closeable {
                     // do not leave writer locked
                     writer = Misc.free(writer);
                 }
+                firstUncommittedSeq = Long.MAX_VALUE;
                 lastCommitMillis = milliClock.getTicks();
             }
         }
 
-        void handleWriterThreadMaintenance(long ticks) {
-            if (ticks - lastCommitMillis < maintenanceInterval) {
-                return;
-            }
+        void handleWriterThreadMaintenance() {
             if (null != writer) {
                 LOG.debug().$("maintenance commit [table=").$(writer.getTableName()).I$();
                 try {
@@ -1107,10 +1383,26 @@ class LineTcpMeasurementScheduler implements Closeable {
                     LOG.error().$("could not commit [table=").$(writer.getTableName()).I$();
                     writer = Misc.free(writer);
                 }
+                firstUncommittedSeq = Long.MAX_VALUE;
                 lastCommitMillis = milliClock.getTicks();
             }
         }
 
+        boolean isMaintenanceCommitDue(long ticks) {
+            return null != writer && ticks - lastCommitMillis >= maintenanceInterval;
+        }
+
+        void scheduleColumnSync() {
+            if (null != writer) {
+                try {
+                    writer.scheduleColumnSync();
+                } catch (Throwable e) {
+                    // commit that follows syncs columns regardless
+                    LOG.error().$("could not schedule column sync [table=").$(writer.getTableName()).$(", ex=").$(e).I$();
+                }
+            }
+        }
+
         ThreadLocalDetails startNewMeasurementEvent(int workerId) {
             ThreadLocalDetails localDetails = localDetailsArray[workerId];
             lastMeasurementMillis = milliClock.getTicks();
@@ -1154,7 +1446,13 @@ class LineTcpMeasurementScheduler implements Closeable {
                         symCache = new SymbolCache(configuration);
                     }
                     int symIndex = resolveSymbolIndex(reader.getMetadata(), colIndex);
-                    symCache.of(cairoConfiguration, path, reader.getMetadata().getColumnName(colIndex), symIndex);
+                    symCache.of(
+                            cairoConfiguration,
+                            path,
+                            reader.getMetadata().getColumnName(colIndex),
+                            symIndex,
+                            getSharedSymbolCache(colIndex)
+                    );
                     symbolCacheByColumnIndex.extendAndSet(colIndex, symCache);
                     return symCache;
                 }
@@ -1232,12 +1530,12 @@ class LineTcpMeasurementScheduler implements Closeable {
                 return geoHashBitsSizeByColIdx.getQuick(colIndex + 1); // first val accounts for new cols, index -1
             }
 
-            int getSymbolIndex(int colIndex, CharSequence symValue) {
+            int getSymbolIndex(int colIndex, DirectByteCharSequence utf8SymValue, CharSequence symValue) {
                 SymbolCache symCache = symbolCacheByColumnIndex.getQuiet(colIndex);
                 if (null == symCache) {
                     symCache = addSymbolCache(colIndex);
                 }
-                return symCache.getSymbolKey(symValue);
+                return symCache.getSymbolKey(utf8SymValue, symValue);
             }
 
             private int resolveSymbolIndex(TableReaderMetadata metadata, int colIndex) {
@@ -1261,6 +1559,9 @@ class LineTcpMeasurementScheduler implements Closeable {
         private final FloatingDirectCharSink floatingCharSink = new FloatingDirectCharSink();
         private final ObjList<TableUpdateDetails> assignedTables = new ObjList<>();
         private long lastMaintenanceMillis = 0;
+        private long lastAckCommitMillis = 0;
+        // queue events below this sequence are consumed by this thread and their rows are committed
+        private volatile long ackWatermark = 0;
 
         private WriterJob(int id, Sequence sequence) {
             super();
@@ -1273,9 +1574,37 @@ class LineTcpMeasurementScheduler implements Closeable {
             assert this.workerId == workerId;
             boolean busy = drainQueue();
             doMaintenance();
+            if (ackEnabled) {
+                doAckCommit();
+                updateWatermark();
+            }
             return busy;
         }
 
+        private void updateWatermark() {
+            long watermark = sequence.current() + 1;
+            for (int n = 0, sz = assignedTables.size(); n < sz; n++) {
+                watermark = Math.min(watermark, assignedTables.getQuick(n).firstUncommittedSeq);
+            }
+            if (watermark > ackWatermark) {
+                ackWatermark = watermark;
+                updateAckWatermark();
+            }
+        }
+
+        private void doAckCommit() {
+            final long millis = milliClock.getTicks();
+            if (millis - lastAckCommitMillis < ackCommitInterval) {
+                return;
+            }
+
+            lastAckCommitMillis = millis;
+            scheduleColumnSync(Long.MAX_VALUE);
+            for (int n = 0, sz = assignedTables.size(); n < sz; n++) {
+                assignedTables.getQuick(n).handleAckCommit(millis);
+            }
+        }
+
         private void close() {
             LOG.info().$("line protocol writer closing [threadId=").$(workerId).$(']').$();
             // Finish all jobs in the queue before stopping
@@ -1299,8 +1628,36 @@ class LineTcpMeasurementScheduler implements Closeable {
             }
 
             lastMaintenanceMillis = millis;
-            for (int n = 0, sz = assignedTables.size(); n < sz; n++) {
-                assignedTables.getQuick(n).handleWriterThreadMaintenance(millis);
+            // Tables of this thread that are due, or about to be due, commit in one window. Tables
+            // with few rows would otherwise commit at their own pace and each would sync the disk on its own.
+            boolean commitDue = false;
+            for (int n = 0, sz = assignedTables.size(); n < sz && !commitDue; n++) {
+                commitDue = assignedTables.getQuick(n).isMaintenanceCommitDue(millis);
+            }
+            if (commitDue) {
+                final long slackMillis = millis + maintenanceCommitSlack;
+                scheduleColumnSync(slackMillis);
+                for (int n = 0, sz = assignedTables.size(); n < sz; n++) {
+                    final TableUpdateDetails tableUpdateDetails = assignedTables.getQuick(n);
+                    if (tableUpdateDetails.isMaintenanceCommitDue(slackMillis)) {
+                        tableUpdateDetails.handleWriterThreadMaintenance();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Starts write-back of uncommitted rows of tables of this thread that are due for commit at the given
+         * time, so that commits that follow wait on disk writes issued together instead of one table at a time.
+         */
+        private void scheduleColumnSync(long millis) {
+            if (commitMode != CommitMode.NOSYNC && assignedTables.size() > 1) {
+                for (int n = 0, sz = assignedTables.size(); n < sz; n++) {
+                    final TableUpdateDetails tableUpdateDetails = assignedTables.getQuick(n);
+                    if (tableUpdateDetails.isMaintenanceCommitDue(millis)) {
+                        tableUpdateDetails.scheduleColumnSync();
+                    }
+                }
             }
         }
 
@@ -1319,12 +1676,16 @@ class LineTcpMeasurementScheduler implements Closeable {
 
                 try {
                     if (event.threadId == workerId) {
+                        writerQueueDepthGauge.dec((short) workerId);
                         try {
                             if (!event.tableUpdateDetails.assignedToJob) {
                                 assignedTables.add(event.tableUpdateDetails);
                                 event.tableUpdateDetails.assignedToJob = true;
                                 LOG.info().$("assigned table to writer thread [tableName=").$(event.tableUpdateDetails.tableName).$(", threadId=").$(workerId).I$();
                             }
+                            if (ackEnabled && event.tableUpdateDetails.firstUncommittedSeq == Long.MAX_VALUE) {
+                                event.tableUpdateDetails.firstUncommittedSeq = cursor;
+                            }
                             event.processMeasurementEvent(this);
                             eventProcessed = true;
                         } catch (Throwable ex) {
@@ -1421,17 +1782,27 @@ class LineTcpMeasurementScheduler implements Closeable {
 
     class NetworkIOJobImpl implements NetworkIOJob, Job {
         private final IODispatcher<LineTcpConnectionContext> dispatcher;
+        private final LineUdpSocket udpSocket;
         private final int workerId;
         private final CharSequenceObjHashMap<TableUpdateDetails> localTableUpdateDetailsByTableName = new CharSequenceObjHashMap<>();
         private final ObjList<SymbolCache> unusedSymbolCaches = new ObjList<>();
-        // Context blocked on LineTcpMeasurementScheduler queue
-        private LineTcpConnectionContext busyContext = null;
+        // Contexts blocked on LineTcpMeasurementScheduler queue or on a rate limit, they are not registered
+        // with the dispatcher until they are resumed
+        private final ObjList<LineTcpConnectionContext> parkedContexts = new ObjList<>();
+        // Rate limit deadline of each parked context, 0 when context waits on writer threads to free up the queue
+        private final LongList parkedDeadlines = new LongList();
+        private long parkedWriterProgress = -1;
+        // Contexts with lines that are not acknowledged yet. Peer may wait for acknowledgement without sending
+        // anything, these contexts are resumed once writer threads commit their lines or after a short delay
+        private final ObjList<LineTcpConnectionContext> ackContexts = new ObjList<>();
+        private final LongList ackDeadlines = new LongList();
         private final IORequestProcessor<LineTcpConnectionContext> onRequest = this::onRequest;
         private long maintenanceJobDeadline = milliClock.getTicks() + maintenanceInterval;
 
         NetworkIOJobImpl(IODispatcher<LineTcpConnectionContext> dispatcher, int workerId) {
             super();
             this.dispatcher = dispatcher;
+            this.udpSocket = udpSockets != null ? udpSockets.getQuick(workerId) : null;
             this.workerId = workerId;
         }
 
@@ -1448,6 +1819,19 @@ class LineTcpMeasurementScheduler implements Closeable {
 
         @Override
         public void close() {
+            // parked contexts and contexts awaiting acknowledgement are not registered with the dispatcher,
+            // hand them back to it to be disconnected
+            for (int i = 0, n = parkedContexts.size(); i < n; i++) {
+                dispatcher.disconnect(parkedContexts.getQuick(i), DISCONNECT_REASON_SHUTDOWN);
+                parkedConnectionsGauge.dec();
+            }
+            parkedContexts.clear();
+            parkedDeadlines.clear();
+            for (int i = 0, n = ackContexts.size(); i < n; i++) {
+                dispatcher.disconnect(ackContexts.getQuick(i), DISCONNECT_REASON_SHUTDOWN);
+            }
+            ackContexts.clear();
+            ackDeadlines.clear();
             Misc.freeObjList(unusedSymbolCaches);
         }
 
@@ -1469,17 +1853,12 @@ class LineTcpMeasurementScheduler implements Closeable {
         @Override
         public boolean run(int workerId) {
             assert this.workerId == workerId;
-            boolean busy = false;
-            if (busyContext != null) {
-                if (handleIO(busyContext)) {
-                    return true;
-                }
-                LOG.debug().$("context is no longer waiting on a full queue [fd=").$(busyContext.getFd()).$(']').$();
-                busyContext = null;
+            boolean busy = parkedContexts.size() > 0 && resumeParkedContexts();
+            if (ackContexts.size() > 0 && resumeAckContexts()) {
                 busy = true;
             }
 
-            if (dispatcher.processIOQueue(onRequest)) {
+            if (udpSocket != null ? udpSocket.receive(LineTcpMeasurementScheduler.this, this) : dispatcher.processIOQueue(onRequest)) {
                 busy = true;
             }
 
@@ -1529,36 +1908,126 @@ class LineTcpMeasurementScheduler implements Closeable {
             return false;
         }
 
-        private boolean handleIO(LineTcpConnectionContext context) {
+        private void handleIO(LineTcpConnectionContext context) {
             if (!context.invalid()) {
                 switch (context.handleIO(this)) {
                     case NEEDS_READ:
-                        context.getDispatcher().registerChannel(context, IOOperation.READ);
-                        return false;
+                        if (context.isAckPartiallySent()) {
+                            // peer is not reading, the rest of acknowledgement goes out once socket is writable
+                            context.getDispatcher().registerChannel(context, IOOperation.WRITE);
+                        } else if (context.getAckPendingSeq() > -1) {
+                            awaitAck(context);
+                        } else {
+                            context.getDispatcher().registerChannel(context, IOOperation.READ);
+                        }
+                        break;
                     case NEEDS_WRITE:
                         context.getDispatcher().registerChannel(context, IOOperation.WRITE);
-                        return false;
+                        break;
                     case QUEUE_FULL:
-                        return true;
+                        park(context);
+                        break;
                     case NEEDS_DISCONNECT:
                         context.getDispatcher().disconnect(context, DISCONNECT_REASON_UNKNOWN_OPERATION);
-                        return false;
+                        break;
                 }
             }
-            return false;
         }
 
         private void onRequest(int operation, LineTcpConnectionContext context) {
-            if (handleIO(context)) {
-                busyContext = context;
-                LOG.debug().$("context is waiting on a full queue [fd=").$(context.getFd()).$(']').$();
+            handleIO(context);
+        }
+
+        private void awaitAck(LineTcpConnectionContext context) {
+            ackContexts.add(context);
+            ackDeadlines.add(milliClock.getTicks() + ACK_POLL_INTERVAL_MILLIS);
+        }
+
+        private void park(LineTcpConnectionContext context) {
+            final long deadline = rateLimitDeadlineByNetIoJob[workerId];
+            rateLimitDeadlineByNetIoJob[workerId] = 0;
+            parkedContexts.add(context);
+            parkedDeadlines.add(deadline);
+            parkedConnectionsGauge.inc();
+            LOG.debug().$("context is parked [fd=").$(context.getFd()).$(", deadline=").$(deadline).$(']').$();
+        }
+
+        /**
+         * Resumes rate limited contexts past their deadline. Contexts waiting on a full queue are resumed once
+         * writer threads make progress, or when writers have caught up with the queue, e.g. the context
+         * could not get hold of a table writer. Contexts that cannot progress are parked again. Contexts
+         * parked for longer than idle connection timeout are disconnected, as the dispatcher would do.
+         */
+        private boolean resumeParkedContexts() {
+            final long millis = milliClock.getTicks();
+            final long writerProgress = getWriterProgress();
+            final boolean queueAvailable = writerProgress != parkedWriterProgress || writerProgress >= pubSeq.current();
+            parkedWriterProgress = writerProgress;
+
+            boolean busy = false;
+            for (int i = 0, n = parkedContexts.size(); i < n; ) {
+                final long deadline = parkedDeadlines.getQuick(i);
+                if (deadline > 0 ? millis >= deadline : queueAvailable) {
+                    final LineTcpConnectionContext context = parkedContexts.getQuick(i);
+                    parkedContexts.remove(i);
+                    parkedDeadlines.removeIndex(i);
+                    parkedConnectionsGauge.dec();
+                    n--;
+                    LOG.debug().$("context is resumed [fd=").$(context.getFd()).$(']').$();
+                    handleIO(context);
+                    busy = true;
+                } else if (parkedContexts.getQuick(i).isIdle()) {
+                    final LineTcpConnectionContext context = parkedContexts.getQuick(i);
+                    parkedContexts.remove(i);
+                    parkedDeadlines.removeIndex(i);
+                    parkedConnectionsGauge.dec();
+                    n--;
+                    dispatcher.disconnect(context, DISCONNECT_REASON_IDLE);
+                    busy = true;
+                } else {
+                    i++;
+                }
             }
+            return busy;
+        }
+
+        /**
+         * Resumes contexts whose pending lines are acknowledged or that waited for longer than the poll interval.
+         * Resumed context reads data peer has sent in the meantime and sends acknowledgement. Contexts
+         * that still wait for acknowledgement and have been idle for longer than idle connection timeout
+         * are disconnected.
+         */
+        private boolean resumeAckContexts() {
+            final long millis = milliClock.getTicks();
+            final long watermark = ackWatermark.get();
+
+            boolean busy = false;
+            for (int i = 0, n = ackContexts.size(); i < n; ) {
+                final LineTcpConnectionContext context = ackContexts.getQuick(i);
+                if (context.getAckPendingSeq() < watermark || millis >= ackDeadlines.getQuick(i)) {
+                    ackContexts.remove(i);
+                    ackDeadlines.removeIndex(i);
+                    n--;
+                    if (context.getAckPendingSeq() >= watermark && context.isIdle()) {
+                        dispatcher.disconnect(context, DISCONNECT_REASON_IDLE);
+                    } else {
+                        handleIO(context);
+                    }
+                    busy = true;
+                } else {
+                    i++;
+                }
+            }
+            return busy;
         }
 
         private void removeTableUpdateDetails(TableUpdateDetails tableUpdateDetails) {
             localTableUpdateDetailsByTableName.remove(tableUpdateDetails.tableName);
             tableUpdateDetails.networkIOOwnerCount--;
             tableUpdateDetails.localDetailsArray[workerId].clear();
+            if (tableUpdateDetails.networkIOOwnerCount == 0) {
+                tableUpdateDetails.freeSharedSymbolCaches();
+            }
             LOG.info()
                     .$("network IO thread released table [workerId=").$(workerId)
                     .$(", tableName=").$(tableUpdateDetails.tableName)
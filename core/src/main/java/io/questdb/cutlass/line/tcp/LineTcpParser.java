@@ -51,6 +51,16 @@ public class LineTcpParser implements Closeable {
     public static final byte ENTITY_TYPE_TIMESTAMP = 13;
     public static final int N_ENTITY_TYPES = ENTITY_TYPE_TIMESTAMP + 1;
     static final byte ENTITY_TYPE_NONE = (byte) 0xff; // visible for testing
+    // SWAR constants, each delimiter byte is repeated in every lane of a long
+    private static final long SWAR_ONES = 0x0101010101010101L;
+    private static final long SWAR_HIGH_BITS = 0x8080808080808080L;
+    private static final long SWAR_NEW_LINE = SWAR_ONES * '\n';
+    private static final long SWAR_CARRIAGE_RETURN = SWAR_ONES * '\r';
+    private static final long SWAR_EQUALS = SWAR_ONES * '=';
+    private static final long SWAR_COMMA = SWAR_ONES * ',';
+    private static final long SWAR_SPACE = SWAR_ONES * ' ';
+    private static final long SWAR_BACKSLASH = SWAR_ONES * '\\';
+    private static final long SWAR_QUOTE = SWAR_ONES * '"';
     private final DirectByteCharSequence measurementName = new DirectByteCharSequence();
     private final DirectByteCharSequence charSeq = new DirectByteCharSequence();
     private final ObjList<ProtoEntity> entityCache = new ObjList<>();
@@ -234,8 +244,11 @@ public class LineTcpParser implements Closeable {
                 // shift copy current byte back
                 if (nEscapedChars > 0) {
                     Unsafe.getUnsafe().putByte(bufAt - nEscapedChars, b);
+                    bufAt++;
+                } else {
+                    // nothing to shift, jump over the run of plain bytes in one go
+                    bufAt = skipPlainBytes(bufAt + 1, bufHi);
                 }
-                bufAt++;
             }
         }
         return ParseResult.BUFFER_UNDERFLOW;
@@ -280,6 +293,37 @@ public class LineTcpParser implements Closeable {
         hasNonAscii = false;
     }
 
+    ProtoEntity addBinaryEntity(long nameLo, long nameHi) {
+        final ProtoEntity entity;
+        if (entityCache.size() <= nEntities) {
+            entity = new ProtoEntity();
+            entityCache.add(entity);
+        } else {
+            entity = entityCache.getQuick(nEntities);
+            entity.clear();
+        }
+        nEntities++;
+        entity.name.of(nameLo, nameHi);
+        return entity;
+    }
+
+    void setNonAsciiChars() {
+        hasNonAscii = true;
+    }
+
+    /**
+     * Presents a row decoded by {@link LineTcpBinaryParser} as a parsed measurement. Names point
+     * to the binary parser's schema dictionary, values are added via {@link #addBinaryEntity(long, long)}.
+     */
+    void startBinaryMeasurement(long nameLo, long nameHi, long timestamp) {
+        measurementName.of(nameLo, nameHi);
+        this.timestamp = timestamp;
+        nEntities = 0;
+        currentEntity = null;
+        errorCode = ErrorCode.NONE;
+        hasNonAscii = false;
+    }
+
     private boolean expectEndOfLine(byte endOfEntityByte, long bufHi) {
         assert endOfEntityByte == '\n';
         return true;
@@ -390,6 +434,11 @@ public class LineTcpParser implements Closeable {
                     break;
                 default:
                     scape = false;
+                    if (nEscapedChars == 0) {
+                        nextValueCanBeOpenQuote = false;
+                        bufAt = skipQuotedBytes(bufAt + 1, bufHi);
+                        continue;
+                    }
                     break;
             }
             nextValueCanBeOpenQuote = false;
@@ -402,6 +451,66 @@ public class LineTcpParser implements Closeable {
         return false; // missing tail quote as the string extends past the max allowed size
     }
 
+    private static long swarMatch(long word, long pattern) {
+        // high bit is set in every lane of the word equal to the pattern byte; lanes above
+        // the first match may carry false positives, so only the lowest set bit is exact
+        final long x = word ^ pattern;
+        return (x - SWAR_ONES) & ~x & SWAR_HIGH_BITS;
+    }
+
+    private long skipBytes(long word, long match, long p) {
+        if (match == 0) {
+            hasNonAscii |= (word & SWAR_HIGH_BITS) != 0;
+            return p + 8;
+        }
+        // bytes are little endian, the first delimiter is in the lowest matching lane
+        final int n = Long.numberOfTrailingZeros(match) >>> 3;
+        hasNonAscii |= (word & SWAR_HIGH_BITS & ((1L << (n << 3)) - 1)) != 0;
+        return p + n;
+    }
+
+    /**
+     * Skips bytes that need no processing in the unquoted part of the line, 8 bytes at a time.
+     * Returns address of the first delimiter, or of the tail shorter than 8 bytes that is left
+     * to the byte-by-byte loop.
+     */
+    private long skipPlainBytes(long p, long bufHi) {
+        while (p + 8 <= bufHi) {
+            final long word = Unsafe.getUnsafe().getLong(p);
+            final long match = swarMatch(word, SWAR_NEW_LINE)
+                    | swarMatch(word, SWAR_CARRIAGE_RETURN)
+                    | swarMatch(word, SWAR_EQUALS)
+                    | swarMatch(word, SWAR_COMMA)
+                    | swarMatch(word, SWAR_SPACE)
+                    | swarMatch(word, SWAR_BACKSLASH)
+                    | swarMatch(word, SWAR_QUOTE);
+            final long next = skipBytes(word, match, p);
+            if (match != 0) {
+                return next;
+            }
+            p = next;
+        }
+        return p;
+    }
+
+    /**
+     * Same as {@link #skipPlainBytes(long, long)} for the body of a quoted string value.
+     */
+    private long skipQuotedBytes(long p, long bufHi) {
+        while (p + 8 <= bufHi) {
+            final long word = Unsafe.getUnsafe().getLong(p);
+            final long match = swarMatch(word, SWAR_NEW_LINE)
+                    | swarMatch(word, SWAR_BACKSLASH)
+                    | swarMatch(word, SWAR_QUOTE);
+            final long next = skipBytes(word, match, p);
+            if (match != 0) {
+                return next;
+            }
+            p = next;
+        }
+        return p;
+    }
+
     private boolean expectEntityValue(byte endOfEntityByte, long bufHi) {
         boolean endOfSet = endOfEntityByte == (byte) ' ';
         if (endOfSet || endOfEntityByte == (byte) ',' || endOfEntityByte == (byte) '\n') {
@@ -524,6 +633,35 @@ public class LineTcpParser implements Closeable {
             type = ENTITY_TYPE_NONE;
         }
 
+        void setBinaryValue(byte type, long valueLo, long valueHi) {
+            this.type = type;
+            value.of(valueLo, valueHi);
+        }
+
+        void setBooleanValue(boolean booleanValue) {
+            this.type = ENTITY_TYPE_BOOLEAN;
+            this.booleanValue = booleanValue;
+        }
+
+        void setFloatValue(double floatValue) {
+            this.type = ENTITY_TYPE_FLOAT;
+            this.floatValue = floatValue;
+        }
+
+        void setIntegerValue(long integerValue) {
+            this.type = ENTITY_TYPE_INTEGER;
+            this.integerValue = integerValue;
+        }
+
+        void setNullValue() {
+            this.type = ENTITY_TYPE_NULL;
+        }
+
+        void setTimestampValue(long timestampValue) {
+            this.type = ENTITY_TYPE_TIMESTAMP;
+            this.timestampValue = timestampValue;
+        }
+
         private boolean parse(byte last, int valueLen) {
             switch (last) {
                 case 'i':
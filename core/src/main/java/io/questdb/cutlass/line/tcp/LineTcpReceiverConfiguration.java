@@ -34,10 +34,26 @@ import io.questdb.std.datetime.millitime.MillisecondClock;
 
 public interface LineTcpReceiverConfiguration {
 
+    /**
+     * Interval in milliseconds at which writer threads commit tables with uncommitted rows
+     * when acknowledgements are enabled. Acknowledged line count only advances on commit.
+     *
+     * @return interval in milliseconds
+     */
+    long getAckCommitInterval();
+
     String getAuthDbPath();
 
     CairoSecurityContext getCairoSecurityContext();
 
+    /**
+     * Maximum number of rows a single connection can send per second, connection that exceeds the
+     * limit is parked until the next second. Zero means unlimited.
+     *
+     * @return rows per second
+     */
+    int getConnectionMaxRowsPerSecond();
+
     int getConnectionPoolInitialCapacity();
 
     int getDefaultPartitionBy();
@@ -52,6 +68,14 @@ public interface LineTcpReceiverConfiguration {
      */
     long getMaintenanceInterval();
 
+    /**
+     * When maintenance commits a table of a writer thread, other tables of the same thread that would become
+     * due within this many milliseconds are committed along with it.
+     *
+     * @return slack in milliseconds
+     */
+    long getMaintenanceCommitSlack();
+
     double getMaxLoadRatio();
 
     int getMaxMeasurementSize();
@@ -76,9 +100,25 @@ public interface LineTcpReceiverConfiguration {
 
     WorkerPoolAwareConfiguration getWriterWorkerPoolConfiguration();
 
+    /**
+     * When enabled, connections are sent the number of lines they have sent that are committed,
+     * or rejected, by the writers.
+     *
+     * @return true when acknowledgements are enabled
+     */
+    boolean isAckEnabled();
+
     boolean isEnabled();
 
     int getAggressiveReadRetryCount();
 
     long getSymbolCacheWaitUsBeforeReload();
+
+    /**
+     * Maximum number of rows a single table can receive per second across all connections. Connections
+     * sending rows to table that exceeds the limit are parked until the next second. Zero means unlimited.
+     *
+     * @return rows per second
+     */
+    int getTableMaxRowsPerSecond();
 }
@@ -0,0 +1,276 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cutlass.line.tcp.LineTcpMeasurementScheduler.NetworkIOJob;
+import io.questdb.cutlass.line.tcp.LineTcpParser.ParseResult;
+import io.questdb.cutlass.line.udp.LineUdpReceiverConfiguration;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.network.Net;
+import io.questdb.network.NetworkError;
+import io.questdb.network.NetworkFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Os;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.std.str.DirectByteCharSequence;
+import io.questdb.std.str.FloatingDirectCharSink;
+
+import java.io.Closeable;
+
+/**
+ * UDP socket bound with SO_REUSEPORT, which lets several sockets share the port. Socket is read
+ * by single network IO job of {@link LineTcpMeasurementScheduler}, datagrams are parsed as ILP lines
+ * and rows are handed over to writer threads in the same way TCP connections do.
+ * <p>
+ * When writer queue is full socket stops reading, datagrams queue up in the socket receive buffer
+ * and are dropped by the kernel once it is full.
+ */
+class LineUdpSocket implements Closeable {
+    private static final Log LOG = LogFactory.getLog(LineUdpSocket.class);
+    private final NetworkFacade nf;
+    private final LineTcpParser parser = new LineTcpParser();
+    private final FloatingDirectCharSink charSink = new FloatingDirectCharSink();
+    private final DirectByteCharSequence byteCharSequence = new DirectByteCharSequence();
+    private final int msgBufferSize;
+    private final int msgCount;
+    private final boolean mmsg;
+    private long fd;
+    // message headers for recvmmsg() or, where it is not available, buffer for single datagram
+    private long msgVec;
+    // copy of datagram with line terminator appended, for datagrams that do not end with one
+    private long lineBuf;
+    private long msgPtr;
+    private int msgRemaining;
+    private int recvLen;
+    // start of the line being parsed, 0 when there is no datagram to parse
+    private long lineLo;
+    private long datagramHi;
+    private boolean goodMeasurement = true;
+    // parsed measurement waits for space in writer queue
+    private boolean measurementPending;
+
+    LineUdpSocket(LineUdpReceiverConfiguration configuration) {
+        this.nf = configuration.getNetworkFacade();
+        this.msgBufferSize = configuration.getMsgBufferSize();
+        this.mmsg = Os.type == Os.LINUX_AMD64 || Os.type == Os.LINUX_ARM64;
+        this.msgCount = mmsg ? configuration.getMsgCount() : 1;
+        this.fd = nf.socketUdp();
+        if (fd < 0) {
+            int errno = nf.errno();
+            LOG.error().$("cannot open UDP socket [errno=").$(errno).$(']').$();
+            throw NetworkError.instance(errno, "Cannot open UDP socket");
+        }
+
+        try {
+            if (nf.setReusePort(fd) != 0) {
+                throw NetworkError.instance(nf.errno(), "cannot set SO_REUSEPORT ").put("[fd=").put(fd).put(']');
+            }
+            bind(configuration);
+            if (configuration.getReceiveBufferSize() != -1 && nf.setRcvBuf(fd, configuration.getReceiveBufferSize()) != 0) {
+                LOG.error()
+                        .$("could not set receive buffer size [fd=").$(fd)
+                        .$(", size=").$(configuration.getReceiveBufferSize())
+                        .$(", errno=").$(nf.errno())
+                        .I$();
+            }
+            if (mmsg) {
+                msgVec = nf.msgHeaders(msgBufferSize, msgCount);
+            } else {
+                msgVec = Unsafe.malloc(msgBufferSize, MemoryTag.NATIVE_DEFAULT);
+            }
+            lineBuf = Unsafe.malloc(msgBufferSize + 1, MemoryTag.NATIVE_DEFAULT);
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (fd > -1) {
+            if (nf.close(fd) != 0) {
+                LOG.error().$("could not close [fd=").$(fd).$(", errno=").$(nf.errno()).$(']').$();
+            } else {
+                LOG.info().$("closed [fd=").$(fd).$(']').$();
+            }
+            fd = -1;
+        }
+        if (msgVec != 0) {
+            if (mmsg) {
+                nf.freeMsgHeaders(msgVec);
+            } else {
+                Unsafe.free(msgVec, msgBufferSize, MemoryTag.NATIVE_DEFAULT);
+            }
+            msgVec = 0;
+        }
+        if (lineBuf != 0) {
+            Unsafe.free(lineBuf, msgBufferSize + 1, MemoryTag.NATIVE_DEFAULT);
+            lineBuf = 0;
+        }
+        parser.close();
+        charSink.close();
+    }
+
+    long getFd() {
+        return fd;
+    }
+
+    /**
+     * Reads datagrams available in the socket and publishes parsed rows to writer threads.
+     *
+     * @param scheduler scheduler this socket is read by
+     * @param netIoJob  network IO job reading the socket
+     * @return true when datagrams were processed
+     */
+    boolean receive(LineTcpMeasurementScheduler scheduler, NetworkIOJob netIoJob) {
+        boolean busy = false;
+        try {
+            while (true) {
+                if (lineLo == 0) {
+                    if (msgRemaining == 0 && !recv()) {
+                        return busy;
+                    }
+                    nextDatagram();
+                }
+                if (!parseDatagram(scheduler, netIoJob)) {
+                    // writer queue is full, leave remaining datagrams in the socket until writers catch up
+                    return busy;
+                }
+                busy = true;
+                lineLo = 0;
+            }
+        } finally {
+            scheduler.publishPendingMeasurements(netIoJob);
+        }
+    }
+
+    private void bind(LineUdpReceiverConfiguration configuration) {
+        if (nf.bindUdp(fd, configuration.isUnicast() ? configuration.getBindIPv4Address() : 0, configuration.getPort())) {
+            if (!configuration.isUnicast() && !nf.join(fd, configuration.getBindIPv4Address(), configuration.getGroupIPv4Address())) {
+                throw NetworkError.instance(nf.errno())
+                        .put("cannot join group ")
+                        .put("[fd=").put(fd)
+                        .put(", bind=").put(configuration.getBindIPv4Address())
+                        .put(", group=").put(configuration.getGroupIPv4Address())
+                        .put(']');
+            }
+        } else {
+            throw NetworkError.instance(nf.errno()).couldNotBindSocket("udp-line-server", configuration.getBindIPv4Address(), configuration.getPort());
+        }
+    }
+
+    private void nextDatagram() {
+        long lo;
+        int len;
+        if (mmsg) {
+            lo = nf.getMMsgBuf(msgPtr);
+            len = (int) nf.getMMsgBufLen(msgPtr);
+            msgPtr += Net.MMSGHDR_SIZE;
+        } else {
+            lo = msgVec;
+            len = recvLen;
+        }
+        msgRemaining--;
+
+        // parser needs every line terminated, the last line of datagram does not have to be
+        if (len > 0 && Unsafe.getUnsafe().getByte(lo + len - 1) != '\n') {
+            Vect.memcpy(lineBuf, lo, len);
+            Unsafe.getUnsafe().putByte(lineBuf + len, (byte) '\n');
+            lo = lineBuf;
+            len++;
+        }
+        lineLo = lo;
+        datagramHi = lo + len;
+        parser.of(lo);
+        goodMeasurement = true;
+    }
+
+    private boolean parseDatagram(LineTcpMeasurementScheduler scheduler, NetworkIOJob netIoJob) {
+        while (true) {
+            if (measurementPending) {
+                try {
+                    if (scheduler.tryButCouldNotCommit(netIoJob, parser, charSink)) {
+                        return false;
+                    }
+                } catch (CairoException ex) {
+                    LOG.error()
+                            .$("could not process line data [fd=").$(fd)
+                            .$(", table=").$(parser.getMeasurementName())
+                            .$(", msg=").$(ex.getFlyweightMessage())
+                            .$(", errno=").$(ex.getErrno())
+                            .I$();
+                }
+                measurementPending = false;
+                parser.startNextMeasurement();
+                lineLo = parser.getBufferAddress();
+            }
+
+            ParseResult rc = goodMeasurement ? parser.parseMeasurement(datagramHi) : parser.skipMeasurement(datagramHi);
+            switch (rc) {
+                case MEASUREMENT_COMPLETE:
+                    if (goodMeasurement) {
+                        measurementPending = true;
+                    } else {
+                        LOG.error().$("could not parse measurement [fd=").$(fd)
+                                .$(", code=").$(parser.getErrorCode())
+                                .$("] line (may be mangled due to partial parsing) is ")
+                                .$(byteCharSequence.of(lineLo, parser.getBufferAddress())).$();
+                        goodMeasurement = true;
+                        parser.startNextMeasurement();
+                        lineLo = parser.getBufferAddress();
+                    }
+                    break;
+                case ERROR:
+                    goodMeasurement = false;
+                    break;
+                default:
+                    // lines of datagram are terminated, underflow means the datagram is consumed
+                    return true;
+            }
+        }
+    }
+
+    private boolean recv() {
+        if (mmsg) {
+            final int count = nf.recvmmsg(fd, msgVec, msgCount);
+            if (count > 0) {
+                msgPtr = msgVec;
+                msgRemaining = count;
+                return true;
+            }
+            return false;
+        }
+        recvLen = nf.recv(fd, msgVec, msgBufferSize);
+        if (recvLen > 0) {
+            msgRemaining = 1;
+            return true;
+        }
+        return false;
+    }
+}
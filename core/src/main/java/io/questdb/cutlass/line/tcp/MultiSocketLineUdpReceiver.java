@@ -0,0 +1,171 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.Metrics;
+import io.questdb.WorkerPoolAwareConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cutlass.line.udp.LineUdpReceiverConfiguration;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.mp.WorkerPoolConfiguration;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+import java.util.Arrays;
+
+/**
+ * UDP line protocol receiver that reads several sockets bound to the same port with SO_REUSEPORT, each
+ * on its own worker. Kernel spreads datagrams across the sockets by sender address. Rows are not written
+ * on receiving threads, they are handed over to writer threads of {@link LineTcpMeasurementScheduler}.
+ * <p>
+ * Writer side of the receiver, e.g. writer queue capacity, load balancing and writer idle timeout,
+ * is configured by TCP receiver configuration.
+ */
+public class MultiSocketLineUdpReceiver implements Closeable {
+    private static final Log LOG = LogFactory.getLog(MultiSocketLineUdpReceiver.class);
+    private final ObjList<LineUdpSocket> sockets = new ObjList<>();
+    private final ObjList<WorkerPool> dedicatedPools;
+    private final LineTcpMeasurementScheduler scheduler;
+
+    public MultiSocketLineUdpReceiver(
+            LineUdpReceiverConfiguration udpConfiguration,
+            LineTcpReceiverConfiguration lineConfiguration,
+            CairoEngine engine,
+            WorkerPool ioWorkerPool,
+            WorkerPool writerWorkerPool,
+            ObjList<WorkerPool> dedicatedPools
+    ) {
+        this.dedicatedPools = dedicatedPools;
+        try {
+            for (int i = 0, n = ioWorkerPool.getWorkerCount(); i < n; i++) {
+                sockets.add(new LineUdpSocket(udpConfiguration));
+            }
+            scheduler = new LineTcpMeasurementScheduler(
+                    lineConfiguration,
+                    engine,
+                    ioWorkerPool,
+                    sockets,
+                    udpConfiguration.getTimestampAdapter(),
+                    writerWorkerPool,
+                    // writer queue gauge is registered by TCP receiver
+                    Metrics.disabled().lineTcp()
+            );
+        } catch (Throwable e) {
+            Misc.freeObjList(sockets);
+            throw e;
+        }
+        LOG.info()
+                .$("receiving on ")
+                .$ip(udpConfiguration.isUnicast() ? udpConfiguration.getBindIPv4Address() : udpConfiguration.getGroupIPv4Address())
+                .$(':').$(udpConfiguration.getPort())
+                .$(" [socketCount=").$(sockets.size())
+                .$(']').$();
+    }
+
+    public static MultiSocketLineUdpReceiver create(
+            LineUdpReceiverConfiguration udpConfiguration,
+            LineTcpReceiverConfiguration lineConfiguration,
+            WorkerPool sharedWorkerPool,
+            Log log,
+            CairoEngine cairoEngine
+    ) {
+        int socketCount = udpConfiguration.getSocketCount();
+        if (!udpConfiguration.isUnicast() && socketCount > 1) {
+            // every socket that joins multicast group receives its own copy of datagram
+            LOG.advisory().$("multicast is received on single socket [line.udp.socket.count=").$(socketCount).$(']').$();
+            socketCount = 1;
+        }
+
+        ObjList<WorkerPool> dedicatedPools = new ObjList<>(2);
+        WorkerPool ioWorkerPool = new WorkerPool(new UdpWorkerPoolConfiguration(socketCount));
+        ioWorkerPool.assignCleaner(Path.CLEANER);
+        dedicatedPools.add(ioWorkerPool);
+        WorkerPool writerWorkerPool = WorkerPoolAwareConfiguration.configureWorkerPool(lineConfiguration.getWriterWorkerPoolConfiguration(), sharedWorkerPool);
+        if (writerWorkerPool != sharedWorkerPool) {
+            writerWorkerPool.assignCleaner(Path.CLEANER);
+            dedicatedPools.add(writerWorkerPool);
+        }
+        MultiSocketLineUdpReceiver receiver = new MultiSocketLineUdpReceiver(
+                udpConfiguration,
+                lineConfiguration,
+                cairoEngine,
+                ioWorkerPool,
+                writerWorkerPool,
+                dedicatedPools
+        );
+        ioWorkerPool.start(log);
+        if (writerWorkerPool != sharedWorkerPool) {
+            writerWorkerPool.start(log);
+        }
+        return receiver;
+    }
+
+    @Override
+    public void close() {
+        for (int n = 0, sz = dedicatedPools.size(); n < sz; n++) {
+            dedicatedPools.get(n).halt();
+        }
+        Misc.free(scheduler);
+        Misc.freeObjList(sockets);
+    }
+
+    public void setSchedulerListener(LineTcpReceiver.SchedulerListener listener) {
+        scheduler.setListener(listener);
+    }
+
+    private static class UdpWorkerPoolConfiguration implements WorkerPoolConfiguration {
+        private final int[] affinity;
+
+        private UdpWorkerPoolConfiguration(int workerCount) {
+            this.affinity = new int[workerCount];
+            Arrays.fill(affinity, -1);
+        }
+
+        @Override
+        public String getPoolName() {
+            return "ilp-udp";
+        }
+
+        @Override
+        public int[] getWorkerAffinity() {
+            return affinity;
+        }
+
+        @Override
+        public int getWorkerCount() {
+            return affinity.length;
+        }
+
+        @Override
+        public boolean haltOnError() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.*;
+
+import java.io.Closeable;
+
+/**
+ * Symbol value to symbol key cache of a single table column, shared by all network IO threads.
+ * Symbol values are kept as UTF-8 bytes in native memory, in the form they are received from the
+ * network, so that lookups neither decode values nor allocate.
+ * <p>
+ * Lookups are lock-free. Inserts are serialised, they happen on cache misses only. Entries are never
+ * removed. Hash table is not rehashed in place: it is copied to a table twice the size and the old table
+ * is kept until the cache is closed, as concurrent lookups could still be probing it.
+ */
+class SharedSymbolCache implements Closeable {
+    // slot is entry address, 0 when slot is empty, followed by value hash and symbol key
+    private static final int SLOT_SIZE = 2 * Long.BYTES;
+    private static final int INITIAL_SLOT_COUNT = 256;
+    private static final long PAGE_SIZE = 64 * 1024;
+    // address and size pairs of all memory allocated by the cache
+    private final LongList allocations = new LongList();
+    private volatile Slots slots;
+    private int size;
+    private long pageLo;
+    private long pageHi;
+
+    SharedSymbolCache() {
+        this.slots = newSlots(INITIAL_SLOT_COUNT);
+    }
+
+    @Override
+    public synchronized void close() {
+        for (int i = 0, n = allocations.size(); i < n; i += 2) {
+            Unsafe.free(allocations.getQuick(i), allocations.getQuick(i + 1), MemoryTag.NATIVE_DEFAULT);
+        }
+        allocations.clear();
+        slots = null;
+        size = 0;
+        pageLo = pageHi = 0;
+    }
+
+    private static boolean equals(long entry, long lo, int len) {
+        if (Unsafe.getUnsafe().getInt(entry) != len) {
+            return false;
+        }
+        long p = entry + Integer.BYTES;
+        int i = 0;
+        for (; i + 7 < len; i += Long.BYTES) {
+            if (Unsafe.getUnsafe().getLong(p + i) != Unsafe.getUnsafe().getLong(lo + i)) {
+                return false;
+            }
+        }
+        for (; i < len; i++) {
+            if (Unsafe.getUnsafe().getByte(p + i) != Unsafe.getUnsafe().getByte(lo + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void insert(Slots slots, long entry, int hash, int symbolKey) {
+        int index = hash & slots.mask;
+        long p;
+        while (Unsafe.getUnsafe().getLong(p = slots.address + (long) index * SLOT_SIZE) != 0) {
+            index = (index + 1) & slots.mask;
+        }
+        Unsafe.getUnsafe().putInt(p + Long.BYTES, hash);
+        Unsafe.getUnsafe().putInt(p + Long.BYTES + Integer.BYTES, symbolKey);
+        // entry and slot content must be visible before the slot is
+        Unsafe.getUnsafe().putOrderedLong(null, p, entry);
+    }
+
+    /**
+     * @param lo address of UTF-8 encoded symbol value
+     * @param hi address of the end of symbol value
+     * @return symbol key or {@link SymbolTable#VALUE_NOT_FOUND} when value is not in the cache
+     */
+    int get(long lo, long hi) {
+        final int len = (int) (hi - lo);
+        final int hash = Hash.hashMem(lo, len);
+        final Slots slots = this.slots;
+        int index = hash & slots.mask;
+        while (true) {
+            final long p = slots.address + (long) index * SLOT_SIZE;
+            final long entry = Unsafe.getUnsafe().getLongVolatile(null, p);
+            if (entry == 0) {
+                return SymbolTable.VALUE_NOT_FOUND;
+            }
+            if (Unsafe.getUnsafe().getInt(p + Long.BYTES) == hash && equals(entry, lo, len)) {
+                return Unsafe.getUnsafe().getInt(p + Long.BYTES + Integer.BYTES);
+            }
+            index = (index + 1) & slots.mask;
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized void put(long lo, long hi, int symbolKey) {
+        if (slots == null || get(lo, hi) != SymbolTable.VALUE_NOT_FOUND) {
+            // closed or value is cached by another thread
+            return;
+        }
+
+        Slots slots = this.slots;
+        if ((size + 1) * 2 > slots.mask + 1) {
+            slots = rehash(slots);
+        }
+
+        final int len = (int) (hi - lo);
+        final long entry = allocateEntry(len);
+        Unsafe.getUnsafe().putInt(entry, len);
+        Vect.memcpy(entry + Integer.BYTES, lo, len);
+        insert(slots, entry, Hash.hashMem(lo, len), symbolKey);
+        size++;
+    }
+
+    private long allocate(long size) {
+        final long address = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+        allocations.add(address);
+        allocations.add(size);
+        return address;
+    }
+
+    private long allocateEntry(int len) {
+        final long entrySize = (Integer.BYTES + len + 7) & ~7L;
+        if (pageLo + entrySize > pageHi) {
+            final long pageSize = Math.max(PAGE_SIZE, entrySize);
+            pageLo = allocate(pageSize);
+            pageHi = pageLo + pageSize;
+        }
+        final long entry = pageLo;
+        pageLo += entrySize;
+        return entry;
+    }
+
+    private Slots newSlots(int slotCount) {
+        final long size = (long) slotCount * SLOT_SIZE;
+        final long address = allocate(size);
+        Vect.memset(address, size, 0);
+        return new Slots(address, slotCount - 1);
+    }
+
+    private Slots rehash(Slots oldSlots) {
+        final Slots newSlots = newSlots((oldSlots.mask + 1) * 2);
+        for (long p = oldSlots.address, hi = p + (long) (oldSlots.mask + 1) * SLOT_SIZE; p < hi; p += SLOT_SIZE) {
+            final long entry = Unsafe.getUnsafe().getLong(p);
+            if (entry != 0) {
+                insert(
+                        newSlots,
+                        entry,
+                        Unsafe.getUnsafe().getInt(p + Long.BYTES),
+                        Unsafe.getUnsafe().getInt(p + Long.BYTES + Integer.BYTES)
+                );
+            }
+        }
+        // old slots remain allocated, lookups in flight may still be reading them
+        this.slots = newSlots;
+        return newSlots;
+    }
+
+    private static class Slots {
+        private final long address;
+        private final int mask;
+
+        private Slots(long address, int mask) {
+            this.address = address;
+            this.mask = mask;
+        }
+    }
+}
@@ -30,27 +30,24 @@ import io.questdb.cairo.TableUtils;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
-import io.questdb.std.Chars;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.MemoryTag;
-import io.questdb.std.ObjIntHashMap;
+import io.questdb.std.Misc;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
+import io.questdb.std.str.DirectByteCharSequence;
 import io.questdb.std.str.Path;
 
 import java.io.Closeable;
 
 class SymbolCache implements Closeable {
-    private final ObjIntHashMap<CharSequence> symbolValueToKeyMap = new ObjIntHashMap<>(
-            256,
-            0.5,
-            SymbolTable.VALUE_NOT_FOUND
-    );
     private final MemoryMR txMem = Vm.getMRInstance();
     private final SymbolMapReaderImpl symbolMapReader = new SymbolMapReaderImpl();
     private final MicrosecondClock clock;
     private long transientSymCountOffset;
     private long lastSymbolReaderReloadTimestamp;
     private final long waitUsBeforeReload;
+    private SharedSymbolCache sharedCache;
+    private boolean ownsSharedCache;
 
     SymbolCache(LineTcpReceiverConfiguration configuration) {
         this.clock = configuration.getMicrosecondClock();
@@ -60,18 +57,27 @@ class SymbolCache implements Closeable {
     @Override
     public void close() {
         symbolMapReader.close();
-        symbolValueToKeyMap.clear();
+        if (ownsSharedCache) {
+            Misc.free(sharedCache);
+            ownsSharedCache = false;
+        }
+        sharedCache = null;
         txMem.close();
     }
 
     int getCacheValueCount() {
-        return symbolValueToKeyMap.size();
+        return sharedCache.size();
     }
 
-    int getSymbolKey(CharSequence symbolValue) {
-        final int index = symbolValueToKeyMap.keyIndex(symbolValue);
-        if (index < 0) {
-            return symbolValueToKeyMap.valueAt(index);
+    /**
+     * @param utf8Value   symbol value as received from the network, the cache is keyed by these bytes
+     * @param symbolValue decoded symbol value, used to look up symbol key in the symbol table on cache miss
+     * @return symbol key or {@link SymbolTable#VALUE_NOT_FOUND}
+     */
+    int getSymbolKey(DirectByteCharSequence utf8Value, CharSequence symbolValue) {
+        final int cachedKey = sharedCache.get(utf8Value.getLo(), utf8Value.getHi());
+        if (cachedKey != SymbolTable.VALUE_NOT_FOUND) {
+            return cachedKey;
         }
 
         final int symbolValueCount = txMem.getInt(transientSymCountOffset);
@@ -88,13 +94,27 @@ class SymbolCache implements Closeable {
         final int symbolKey = symbolMapReader.keyOf(symbolValue);
 
         if (SymbolTable.VALUE_NOT_FOUND != symbolKey) {
-            symbolValueToKeyMap.putAt(index, Chars.toString(symbolValue), symbolKey);
+            sharedCache.put(utf8Value.getLo(), utf8Value.getHi(), symbolKey);
         }
 
         return symbolKey;
     }
 
     void of(CairoConfiguration configuration, Path path, CharSequence columnName, int symbolIndexInTxFile) {
+        of(configuration, path, columnName, symbolIndexInTxFile, null);
+    }
+
+    /**
+     * @param sharedCache cache of the table column shared with other network IO threads, the cache is created
+     *                    and owned by this instance when null
+     */
+    void of(
+            CairoConfiguration configuration,
+            Path path,
+            CharSequence columnName,
+            int symbolIndexInTxFile,
+            SharedSymbolCache sharedCache
+    ) {
         FilesFacade ff = configuration.getFilesFacade();
         transientSymCountOffset = TableUtils.getSymbolWriterTransientIndexOffset(symbolIndexInTxFile);
         final int plen = path.length();
@@ -110,6 +130,7 @@ class SymbolCache implements Closeable {
         int symCount = txMem.getInt(transientSymCountOffset);
         path.trimTo(plen);
         symbolMapReader.of(configuration, path, columnName, symCount);
-        symbolValueToKeyMap.clear(symCount);
+        this.ownsSharedCache = sharedCache == null;
+        this.sharedCache = ownsSharedCache ? new SharedSymbolCache() : sharedCache;
     }
 }
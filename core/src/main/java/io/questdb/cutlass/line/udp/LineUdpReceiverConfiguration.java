@@ -48,6 +48,14 @@ public interface LineUdpReceiverConfiguration {
 
     int getReceiveBufferSize();
 
+    /**
+     * Number of sockets bound to the port with SO_REUSEPORT, each read by its own worker. With more than one
+     * socket rows are handed over to ILP writer threads instead of being written by the receiving thread.
+     *
+     * @return number of sockets
+     */
+    int getSocketCount();
+
     CairoSecurityContext getCairoSecurityContext();
 
     boolean isEnabled();
@@ -123,6 +123,7 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     private final CharSequenceObjHashMap<Portal> namedPortalMap;
     private final IntList syncActions = new IntList(4);
     private final CairoEngine engine;
+    private final QueryPlanCache queryPlanCache;
     private IntList activeSelectColumnTypes;
     private int parsePhaseBindVariableCount;
     private long sendBufferPtr;
@@ -135,8 +136,8 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     private RecordCursorFactory currentFactory = null;
     // these references are held by context only for a period of processing single request
     // in PF world this request can span multiple messages, but still, only for one request
-    // the rationale is to be able to return "selectAndTypes" instance to thread-local
-    // cache, which is "typesAndSelectCache". We typically do this after query results are
+    // the rationale is to be able to return factory of "selectAndTypes" instance to server-wide
+    // cache, which is "queryPlanCache". We typically do this after query results are
     // served to client or query errored out due to network issues
     private TypesAndSelect typesAndSelect = null;
     private TypesAndInsert typesAndInsert = null;
@@ -154,7 +155,6 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     private int transactionState = NO_TRANSACTION;
     private final PGResumeProcessor resumeQueryCompleteRef = this::resumeQueryComplete;
     private NamedStatementWrapper wrapper;
-    private AssociativeCache<TypesAndSelect> typesAndSelectCache;
     private WeakAutoClosableObjectPool<TypesAndSelect> typesAndSelectPool;
     private final ObjectPool<DirectBinarySequence> binarySequenceParamsPool;
     // this is a reference to types either from the context or named statement, where it is provided
@@ -167,6 +167,7 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
 
     public PGConnectionContext(CairoEngine engine, PGWireConfiguration configuration, int workerCount) {
         this.engine = engine;
+        this.queryPlanCache = engine.getQueryPlanCache();
         this.utf8Sink = new DirectCharSink(engine.getConfiguration().getTextConfiguration().getUtf8SinkSize());
         this.typeManager = new TypeManager(engine.getConfiguration().getTextConfiguration(), utf8Sink);
         this.nf = configuration.getNetworkFacade();
@@ -297,7 +298,6 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         sqlExecutionContext.with(AllowAllCairoSecurityContext.INSTANCE, null, null, -1, null);
         Unsafe.free(sendBuffer, sendBufferSize, MemoryTag.NATIVE_PGW_CONN);
         Unsafe.free(recvBuffer, recvBufferSize, MemoryTag.NATIVE_PGW_CONN);
-        Misc.free(typesAndSelectCache);
         Misc.free(path);
         Misc.free(utf8Sink);
     }
@@ -328,12 +328,10 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
 
     public void handleClientOperation(
             @Transient SqlCompiler compiler,
-            @Transient AssociativeCache<TypesAndSelect> selectAndTypesCache,
             @Transient WeakAutoClosableObjectPool<TypesAndSelect> selectAndTypesPool,
             int operation
     ) throws PeerDisconnectedException, PeerIsSlowToReadException, PeerIsSlowToWriteException, BadProtocolException {
 
-        this.typesAndSelectCache = selectAndTypesCache;
         this.typesAndSelectPool = selectAndTypesPool;
 
         try {
@@ -1022,7 +1020,8 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         // we do not want to overwrite cache entries and potentially
         // leak memory
         if (typesAndSelect != null) {
-            typesAndSelectCache.put(queryText, typesAndSelect);
+            // factory goes back to the cache, container goes back to the pool
+            typesAndSelect.returnFactory(queryPlanCache, queryText);
             // clear selectAndTypes so that context doesn't accidentally
             // free the factory when context finishes abnormally
             this.typesAndSelect = null;
@@ -1051,12 +1050,13 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
                 return false;
             }
 
-            typesAndSelect = typesAndSelectCache.poll(queryText);
+            // polled factory is used exclusively until it is returned to the cache,
+            // cache hit defines bind variables with types the factory was compiled with
+            final RecordCursorFactory factory = queryPlanCache.poll(queryText, bindVariableService);
 
-            if (typesAndSelect != null) {
-                // cache hit, define bind variables
-                bindVariableService.clear();
-                typesAndSelect.defineBindVariables(bindVariableService);
+            if (factory != null) {
+                typesAndSelect = typesAndSelectPool.pop();
+                typesAndSelect.of(factory, bindVariableService);
                 queryTag = TAG_SELECT;
                 return false;
             }
@@ -2217,6 +2217,8 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
                 } catch (ReaderOutOfDateException e) {
                     LOG.info().$(e.getFlyweightMessage()).$();
                     currentFactory = Misc.free(currentFactory);
+                    // idle siblings of this factory are out of date too
+                    queryPlanCache.remove(queryText);
                     compileQuery(compiler);
                     buildSelectColumnTypes();
                 } catch (Throwable e) {
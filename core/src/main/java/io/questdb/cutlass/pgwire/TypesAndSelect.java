@@ -26,6 +26,7 @@ package io.questdb.cutlass.pgwire;
 
 import io.questdb.cairo.sql.BindVariableService;
 import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.QueryPlanCache;
 import io.questdb.std.Misc;
 import io.questdb.std.WeakAutoClosableObjectPool;
 
@@ -50,4 +51,10 @@ public class TypesAndSelect extends AbstractTypeContainer<TypesAndSelect> {
         this.factory = factory;
         copyTypesFrom(bindVariableService);
     }
+
+    public void returnFactory(QueryPlanCache queryPlanCache, CharSequence sql) {
+        queryPlanCache.push(sql, factory, types);
+        factory = null;
+        close();
+    }
 }
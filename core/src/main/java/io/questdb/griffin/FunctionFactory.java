@@ -70,6 +70,14 @@ public interface FunctionFactory {
         return false;
     }
 
+    /**
+     * @return true if the {@link Function} produced by the factory implements {@link io.questdb.griffin.engine.analytic.AnalyticFunction}
+     * and can only be used with OVER clause, such as row_number() or sum(x) over (partition by ... order by ...)
+     */
+    default boolean isAnalytic() {
+        return false;
+    }
+
     default boolean isCursor() {
         return false;
     }
@@ -85,6 +93,15 @@ public interface FunctionFactory {
         return false;
     }
 
+    /**
+     * @return true if the {@link Function} produced by the factory is guaranteed to return the same values for the same
+     * arguments on different executions, results of queries that use only such functions may be cached. Factories must
+     * opt in explicitly, functions like rnd_int() or now() keep the default.
+     */
+    default boolean isDeterministic() {
+        return false;
+    }
+
     Function newInstance(
             int position,
             @Transient ObjList<Function> args,
@@ -67,8 +67,10 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
     private final FunctionFactoryCache functionFactoryCache;
     private final IntList undefinedVariables = new IntList();
     private RecordMetadata metadata;
+    private ExpressionNode analyticNode;
     private SqlCodeGenerator sqlCodeGenerator;
     private SqlExecutionContext sqlExecutionContext;
+    private boolean deterministic = true;
 
     public FunctionParser(CairoConfiguration configuration, FunctionFactoryCache functionFactoryCache) {
         this.configuration = configuration;
@@ -182,6 +184,14 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
         return token != null && functionFactoryCache.isCursor(token);
     }
 
+    /**
+     * @return false if any of the functions parsed since {@link #resetDeterminism()} can return different
+     * values on repeated executions of the same query
+     */
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
     public boolean isGroupBy(CharSequence token) {
         return token != null && functionFactoryCache.isGroupBy(token);
     }
@@ -267,6 +277,35 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
         }
     }
 
+    /**
+     * Creates analytic function instance. Top level function of the expression is resolved against factories
+     * that produce {@link io.questdb.griffin.engine.analytic.AnalyticFunction}, arguments are resolved
+     * as per {@link #parseFunction(ExpressionNode, RecordMetadata, SqlExecutionContext)}
+     *
+     * @param node             analytic function call, e.g. "sum(x)" in "sum(x) over (order by ts)"
+     * @param metadata         metadata for resolving types of columns.
+     * @param executionContext for resolving parameters and accessing analytic context
+     * @return function instance
+     * @throws SqlException when function cannot be created
+     */
+    public Function parseAnalyticFunction(
+            ExpressionNode node,
+            RecordMetadata metadata,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final ExpressionNode prevAnalyticNode = this.analyticNode;
+        this.analyticNode = node;
+        try {
+            return parseFunction(node, metadata, executionContext);
+        } finally {
+            this.analyticNode = prevAnalyticNode;
+        }
+    }
+
+    public void resetDeterminism() {
+        deterministic = true;
+    }
+
     public void setSqlCodeGenerator(SqlCodeGenerator sqlCodeGenerator) {
         this.sqlCodeGenerator = sqlCodeGenerator;
     }
@@ -375,6 +414,9 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
             CairoConfiguration configuration
     ) throws SqlException {
         Function function;
+        if (!factory.isDeterministic()) {
+            deterministic = false;
+        }
         try {
             function = factory.newInstance(position, args, argPositions, configuration, sqlExecutionContext);
         } catch (SqlException e) {
@@ -505,6 +547,8 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
 
     private Function createCursorFunction(ExpressionNode node) throws SqlException {
         assert node.queryModel != null;
+        // tables of the sub-query are not tracked for result caching
+        deterministic = false;
         return new CursorFunction(sqlCodeGenerator.generate(node.queryModel, sqlExecutionContext));
     }
 
@@ -513,7 +557,9 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
             @Transient ObjList<Function> args,
             @Transient IntList argPositions
     ) throws SqlException {
-        final ObjList<FunctionFactoryDescriptor> overload = functionFactoryCache.getOverloadList(node.token);
+        final ObjList<FunctionFactoryDescriptor> overload = node == analyticNode
+                ? functionFactoryCache.getAnalyticOverloadList(node.token)
+                : functionFactoryCache.getOverloadList(node.token);
         if (overload == null) {
             throw invalidFunction(node, args);
         }
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.std.Chars;
+import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Collects tree of plan nodes and renders it as text, one line per node or node attribute.
+ * Child nodes are indented under their parent. Example:
+ * <pre>
+ * SortedLight
+ *     DataFrame
+ *       filter: true
+ *         IntervalFwdDataFrame
+ *           table: trades
+ * </pre>
+ * Attributes can be added to a node after its children were visited, profiling wrappers
+ * rely on this to attach run-time statistics to the node they wrap.
+ */
+public class PlanSink implements Mutable {
+    private static final String INDENT = "    ";
+    private final ObjList<String> lines = new ObjList<>();
+    private final StringSink line = new StringSink();
+    private Node current;
+
+    @Override
+    public void clear() {
+        lines.clear();
+        current = null;
+    }
+
+    public PlanSink attr(CharSequence name) {
+        current.attrNames.add(Chars.toString(name));
+        current.attrValues.add(new StringSink());
+        return this;
+    }
+
+    public PlanSink child(Plannable plannable) {
+        final Node parent = current;
+        final Node node = new Node();
+        parent.children.add(node);
+        current = node;
+        try {
+            plannable.toPlan(this);
+        } finally {
+            current = parent;
+        }
+        return this;
+    }
+
+    public CharSequence getLine(int index) {
+        return lines.getQuick(index);
+    }
+
+    public int getLineCount() {
+        return lines.size();
+    }
+
+    /**
+     * Collects plan of the root node and renders it into lines.
+     *
+     * @param root root of the plan
+     */
+    public void of(Plannable root) {
+        clear();
+        current = new Node();
+        final Node rootNode = current;
+        root.toPlan(this);
+        render(rootNode, 0);
+        current = null;
+    }
+
+    public PlanSink type(CharSequence type) {
+        current.type = Chars.toString(type);
+        return this;
+    }
+
+    /**
+     * Uses class name of the plan node as its type. Common suffixes, such as "RecordCursorFactory"
+     * are removed from the name.
+     *
+     * @param node plan node
+     * @return this sink
+     */
+    public PlanSink type(Object node) {
+        String name = node.getClass().getSimpleName();
+        if (name.isEmpty()) {
+            name = node.getClass().getName();
+            name = name.substring(name.lastIndexOf('.') + 1);
+        }
+        if (name.endsWith("RecordCursorFactory") && name.length() > "RecordCursorFactory".length()) {
+            name = name.substring(0, name.length() - "RecordCursorFactory".length());
+        } else if (name.endsWith("CursorFactory") && name.length() > "CursorFactory".length()) {
+            name = name.substring(0, name.length() - "CursorFactory".length());
+        }
+        current.type = name;
+        return this;
+    }
+
+    public PlanSink val(CharSequence value) {
+        lastValue().put(value);
+        return this;
+    }
+
+    public PlanSink val(long value) {
+        lastValue().put(value);
+        return this;
+    }
+
+    public PlanSink val(boolean value) {
+        lastValue().put(value);
+        return this;
+    }
+
+    public PlanSink val(char value) {
+        lastValue().put(value);
+        return this;
+    }
+
+    private StringSink lastValue() {
+        return current.attrValues.getLast();
+    }
+
+    private void render(Node node, int depth) {
+        line.clear();
+        indent(depth);
+        line.put(node.type != null ? node.type : "?");
+        lines.add(line.toString());
+
+        for (int i = 0, n = node.attrNames.size(); i < n; i++) {
+            line.clear();
+            indent(depth);
+            line.put("  ").put(node.attrNames.getQuick(i)).put(": ").put(node.attrValues.getQuick(i));
+            lines.add(line.toString());
+        }
+
+        for (int i = 0, n = node.children.size(); i < n; i++) {
+            render(node.children.getQuick(i), depth + 1);
+        }
+    }
+
+    private void indent(int depth) {
+        for (int i = 0; i < depth; i++) {
+            line.put(INDENT);
+        }
+    }
+
+    private static class Node {
+        private final ObjList<String> attrNames = new ObjList<>();
+        private final ObjList<StringSink> attrValues = new ObjList<>();
+        private final ObjList<Node> children = new ObjList<>();
+        private String type;
+    }
+}
@@ -0,0 +1,362 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.BindVariableService;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Server-wide cache of compiled select factories, shared by HTTP and PostgreSQL wire protocol.
+ * <p>
+ * Factories are keyed by SQL text with whitespace and comments normalised. Each key holds a small pool of
+ * factories, factory is polled out of the pool for exclusive use and pushed back when query is done,
+ * so that the same query can run on several connections concurrently without recompiling.
+ * Bind variable types the factories were compiled with are kept alongside the key. A factory
+ * is only handed out to a caller whose bind variables are either not defined yet or have the same types.
+ * <p>
+ * Keys are evicted in least recently used order. Factories compiled before table structure changed
+ * fail with ReaderOutOfDateException, callers then remove the whole pool of the key and recompile.
+ */
+public final class QueryPlanCache implements Closeable {
+    private static final Log LOG = LogFactory.getLog(QueryPlanCache.class);
+    private final CharSequenceObjHashMap<Entry> entries = new CharSequenceObjHashMap<>();
+    private final StringSink keySink = new StringSink();
+    private final int capacity;
+    private final int poolSize;
+    private QueryPlanCacheMetrics metrics = QueryPlanCacheMetrics.NOOP;
+    // most recently used entry is at the head
+    private Entry head;
+    private Entry tail;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public QueryPlanCache(CairoConfiguration configuration) {
+        this(configuration.getSqlCacheBlocks() * configuration.getSqlCacheRows(), configuration.getSqlCachePoolSize());
+    }
+
+    public QueryPlanCache(int capacity, int poolSize) {
+        this.capacity = capacity;
+        this.poolSize = poolSize;
+    }
+
+    public static void normalize(CharSequence sql, StringSink sink) {
+        sink.clear();
+        char quote = 0;
+        boolean space = false;
+        for (int i = 0, n = sql.length(); i < n; i++) {
+            final char c = sql.charAt(i);
+            if (quote != 0) {
+                sink.put(c);
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (Character.isWhitespace(c)) {
+                space = sink.length() > 0;
+            } else if (c == '-' && i + 1 < n && sql.charAt(i + 1) == '-') {
+                // comment runs to the end of the line, lexer sees it as whitespace
+                i += 2;
+                while (i < n && sql.charAt(i) != '\n' && sql.charAt(i) != '\r') {
+                    i++;
+                }
+                space = sink.length() > 0;
+            } else if (c == '/' && i + 1 < n && sql.charAt(i + 1) == '*') {
+                // block comments nest
+                int depth = 1;
+                i += 2;
+                while (i < n && depth > 0) {
+                    if (i + 1 < n && sql.charAt(i) == '/' && sql.charAt(i + 1) == '*') {
+                        depth++;
+                        i += 2;
+                    } else if (i + 1 < n && sql.charAt(i) == '*' && sql.charAt(i + 1) == '/') {
+                        depth--;
+                        i += 2;
+                    } else {
+                        i++;
+                    }
+                }
+                i--;
+                space = sink.length() > 0;
+            } else {
+                if (space) {
+                    sink.put(' ');
+                    space = false;
+                }
+                if (c == '\'' || c == '"') {
+                    quote = c;
+                }
+                sink.put(c);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        Entry e = head;
+        while (e != null) {
+            e.free();
+            e = e.next;
+        }
+        entries.clear();
+        head = tail = null;
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Takes factory out of the cache for exclusive use. When bind variables of the caller are not
+     * defined, they are defined with types of the cached factory. Otherwise their types have to match
+     * types of the cached factory.
+     *
+     * @param sql                 query text
+     * @param bindVariableService bind variables of the caller, null when caller does not use bind variables
+     * @return factory or null when there is no idle factory for the query and bind variable types
+     * @throws SqlException when bind variables cannot be defined
+     */
+    public RecordCursorFactory poll(CharSequence sql, @Nullable BindVariableService bindVariableService) throws SqlException {
+        if (capacity == 0) {
+            return null;
+        }
+        final RecordCursorFactory factory = poll0(sql, bindVariableService);
+        log(factory != null ? "hit" : "miss", sql);
+        return factory;
+    }
+
+    /**
+     * Returns factory to the cache. Factory is closed when pool of the query is full,
+     * query is cached with different bind variable types or cache is disabled.
+     *
+     * @param sql               query text
+     * @param factory           factory compiled for the query text, can be null
+     * @param bindVariableTypes bind variable types compiler derived for the query text, can be null
+     */
+    public void push(CharSequence sql, RecordCursorFactory factory, @Nullable IntList bindVariableTypes) {
+        if (factory == null) {
+            return;
+        }
+        if (capacity == 0 || !push0(sql, factory, bindVariableTypes)) {
+            Misc.free(factory);
+            return;
+        }
+        log("push", sql);
+    }
+
+    /**
+     * Removes and closes all idle factories of the query, typically because they are out of date.
+     *
+     * @param sql query text
+     */
+    public void remove(CharSequence sql) {
+        if (remove0(sql)) {
+            log("remove", sql);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public void setMetrics(QueryPlanCacheMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    private static boolean bindVariableTypesMatch(IntList types, @Nullable IntList otherTypes) {
+        if (otherTypes == null) {
+            return types.size() == 0;
+        }
+        return types.equals(otherTypes);
+    }
+
+    /**
+     * Defines bind variables of the caller with the given types, unless they are defined already.
+     *
+     * @return false when bind variables are defined with different types, or are not supported by the caller
+     */
+    private static boolean defineBindVariables(IntList types, @Nullable BindVariableService bindVariableService) throws SqlException {
+        if (bindVariableService == null) {
+            return types.size() == 0;
+        }
+        final int n = bindVariableService.getIndexedVariableCount();
+        if (n == 0) {
+            for (int i = 0, m = types.size(); i < m; i++) {
+                bindVariableService.define(i, types.getQuick(i), 0);
+            }
+            return true;
+        }
+        if (n != types.size()) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            final Function function = bindVariableService.getFunction(i);
+            if (function == null || function.getType() != types.getQuick(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void evict() {
+        final Entry e = tail;
+        unlink(e);
+        entries.remove(e.key);
+        e.free();
+        evictionCount++;
+        metrics.markEviction();
+    }
+
+    private void link(Entry e) {
+        e.prev = null;
+        e.next = head;
+        if (head != null) {
+            head.prev = e;
+        } else {
+            tail = e;
+        }
+        head = e;
+    }
+
+    private void log(CharSequence action, CharSequence sql) {
+        LOG.debug().$(action).$(" [thread=").$(Thread.currentThread().getName()).$(", sql=").$(sql).$(']').$();
+    }
+
+    private void moveToHead(Entry e) {
+        if (e != head) {
+            unlink(e);
+            link(e);
+        }
+    }
+
+    private synchronized RecordCursorFactory poll0(CharSequence sql, @Nullable BindVariableService bindVariableService) throws SqlException {
+        normalize(sql, keySink);
+        final Entry e = entries.get(keySink);
+        if (e != null) {
+            moveToHead(e);
+            final int n = e.factories.size();
+            if (n > 0 && defineBindVariables(e.bindVariableTypes, bindVariableService)) {
+                final RecordCursorFactory factory = e.factories.getQuick(n - 1);
+                e.factories.setPos(n - 1);
+                hitCount++;
+                metrics.markHit();
+                return factory;
+            }
+        }
+        missCount++;
+        metrics.markMiss();
+        return null;
+    }
+
+    private synchronized boolean push0(CharSequence sql, RecordCursorFactory factory, @Nullable IntList bindVariableTypes) {
+        normalize(sql, keySink);
+        final int index = entries.keyIndex(keySink);
+        Entry e;
+        if (index < 0) {
+            e = entries.valueAt(index);
+            if (e.factories.size() >= poolSize || !bindVariableTypesMatch(e.bindVariableTypes, bindVariableTypes)) {
+                return false;
+            }
+            moveToHead(e);
+        } else {
+            e = new Entry(Chars.toString(keySink), bindVariableTypes);
+            entries.putAt(index, e.key, e);
+            link(e);
+            if (entries.size() > capacity) {
+                evict();
+            }
+        }
+        e.factories.add(factory);
+        return true;
+    }
+
+    private synchronized boolean remove0(CharSequence sql) {
+        normalize(sql, keySink);
+        final int index = entries.keyIndex(keySink);
+        if (index < 0) {
+            final Entry e = entries.valueAt(index);
+            unlink(e);
+            entries.removeAt(index);
+            e.free();
+            return true;
+        }
+        return false;
+    }
+
+    private void unlink(Entry e) {
+        if (e.prev != null) {
+            e.prev.next = e.next;
+        } else {
+            head = e.next;
+        }
+        if (e.next != null) {
+            e.next.prev = e.prev;
+        } else {
+            tail = e.prev;
+        }
+        e.prev = e.next = null;
+    }
+
+    private static class Entry {
+        private final String key;
+        private final ObjList<RecordCursorFactory> factories = new ObjList<>();
+        private final IntList bindVariableTypes = new IntList();
+        private Entry prev;
+        private Entry next;
+
+        private Entry(String key, @Nullable IntList bindVariableTypes) {
+            this.key = key;
+            if (bindVariableTypes != null) {
+                this.bindVariableTypes.addAll(bindVariableTypes);
+            }
+        }
+
+        private void free() {
+            Misc.freeObjList(factories);
+            factories.clear();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+
+import java.io.Closeable;
+
+/**
+ * Server-wide cache of serialized query results. Entries are keyed by SQL text together with
+ * bind variable values and carry versions of every table the query reads. Entry is served only
+ * while versions of all its tables are unchanged, i.e. any commit to a table invalidates results
+ * of queries that read it.
+ * <p>
+ * Total size of the cache is bounded, least recently used entries are evicted first. Entries are
+ * immutable once published, so any number of cursors can read the same entry concurrently. Entry
+ * memory is released when entry is evicted and the last cursor reading it is closed.
+ */
+public final class QueryResultCache implements Closeable {
+    private static final Log LOG = LogFactory.getLog(QueryResultCache.class);
+    private final CharSequenceObjHashMap<Entry> entries = new CharSequenceObjHashMap<>();
+    private final long capacity;
+    private final long maxEntrySize;
+    // most recently used entry is at the head
+    private Entry head;
+    private Entry tail;
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public QueryResultCache(CairoConfiguration configuration) {
+        this(configuration.getSqlResultCacheSize(), configuration.getSqlResultCacheEntryMaxSize());
+    }
+
+    public QueryResultCache(long capacity, long maxEntrySize) {
+        this.capacity = capacity;
+        this.maxEntrySize = Math.min(maxEntrySize, capacity);
+    }
+
+    /**
+     * Finds entry for the key and pins it for reading. Entry must be released when reading is done.
+     *
+     * @param key           SQL text and bind variable values
+     * @param tableVersions current versions of tables query reads
+     * @return entry or null when there is no entry or it is out of date
+     */
+    public synchronized Entry acquire(CharSequence key, LongList tableVersions) {
+        final int index = entries.keyIndex(key);
+        if (index < 0) {
+            final Entry e = entries.valueAt(index);
+            if (e.isCurrent(tableVersions)) {
+                moveToHead(e);
+                e.readers++;
+                hitCount++;
+                return e;
+            }
+            // tables changed since result was cached
+            LOG.debug().$("out of date [key=").$(key).$(']').$();
+            remove(index, e);
+        }
+        missCount++;
+        return null;
+    }
+
+    public synchronized void clear() {
+        Entry e = head;
+        while (e != null) {
+            final Entry next = e.next;
+            evict(e);
+            e = next;
+        }
+        entries.clear();
+        head = tail = null;
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    /**
+     * Publishes query result. Cache takes ownership of the memory. Returned entry
+     * is pinned for reading on behalf of the caller, it must be released when reading is done.
+     *
+     * @param key           SQL text and bind variable values
+     * @param tableVersions versions of tables, which were read before query ran
+     * @param mem           serialized result
+     * @param rowCount      number of rows in result
+     * @return pinned entry
+     */
+    public synchronized Entry put(CharSequence key, LongList tableVersions, MemoryCARW mem, long rowCount) {
+        final int index = entries.keyIndex(key);
+        if (index < 0) {
+            remove(index, entries.valueAt(index));
+        }
+        final Entry e = new Entry(Chars.toString(key), tableVersions, mem, rowCount);
+        while (tail != null && size + e.size > capacity) {
+            final Entry victim = tail;
+            entries.remove(victim.key);
+            unlink(victim);
+            evict(victim);
+            evictionCount++;
+        }
+        entries.put(e.key, e);
+        link(e);
+        size += e.size;
+        e.readers = 1;
+        return e;
+    }
+
+    public synchronized void release(Entry e) {
+        if (--e.readers == 0 && e.evicted) {
+            e.free();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evict(Entry e) {
+        size -= e.size;
+        e.evicted = true;
+        if (e.readers == 0) {
+            e.free();
+        }
+    }
+
+    private void link(Entry e) {
+        e.prev = null;
+        e.next = head;
+        if (head != null) {
+            head.prev = e;
+        } else {
+            tail = e;
+        }
+        head = e;
+    }
+
+    private void moveToHead(Entry e) {
+        if (e != head) {
+            unlink(e);
+            link(e);
+        }
+    }
+
+    private void remove(int index, Entry e) {
+        entries.removeAt(index);
+        unlink(e);
+        evict(e);
+    }
+
+    private void unlink(Entry e) {
+        if (e.prev != null) {
+            e.prev.next = e.next;
+        } else {
+            head = e.next;
+        }
+        if (e.next != null) {
+            e.next.prev = e.prev;
+        } else {
+            tail = e.prev;
+        }
+        e.prev = e.next = null;
+    }
+
+    public static class Entry {
+        private final String key;
+        private final LongList tableVersions = new LongList();
+        private final long size;
+        private final long rowCount;
+        private MemoryCARW mem;
+        private int readers;
+        private boolean evicted;
+        private Entry prev;
+        private Entry next;
+
+        private Entry(String key, LongList tableVersions, MemoryCARW mem, long rowCount) {
+            this.key = key;
+            this.tableVersions.add(tableVersions);
+            this.mem = mem;
+            this.size = mem.getAppendOffset();
+            this.rowCount = rowCount;
+        }
+
+        public long getAddress() {
+            return mem.getAddress();
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        private void free() {
+            mem = Misc.free(mem);
+        }
+
+        private boolean isCurrent(LongList tableVersions) {
+            final int n = tableVersions.size();
+            if (this.tableVersions.size() != n) {
+                return false;
+            }
+            for (int i = 0; i < n; i++) {
+                if (this.tableVersions.getQuick(i) != tableVersions.getQuick(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -30,11 +30,14 @@ import io.questdb.cairo.map.RecordValueSinkFactory;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.engine.EmptyTableRecordCursorFactory;
 import io.questdb.griffin.engine.LimitRecordCursorFactory;
+import io.questdb.griffin.engine.ProfiledDataFrameCursorFactory;
+import io.questdb.griffin.engine.ProfiledRecordCursorFactory;
 import io.questdb.griffin.engine.RecordComparator;
 import io.questdb.griffin.engine.analytic.AnalyticFunction;
 import io.questdb.griffin.engine.analytic.CachedAnalyticRecordCursorFactory;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.SymbolFunction;
+import io.questdb.griffin.engine.functions.bool.AdaptiveAndFunction;
 import io.questdb.griffin.engine.functions.constants.LongConstant;
 import io.questdb.griffin.engine.functions.constants.StrConstant;
 import io.questdb.griffin.engine.groupby.*;
@@ -101,6 +104,8 @@ public class SqlCodeGenerator implements Mutable {
     private final IntList recordFunctionPositions = new IntList();
     private final IntList groupByFunctionPositions = new IntList();
     private boolean fullFatJoins = false;
+    // wraps plan nodes to collect run-time statistics for EXPLAIN ANALYZE
+    private boolean profiling = false;
     private final LongList prefixes = new LongList();
 
     static {
@@ -132,7 +137,12 @@ public class SqlCodeGenerator implements Mutable {
     public Function compileFilter(ExpressionNode expr, RecordMetadata metadata, SqlExecutionContext executionContext) throws SqlException {
         final Function filter = functionParser.parseFunction(expr, metadata, executionContext);
         if (ColumnType.isBoolean(filter.getType())) {
-            return filter;
+            return AdaptiveAndFunction.of(
+                    filter,
+                    configuration.getNanosecondClock(),
+                    configuration.getSqlFilterSampleSize(),
+                    configuration.getSqlFilterSampleInterval()
+            );
         }
         Misc.free(filter);
         throw SqlException.$(expr.position, "boolean expression expected");
@@ -316,6 +326,23 @@ public class SqlCodeGenerator implements Mutable {
         );
     }
 
+    private RecordCursorFactory createAsOfSeekJoin(
+            RecordMetadata metadata,
+            RecordCursorFactory master,
+            RecordCursorFactory slave,
+            int columnSplit
+    ) {
+        final boolean keyed = listColumnFilterA.size() > 0;
+        return new AsOfJoinSeekRecordCursorFactory(
+                metadata,
+                master,
+                slave,
+                columnSplit,
+                keyed ? listColumnFilterB.getColumnIndexFactored(0) : -1,
+                keyed ? listColumnFilterA.getColumnIndexFactored(0) : -1
+        );
+    }
+
     @NotNull
     private RecordCursorFactory createFullFatJoin(
             RecordCursorFactory master,
@@ -521,6 +548,19 @@ public class SqlCodeGenerator implements Mutable {
 
         if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
             if (joinType == JOIN_INNER) {
+                if (HashJoinLightPartitionedRecordCursorFactory.isSupported(configuration)) {
+                    return new HashJoinLightPartitionedRecordCursorFactory(
+                            configuration,
+                            metadata,
+                            master,
+                            slave,
+                            valueTypes,
+                            masterKeySink,
+                            slaveKeySink,
+                            masterMetadata.getColumnCount(),
+                            configuration.getSqlHashJoinPartitionCount()
+                    );
+                }
                 return new HashJoinLightRecordCursorFactory(
                         configuration,
                         metadata,
@@ -768,7 +808,17 @@ public class SqlCodeGenerator implements Mutable {
                             case JOIN_ASOF:
                                 validateBothTimestamps(slaveModel, masterMetadata, slaveMetadata);
                                 processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
-                                if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
+                                // seek join reads data frames of the slave directly, profiling wrapper would hide them
+                                final RecordCursorFactory seekSlave = unprofiled(slave);
+                                if (isTimestampSeekSupported(slaveModel, seekSlave, masterMetadata, slaveMetadata, executionContext)) {
+                                    slave = seekSlave;
+                                    master = createAsOfSeekJoin(
+                                            createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                            master,
+                                            slave,
+                                            masterMetadata.getColumnCount()
+                                    );
+                                } else if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
                                     if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
                                         master = createAsOfJoin(
                                                 createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
@@ -903,10 +953,14 @@ public class SqlCodeGenerator implements Mutable {
                     executionContext.popTimestampRequiredFlag();
                 }
 
+                if (i > 0) {
+                    master = profile(master);
+                }
+
                 // check if there are post-filters
                 ExpressionNode filter = slaveModel.getPostJoinWhereClause();
                 if (filter != null) {
-                    master = new FilteredRecordCursorFactory(master, functionParser.parseFunction(filter, master.getMetadata(), executionContext));
+                    master = profile(new FilteredRecordCursorFactory(master, functionParser.parseFunction(filter, master.getMetadata(), executionContext)));
                 }
             }
 
@@ -949,9 +1003,9 @@ public class SqlCodeGenerator implements Mutable {
     ) throws SqlException {
         final DataFrameCursorFactory dataFrameCursorFactory;
         if (intrinsicModel.hasIntervalFilters()) {
-            dataFrameCursorFactory = new IntervalBwdDataFrameCursorFactory(engine, tableName, model.getTableId(), model.getTableVersion(), intrinsicModel.buildIntervalModel(), timestampIndex);
+            dataFrameCursorFactory = profile(new IntervalBwdDataFrameCursorFactory(engine, tableName, model.getTableId(), model.getTableVersion(), intrinsicModel.buildIntervalModel(), timestampIndex));
         } else {
-            dataFrameCursorFactory = new FullBwdDataFrameCursorFactory(engine, tableName, model.getTableId(), model.getTableVersion());
+            dataFrameCursorFactory = profile(new FullBwdDataFrameCursorFactory(engine, tableName, model.getTableId(), model.getTableVersion()));
         }
 
         // 'latest by' clause takes over the filter
@@ -1105,6 +1159,14 @@ public class SqlCodeGenerator implements Mutable {
                     columnIndexes,
                     prefixes
             );
+        } else if (filter == null && listColumnFilterA.size() == 1) {
+            return new LatestByAllSymbolRecordCursorFactory(
+                    configuration,
+                    metadata,
+                    dataFrameCursorFactory,
+                    latestByIndex,
+                    columnIndexes
+            );
         } else {
             return new LatestByAllFilteredRecordCursorFactory(
                     metadata,
@@ -1269,27 +1331,35 @@ public class SqlCodeGenerator implements Mutable {
     private RecordCursorFactory generateQuery(QueryModel model, SqlExecutionContext executionContext, boolean processJoins) throws SqlException {
         RecordCursorFactory factory = generateQuery0(model, executionContext, processJoins);
         if (model.getUnionModel() != null) {
-            return generateSetFactory(model, factory, executionContext);
+            return profile(generateSetFactory(model, factory, executionContext));
         }
         return factory;
     }
 
     private RecordCursorFactory generateQuery0(QueryModel model, SqlExecutionContext executionContext, boolean processJoins) throws SqlException {
-        return generateLimit(
-                generateOrderBy(
-                        generateFilter(
-                                generateSelect(
-                                        model,
-                                        executionContext,
-                                        processJoins
-                                ),
-                                model,
-                                executionContext
+        return profile(
+                generateLimit(
+                        profile(
+                                generateOrderBy(
+                                        profile(
+                                                generateFilter(
+                                                        profile(
+                                                                generateSelect(
+                                                                        model,
+                                                                        executionContext,
+                                                                        processJoins
+                                                                )
+                                                        ),
+                                                        model,
+                                                        executionContext
+                                                )
+                                        ),
+                                        model
+                                )
                         ),
-                        model
-                ),
-                model,
-                executionContext
+                        model,
+                        executionContext
+                )
         );
     }
 
@@ -1676,111 +1746,156 @@ public class SqlCodeGenerator implements Mutable {
         // todo: these ar transient list, we can cache and reuse
         final ObjList<TableColumnMetadata> deferredAnalyticMetadata = new ObjList<>();
 
-        for (int i = 0; i < columnCount; i++) {
-            final QueryColumn qc = columns.getQuick(i);
-            if (qc instanceof AnalyticColumn) {
-                final AnalyticColumn ac = (AnalyticColumn) qc;
-                final ExpressionNode ast = qc.getAst();
-                if (ast.paramCount > 1) {
-                    throw SqlException.$(ast.position, "Too many arguments");
-                }
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                final QueryColumn qc = columns.getQuick(i);
+                if (qc instanceof AnalyticColumn) {
+                    final AnalyticColumn ac = (AnalyticColumn) qc;
+                    validateAnalyticFrame(ac);
+
+                    ObjList<Function> partitionBy = null;
+                    int psz = ac.getPartitionBy().size();
+                    if (psz > 0) {
+                        partitionBy = new ObjList<>(psz);
+                        for (int j = 0; j < psz; j++) {
+                            partitionBy.add(
+                                    functionParser.parseFunction(ac.getPartitionBy().getQuick(j), chainMetadata, executionContext)
+                            );
+                        }
+                    }
+
+                    final VirtualRecord partitionByRecord;
+                    final RecordSink partitionBySink;
 
-                ObjList<Function> partitionBy = null;
-                int psz = ac.getPartitionBy().size();
-                if (psz > 0) {
-                    partitionBy = new ObjList<>(psz);
-                    for (int j = 0; j < psz; j++) {
-                        partitionBy.add(
-                                functionParser.parseFunction(ac.getPartitionBy().getQuick(j), chainMetadata, executionContext)
+                    if (partitionBy != null) {
+                        partitionByRecord = new VirtualRecord(partitionBy);
+                        keyTypes.clear();
+                        final int partitionByCount = partitionBy.size();
+
+                        for (int j = 0; j < partitionByCount; j++) {
+                            keyTypes.add(partitionBy.getQuick(j).getType());
+                        }
+                        entityColumnFilter.of(partitionByCount);
+                        // create sink
+                        partitionBySink = RecordSinkFactory.getInstance(
+                                asm,
+                                keyTypes,
+                                entityColumnFilter,
+                                false
                         );
+                    } else {
+                        partitionByRecord = null;
+                        partitionBySink = null;
                     }
-                }
 
-                final VirtualRecord partitionByRecord;
-                final RecordSink partitionBySink;
 
-                if (partitionBy != null) {
-                    partitionByRecord = new VirtualRecord(partitionBy);
-                    keyTypes.clear();
-                    final int partitionByCount = partitionBy.size();
+                    final int osz = ac.getOrderBy().size();
+                    final IntList order;
+                    final RecordComparator orderByComparator;
+                    if (osz > 0) {
+                        order = toOrderIndices(chainMetadata, ac.getOrderBy(), ac.getOrderByDirection());
+                        orderByComparator = recordComparatorCompiler.compile(chainTypes, order);
+                    } else {
+                        order = null;
+                        orderByComparator = null;
+                    }
 
-                    for (int j = 0; j < partitionByCount; j++) {
-                        keyTypes.add(partitionBy.getQuick(j).getType());
+                    Function orderByFunction = null;
+                    if (ac.getFramingMode() == AnalyticColumn.FRAMING_RANGE && ac.getRowsLo() != AnalyticColumn.UNBOUNDED_PRECEDING) {
+                        // range offset is applied to the value of the single numeric order by column
+                        if (osz != 1) {
+                            throw SqlException.$(ac.getRowsLoPosition(), "RANGE with offset requires exactly one ORDER BY column");
+                        }
+                        orderByFunction = functionParser.parseFunction(ac.getOrderBy().getQuick(0), chainMetadata, executionContext);
+                        switch (ColumnType.tagOf(orderByFunction.getType())) {
+                            case ColumnType.BYTE:
+                            case ColumnType.SHORT:
+                            case ColumnType.INT:
+                            case ColumnType.LONG:
+                            case ColumnType.DATE:
+                            case ColumnType.TIMESTAMP:
+                                break;
+                            default:
+                                Misc.free(orderByFunction);
+                                throw SqlException.$(ac.getOrderBy().getQuick(0).position, "RANGE with offset requires integer, date or timestamp ORDER BY column");
+                        }
                     }
-                    entityColumnFilter.of(partitionByCount);
-                    // create sink
-                    partitionBySink = RecordSinkFactory.getInstance(
-                            asm,
+
+                    executionContext.configureAnalyticContext(
+                            partitionByRecord,
+                            partitionBySink,
                             keyTypes,
-                            entityColumnFilter,
-                            false
+                            osz > 0,
+                            base.recordCursorSupportsRandomAccess(),
+                            orderByComparator,
+                            orderByFunction,
+                            osz > 0 ? ac.getOrderByDirection().getQuick(0) : QueryModel.ORDER_DIRECTION_ASCENDING,
+                            ac.getFramingMode(),
+                            ac.getRowsLo(),
+                            ac.getRowsHi()
                     );
-                } else {
-                    partitionByRecord = null;
-                    partitionBySink = null;
-                }
-
-
-                final int osz = ac.getOrderBy().size();
-                executionContext.configureAnalyticContext(
-                        partitionByRecord,
-                        partitionBySink,
-                        keyTypes,
-                        osz > 0,
-                        base.recordCursorSupportsRandomAccess()
-                );
 
-                final Function f = functionParser.parseFunction(ac.getAst(), baseMetadata, executionContext);
-                // todo: throw an error when non-analytic function is called in analytic context
-                assert f instanceof AnalyticFunction;
-                AnalyticFunction analyticFunction = (AnalyticFunction) f;
-
-                // analyze order by clause on the current model and optimise out
-                // order by on analytic function if it matches the one on the model
-                final LowerCaseCharSequenceIntHashMap orderHash = model.getOrderHash();
-                boolean dismissOrder;
-                if (osz > 0 && orderHash.size() > 0) {
-                    dismissOrder = true;
-                    for (int j = 0; j < osz; j++) {
-                        ExpressionNode node = ac.getOrderBy().getQuick(j);
-                        int direction = ac.getOrderByDirection().getQuick(j);
-                        if (orderHash.get(node.token) != direction) {
-                            dismissOrder = false;
-                            break;
+                    // analytic function arguments are evaluated against records of the chain
+                    final Function f = functionParser.parseAnalyticFunction(ac.getAst(), chainMetadata, executionContext);
+                    if (!(f instanceof AnalyticFunction)) {
+                        Misc.free(f);
+                        throw SqlException.$(ac.getAst().position, "analytic function expected");
+                    }
+                    AnalyticFunction analyticFunction = (AnalyticFunction) f;
+
+                    // analyze order by clause on the current model and optimise out
+                    // order by on analytic function if it matches the one on the model
+                    final LowerCaseCharSequenceIntHashMap orderHash = model.getOrderHash();
+                    boolean dismissOrder;
+                    if (osz > 0 && orderHash.size() > 0) {
+                        dismissOrder = true;
+                        for (int j = 0; j < osz; j++) {
+                            ExpressionNode node = ac.getOrderBy().getQuick(j);
+                            int direction = ac.getOrderByDirection().getQuick(j);
+                            if (orderHash.get(node.token) != direction) {
+                                dismissOrder = false;
+                                break;
+                            }
                         }
+                    } else {
+                        dismissOrder = false;
                     }
-                } else {
-                    dismissOrder = false;
-                }
 
-                if (osz > 0 && !dismissOrder) {
-                    IntList order = toOrderIndices(chainMetadata, ac.getOrderBy(), ac.getOrderByDirection());
-                    ObjList<AnalyticFunction> funcs = grouppedAnalytic.get(order);
-                    if (funcs == null) {
-                        grouppedAnalytic.put(order, funcs = new ObjList<>());
-                    }
-                    funcs.add(analyticFunction);
-                } else {
-                    if (naturalOrderFunctions == null) {
-                        naturalOrderFunctions = new ObjList<>();
+                    if (osz > 0 && !dismissOrder) {
+                        ObjList<AnalyticFunction> funcs = grouppedAnalytic.get(order);
+                        if (funcs == null) {
+                            grouppedAnalytic.put(order, funcs = new ObjList<>());
+                        }
+                        funcs.add(analyticFunction);
+                    } else {
+                        if (naturalOrderFunctions == null) {
+                            naturalOrderFunctions = new ObjList<>();
+                        }
+                        naturalOrderFunctions.add(analyticFunction);
                     }
-                    naturalOrderFunctions.add(analyticFunction);
-                }
 
-                analyticFunction.setColumnIndex(i);
+                    analyticFunction.setColumnIndex(i);
 
-                deferredAnalyticMetadata.extendAndSet(i, new TableColumnMetadata(
-                        Chars.toString(qc.getAlias()),
-                        0, // transient column hash is 0
-                        analyticFunction.getType(),
-                        false,
-                        0,
-                        false,
-                        null
-                ));
+                    deferredAnalyticMetadata.extendAndSet(i, new TableColumnMetadata(
+                            Chars.toString(qc.getAlias()),
+                            0, // transient column hash is 0
+                            analyticFunction.getType(),
+                            false,
+                            0,
+                            false,
+                            null
+                    ));
 
-                listColumnFilterA.extendAndSet(i, -i - 1);
+                    listColumnFilterA.extendAndSet(i, -i - 1);
+                }
+            }
+        } catch (Throwable e) {
+            Misc.free(base);
+            Misc.freeObjList(naturalOrderFunctions);
+            for (ObjObjHashMap.Entry<IntList, ObjList<AnalyticFunction>> en : grouppedAnalytic) {
+                Misc.freeObjList(en.value);
             }
+            throw e;
         }
 
         // after all columns are processed we can re-insert deferred metadata
@@ -2526,10 +2641,10 @@ public class SqlCodeGenerator implements Mutable {
                 final boolean intervalHitsOnlyOnePartition;
                 if (intrinsicModel.hasIntervalFilters()) {
                     RuntimeIntrinsicIntervalModel intervalModel = intrinsicModel.buildIntervalModel();
-                    dfcFactory = new IntervalFwdDataFrameCursorFactory(engine, tableName, model.getTableId(), model.getTableVersion(),  intervalModel, readerTimestampIndex);
+                    dfcFactory = profile(new IntervalFwdDataFrameCursorFactory(engine, tableName, model.getTableId(), model.getTableVersion(),  intervalModel, readerTimestampIndex));
                     intervalHitsOnlyOnePartition = intervalModel.allIntervalsHitOnePartition(reader.getPartitionedBy());
                 } else {
-                    dfcFactory = new FullFwdDataFrameCursorFactory(engine, tableName, model.getTableId(), model.getTableVersion());
+                    dfcFactory = profile(new FullFwdDataFrameCursorFactory(engine, tableName, model.getTableId(), model.getTableVersion()));
                     intervalHitsOnlyOnePartition = false;
                 }
 
@@ -2766,7 +2881,7 @@ public class SqlCodeGenerator implements Mutable {
 
                 return new DataFrameRecordCursorFactory(
                         myMeta,
-                        new FullFwdDataFrameCursorFactory(engine, tableName, model.getTableId(), model.getTableVersion()),
+                        profile(new FullFwdDataFrameCursorFactory(engine, tableName, model.getTableId(), model.getTableVersion())),
                         new DataFrameRowCursorFactory(),
                         false,
                         null,
@@ -2780,7 +2895,7 @@ public class SqlCodeGenerator implements Mutable {
                 return new LatestByAllIndexedFilteredRecordCursorFactory(
                         configuration,
                         myMeta,
-                        new FullBwdDataFrameCursorFactory(engine, tableName, model.getTableId(), model.getTableVersion()),
+                        profile(new FullBwdDataFrameCursorFactory(engine, tableName, model.getTableId(), model.getTableVersion())),
                         listColumnFilterA.getColumnIndexFactored(0),
                         null,
                         columnIndexes,
@@ -2788,10 +2903,20 @@ public class SqlCodeGenerator implements Mutable {
                 );
             }
 
+            if (latestByColumnCount == 1 && ColumnType.isSymbol(myMeta.getColumnType(listColumnFilterA.getColumnIndexFactored(0)))) {
+                return new LatestByAllSymbolRecordCursorFactory(
+                        configuration,
+                        myMeta,
+                        profile(new FullBwdDataFrameCursorFactory(engine, tableName, model.getTableId(), model.getTableVersion())),
+                        listColumnFilterA.getColumnIndexFactored(0),
+                        columnIndexes
+                );
+            }
+
             return new LatestByAllFilteredRecordCursorFactory(
                     myMeta,
                     configuration,
-                    new FullBwdDataFrameCursorFactory(engine, tableName, model.getTableId(), model.getTableVersion()),
+                    profile(new FullBwdDataFrameCursorFactory(engine, tableName, model.getTableId(), model.getTableVersion())),
                     RecordSinkFactory.getInstance(asm, myMeta, listColumnFilterA, false),
                     keyTypes,
                     null,
@@ -2881,6 +3006,55 @@ public class SqlCodeGenerator implements Mutable {
         return ast.type == FUNCTION && ast.paramCount == 1 && Chars.equals(ast.token, name) && ast.rhs.type == LITERAL;
     }
 
+    private boolean isTimestampSeekSupported(
+            QueryModel slaveModel,
+            RecordCursorFactory slave,
+            RecordMetadata masterMetadata,
+            RecordMetadata slaveMetadata,
+            SqlExecutionContext executionContext
+    ) {
+        if (fullFatJoins
+                || !(slave instanceof DataFrameRecordCursorFactory)
+                || !((DataFrameRecordCursorFactory) slave).supportsTimestampSeek()
+                || listColumnFilterA.size() != listColumnFilterB.size()
+                || listColumnFilterA.size() > 1) {
+            return false;
+        }
+
+        if (listColumnFilterA.size() == 1) {
+            // keyed lookup walks symbol index of the slave
+            final int slaveKeyIndex = listColumnFilterA.getColumnIndexFactored(0);
+            final int masterKeyType = masterMetadata.getColumnType(listColumnFilterB.getColumnIndexFactored(0));
+            if (!ColumnType.isSymbol(slaveMetadata.getColumnType(slaveKeyIndex))
+                    || !slaveMetadata.isColumnIndexed(slaveKeyIndex)
+                    || !ColumnType.isSymbolOrString(masterKeyType)) {
+                return false;
+            }
+        }
+
+        // slave factory reads table directly, find the model of that table
+        QueryModel tableModel = slaveModel;
+        while (tableModel.getTableName() == null) {
+            tableModel = tableModel.getNestedModel();
+            if (tableModel == null) {
+                return false;
+            }
+        }
+
+        // data frames are ordered by designated timestamp, which the join must also be using
+        try (TableReader reader = engine.getReader(
+                executionContext.getCairoSecurityContext(),
+                tableModel.getTableName().token,
+                tableModel.getTableId(),
+                tableModel.getTableVersion())
+        ) {
+            final RecordMetadata readerMetadata = reader.getMetadata();
+            final int readerTimestampIndex = readerMetadata.getTimestampIndex();
+            return readerTimestampIndex != -1
+                    && Chars.equals(readerMetadata.getColumnName(readerTimestampIndex), slaveMetadata.getColumnName(slaveMetadata.getTimestampIndex()));
+        }
+    }
+
     private void lookupColumnIndexes(
             ListColumnFilter filter,
             ObjList<ExpressionNode> columnNames,
@@ -2898,7 +3072,7 @@ public class SqlCodeGenerator implements Mutable {
                     columnIndex = metadata.getColumnIndexQuiet(columnName, dot + 1, columnName.length());
                     if (columnIndex > -1) {
                         filter.add(columnIndex + 1);
-                        return;
+                        continue;
                     }
                 }
                 throw SqlException.invalidColumn(columnNames.getQuick(i).position, columnName);
@@ -2949,6 +3123,24 @@ public class SqlCodeGenerator implements Mutable {
         this.fullFatJoins = fullFatJoins;
     }
 
+    void setProfiling(boolean profiling) {
+        this.profiling = profiling;
+    }
+
+    private RecordCursorFactory profile(RecordCursorFactory factory) {
+        if (profiling && !(factory instanceof ProfiledRecordCursorFactory)) {
+            return new ProfiledRecordCursorFactory(factory, configuration.getNanosecondClock());
+        }
+        return factory;
+    }
+
+    private DataFrameCursorFactory profile(DataFrameCursorFactory factory) {
+        if (profiling) {
+            return new ProfiledDataFrameCursorFactory(factory, configuration.getNanosecondClock());
+        }
+        return factory;
+    }
+
     private IntList toOrderIndices(RecordMetadata m, ObjList<ExpressionNode> orderBy, IntList orderByDirection) throws SqlException {
         // todo: pool
         final IntList indices = new IntList();
@@ -2972,6 +3164,24 @@ public class SqlCodeGenerator implements Mutable {
         return indices;
     }
 
+    private static RecordCursorFactory unprofiled(RecordCursorFactory factory) {
+        if (factory instanceof ProfiledRecordCursorFactory) {
+            return ((ProfiledRecordCursorFactory) factory).getBaseFactory();
+        }
+        return factory;
+    }
+
+    private void validateAnalyticFrame(AnalyticColumn ac) throws SqlException {
+        final long lo = ac.getRowsLo();
+        final long hi = ac.getRowsHi();
+        if (lo > AnalyticColumn.CURRENT_ROW) {
+            throw SqlException.$(ac.getRowsLoPosition(), "frame start FOLLOWING is not supported");
+        }
+        if (hi != AnalyticColumn.CURRENT_ROW && (hi != AnalyticColumn.UNBOUNDED_FOLLOWING || lo != AnalyticColumn.UNBOUNDED_PRECEDING)) {
+            throw SqlException.$(ac.getRowsHiPosition(), "frame end must be CURRENT ROW or, when frame start is UNBOUNDED PRECEDING, UNBOUNDED FOLLOWING");
+        }
+    }
+
     private void validateBothTimestamps(QueryModel slaveModel, RecordMetadata masterMetadata, RecordMetadata slaveMetadata) throws SqlException {
         if (masterMetadata.getTimestampIndex() == -1) {
             throw SqlException.$(slaveModel.getJoinKeywordPosition(), "left side of time series join has no timestamp");
@@ -33,12 +33,15 @@ import io.questdb.cairo.vm.api.MemoryMARW;
 import io.questdb.cutlass.text.Atomicity;
 import io.questdb.cutlass.text.TextException;
 import io.questdb.cutlass.text.TextLoader;
+import io.questdb.griffin.engine.CachedResultRecordCursorFactory;
+import io.questdb.griffin.engine.ExplainRecordCursorFactory;
 import io.questdb.griffin.engine.functions.cast.CastCharToStrFunctionFactory;
 import io.questdb.griffin.engine.functions.cast.CastStrToGeoHashFunctionFactory;
 import io.questdb.griffin.engine.functions.catalogue.ShowSearchPathCursorFactory;
 import io.questdb.griffin.engine.functions.catalogue.ShowStandardConformingStringsCursorFactory;
 import io.questdb.griffin.engine.functions.catalogue.ShowTimeZoneFactory;
 import io.questdb.griffin.engine.functions.catalogue.ShowTransactionIsolationLevelCursorFactory;
+import io.questdb.griffin.engine.table.DataFrameRecordCursorFactory;
 import io.questdb.griffin.engine.table.ShowColumnsRecordCursorFactory;
 import io.questdb.griffin.engine.table.TableListRecordCursorFactory;
 import io.questdb.griffin.model.*;
@@ -87,6 +90,7 @@ public class SqlCompiler implements Closeable {
     private final ObjList<TableWriter> tableWriters = new ObjList<>();
     private final TableStructureAdapter tableStructureAdapter = new TableStructureAdapter();
     private final FunctionParser functionParser;
+    private final ObjList<CharSequence> resultCacheTableNames = new ObjList<>();
     private final ExecutableMethod insertAsSelectMethod = this::insertAsSelect;
     private final ExecutableMethod createTableMethod = this::createTable;
     private final TextLoader textLoader;
@@ -129,9 +133,11 @@ public class SqlCompiler implements Closeable {
         final KeywordBasedExecutor truncateTables = this::truncateTables;
         final KeywordBasedExecutor alterTable = this::alterTable;
         final KeywordBasedExecutor repairTables = this::repairTables;
+        final KeywordBasedExecutor analyzeTables = this::analyzeTables;
         final KeywordBasedExecutor dropTable = this::dropTable;
         final KeywordBasedExecutor sqlBackup = backupAgent::sqlBackup;
         final KeywordBasedExecutor sqlShow = this::sqlShow;
+        final KeywordBasedExecutor explain = this::explain;
 
         keywordBasedExecutors.put("truncate", truncateTables);
         keywordBasedExecutors.put("TRUNCATE", truncateTables);
@@ -139,6 +145,8 @@ public class SqlCompiler implements Closeable {
         keywordBasedExecutors.put("ALTER", alterTable);
         keywordBasedExecutors.put("repair", repairTables);
         keywordBasedExecutors.put("REPAIR", repairTables);
+        keywordBasedExecutors.put("analyze", analyzeTables);
+        keywordBasedExecutors.put("ANALYZE", analyzeTables);
         keywordBasedExecutors.put("set", compileSet);
         keywordBasedExecutors.put("SET", compileSet);
         keywordBasedExecutors.put("begin", compileSet);
@@ -155,6 +163,8 @@ public class SqlCompiler implements Closeable {
         keywordBasedExecutors.put("BACKUP", sqlBackup);
         keywordBasedExecutors.put("show", sqlShow);
         keywordBasedExecutors.put("SHOW", sqlShow);
+        keywordBasedExecutors.put("explain", explain);
+        keywordBasedExecutors.put("EXPLAIN", explain);
 
         configureLexer(lexer);
 
@@ -834,6 +844,30 @@ public class SqlCompiler implements Closeable {
         return functionParser.getFunctionFactoryCache();
     }
 
+    // collects names of tables the query reads, returns false when query reads from table functions
+    private static boolean collectTableNames(QueryModel model, ObjList<CharSequence> sink) {
+        while (model != null) {
+            final ObjList<QueryModel> joinModels = model.getJoinModels();
+            for (int i = 1, n = joinModels.size(); i < n; i++) {
+                if (!collectTableNames(joinModels.getQuick(i), sink)) {
+                    return false;
+                }
+            }
+            final ExpressionNode tableName = model.getTableName();
+            if (tableName != null) {
+                if (tableName.type != ExpressionNode.LITERAL) {
+                    return false;
+                }
+                sink.add(tableName.token);
+            }
+            if (model.getUnionModel() != null && !collectTableNames(model.getUnionModel(), sink)) {
+                return false;
+            }
+            model = model.getNestedModel();
+        }
+        return true;
+    }
+
     private static boolean isCompatibleCase(int from, int to) {
         return castGroups.getQuick(ColumnType.tagOf(from)) == castGroups.getQuick(ColumnType.tagOf(to));
     }
@@ -1434,7 +1468,7 @@ public class SqlCompiler implements Closeable {
         switch (executionModel.getModelType()) {
             case ExecutionModel.QUERY:
                 LOG.info().$("plan [q=`").$((QueryModel) executionModel).$("`, fd=").$(executionContext.getRequestFd()).$(']').$();
-                return compiledQuery.of(generate((QueryModel) executionModel, executionContext));
+                return compiledQuery.of(generateSelect((QueryModel) executionModel, executionContext));
             case ExecutionModel.CREATE_TABLE:
                 return createTableWithRetries(executionModel, executionContext);
             case ExecutionModel.COPY:
@@ -1615,6 +1649,21 @@ public class SqlCompiler implements Closeable {
         }
     }
 
+    private TableWriter copyTableData(CharSequence tableName, PageFrameCursor pageFrameCursor) {
+        TableWriter writer = new TableWriter(configuration, tableName, messageBus, false, DefaultLifecycleManager.INSTANCE);
+        try {
+            // new table is empty, its max timestamp cannot be ahead of the rows
+            if (writer.appendPageFrames(pageFrameCursor) < 0) {
+                throw CairoException.instance(0).put("could not append page frames [table=").put(tableName).put(']');
+            }
+            writer.commit();
+            return writer;
+        } catch (Throwable e) {
+            writer.close();
+            throw e;
+        }
+    }
+
     private void copyTableData(RecordCursor cursor, RecordMetadata metadata, TableWriter writer, RecordMetadata writerMetadata, RecordToRowCopier recordToRowCopier) {
         int timestampIndex = writerMetadata.getTimestampIndex();
         if (timestampIndex == -1) {
@@ -1674,27 +1723,41 @@ public class SqlCompiler implements Closeable {
     }
 
     private TableWriter createTableFromCursor(CreateTableModel model, SqlExecutionContext executionContext) throws SqlException {
-        try (final RecordCursorFactory factory = generate(model.getQueryModel(), executionContext);
-             final RecordCursor cursor = factory.getCursor(executionContext)
-        ) {
+        try (final RecordCursorFactory factory = generate(model.getQueryModel(), executionContext)) {
             typeCast.clear();
             final RecordMetadata metadata = factory.getMetadata();
             validateTableModelAndCreateTypeCast(model, metadata, typeCast);
-            engine.createTableUnsafe(
-                    executionContext.getCairoSecurityContext(),
-                    mem,
-                    path,
-                    tableStructureAdapter.of(model, metadata, typeCast)
+            tableStructureAdapter.of(model, metadata, typeCast);
+            final boolean pageFrameCopy = isPageFrameCopySupported(
+                    model.getQueryModel(),
+                    factory,
+                    tableStructureAdapter,
+                    tableStructureAdapter.getTimestampIndex(),
+                    executionContext
             );
+            try (
+                    final RecordCursor cursor = pageFrameCopy ? null : factory.getCursor(executionContext);
+                    final PageFrameCursor pageFrameCursor = pageFrameCopy ? factory.getPageFrameCursor(executionContext) : null
+            ) {
+                engine.createTableUnsafe(
+                        executionContext.getCairoSecurityContext(),
+                        mem,
+                        path,
+                        tableStructureAdapter
+                );
 
-            try {
-                return copyTableData(model.getName().token, cursor, metadata);
-            } catch (CairoException e) {
-                LOG.error().$(e.getFlyweightMessage()).$(" [errno=").$(e.getErrno()).$(']').$();
-                if (removeTableDirectory(model)) {
-                    throw e;
+                try {
+                    if (pageFrameCopy) {
+                        return copyTableData(model.getName().token, pageFrameCursor);
+                    }
+                    return copyTableData(model.getName().token, cursor, metadata);
+                } catch (CairoException e) {
+                    LOG.error().$(e.getFlyweightMessage()).$(" [errno=").$(e.getErrno()).$(']').$();
+                    if (removeTableDirectory(model)) {
+                        throw e;
+                    }
+                    throw SqlException.$(0, "Concurrent modification could not be handled. Failed to clean up. See log for more details.");
                 }
-                throw SqlException.$(0, "Concurrent modification could not be handled. Failed to clean up. See log for more details.");
             }
         }
     }
@@ -1750,6 +1813,38 @@ public class SqlCompiler implements Closeable {
         return compiledQuery.ofCopyLocal();
     }
 
+    private CompiledQuery explain(SqlExecutionContext executionContext) throws SqlException {
+        final CharSequence tok = SqlUtil.fetchNext(lexer);
+        if (tok == null) {
+            throw SqlException.$(lexer.getPosition(), "query expected");
+        }
+        final boolean analyze = isAnalyzeKeyword(tok);
+        if (!analyze) {
+            lexer.unparse();
+        }
+        final int position = lexer.getPosition();
+        codeGenerator.clear();
+
+        final ExecutionModel executionModel = compileExecutionModel(executionContext);
+        if (executionModel.getModelType() != ExecutionModel.QUERY) {
+            throw SqlException.$(position, "select query expected");
+        }
+
+        final RecordCursorFactory factory;
+        if (analyze) {
+            // result cache is bypassed, cache hit would not execute plan nodes we profile
+            codeGenerator.setProfiling(true);
+            try {
+                factory = generate((QueryModel) executionModel, executionContext);
+            } finally {
+                codeGenerator.setProfiling(false);
+            }
+        } else {
+            factory = generateSelect((QueryModel) executionModel, executionContext);
+        }
+        return compiledQuery.of(new ExplainRecordCursorFactory(factory, analyze));
+    }
+
     private CompiledQuery executeWithRetries(
             ExecutableMethod method,
             ExecutionModel executionModel,
@@ -1775,6 +1870,26 @@ public class SqlCompiler implements Closeable {
         return codeGenerator.generate(queryModel, executionContext);
     }
 
+    private RecordCursorFactory generateSelect(QueryModel queryModel, SqlExecutionContext executionContext) throws SqlException {
+        final QueryResultCache resultCache = engine.getQueryResultCache();
+        if (!resultCache.isEnabled()) {
+            return generate(queryModel, executionContext);
+        }
+
+        functionParser.resetDeterminism();
+        final RecordCursorFactory factory = generate(queryModel, executionContext);
+        resultCacheTableNames.clear();
+        // results are cached only when they depend solely on bind variables and data in tables
+        if (functionParser.isDeterministic()
+                && collectTableNames(queryModel, resultCacheTableNames)
+                && resultCacheTableNames.size() > 0
+                && CachedResultRecordCursorFactory.isCacheable(factory.getMetadata())
+        ) {
+            return new CachedResultRecordCursorFactory(factory, resultCache, lexer.getContent(), resultCacheTableNames);
+        }
+        return factory;
+    }
+
     private CompiledQuery insert(ExecutionModel executionModel, SqlExecutionContext executionContext) throws SqlException {
         final InsertModel model = (InsertModel) executionModel;
         final ExpressionNode name = model.getTableName();
@@ -1980,6 +2095,23 @@ public class SqlCompiler implements Closeable {
                 copier = assembleRecordToRowCopier(asm, cursorMetadata, writerMetadata, entityColumnFilter);
             }
 
+            if (columnSetSize == 0
+                    && model.getBatchSize() == -1
+                    && isPageFrameCopySupported(model.getQueryModel(), factory, writerMetadata, writerTimestampIndex, executionContext)) {
+                try (PageFrameCursor pageFrameCursor = factory.getPageFrameCursor(executionContext)) {
+                    try {
+                        if (writer.appendPageFrames(pageFrameCursor) > -1) {
+                            writer.commit();
+                            return compiledQuery.ofInsertAsSelect();
+                        }
+                    } catch (Throwable e) {
+                        writer.rollback();
+                        throw e;
+                    }
+                }
+                // selected rows overlap existing rows of the table, copy them one by one
+            }
+
             try (RecordCursor cursor = factory.getCursor(executionContext)) {
                 try {
                     if (writerTimestampIndex == -1) {
@@ -2009,6 +2141,65 @@ public class SqlCompiler implements Closeable {
         return compiledQuery.ofInsertAsSelect();
     }
 
+    /**
+     * Rows can be copied by page frames, column by column, when the query is a plain forward scan
+     * of a table, which produces every row of its page frames in timestamp order, and selected columns
+     * match target columns by position and type.
+     */
+    private boolean isPageFrameCopySupported(
+            QueryModel queryModel,
+            RecordCursorFactory factory,
+            ColumnTypes targetTypes,
+            int targetTimestampIndex,
+            SqlExecutionContext executionContext
+    ) {
+        if (!(factory instanceof DataFrameRecordCursorFactory)
+                || !factory.supportPageFrameCursor()
+                || !((DataFrameRecordCursorFactory) factory).supportsTimestampSeek()) {
+            return false;
+        }
+
+        final RecordMetadata metadata = factory.getMetadata();
+        final int columnCount = metadata.getColumnCount();
+        if (columnCount != targetTypes.getColumnCount()) {
+            return false;
+        }
+        for (int i = 0; i < columnCount; i++) {
+            if (metadata.getColumnType(i) != targetTypes.getColumnType(i)) {
+                return false;
+            }
+        }
+
+        if (targetTimestampIndex == -1) {
+            return true;
+        }
+
+        if (targetTimestampIndex != metadata.getTimestampIndex()) {
+            return false;
+        }
+
+        QueryModel tableModel = queryModel;
+        while (tableModel.getTableName() == null) {
+            tableModel = tableModel.getNestedModel();
+            if (tableModel == null) {
+                return false;
+            }
+        }
+
+        // page frames are ordered by designated timestamp of the source, which must also be the one selected
+        try (TableReader reader = engine.getReader(
+                executionContext.getCairoSecurityContext(),
+                tableModel.getTableName().token,
+                tableModel.getTableId(),
+                tableModel.getTableVersion())
+        ) {
+            final RecordMetadata readerMetadata = reader.getMetadata();
+            final int readerTimestampIndex = readerMetadata.getTimestampIndex();
+            return readerTimestampIndex != -1
+                    && Chars.equals(readerMetadata.getColumnName(readerTimestampIndex), metadata.getColumnName(targetTimestampIndex));
+        }
+    }
+
     private ExecutionModel lightlyValidateInsertModel(InsertModel model) throws SqlException {
         ExpressionNode tableName = model.getTableName();
         if (tableName.type != ExpressionNode.LITERAL) {
@@ -2059,6 +2250,33 @@ public class SqlCompiler implements Closeable {
         return compiledQuery.ofRepair();
     }
 
+    private CompiledQuery analyzeTables(SqlExecutionContext executionContext) throws SqlException {
+        CharSequence tok;
+        tok = SqlUtil.fetchNext(lexer);
+        if (tok == null || !isTableKeyword(tok)) {
+            throw SqlException.$(lexer.lastTokenPosition(), "'table' expected");
+        }
+
+        do {
+            tok = SqlUtil.fetchNext(lexer);
+
+            if (tok == null || Chars.equals(tok, ',')) {
+                throw SqlException.$(lexer.getPosition(), "table name expected");
+            }
+
+            if (Chars.isQuoted(tok)) {
+                tok = GenericLexer.unquote(tok);
+            }
+            tableExistsOrFail(lexer.lastTokenPosition(), tok, executionContext);
+            try (TableReader reader = engine.getReader(executionContext.getCairoSecurityContext(), tok)) {
+                engine.putTableStatistics(tok, TableStatistics.collect(reader));
+            }
+            tok = SqlUtil.fetchNext(lexer);
+
+        } while (tok != null && Chars.equals(tok, ','));
+        return compiledQuery.ofAnalyze();
+    }
+
     void setFullFatJoins(boolean value) {
         codeGenerator.setFullFatJoins(value);
     }
@@ -2220,6 +2438,7 @@ public class SqlCompiler implements Closeable {
                         if (engine.lockReaders(writer.getTableName())) {
                             try {
                                 writer.truncate();
+                                engine.removeTableStatistics(writer.getTableName());
                             } finally {
                                 engine.unlockReaders(writer.getTableName());
                             }
@@ -2360,7 +2579,7 @@ public class SqlCompiler implements Closeable {
         public static final int ATTACH = 2;
     }
 
-    private static class TableStructureAdapter implements TableStructure {
+    private static class TableStructureAdapter implements TableStructure, ColumnTypes {
         private CreateTableModel model;
         private RecordMetadata metadata;
         private IntIntHashMap typeCast;
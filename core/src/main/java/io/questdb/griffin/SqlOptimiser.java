@@ -89,6 +89,8 @@ class SqlOptimiser {
     private final CharSequenceObjHashMap<ExpressionNode> constNameToNode = new CharSequenceObjHashMap<>();
     private final IntList tempCrossIndexes = new IntList();
     private final IntList clausesToSteal = new IntList();
+    private final ObjList<JoinContext> statisticsContexts = new ObjList<>();
+    private final IntList statisticsPositions = new IntList();
     private final ObjectPool<IntHashSet> intHashSetPool = new ObjectPool<>(IntHashSet::new, 16);
     private final ObjectPool<QueryModel> queryModelPool;
     private final IntPriorityQueue orderingStack = new IntPriorityQueue();
@@ -688,6 +690,43 @@ class SqlOptimiser {
         }
     }
 
+    private void convertOuterJoins(QueryModel parent, ExpressionNode where) throws SqlException {
+        // outer join is equivalent to inner join when "where" clause rejects
+        // null values of the slave table, for example:
+        // a left join b on (s) where b.ts in '2022-01'
+        // this lets optimiser push such predicates into the slave table
+        final ObjList<QueryModel> joinModels = parent.getJoinModels();
+        ExpressionNode n = where;
+        sqlNodeStack.clear();
+        while (!sqlNodeStack.isEmpty() || n != null) {
+            if (n != null) {
+                if (SqlKeywords.isAndKeyword(n.token)) {
+                    if (n.rhs != null) {
+                        sqlNodeStack.push(n.rhs);
+                    }
+                    n = n.lhs;
+                    continue;
+                }
+
+                if (isNullRejecting(n)) {
+                    literalCollectorAIndexes.clear();
+                    literalCollector.withModel(parent);
+                    literalCollector.resetNullCount();
+                    traversalAlgo.traverse(n, literalCollector.to(literalCollectorAIndexes));
+                    if (literalCollectorAIndexes.size() == 1) {
+                        final QueryModel m = joinModels.getQuick(literalCollectorAIndexes.get(0));
+                        if (m.getJoinType() == QueryModel.JOIN_OUTER) {
+                            m.setJoinType(QueryModel.JOIN_INNER);
+                        }
+                    }
+                }
+                n = null;
+            } else {
+                n = sqlNodeStack.poll();
+            }
+        }
+    }
+
     private void copyColumnsFromMetadata(QueryModel model, RecordMetadata m, boolean cleanColumnNames) throws SqlException {
         // column names are not allowed to have dot
 
@@ -712,6 +751,31 @@ class SqlOptimiser {
         }
     }
 
+    private ExpressionNode copyWhereNode(ExpressionNode node, QueryModel from, QueryModel to) {
+        if (node == null) {
+            return null;
+        }
+
+        final ExpressionNode copy = expressionNodePool.next().of(node.type, node.token, node.precedence, node.position);
+        copy.paramCount = node.paramCount;
+        copy.innerPredicate = node.innerPredicate;
+        if (node.type == LITERAL) {
+            final ObjList<QueryColumn> fromColumns = from.getBottomUpColumns();
+            for (int i = 0, n = fromColumns.size(); i < n; i++) {
+                if (Chars.equalsIgnoreCase(fromColumns.getQuick(i).getAlias(), node.token)) {
+                    copy.token = to.getBottomUpColumns().getQuick(i).getAlias();
+                    break;
+                }
+            }
+        }
+        copy.lhs = copyWhereNode(node.lhs, from, to);
+        copy.rhs = copyWhereNode(node.rhs, from, to);
+        for (int i = 0, n = node.args.size(); i < n; i++) {
+            copy.args.add(copyWhereNode(node.args.getQuick(i), from, to));
+        }
+        return copy;
+    }
+
     private CharSequence createColumnAlias(CharSequence name, QueryModel model, boolean cleanColumnNames) {
         return SqlUtil.createColumnAlias(characterStore, name, -1, model.getAliasToColumnMap(), cleanColumnNames);
     }
@@ -1463,6 +1527,21 @@ class SqlOptimiser {
         return false;
     }
 
+    private boolean hasSubQuery(ExpressionNode node) {
+        if (node == null) {
+            return false;
+        }
+        if (node.queryModel != null || hasSubQuery(node.lhs) || hasSubQuery(node.rhs)) {
+            return true;
+        }
+        for (int i = 0, n = node.args.size(); i < n; i++) {
+            if (hasSubQuery(node.args.getQuick(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void homogenizeCrossJoins(QueryModel parent) {
         ObjList<QueryModel> joinModels = parent.getJoinModels();
         for (int i = 0, n = joinModels.size(); i < n; i++) {
@@ -1505,6 +1584,55 @@ class SqlOptimiser {
         return true;
     }
 
+    private boolean isNullRejecting(ExpressionNode node) {
+        // predicate is false for null column value regardless of its type:
+        // column compared to, or looked up in a list of quoted non-null constants
+        if (Chars.equals(node.token, '=') && node.paramCount == 2) {
+            return (node.lhs.type == LITERAL && isQuotedConstant(node.rhs))
+                    || (node.rhs.type == LITERAL && isQuotedConstant(node.lhs));
+        }
+
+        if (SqlKeywords.isInKeyword(node.token)) {
+            if (node.paramCount == 2) {
+                return node.lhs.type == LITERAL && isQuotedConstant(node.rhs);
+            }
+
+            if (node.paramCount > 2 && node.args.getLast().type == LITERAL) {
+                for (int i = 0, n = node.args.size() - 1; i < n; i++) {
+                    if (!isQuotedConstant(node.args.getQuick(i))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isQuotedConstant(ExpressionNode node) {
+        return node.type == ExpressionNode.CONSTANT && Chars.isQuoted(node.token);
+    }
+
+    private boolean isUnionWhereTransparent(QueryModel nested, ExpressionNode node) {
+        // copies of the filter must not share sub-queries
+        if (hasSubQuery(node)) {
+            return false;
+        }
+
+        final int columnCount = nested.getBottomUpColumns().size();
+        QueryModel union = nested.getUnionModel();
+        while (union != null) {
+            if (union.getLatestBy().size() > 0
+                    || union.getLimitLo() != null
+                    || union.getLimitHi() != null
+                    || union.getBottomUpColumns().size() != columnCount) {
+                return false;
+            }
+            union = union.getUnionModel();
+        }
+        return true;
+    }
+
     private ExpressionNode makeJoinAlias(int index) {
         CharacterStoreEntry characterStoreEntry = characterStore.newEntry();
         characterStoreEntry.put(QueryModel.SUB_QUERY_ALIAS_PREFIX).put(index);
@@ -1748,6 +1876,10 @@ class SqlOptimiser {
                     if (nested == null || nested.getLatestBy().size() > 0 || nested.getLimitLo() != null || nested.getLimitHi() != null) {
                         // there is no nested model for this table, keep where clause element with this model
                         addWhereNode(parent, node);
+                    } else if (nested.getUnionModel() != null && !isUnionWhereTransparent(nested, node)) {
+                        // one of set operation branches cannot take filter,
+                        // filter has to be applied to the result of set operation
+                        addWhereNode(parent, node);
                     } else {
                         // now that we have identified sub-query we have to rewrite our where clause
                         // to potentially replace all of column references with actual literals used inside
@@ -1774,6 +1906,18 @@ class SqlOptimiser {
                             // whenever nested model has explicitly defined columns it must also
                             // have its own nested model, where we assign new "where" clauses
                             addWhereNode(nested, node);
+
+                            // row filter commutes with UNION, EXCEPT and INTERSECT, each branch
+                            // gets its own copy of the filter with column references translated
+                            // by position, e.g.
+                            // (select a x from T1 union all select b from T2) where x = 10
+                            // becomes
+                            // select a x from T1 where a = 10 union all select b from T2 where b = 10
+                            QueryModel union = nested.getUnionModel();
+                            while (union != null) {
+                                addWhereNode(union, copyWhereNode(node, nested, union));
+                                union = union.getUnionModel();
+                            }
                         } catch (NonLiteralException ignore) {
                             // keep node where it is
                             addWhereNode(parent, node);
@@ -1863,6 +2007,8 @@ class SqlOptimiser {
         ) {
             model.setTableVersion(r.getVersion());
             model.setTableId(r.getMetadata().getId());
+            model.setTableStatistics(engine.getTableStatistics(r));
+            model.setTableRowCount(r.size());
             copyColumnsFromMetadata(model, r.getMetadata(), false);
         } catch (EntryLockedException e) {
             throw SqlException.position(tableNamePosition).put("table is locked: ").put(tableLookupSequence);
@@ -2057,6 +2203,7 @@ class SqlOptimiser {
             // optimiser can assign there correct nodes
 
             model.setWhereClause(null);
+            convertOuterJoins(model, where);
             processJoinConditions(model, where, false);
 
             for (int i = 1; i < n; i++) {
@@ -2067,6 +2214,7 @@ class SqlOptimiser {
             createImpliedDependencies(model);
             homogenizeCrossJoins(model);
             reorderTables(model);
+            reorderTablesUsingStatistics(model);
             assignFilters(model);
             alignJoinClauses(model);
             addTransitiveFilters(model);
@@ -2356,6 +2504,167 @@ class SqlOptimiser {
         assert root != -1;
     }
 
+    /**
+     * Reorders inner joined tables when at least one of them has statistics collected by ANALYZE TABLE,
+     * other tables are assumed to have as many distinct values as rows. Tables are joined greedily, each step picks the table connected to already joined tables that
+     * produces the least estimated number of rows. Join cardinality is estimated as
+     * |L| * |R| / max(V(L.x), V(R.x)) for every equality clause between the two sides, where V is the
+     * number of distinct values of the column. The first table is never moved because it provides
+     * timestamp of the result set.
+     */
+    private void reorderTablesUsingStatistics(QueryModel model) {
+        final ObjList<QueryModel> joinModels = model.getJoinModels();
+        final int n = joinModels.size();
+        // with only two tables the master is fixed and there is nothing to reorder
+        if (n < 3 || model.getOrderedJoinModels().getQuick(0) != 0) {
+            return;
+        }
+
+        statisticsContexts.clear();
+        boolean analyzed = false;
+        for (int i = 0; i < n; i++) {
+            final QueryModel m = joinModels.getQuick(i);
+            if (m.getTableRowCount() < 0) {
+                // not a table
+                return;
+            }
+            analyzed |= m.getTableStatistics() != null;
+            if (i > 0) {
+                final JoinContext jc = m.getContext();
+                if (m.getJoinType() != QueryModel.JOIN_INNER || jc == null || jc.parents.size() == 0) {
+                    return;
+                }
+                statisticsContexts.add(jc);
+            }
+        }
+
+        if (!analyzed) {
+            return;
+        }
+
+        // positions of tables in the new order, -1 is for tables that are yet to be joined
+        statisticsPositions.setAll(n, -1);
+        statisticsPositions.setQuick(0, 0);
+        final IntList ordered = model.nextOrderedJoinModels();
+        ordered.add(0);
+        double rowCount = rowCount(joinModels.getQuick(0));
+
+        for (int pos = 1; pos < n; pos++) {
+            int best = -1;
+            double bestRowCount = Double.MAX_VALUE;
+            for (int i = 1; i < n; i++) {
+                if (statisticsPositions.getQuick(i) > -1) {
+                    continue;
+                }
+                final double r = estimateJoinRowCount(joinModels, i, rowCount);
+                if (r > -1 && r < bestRowCount) {
+                    best = i;
+                    bestRowCount = r;
+                }
+            }
+
+            if (best == -1) {
+                // table is not connected to those already joined, leave the order as it is
+                return;
+            }
+            statisticsPositions.setQuick(best, pos);
+            ordered.add(best);
+            rowCount = bestRowCount;
+        }
+
+        boolean changed = false;
+        for (int i = 0; i < n; i++) {
+            if (ordered.getQuick(i) != model.getOrderedJoinModels().getQuick(i)) {
+                changed = true;
+                break;
+            }
+        }
+
+        if (!changed) {
+            return;
+        }
+
+        // reassign every clause to the table that comes later in the new order,
+        // "a" side of the clause is the table joined earlier
+        for (int i = 0; i < n; i++) {
+            joinModels.getQuick(i).getDependencies().clear();
+        }
+
+        for (int i = 1; i < n; i++) {
+            final JoinContext jc = contextPool.next();
+            jc.slaveIndex = i;
+            joinModels.getQuick(i).setContext(jc);
+        }
+
+        for (int i = 0, k = statisticsContexts.size(); i < k; i++) {
+            final JoinContext that = statisticsContexts.getQuick(i);
+            for (int j = 0, m = that.aIndexes.size(); j < m; j++) {
+                final int ai = that.aIndexes.getQuick(j);
+                final int bi = that.bIndexes.getQuick(j);
+                final boolean aFirst = statisticsPositions.getQuick(ai) < statisticsPositions.getQuick(bi);
+                final int parentIndex = aFirst ? ai : bi;
+                final int slaveIndex = aFirst ? bi : ai;
+                final JoinContext jc = joinModels.getQuick(slaveIndex).getContext();
+                jc.aIndexes.add(parentIndex);
+                jc.aNames.add(aFirst ? that.aNames.getQuick(j) : that.bNames.getQuick(j));
+                jc.aNodes.add(aFirst ? that.aNodes.getQuick(j) : that.bNodes.getQuick(j));
+                jc.bIndexes.add(slaveIndex);
+                jc.bNames.add(aFirst ? that.bNames.getQuick(j) : that.aNames.getQuick(j));
+                jc.bNodes.add(aFirst ? that.bNodes.getQuick(j) : that.aNodes.getQuick(j));
+                jc.parents.add(parentIndex);
+                linkDependencies(model, parentIndex, slaveIndex);
+            }
+        }
+        model.setOrderedJoinModels(ordered);
+    }
+
+    /**
+     * @return estimated number of rows produced by joining table at given index to tables that
+     * are already joined or -1 if there are no join clauses between them
+     */
+    private double estimateJoinRowCount(ObjList<QueryModel> joinModels, int index, double rowCount) {
+        final QueryModel model = joinModels.getQuick(index);
+        double result = rowCount * rowCount(model);
+        boolean connected = false;
+        for (int i = 0, k = statisticsContexts.size(); i < k; i++) {
+            final JoinContext jc = statisticsContexts.getQuick(i);
+            for (int j = 0, m = jc.aIndexes.size(); j < m; j++) {
+                final int ai = jc.aIndexes.getQuick(j);
+                final int bi = jc.bIndexes.getQuick(j);
+                final long distinctCount;
+                if (ai == index && statisticsPositions.getQuick(bi) > -1) {
+                    distinctCount = Math.max(
+                            distinctCount(model, jc.aNames.getQuick(j)),
+                            distinctCount(joinModels.getQuick(bi), jc.bNames.getQuick(j))
+                    );
+                } else if (bi == index && statisticsPositions.getQuick(ai) > -1) {
+                    distinctCount = Math.max(
+                            distinctCount(model, jc.bNames.getQuick(j)),
+                            distinctCount(joinModels.getQuick(ai), jc.aNames.getQuick(j))
+                    );
+                } else {
+                    continue;
+                }
+                connected = true;
+                result /= Math.max(distinctCount, 1);
+            }
+        }
+        return connected ? result : -1;
+    }
+
+    private static long distinctCount(QueryModel model, CharSequence columnName) {
+        final TableStatistics statistics = model.getTableStatistics();
+        final long distinctCount = statistics != null ? statistics.getDistinctCount(columnName) : TableStatistics.UNKNOWN;
+        // without better knowledge assume column is unique
+        return distinctCount != TableStatistics.UNKNOWN ? distinctCount : rowCount(model);
+    }
+
+    private static long rowCount(QueryModel model) {
+        final TableStatistics statistics = model.getTableStatistics();
+        // tables without statistics fall back to row count of the reader
+        return statistics != null ? statistics.getRowCount() : model.getTableRowCount();
+    }
+
     private ExpressionNode replaceIfAggregate(@Transient ExpressionNode node, QueryModel model) {
         if (node != null && functionParser.isGroupBy(node.token)) {
             QueryColumn c = model.findBottomUpColumnByAst(node);
@@ -226,6 +226,46 @@ public final class SqlParser {
         throw SqlException.$((lexer.lastTokenPosition()), "'to' expected");
     }
 
+    private long parseFrameBound(GenericLexer lexer, CharSequence tok) throws SqlException {
+        if (isUnboundedKeyword(tok)) {
+            tok = tok(lexer, "'preceding' or 'following'");
+            if (isPrecedingKeyword(tok)) {
+                return AnalyticColumn.UNBOUNDED_PRECEDING;
+            }
+            if (isFollowingKeyword(tok)) {
+                return AnalyticColumn.UNBOUNDED_FOLLOWING;
+            }
+            throw SqlException.$(lexer.lastTokenPosition(), "'preceding' or 'following' expected");
+        }
+
+        if (isCurrentKeyword(tok)) {
+            tok = tok(lexer, "'row'");
+            if (isRowKeyword(tok)) {
+                return AnalyticColumn.CURRENT_ROW;
+            }
+            throw SqlException.$(lexer.lastTokenPosition(), "'row' expected");
+        }
+
+        final long offset;
+        try {
+            offset = Numbers.parseLong(tok);
+        } catch (NumericException e) {
+            throw SqlException.$(lexer.lastTokenPosition(), "'unbounded', 'current' or integer expected");
+        }
+        if (offset < 0) {
+            throw SqlException.$(lexer.lastTokenPosition(), "non-negative integer expected");
+        }
+
+        tok = tok(lexer, "'preceding' or 'following'");
+        if (isPrecedingKeyword(tok)) {
+            return -offset;
+        }
+        if (isFollowingKeyword(tok)) {
+            return offset;
+        }
+        throw SqlException.$(lexer.lastTokenPosition(), "'preceding' or 'following' expected");
+    }
+
     private void expectTok(GenericLexer lexer, CharSequence tok, CharSequence expected) throws SqlException {
         if (tok == null || !Chars.equalsLowerCaseAscii(tok, expected)) {
             throw SqlException.position(lexer.lastTokenPosition()).put('\'').put(expected).put("' expected");
@@ -1282,6 +1322,42 @@ public final class SqlParser {
                         }
                     } while (Chars.equals(tok, ','));
                 }
+
+                if (isRowsKeyword(tok) || isRangeKeyword(tok)) {
+                    final AnalyticColumn ac = (AnalyticColumn) col;
+                    ac.setFramingMode(isRowsKeyword(tok) ? AnalyticColumn.FRAMING_ROWS : AnalyticColumn.FRAMING_RANGE);
+                    tok = tok(lexer, "'between', 'unbounded', 'current' or integer");
+                    if (isBetweenKeyword(tok)) {
+                        tok = tok(lexer, "'unbounded', 'current' or integer");
+                        int pos = lexer.lastTokenPosition();
+                        final long lo = parseFrameBound(lexer, tok);
+                        expectTok(lexer, "and");
+                        tok = tok(lexer, "'unbounded', 'current' or integer");
+                        int hiPos = lexer.lastTokenPosition();
+                        final long hi = parseFrameBound(lexer, tok);
+                        if (lo == AnalyticColumn.UNBOUNDED_FOLLOWING) {
+                            throw SqlException.$(pos, "frame start cannot be UNBOUNDED FOLLOWING");
+                        }
+                        if (hi == AnalyticColumn.UNBOUNDED_PRECEDING) {
+                            throw SqlException.$(hiPos, "frame end cannot be UNBOUNDED PRECEDING");
+                        }
+                        if (lo > hi) {
+                            throw SqlException.$(hiPos, "frame end cannot precede frame start");
+                        }
+                        ac.setRowsLo(lo, pos);
+                        ac.setRowsHi(hi, hiPos);
+                    } else {
+                        int pos = lexer.lastTokenPosition();
+                        final long lo = parseFrameBound(lexer, tok);
+                        if (lo > AnalyticColumn.CURRENT_ROW) {
+                            throw SqlException.$(pos, "frame start cannot be after current row");
+                        }
+                        ac.setRowsLo(lo, pos);
+                        ac.setRowsHi(AnalyticColumn.CURRENT_ROW, pos);
+                    }
+                    tok = tokIncludingLocalBrace(lexer, "')'");
+                }
+
                 expectTok(tok, lexer.lastTokenPosition(), ')');
                 tok = optTok(lexer);
 
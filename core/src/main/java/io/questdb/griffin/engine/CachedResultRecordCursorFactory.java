@@ -0,0 +1,597 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.MemoryFCRImpl;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.QueryPlanCache;
+import io.questdb.griffin.QueryResultCache;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.*;
+import io.questdb.std.str.CharSink;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Serves results of deterministic queries from {@link QueryResultCache}. On cache miss base
+ * cursor is streamed to the caller and rows are copied into memory along the way, the copy is
+ * published to the cache once base cursor is exhausted. Copying stops as soon as the result
+ * exceeds maximum cache entry size, remaining rows are streamed without being cached.
+ */
+public class CachedResultRecordCursorFactory implements RecordCursorFactory {
+    private static final long PAGE_SIZE = 64 * 1024;
+    private final RecordCursorFactory base;
+    private final QueryResultCache cache;
+    private final String sql;
+    private final ObjList<CharSequence> tableNames;
+    private final StringSink keySink = new StringSink();
+    private final LongList tableVersions = new LongList();
+    private final CachedResultRecordCursor cursor;
+    private final CachingRecordCursor cachingCursor = new CachingRecordCursor();
+
+    public CachedResultRecordCursorFactory(
+            RecordCursorFactory base,
+            QueryResultCache cache,
+            CharSequence sql,
+            @Transient ObjList<CharSequence> tableNames
+    ) {
+        this.base = base;
+        this.cache = cache;
+        QueryPlanCache.normalize(sql, keySink);
+        this.sql = keySink.toString();
+        this.tableNames = new ObjList<>(tableNames.size());
+        for (int i = 0, n = tableNames.size(); i < n; i++) {
+            this.tableNames.add(Chars.toString(tableNames.getQuick(i)));
+        }
+        this.cursor = new CachedResultRecordCursor(base.getMetadata());
+    }
+
+    /**
+     * @param metadata query metadata
+     * @return true when all column types can be serialized into cache
+     */
+    public static boolean isCacheable(RecordMetadata metadata) {
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            switch (ColumnType.tagOf(metadata.getColumnType(i))) {
+                case ColumnType.BOOLEAN:
+                case ColumnType.BYTE:
+                case ColumnType.SHORT:
+                case ColumnType.CHAR:
+                case ColumnType.INT:
+                case ColumnType.LONG:
+                case ColumnType.DATE:
+                case ColumnType.TIMESTAMP:
+                case ColumnType.FLOAT:
+                case ColumnType.DOUBLE:
+                case ColumnType.STRING:
+                case ColumnType.SYMBOL:
+                case ColumnType.BINARY:
+                case ColumnType.LONG256:
+                case ColumnType.GEOBYTE:
+                case ColumnType.GEOSHORT:
+                case ColumnType.GEOINT:
+                case ColumnType.GEOLONG:
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(cursor);
+        Misc.free(cachingCursor);
+        Misc.free(base);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        if (!buildKey(executionContext.getBindVariableService())) {
+            return base.getCursor(executionContext);
+        }
+        readTableVersions(executionContext);
+
+        QueryResultCache.Entry entry = cache.acquire(keySink, tableVersions);
+        if (entry != null) {
+            cursor.of(cache, entry);
+            return cursor;
+        }
+
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            cachingCursor.of(baseCursor, Vm.getCARWInstance(PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT));
+            return cachingCursor;
+        } catch (Throwable e) {
+            baseCursor.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return base.getMetadata();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).child(base);
+    }
+
+    private static boolean putValue(Function function, CharSink sink) {
+        final int type = function.getType();
+        sink.put(type).put('=');
+        switch (ColumnType.tagOf(type)) {
+            case ColumnType.BOOLEAN:
+                sink.put(function.getBool(null));
+                break;
+            case ColumnType.BYTE:
+                sink.put(function.getByte(null));
+                break;
+            case ColumnType.SHORT:
+                sink.put(function.getShort(null));
+                break;
+            case ColumnType.CHAR:
+                sink.put(function.getChar(null));
+                break;
+            case ColumnType.INT:
+                sink.put(function.getInt(null));
+                break;
+            case ColumnType.LONG:
+                sink.put(function.getLong(null));
+                break;
+            case ColumnType.DATE:
+                sink.put(function.getDate(null));
+                break;
+            case ColumnType.TIMESTAMP:
+                sink.put(function.getTimestamp(null));
+                break;
+            case ColumnType.FLOAT:
+                sink.put(Float.floatToRawIntBits(function.getFloat(null)));
+                break;
+            case ColumnType.DOUBLE:
+                sink.put(Double.doubleToRawLongBits(function.getDouble(null)));
+                break;
+            case ColumnType.STRING:
+                final CharSequence value = function.getStr(null);
+                if (value == null) {
+                    sink.put(-1);
+                } else {
+                    sink.put(value.length()).put(':').put(value);
+                }
+                break;
+            case ColumnType.LONG256:
+                function.getLong256(null, sink);
+                break;
+            case ColumnType.GEOBYTE:
+                sink.put(function.getGeoByte(null));
+                break;
+            case ColumnType.GEOSHORT:
+                sink.put(function.getGeoShort(null));
+                break;
+            case ColumnType.GEOINT:
+                sink.put(function.getGeoInt(null));
+                break;
+            case ColumnType.GEOLONG:
+                sink.put(function.getGeoLong(null));
+                break;
+            default:
+                return false;
+        }
+        sink.put(';');
+        return true;
+    }
+
+    private boolean buildKey(BindVariableService bindVariableService) {
+        keySink.clear();
+        keySink.put(sql).put('\0');
+        for (int i = 0, n = bindVariableService.getIndexedVariableCount(); i < n; i++) {
+            final Function function = bindVariableService.getFunction(i);
+            if (function == null) {
+                keySink.put("null;");
+            } else if (!putValue(function, keySink)) {
+                return false;
+            }
+        }
+        final ObjList<CharSequence> names = bindVariableService.getNamedVariables();
+        for (int i = 0, n = names.size(); i < n; i++) {
+            final CharSequence name = names.getQuick(i);
+            keySink.put(':').put(name).put('=');
+            if (!putValue(bindVariableService.getFunction(name), keySink)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void copy(Record record, MemoryCARW mem) {
+        final RecordMetadata metadata = base.getMetadata();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            switch (ColumnType.tagOf(metadata.getColumnType(i))) {
+                case ColumnType.BOOLEAN:
+                    mem.putBool(record.getBool(i));
+                    break;
+                case ColumnType.BYTE:
+                    mem.putByte(record.getByte(i));
+                    break;
+                case ColumnType.SHORT:
+                    mem.putShort(record.getShort(i));
+                    break;
+                case ColumnType.CHAR:
+                    mem.putChar(record.getChar(i));
+                    break;
+                case ColumnType.INT:
+                    mem.putInt(record.getInt(i));
+                    break;
+                case ColumnType.LONG:
+                    mem.putLong(record.getLong(i));
+                    break;
+                case ColumnType.DATE:
+                    mem.putLong(record.getDate(i));
+                    break;
+                case ColumnType.TIMESTAMP:
+                    mem.putLong(record.getTimestamp(i));
+                    break;
+                case ColumnType.FLOAT:
+                    mem.putFloat(record.getFloat(i));
+                    break;
+                case ColumnType.DOUBLE:
+                    mem.putDouble(record.getDouble(i));
+                    break;
+                case ColumnType.STRING:
+                    mem.putStr(record.getStr(i));
+                    break;
+                case ColumnType.SYMBOL:
+                    mem.putStr(record.getSym(i));
+                    break;
+                case ColumnType.BINARY:
+                    mem.putBin(record.getBin(i));
+                    break;
+                case ColumnType.LONG256:
+                    mem.putLong256(record.getLong256A(i));
+                    break;
+                case ColumnType.GEOBYTE:
+                    mem.putByte(record.getGeoByte(i));
+                    break;
+                case ColumnType.GEOSHORT:
+                    mem.putShort(record.getGeoShort(i));
+                    break;
+                case ColumnType.GEOINT:
+                    mem.putInt(record.getGeoInt(i));
+                    break;
+                default:
+                    mem.putLong(record.getGeoLong(i));
+                    break;
+            }
+        }
+    }
+
+    private void readTableVersions(SqlExecutionContext executionContext) {
+        final CairoEngine engine = executionContext.getCairoEngine();
+        tableVersions.clear();
+        for (int i = 0, n = tableNames.size(); i < n; i++) {
+            try (TableReader reader = engine.getReader(executionContext.getCairoSecurityContext(), tableNames.getQuick(i))) {
+                tableVersions.add(reader.getTxn(), reader.getVersion());
+                tableVersions.add(reader.getDataVersion());
+            }
+        }
+    }
+
+    private class CachingRecordCursor implements NoRandomAccessRecordCursor {
+        private RecordCursor baseCursor;
+        private MemoryCARW mem;
+        private long rowCount;
+
+        @Override
+        public void close() {
+            mem = Misc.free(mem);
+            baseCursor = Misc.free(baseCursor);
+        }
+
+        @Override
+        public Record getRecord() {
+            return baseCursor.getRecord();
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return baseCursor.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (baseCursor.hasNext()) {
+                if (mem != null) {
+                    copy(baseCursor.getRecord(), mem);
+                    if (mem.getAppendOffset() > cache.getMaxEntrySize()) {
+                        // result is too large to be cached
+                        mem = Misc.free(mem);
+                    } else {
+                        rowCount++;
+                    }
+                }
+                return true;
+            }
+            if (mem != null) {
+                cache.release(cache.put(keySink, tableVersions, mem, rowCount));
+                mem = null;
+            }
+            return false;
+        }
+
+        @Override
+        public long size() {
+            return baseCursor.size();
+        }
+
+        @Override
+        public void toTop() {
+            // partially copied result cannot be published
+            mem = Misc.free(mem);
+            baseCursor.toTop();
+        }
+
+        private void of(RecordCursor baseCursor, MemoryCARW mem) {
+            this.baseCursor = baseCursor;
+            this.mem = mem;
+            this.rowCount = 0;
+        }
+    }
+
+    private static class CachedResultRecordCursor implements RecordCursor {
+        private final RecordMetadata metadata;
+        private final MemoryFCRImpl mem = new MemoryFCRImpl();
+        private final CachedResultRecord recordA;
+        private final CachedResultRecord recordB;
+        private QueryResultCache cache;
+        private QueryResultCache.Entry entry;
+        private long rowOffset;
+
+        private CachedResultRecordCursor(RecordMetadata metadata) {
+            this.metadata = metadata;
+            this.recordA = new CachedResultRecord(metadata.getColumnCount());
+            this.recordB = new CachedResultRecord(metadata.getColumnCount());
+        }
+
+        @Override
+        public void close() {
+            if (entry != null) {
+                cache.release(entry);
+                entry = null;
+                mem.close();
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return recordA;
+        }
+
+        @Override
+        public Record getRecordB() {
+            return recordB;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (rowOffset < entry.getSize()) {
+                rowOffset = recordA.of(rowOffset);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            ((CachedResultRecord) record).of(atRowId);
+        }
+
+        @Override
+        public long size() {
+            return entry.getRowCount();
+        }
+
+        @Override
+        public void toTop() {
+            rowOffset = 0;
+        }
+
+        private void of(QueryResultCache cache, QueryResultCache.Entry entry) {
+            this.cache = cache;
+            this.entry = entry;
+            this.mem.of(entry.getAddress(), entry.getSize());
+            toTop();
+        }
+
+        private class CachedResultRecord implements Record {
+            private final long[] columnOffsets;
+            private long rowId;
+
+            private CachedResultRecord(int columnCount) {
+                this.columnOffsets = new long[columnCount];
+            }
+
+            @Override
+            public BinarySequence getBin(int col) {
+                return mem.getBin(columnOffsets[col]);
+            }
+
+            @Override
+            public long getBinLen(int col) {
+                return mem.getLong(columnOffsets[col]);
+            }
+
+            @Override
+            public boolean getBool(int col) {
+                return mem.getBool(columnOffsets[col]);
+            }
+
+            @Override
+            public byte getByte(int col) {
+                return mem.getByte(columnOffsets[col]);
+            }
+
+            @Override
+            public char getChar(int col) {
+                return mem.getChar(columnOffsets[col]);
+            }
+
+            @Override
+            public long getDate(int col) {
+                return mem.getLong(columnOffsets[col]);
+            }
+
+            @Override
+            public double getDouble(int col) {
+                return mem.getDouble(columnOffsets[col]);
+            }
+
+            @Override
+            public float getFloat(int col) {
+                return mem.getFloat(columnOffsets[col]);
+            }
+
+            @Override
+            public byte getGeoByte(int col) {
+                return mem.getByte(columnOffsets[col]);
+            }
+
+            @Override
+            public int getGeoInt(int col) {
+                return mem.getInt(columnOffsets[col]);
+            }
+
+            @Override
+            public long getGeoLong(int col) {
+                return mem.getLong(columnOffsets[col]);
+            }
+
+            @Override
+            public short getGeoShort(int col) {
+                return mem.getShort(columnOffsets[col]);
+            }
+
+            @Override
+            public int getInt(int col) {
+                return mem.getInt(columnOffsets[col]);
+            }
+
+            @Override
+            public long getLong(int col) {
+                return mem.getLong(columnOffsets[col]);
+            }
+
+            @Override
+            public void getLong256(int col, CharSink sink) {
+                mem.getLong256(columnOffsets[col], sink);
+            }
+
+            @Override
+            public Long256 getLong256A(int col) {
+                return mem.getLong256A(columnOffsets[col]);
+            }
+
+            @Override
+            public Long256 getLong256B(int col) {
+                return mem.getLong256B(columnOffsets[col]);
+            }
+
+            @Override
+            public long getRowId() {
+                return rowId;
+            }
+
+            @Override
+            public short getShort(int col) {
+                return mem.getShort(columnOffsets[col]);
+            }
+
+            @Override
+            public CharSequence getStr(int col) {
+                return mem.getStr(columnOffsets[col]);
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                return mem.getStr2(columnOffsets[col]);
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                return mem.getInt(columnOffsets[col]);
+            }
+
+            @Override
+            public CharSequence getSym(int col) {
+                return mem.getStr(columnOffsets[col]);
+            }
+
+            @Override
+            public CharSequence getSymB(int col) {
+                return mem.getStr2(columnOffsets[col]);
+            }
+
+            @Override
+            public long getTimestamp(int col) {
+                return mem.getLong(columnOffsets[col]);
+            }
+
+            // positions record at row offset, returns offset of the next row
+            private long of(long offset) {
+                this.rowId = offset;
+                for (int i = 0, n = columnOffsets.length; i < n; i++) {
+                    columnOffsets[i] = offset;
+                    final int type = metadata.getColumnType(i);
+                    switch (ColumnType.tagOf(type)) {
+                        case ColumnType.STRING:
+                        case ColumnType.SYMBOL:
+                            offset += Vm.getStorageLength(Math.max(mem.getInt(offset), 0));
+                            break;
+                        case ColumnType.BINARY:
+                            offset += Long.BYTES + Math.max(mem.getLong(offset), 0);
+                            break;
+                        default:
+                            offset += ColumnType.sizeOf(type);
+                            break;
+                    }
+                }
+                return offset;
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.sql.NoRandomAccessRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.std.Misc;
+
+/**
+ * Result of EXPLAIN: plan of the query, one line per row. With ANALYZE the query is executed
+ * to completion first, its result is discarded and the plan is printed together with statistics
+ * collected by profiling wrappers of plan nodes. Statistics accumulate over executions of the same
+ * plan, "loops" shows how many times each node was executed.
+ */
+public class ExplainRecordCursorFactory implements RecordCursorFactory {
+    private static final GenericRecordMetadata METADATA = new GenericRecordMetadata();
+    private final RecordCursorFactory base;
+    private final boolean analyze;
+    private final PlanSink planSink = new PlanSink();
+    private final ExplainRecordCursor cursor = new ExplainRecordCursor();
+
+    public ExplainRecordCursorFactory(RecordCursorFactory base, boolean analyze) {
+        this.base = base;
+        this.analyze = analyze;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(base);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        if (analyze) {
+            final SqlExecutionInterruptor interruptor = executionContext.getSqlExecutionInterruptor();
+            try (RecordCursor baseCursor = base.getCursor(executionContext)) {
+                while (baseCursor.hasNext()) {
+                    interruptor.checkInterrupted();
+                }
+            }
+        }
+        planSink.of(base);
+        cursor.toTop();
+        return cursor;
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return METADATA;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(analyze ? "ExplainAnalyze" : "Explain").child(base);
+    }
+
+    private class ExplainRecordCursor implements NoRandomAccessRecordCursor {
+        private final ExplainRecord record = new ExplainRecord();
+        private int lineIndex;
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (lineIndex < planSink.getLineCount() - 1) {
+                lineIndex++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void toTop() {
+            lineIndex = -1;
+        }
+
+        @Override
+        public long size() {
+            return planSink.getLineCount();
+        }
+
+        private class ExplainRecord implements Record {
+            @Override
+            public CharSequence getStr(int col) {
+                return planSink.getLine(lineIndex);
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                return getStr(col);
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                return getStr(col).length();
+            }
+        }
+    }
+
+    static {
+        METADATA.add(new TableColumnMetadata("QUERY PLAN", 1, ColumnType.STRING));
+    }
+}
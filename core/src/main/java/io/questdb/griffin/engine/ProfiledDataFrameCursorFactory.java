@@ -0,0 +1,142 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Misc;
+import io.questdb.std.NanosecondClock;
+import io.questdb.std.str.CharSink;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Counts data frames and rows a table scan visits for EXPLAIN ANALYZE. Rows are counted
+ * by frame bounds, i.e. before row level filters and index lookups are applied.
+ */
+public class ProfiledDataFrameCursorFactory implements DataFrameCursorFactory {
+    private final DataFrameCursorFactory base;
+    private final NanosecondClock clock;
+    private final ProfiledDataFrameCursor cursor = new ProfiledDataFrameCursor();
+    private long frames;
+    private long rows;
+    private long nanos;
+
+    public ProfiledDataFrameCursorFactory(DataFrameCursorFactory base, NanosecondClock clock) {
+        this.base = base;
+        this.clock = clock;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(base);
+    }
+
+    @Override
+    public DataFrameCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final long start = clock.getTicks();
+        try {
+            cursor.of(base.getCursor(executionContext));
+        } finally {
+            nanos += clock.getTicks() - start;
+        }
+        return cursor;
+    }
+
+    @Override
+    public int getOrder() {
+        return base.getOrder();
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        base.toPlan(sink);
+        sink.attr("actual")
+                .val("frames=").val(frames)
+                .val(" rows=").val(rows)
+                .val(" time=").val(nanos / 1000).val("us");
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        base.toSink(sink);
+    }
+
+    private class ProfiledDataFrameCursor implements DataFrameCursor {
+        private DataFrameCursor base;
+
+        @Override
+        public void close() {
+            base = Misc.free(base);
+        }
+
+        @Override
+        public StaticSymbolTable getSymbolTable(int columnIndex) {
+            return base.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public TableReader getTableReader() {
+            return base.getTableReader();
+        }
+
+        @Override
+        public @Nullable DataFrame next() {
+            final long start = clock.getTicks();
+            try {
+                final DataFrame frame = base.next();
+                if (frame != null) {
+                    frames++;
+                    rows += frame.getRowHi() - frame.getRowLo();
+                }
+                return frame;
+            } finally {
+                nanos += clock.getTicks() - start;
+            }
+        }
+
+        @Override
+        public boolean reload() {
+            return base.reload();
+        }
+
+        @Override
+        public long size() {
+            return base.size();
+        }
+
+        @Override
+        public void toTop() {
+            base.toTop();
+        }
+
+        private void of(DataFrameCursor base) {
+            this.base = base;
+        }
+    }
+}
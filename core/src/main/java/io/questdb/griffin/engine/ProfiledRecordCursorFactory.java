@@ -0,0 +1,219 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine;
+
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Misc;
+import io.questdb.std.NanosecondClock;
+import io.questdb.std.Unsafe;
+
+/**
+ * Collects run-time statistics of a plan node for EXPLAIN ANALYZE. The wrapper is transparent to
+ * the parent node: cursor and record instances of the base factory are passed through as they are.
+ * <p>
+ * Statistics are inclusive of child nodes. Time is spent inside getCursor(), hasNext(), toTop() and close()
+ * of the cursor. To keep clock reads off the per-row path, the first hasNext() after the cursor is opened or
+ * rewound is timed exactly, as that is where blocking nodes do their work, and of the remaining calls only
+ * every {@link #SAMPLE_INTERVAL}th is timed and extrapolated to all calls.
+ * <p>
+ * Memory is the largest growth of native memory since the cursor was opened, observed whenever the
+ * clock is read. Allocations released within a single unsampled call are not seen. The counter is
+ * process-wide and therefore approximate when other queries run concurrently.
+ */
+public class ProfiledRecordCursorFactory implements RecordCursorFactory {
+    static final int SAMPLE_INTERVAL = 16;
+    private final RecordCursorFactory base;
+    private final NanosecondClock clock;
+    private final ProfiledRecordCursor cursor = new ProfiledRecordCursor();
+    private long loops;
+    private long rows;
+    // time of exactly timed calls
+    private long nanos;
+    // calls eligible for sampling, the number of them that were timed and their total time
+    private long sampledCallCount;
+    private long sampleCount;
+    private long sampleNanos;
+    private long maxMemoryGrowth;
+
+    public ProfiledRecordCursorFactory(RecordCursorFactory base, NanosecondClock clock) {
+        this.base = base;
+        this.clock = clock;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(base);
+    }
+
+    @Override
+    public SingleSymbolFilter convertToSampleByIndexDataFrameCursorFactory() {
+        return base.convertToSampleByIndexDataFrameCursorFactory();
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return base.followedOrderByAdvice();
+    }
+
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final long memory = Unsafe.getMemUsed();
+        final long start = clock.getTicks();
+        try {
+            cursor.of(base.getCursor(executionContext), memory);
+        } finally {
+            nanos += clock.getTicks() - start;
+            updateMemoryGrowth(memory);
+        }
+        loops++;
+        return cursor;
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return base.getMetadata();
+    }
+
+    @Override
+    public PageFrameCursor getPageFrameCursor(SqlExecutionContext executionContext) throws SqlException {
+        return base.getPageFrameCursor(executionContext);
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return base.recordCursorSupportsRandomAccess();
+    }
+
+    @Override
+    public boolean supportPageFrameCursor() {
+        return base.supportPageFrameCursor();
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        base.toPlan(sink);
+        long totalNanos = nanos;
+        if (sampleCount > 0) {
+            totalNanos += (long) ((double) sampleNanos / sampleCount * sampledCallCount);
+        }
+        sink.attr("actual")
+                .val("rows=").val(rows)
+                .val(" loops=").val(loops)
+                .val(" time=").val(totalNanos / 1000).val("us")
+                .val(" memory_growth=").val(maxMemoryGrowth);
+    }
+
+    private void updateMemoryGrowth(long memoryAtStart) {
+        maxMemoryGrowth = Math.max(maxMemoryGrowth, Unsafe.getMemUsed() - memoryAtStart);
+    }
+
+    private class ProfiledRecordCursor implements RecordCursor {
+        private RecordCursor base;
+        private long memoryAtStart;
+        private boolean timeNext;
+
+        @Override
+        public void close() {
+            if (base != null) {
+                final long start = clock.getTicks();
+                updateMemoryGrowth(memoryAtStart);
+                base = Misc.free(base);
+                nanos += clock.getTicks() - start;
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return base.getRecord();
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return base.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            final boolean next;
+            if (timeNext) {
+                timeNext = false;
+                final long start = clock.getTicks();
+                next = base.hasNext();
+                nanos += clock.getTicks() - start;
+                updateMemoryGrowth(memoryAtStart);
+            } else if (sampledCallCount++ % SAMPLE_INTERVAL == 0) {
+                final long start = clock.getTicks();
+                next = base.hasNext();
+                sampleNanos += clock.getTicks() - start;
+                sampleCount++;
+                updateMemoryGrowth(memoryAtStart);
+            } else {
+                next = base.hasNext();
+            }
+            if (next) {
+                rows++;
+            }
+            return next;
+        }
+
+        @Override
+        public Record getRecordB() {
+            return base.getRecordB();
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            base.recordAt(record, atRowId);
+        }
+
+        @Override
+        public void toTop() {
+            final long start = clock.getTicks();
+            base.toTop();
+            nanos += clock.getTicks() - start;
+            updateMemoryGrowth(memoryAtStart);
+            timeNext = true;
+        }
+
+        @Override
+        public long size() {
+            return base.size();
+        }
+
+        private void of(RecordCursor base, long memoryAtStart) {
+            this.base = base;
+            this.memoryAtStart = memoryAtStart;
+            this.timeNext = true;
+        }
+    }
+}
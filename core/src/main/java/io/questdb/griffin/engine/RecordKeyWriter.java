@@ -0,0 +1,166 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine;
+
+import io.questdb.cairo.RecordSinkSPI;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.*;
+
+import java.io.Closeable;
+
+/**
+ * Serializes record key into contiguous scratch memory, so that key can be hashed to pick
+ * partition (hash join or spilled set operation) and then copied into that partition.
+ */
+public class RecordKeyWriter implements RecordSinkSPI, Closeable, Mutable {
+    private final MemoryCARW mem;
+
+    public RecordKeyWriter(long pageSize, int maxPages) {
+        this.mem = Vm.getCARWInstance(pageSize, maxPages, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    @Override
+    public void clear() {
+        mem.jumpTo(0);
+    }
+
+    @Override
+    public void close() {
+        mem.close();
+    }
+
+    public long getAddress() {
+        return mem.addressOf(0);
+    }
+
+    public int getLength() {
+        return (int) mem.getAppendOffset();
+    }
+
+    /**
+     * Key hash with all bits mixed. {@link Hash#hashMem(long, int)} keeps small integer keys in low bits,
+     * which would send them all to the same partition.
+     *
+     * @return mixed hash of the key
+     */
+    public int hash() {
+        int h = Hash.hashMem(getAddress(), getLength());
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    public int partitionOf(int mask) {
+        // high bits, map inside partition consumes low bits of its own hash
+        return (hash() >>> 16) & mask;
+    }
+
+    @Override
+    public void putBin(BinarySequence value) {
+        mem.putBin(value);
+    }
+
+    @Override
+    public void putBool(boolean value) {
+        mem.putBool(value);
+    }
+
+    @Override
+    public void putByte(byte value) {
+        mem.putByte(value);
+    }
+
+    @Override
+    public void putDate(long value) {
+        mem.putLong(value);
+    }
+
+    @Override
+    public void putDouble(double value) {
+        mem.putDouble(value);
+    }
+
+    @Override
+    public void putFloat(float value) {
+        mem.putFloat(value);
+    }
+
+    @Override
+    public void putInt(int value) {
+        mem.putInt(value);
+    }
+
+    @Override
+    public void putLong(long value) {
+        mem.putLong(value);
+    }
+
+    @Override
+    public void putLong256(Long256 value) {
+        mem.putLong256(value);
+    }
+
+    @Override
+    public void putShort(short value) {
+        mem.putShort(value);
+    }
+
+    @Override
+    public void putChar(char value) {
+        mem.putChar(value);
+    }
+
+    @Override
+    public void putStr(CharSequence value) {
+        mem.putStr(value);
+    }
+
+    @Override
+    public void putStr(CharSequence value, int lo, int hi) {
+        mem.putStr(value, lo, hi - lo);
+    }
+
+    @Override
+    public void putRecord(Record value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void putTimestamp(long value) {
+        mem.putLong(value);
+    }
+
+    @Override
+    public void skip(int bytes) {
+        // key bytes are compared as a whole, skipped bytes must be deterministic
+        for (int i = 0; i < bytes; i++) {
+            mem.putByte((byte) 0);
+        }
+    }
+}
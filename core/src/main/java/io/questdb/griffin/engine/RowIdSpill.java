@@ -0,0 +1,261 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Row ids of one or more record cursors, which are stored in temporary files together with their
+ * hash partitions by record key. Set operations switch to spill when their in-memory map runs out
+ * of space. Map is then rebuilt one partition at a time and rows, which must not be emitted, are
+ * rejected. Surviving rows are read back in the order they were added.
+ * <p>
+ * Partition, which does not fit the map either, is processed in several passes. Each pass picks
+ * rows by another part of key hash.
+ * <p>
+ * Row ids are global across added cursors: rows of the first cursor come first, rows of the second
+ * cursor follow, and so on. Cursors must support random access.
+ */
+public class RowIdSpill implements Closeable, Mutable {
+    public static final String SPILL_DIR = ".spill";
+    private static final Log LOG = LogFactory.getLog(RowIdSpill.class);
+    private static final long REJECTED = -1;
+    private static final int MAX_PASS_MASK = 0xff;
+    private static final AtomicLong ID = new AtomicLong();
+    private final FilesFacade ff;
+    private final CharSequence root;
+    private final int mkDirMode;
+    private final long pageSize;
+    private final int partitionMask;
+    private final long keyPageSize;
+    private final MemoryCMARW rowIds = Vm.getCMARWInstance();
+    private final ObjList<MemoryCMARW> partitions = new ObjList<>();
+    private RecordKeyWriter keyWriter;
+    private Path path;
+    private long id = -1;
+
+    public RowIdSpill(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.root = configuration.getRoot();
+        this.mkDirMode = configuration.getMkDirMode();
+        this.pageSize = configuration.getSqlSetSpillPageSize();
+        this.keyPageSize = configuration.getSqlMapPageSize();
+        final int partitionCount = configuration.getSqlSetSpillPartitionCount();
+        this.partitionMask = partitionCount - 1;
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(Vm.getCMARWInstance());
+        }
+    }
+
+    /**
+     * Rewinds cursor and adds all its rows to the spill.
+     *
+     * @param cursor      random access cursor
+     * @param sink        sink, which writes the same key map of set operation is using
+     * @param interruptor interruptor of the query
+     */
+    public void add(RecordCursor cursor, RecordSink sink, SqlExecutionInterruptor interruptor) {
+        open();
+        final Record record = cursor.getRecord();
+        cursor.toTop();
+        while (cursor.hasNext()) {
+            interruptor.checkInterrupted();
+            keyWriter.clear();
+            sink.copy(record, keyWriter);
+            partitions.getQuick(keyWriter.partitionOf(partitionMask)).putLong(size());
+            rowIds.putLong(record.getRowId());
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (id != -1) {
+            // every file is attempted, including ones that failed to open
+            removeFile(rowIds, -1);
+            for (int i = 0, n = partitions.size(); i < n; i++) {
+                removeFile(partitions.getQuick(i), i);
+            }
+            id = -1;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            clear();
+        } finally {
+            keyWriter = Misc.free(keyWriter);
+            path = Misc.free(path);
+        }
+    }
+
+    /**
+     * @param partitionIndex partition index
+     * @param index          index of row within partition, from 0 to partition size
+     * @return spill index of the row, which can be used to read row id and to reject the row
+     */
+    public long get(int partitionIndex, long index) {
+        return partitions.getQuick(partitionIndex).getLong(index << 3);
+    }
+
+    public int getPartitionCount() {
+        return partitionMask + 1;
+    }
+
+    public long getPartitionSize(int partitionIndex) {
+        return partitions.getQuick(partitionIndex).getAppendOffset() >>> 3;
+    }
+
+    /**
+     * @param index spill index of the row
+     * @return row id or -1 when row has been rejected
+     */
+    public long getRowId(long index) {
+        return rowIds.getLong(index << 3);
+    }
+
+    /**
+     * Tests if record belongs to the partition pass currently processed.
+     *
+     * @param record   record positioned at spilled row
+     * @param sink     sink, which writes the same key map of set operation is using
+     * @param pass     pass index
+     * @param passMask number of partition passes minus one
+     * @return true when record is to be processed by the pass
+     */
+    public boolean isInPass(Record record, RecordSink sink, int pass, int passMask) {
+        if (passMask == 0) {
+            return true;
+        }
+        keyWriter.clear();
+        sink.copy(record, keyWriter);
+        // bits below the ones partition is picked by
+        return ((keyWriter.hash() >>> 8) & passMask) == pass;
+    }
+
+    public boolean isOpen() {
+        return id != -1;
+    }
+
+    /**
+     * Calls processor for every partition. Processor starts with clear map and must skip rows,
+     * which have been rejected. When map overflows, partition is processed again in twice as many passes.
+     * Rejections made by the interrupted pass stand, they are valid regardless of pass count.
+     *
+     * @param processor partition processor of set operation
+     */
+    public void process(PartitionProcessor processor) {
+        for (int i = 0, n = getPartitionCount(); i < n; i++) {
+            int passMask = 0;
+            int pass = 0;
+            while (pass <= passMask) {
+                try {
+                    processor.process(i, pass, passMask);
+                    pass++;
+                } catch (LimitOverflowException e) {
+                    if (passMask == MAX_PASS_MASK) {
+                        throw e;
+                    }
+                    passMask = (passMask << 1) | 1;
+                    pass = 0;
+                }
+            }
+        }
+    }
+
+    public void reject(long index) {
+        Unsafe.getUnsafe().putLong(rowIds.addressOf(index << 3), REJECTED);
+    }
+
+    public long size() {
+        return rowIds.getAppendOffset() >>> 3;
+    }
+
+    private void open() {
+        if (id != -1) {
+            return;
+        }
+        if (path == null) {
+            path = new Path();
+            keyWriter = new RecordKeyWriter(keyPageSize, Integer.MAX_VALUE);
+        }
+        path.of(root).concat(SPILL_DIR).slash$();
+        if (!ff.exists(path) && ff.mkdirs(path, mkDirMode) != 0) {
+            throw CairoException.instance(ff.errno()).put("could not create spill directory [path=").put(path).put(']');
+        }
+        id = ID.incrementAndGet();
+        try {
+            rowIds.of(ff, fileName(-1), pageSize, -1, MemoryTag.MMAP_DEFAULT);
+            for (int i = 0, n = partitions.size(); i < n; i++) {
+                partitions.getQuick(i).of(ff, fileName(i), pageSize, -1, MemoryTag.MMAP_DEFAULT);
+            }
+        } catch (Throwable e) {
+            clear();
+            throw e;
+        }
+    }
+
+    private Path fileName(int partitionIndex) {
+        path.of(root).concat(SPILL_DIR).slash().put(id).put('.');
+        if (partitionIndex < 0) {
+            path.put('r');
+        } else {
+            path.put(partitionIndex);
+        }
+        return path.$();
+    }
+
+    private void removeFile(MemoryCMARW mem, int partitionIndex) {
+        try {
+            mem.close(false);
+        } catch (Throwable e) {
+            LOG.error().$("could not close spill file [id=").$(id).$(", partition=").$(partitionIndex).$(", e=").$(e).$(']').$();
+        }
+        final Path name = fileName(partitionIndex);
+        if (ff.exists(name) && !ff.remove(name)) {
+            LOG.error().$("could not remove spill file [path=").$(name).$(", errno=").$(ff.errno()).$(']').$();
+        }
+    }
+
+    @FunctionalInterface
+    public interface PartitionProcessor {
+        void process(int partitionIndex, int pass, int passMask);
+    }
+}
@@ -26,7 +26,9 @@ package io.questdb.griffin.engine.analytic;
 
 import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.griffin.engine.RecordComparator;
 
 public interface AnalyticContext {
     VirtualRecord getPartitionByRecord();
@@ -38,4 +40,24 @@ public interface AnalyticContext {
     boolean isOrdered();
 
     boolean baseSupportsRandomAccess();
+
+    /**
+     * @return comparator over "order by" columns of the OVER clause, it is used to detect peer rows.
+     * Null when OVER clause does not have "order by".
+     */
+    RecordComparator getOrderByComparator();
+
+    /**
+     * @return function returning value of the single numeric "order by" column. It is only
+     * available for RANGE frames with offset, e.g. "range 10 preceding", and is null otherwise.
+     */
+    Function getOrderByFunction();
+
+    int getOrderByDirection();
+
+    int getFramingMode();
+
+    long getRowsLo();
+
+    long getRowsHi();
 }
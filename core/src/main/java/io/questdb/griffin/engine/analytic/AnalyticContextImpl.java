@@ -26,7 +26,9 @@ package io.questdb.griffin.engine.analytic;
 
 import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.griffin.engine.RecordComparator;
 import io.questdb.std.Transient;
 import org.jetbrains.annotations.Nullable;
 
@@ -36,6 +38,12 @@ public class AnalyticContextImpl implements AnalyticContext {
     private ColumnTypes partitionByKeyTypes;
     private boolean ordered;
     private boolean baseSupportsRandomAccess;
+    private RecordComparator orderByComparator;
+    private Function orderByFunction;
+    private int orderByDirection;
+    private int framingMode;
+    private long rowsLo;
+    private long rowsHi;
 
     @Override
     public VirtualRecord getPartitionByRecord() {
@@ -62,17 +70,59 @@ public class AnalyticContextImpl implements AnalyticContext {
         return baseSupportsRandomAccess;
     }
 
+    @Override
+    public RecordComparator getOrderByComparator() {
+        return orderByComparator;
+    }
+
+    @Override
+    public Function getOrderByFunction() {
+        return orderByFunction;
+    }
+
+    @Override
+    public int getOrderByDirection() {
+        return orderByDirection;
+    }
+
+    @Override
+    public int getFramingMode() {
+        return framingMode;
+    }
+
+    @Override
+    public long getRowsLo() {
+        return rowsLo;
+    }
+
+    @Override
+    public long getRowsHi() {
+        return rowsHi;
+    }
+
     public void of(
             VirtualRecord partitionByRecord,
             @Nullable RecordSink partitionBySink,
             @Transient @Nullable ColumnTypes partitionByKeyTypes,
             boolean ordered,
-            boolean baseSupportsRandomAccess
+            boolean baseSupportsRandomAccess,
+            @Nullable RecordComparator orderByComparator,
+            @Nullable Function orderByFunction,
+            int orderByDirection,
+            int framingMode,
+            long rowsLo,
+            long rowsHi
     ) {
         this.partitionByRecord = partitionByRecord;
         this.partitionBySink = partitionBySink;
         this.partitionByKeyTypes = partitionByKeyTypes;
         this.ordered = ordered;
         this.baseSupportsRandomAccess = baseSupportsRandomAccess;
+        this.orderByComparator = orderByComparator;
+        this.orderByFunction = orderByFunction;
+        this.orderByDirection = orderByDirection;
+        this.framingMode = framingMode;
+        this.rowsLo = rowsLo;
+        this.rowsHi = rowsHi;
     }
 }
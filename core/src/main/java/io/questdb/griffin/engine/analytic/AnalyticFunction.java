@@ -34,6 +34,12 @@ public interface AnalyticFunction extends Function {
     int TWO_PASS = 2;
     int THREE_PASS = 3;
 
+    /**
+     * @return {@link #STREAM} when value of the row is final once the row went through pass1,
+     * otherwise the function needs to see rows that follow before values are known
+     */
+    int getPassCount();
+
     void pass1(Record record, long recordOffset, AnalyticSPI spi);
 
     void preparePass2(RecordCursor cursor);
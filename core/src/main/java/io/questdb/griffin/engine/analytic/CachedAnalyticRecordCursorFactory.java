@@ -26,10 +26,13 @@ package io.questdb.griffin.engine.analytic;
 
 
 import io.questdb.cairo.*;
+import io.questdb.cairo.sql.DelegatingRecordImpl;
+import io.questdb.cairo.sql.NoRandomAccessRecordCursor;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.RecordComparator;
@@ -50,6 +53,8 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
     private final ObjList<RecordComparator> comparators;
     private final GenericRecordMetadata metadata;
     private final Record recordChainRecord;
+    // set when every function knows value of the row as soon as it sees the row
+    private final StreamingAnalyticRecordCursor streamingCursor;
     private boolean closed = false;
 
     public CachedAnalyticRecordCursorFactory(
@@ -99,6 +104,7 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
         this.metadata = metadata;
         this.recordChainRecord = recordChain.getRecord();
         this.unorderedFunctions = unorderedFunctions;
+        this.streamingCursor = isStreaming() ? new StreamingAnalyticRecordCursor() : null;
     }
 
     @Override
@@ -115,31 +121,39 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
 
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        resetFunctions();
+        if (streamingCursor != null) {
+            recordChain.rewind();
+            return streamingCursor.of(base.getCursor(executionContext));
+        }
         recordChain.clear();
         clearTrees();
-        resetFunctions();
 
         final RecordCursor baseCursor = base.getCursor(executionContext);
-
-        // step #1: store source cursor in record list
-        // - add record list' row ids to all trees, which will put these row ids in necessary order
-        // for this we will be using out comparator, which helps tree compare long values
-        // based on record these values are addressing
         long offset = -1;
-        final Record record = baseCursor.getRecord();
-        final Record chainRightRecord = recordChain.getRecordB();
-        if (orderedGroupCount > 0) {
-            while (baseCursor.hasNext()) {
-                offset = recordChain.put(record, offset);
-                recordChain.recordAt(recordChainRecord, offset);
-                for (int i = 0; i < orderedGroupCount; i++) {
-                    orderedSources.getQuick(i).put(recordChainRecord, recordChain, chainRightRecord, comparators.getQuick(i));
+        try {
+            // step #1: store source cursor in record list
+            // - add record list' row ids to all trees, which will put these row ids in necessary order
+            // for this we will be using out comparator, which helps tree compare long values
+            // based on record these values are addressing
+            final Record record = baseCursor.getRecord();
+            final Record chainRightRecord = recordChain.getRecordB();
+            if (orderedGroupCount > 0) {
+                while (baseCursor.hasNext()) {
+                    offset = recordChain.put(record, offset);
+                    recordChain.recordAt(recordChainRecord, offset);
+                    for (int i = 0; i < orderedGroupCount; i++) {
+                        orderedSources.getQuick(i).put(recordChainRecord, recordChain, chainRightRecord, comparators.getQuick(i));
+                    }
+                }
+            } else {
+                while (baseCursor.hasNext()) {
+                    offset = recordChain.put(record, offset);
                 }
             }
-        } else {
-            while (baseCursor.hasNext()) {
-                offset = recordChain.put(record, offset);
-            }
+        } finally {
+            // rows are copied into the chain, base cursor is no longer needed
+            baseCursor.close();
         }
 
         if (orderedGroupCount > 0) {
@@ -170,10 +184,29 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
             }
         }
 
+        // some functions defer results until they see rows that follow,
+        // e.g. peers of the last row in RANGE frame, let them finish off
+        for (int i = 0, n = allFunctions.size(); i < n; i++) {
+            allFunctions.getQuick(i).preparePass2(recordChain);
+        }
+
         recordChain.toTop();
         return recordChain;
     }
 
+    private boolean isStreaming() {
+        // rows in natural order, values are final after pass1, hence chain can hold just the current row
+        if (orderedGroupCount > 0 || unorderedFunctions == null) {
+            return false;
+        }
+        for (int i = 0, n = unorderedFunctions.size(); i < n; i++) {
+            if (unorderedFunctions.getQuick(i).getPassCount() != AnalyticFunction.STREAM) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void resetFunctions() {
         for (int i = 0, n = allFunctions.size(); i < n; i++) {
             allFunctions.getQuick(i).reset();
@@ -193,6 +226,60 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
 
     @Override
     public boolean recordCursorSupportsRandomAccess() {
-        return base.recordCursorSupportsRandomAccess();
+        return streamingCursor == null && base.recordCursorSupportsRandomAccess();
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).child(base);
+    }
+
+    private class StreamingAnalyticRecordCursor implements NoRandomAccessRecordCursor {
+        // chain row is overwritten by every row, hide its row id
+        private final DelegatingRecordImpl record = new DelegatingRecordImpl();
+        private RecordCursor baseCursor;
+        private Record baseRecord;
+
+        @Override
+        public void close() {
+            baseCursor = Misc.free(baseCursor);
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!baseCursor.hasNext()) {
+                return false;
+            }
+            recordChain.rewind();
+            final long offset = recordChain.put(baseRecord, -1);
+            recordChain.recordAt(recordChainRecord, offset);
+            for (int i = 0, n = unorderedFunctions.size(); i < n; i++) {
+                unorderedFunctions.getQuick(i).pass1(recordChainRecord, offset, recordChain);
+            }
+            return true;
+        }
+
+        @Override
+        public long size() {
+            return baseCursor.size();
+        }
+
+        @Override
+        public void toTop() {
+            baseCursor.toTop();
+            resetFunctions();
+        }
+
+        private StreamingAnalyticRecordCursor of(RecordCursor baseCursor) {
+            this.baseCursor = baseCursor;
+            this.baseRecord = baseCursor.getRecord();
+            record.of(recordChainRecord);
+            return this;
+        }
     }
 }
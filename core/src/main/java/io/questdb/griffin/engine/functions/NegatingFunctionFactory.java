@@ -50,6 +50,11 @@ public class NegatingFunctionFactory implements FunctionFactory {
         return signature;
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return delegate.isDeterministic();
+    }
+
     @Override
     public Function newInstance(
             int position,
@@ -49,6 +49,11 @@ public class SwappingArgsFunctionFactory implements FunctionFactory {
         return signature;
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return delegate.isDeterministic();
+    }
+
     @Override
     public Function newInstance(
             int position,
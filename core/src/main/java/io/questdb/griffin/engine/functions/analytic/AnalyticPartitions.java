@@ -0,0 +1,148 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapRecord;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.engine.groupby.SimpleMapValue;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+
+import java.io.Closeable;
+
+/**
+ * State of analytic function for each partition. When OVER clause has no "partition by"
+ * all rows belong to the single partition and its state is kept on heap.
+ */
+class AnalyticPartitions implements Closeable, Mutable {
+    private final Map map;
+    private final VirtualRecord partitionByRecord;
+    private final RecordSink partitionBySink;
+    private final SingleMapValue singleValue;
+    private RecordCursor mapCursor;
+    private boolean singleValueIterated;
+
+    AnalyticPartitions(CairoConfiguration configuration, AnalyticContext analyticContext, ColumnTypes valueTypes) {
+        this.partitionByRecord = analyticContext.getPartitionByRecord();
+        this.partitionBySink = analyticContext.getPartitionBySink();
+        if (partitionByRecord != null) {
+            this.map = MapFactory.createMap(configuration, analyticContext.getPartitionByKeyTypes(), valueTypes);
+            this.singleValue = null;
+        } else {
+            this.map = null;
+            this.singleValue = new SingleMapValue(valueTypes.getColumnCount());
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (map != null) {
+            map.clear();
+        } else {
+            singleValue.created = false;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (map != null) {
+            Misc.free(map);
+            Misc.free(partitionByRecord.getFunctions());
+        }
+    }
+
+    /**
+     * Prepares iteration over states of all partitions, see {@link #nextValue()}.
+     */
+    void toTop() {
+        if (map != null) {
+            mapCursor = map.getCursor();
+        } else {
+            singleValueIterated = !singleValue.created;
+        }
+    }
+
+    /**
+     * @return state of next partition or null when all partitions have been visited
+     */
+    MapValue nextValue() {
+        if (map != null) {
+            if (mapCursor.hasNext()) {
+                return ((MapRecord) mapCursor.getRecord()).getValue();
+            }
+            return null;
+        }
+
+        if (singleValueIterated) {
+            return null;
+        }
+        singleValueIterated = true;
+        return singleValue;
+    }
+
+    /**
+     * Finds state of the partition record belongs to. {@link MapValue#isNew()} of returned
+     * value is true when this is the first record of the partition.
+     *
+     * @param record record to evaluate partition key on
+     * @return partition state
+     */
+    MapValue valueOf(Record record) {
+        if (map != null) {
+            partitionByRecord.of(record);
+            final MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            return key.createValue();
+        }
+        singleValue.isNew = !singleValue.created;
+        singleValue.created = true;
+        return singleValue;
+    }
+
+    private static class SingleMapValue extends SimpleMapValue {
+        private boolean created;
+        private boolean isNew;
+
+        public SingleMapValue(int columnCount) {
+            super(columnCount);
+        }
+
+        @Override
+        public boolean isNew() {
+            return isNew;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.AnalyticSPI;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.ScalarFunction;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.engine.functions.DateFunction;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.engine.functions.TimestampFunction;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+
+import java.io.Closeable;
+
+/**
+ * Computes values of analytic column. Values are 8-byte wide and are handled as raw bits,
+ * which lets the same processor serve double, long, timestamp and date columns. Processor is
+ * exposed to SQL engine via one of typed functions created by {@link #newFunction(int, AnalyticProcessor)}.
+ */
+abstract class AnalyticProcessor implements Closeable {
+    protected int columnIndex;
+    protected AnalyticSPI spi;
+
+    static Function newFunction(int valueType, AnalyticProcessor processor) {
+        switch (valueType) {
+            case ColumnType.DOUBLE:
+                return new DoubleAnalyticFunction(processor);
+            case ColumnType.TIMESTAMP:
+                return new TimestampAnalyticFunction(processor);
+            case ColumnType.DATE:
+                return new DateAnalyticFunction(processor);
+            default:
+                return new LongAnalyticFunction(processor);
+        }
+    }
+
+    static long nullValue(int valueType) {
+        return valueType == ColumnType.DOUBLE ? Double.doubleToRawLongBits(Double.NaN) : Numbers.LONG_NaN;
+    }
+
+    static long readValue(Function function, Record record, int valueType) {
+        switch (valueType) {
+            case ColumnType.DOUBLE:
+                return Double.doubleToRawLongBits(function.getDouble(record));
+            case ColumnType.TIMESTAMP:
+                return function.getTimestamp(record);
+            case ColumnType.DATE:
+                return function.getDate(record);
+            default:
+                return function.getLong(record);
+        }
+    }
+
+    /**
+     * Maps type of function argument to the type of analytic column.
+     *
+     * @param function argument of analytic function
+     * @param position position of the argument in SQL text
+     * @return one of DOUBLE, LONG, TIMESTAMP or DATE
+     * @throws SqlException when argument type is not numeric
+     */
+    static int valueTypeOf(Function function, int position) throws SqlException {
+        switch (ColumnType.tagOf(function.getType())) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+                return ColumnType.LONG;
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                return ColumnType.DOUBLE;
+            case ColumnType.TIMESTAMP:
+                return ColumnType.TIMESTAMP;
+            case ColumnType.DATE:
+                return ColumnType.DATE;
+            default:
+                throw SqlException.$(position, "numeric, date or timestamp argument expected");
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Called once after all rows went through {@link #pass1(Record, long, AnalyticSPI)}.
+     * Processors that defer results until they see rows that follow write remaining values here.
+     */
+    void finish() {
+    }
+
+    /**
+     * @return {@link AnalyticFunction#STREAM} when processor writes value of the row in pass1 and does not
+     * revisit rows it has seen, {@link AnalyticFunction#TWO_PASS} otherwise
+     */
+    int getPassCount() {
+        return AnalyticFunction.TWO_PASS;
+    }
+
+    abstract void pass1(Record record, long recordOffset, AnalyticSPI spi);
+
+    void reset() {
+        spi = null;
+    }
+
+    protected void putValue(long recordOffset, long value) {
+        Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), value);
+    }
+
+    private static class DoubleAnalyticFunction extends DoubleFunction implements ScalarFunction, AnalyticFunction, Closeable {
+        private final AnalyticProcessor processor;
+
+        private DoubleAnalyticFunction(AnalyticProcessor processor) {
+            this.processor = processor;
+        }
+
+        @Override
+        public void close() {
+            processor.close();
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            // not called
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getPassCount() {
+            return processor.getPassCount();
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            processor.pass1(record, recordOffset, spi);
+        }
+
+        @Override
+        public void preparePass2(RecordCursor cursor) {
+            processor.finish();
+        }
+
+        @Override
+        public void pass2(Record record) {
+        }
+
+        @Override
+        public void reset() {
+            processor.reset();
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            processor.columnIndex = columnIndex;
+        }
+    }
+
+    private static class LongAnalyticFunction extends LongFunction implements ScalarFunction, AnalyticFunction, Closeable {
+        private final AnalyticProcessor processor;
+
+        private LongAnalyticFunction(AnalyticProcessor processor) {
+            this.processor = processor;
+        }
+
+        @Override
+        public void close() {
+            processor.close();
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            // not called
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getPassCount() {
+            return processor.getPassCount();
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            processor.pass1(record, recordOffset, spi);
+        }
+
+        @Override
+        public void preparePass2(RecordCursor cursor) {
+            processor.finish();
+        }
+
+        @Override
+        public void pass2(Record record) {
+        }
+
+        @Override
+        public void reset() {
+            processor.reset();
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            processor.columnIndex = columnIndex;
+        }
+    }
+
+    private static class TimestampAnalyticFunction extends TimestampFunction implements ScalarFunction, AnalyticFunction, Closeable {
+        private final AnalyticProcessor processor;
+
+        private TimestampAnalyticFunction(AnalyticProcessor processor) {
+            this.processor = processor;
+        }
+
+        @Override
+        public void close() {
+            processor.close();
+        }
+
+        @Override
+        public long getTimestamp(Record rec) {
+            // not called
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getPassCount() {
+            return processor.getPassCount();
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            processor.pass1(record, recordOffset, spi);
+        }
+
+        @Override
+        public void preparePass2(RecordCursor cursor) {
+            processor.finish();
+        }
+
+        @Override
+        public void pass2(Record record) {
+        }
+
+        @Override
+        public void reset() {
+            processor.reset();
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            processor.columnIndex = columnIndex;
+        }
+    }
+
+    private static class DateAnalyticFunction extends DateFunction implements ScalarFunction, AnalyticFunction, Closeable {
+        private final AnalyticProcessor processor;
+
+        private DateAnalyticFunction(AnalyticProcessor processor) {
+            this.processor = processor;
+        }
+
+        @Override
+        public void close() {
+            processor.close();
+        }
+
+        @Override
+        public long getDate(Record rec) {
+            // not called
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getPassCount() {
+            return processor.getPassCount();
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            processor.pass1(record, recordOffset, spi);
+        }
+
+        @Override
+        public void preparePass2(RecordCursor cursor) {
+            processor.finish();
+        }
+
+        @Override
+        public void pass2(Record record) {
+        }
+
+        @Override
+        public void reset() {
+            processor.reset();
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            processor.columnIndex = columnIndex;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.AnalyticSPI;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.model.AnalyticColumn;
+import io.questdb.griffin.model.QueryModel;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+
+/**
+ * Evaluates aggregate over the window frame of each row. Frame is "rows|range between ... and current row"
+ * or the whole partition.
+ * <p>
+ * Frames that start with UNBOUNDED PRECEDING and end on current row are computed incrementally in O(1)
+ * per row and do not keep rows. Other frames keep list of row entries per partition in native memory,
+ * rows leave the frame from its head as frame slides forward. Aggregates that cannot subtract value
+ * of the leaving row, such as min() and max(), are re-computed over remaining frame rows.
+ * <p>
+ * Entries of rows that left the frame go to a free list and are reused by rows that follow, so memory
+ * is bounded by the number of rows in all open frames rather than by the number of rows in the result.
+ * Frames that span the whole partition keep all partition rows until the last row is seen.
+ * <p>
+ * RANGE frames include peers of current row, e.g. rows with the same "order by" value. Results for
+ * group of peers are written when the first row of the next peer group arrives or once all rows
+ * are processed.
+ */
+class FrameAnalyticProcessor extends AnalyticProcessor {
+    // partition state
+    static final int FRAME_HEAD = 0;
+    static final int FRAME_TAIL = 1;
+    static final int PEERS_HEAD = 2;
+    static final int FRAME_ROWS = 3;
+    static final int FIRST_VALUE = 4;
+    static final int LAST_VALUE = 5;
+    static final int AGGREGATE_STATE = 6;
+    // row entry
+    private static final int ENTRY_RECORD_OFFSET = 0;
+    private static final int ENTRY_ORDER_BY_VALUE = 8;
+    private static final int ENTRY_VALUE = 16;
+    private static final int ENTRY_NEXT = 24;
+    private static final int ENTRY_SIZE = 32;
+    private final FrameAggregate aggregate;
+    private final AnalyticPartitions partitions;
+    private final Function arg;
+    private final int valueType;
+    private final RecordComparator orderByComparator;
+    private final Function orderByFunction;
+    private final boolean orderByDescending;
+    private final boolean rowsFraming;
+    private final boolean wholePartition;
+    private final long rowsLo;
+    private final MemoryARW rows;
+    // head of the list of entries released by rows that left their frame
+    private long freeEntry = -1;
+
+    FrameAnalyticProcessor(
+            CairoConfiguration configuration,
+            AnalyticContext analyticContext,
+            FrameAggregate aggregate,
+            Function arg,
+            int valueType
+    ) {
+        this.aggregate = aggregate;
+        this.arg = arg;
+        this.valueType = valueType;
+        this.rowsLo = analyticContext.getRowsLo();
+        this.orderByComparator = analyticContext.getOrderByComparator();
+        this.orderByFunction = analyticContext.getOrderByFunction();
+        this.orderByDescending = analyticContext.getOrderByDirection() == QueryModel.ORDER_DIRECTION_DESCENDING;
+        this.wholePartition = analyticContext.getRowsHi() == AnalyticColumn.UNBOUNDED_FOLLOWING
+                || (analyticContext.getFramingMode() == AnalyticColumn.FRAMING_RANGE && orderByComparator == null);
+        this.rowsFraming = analyticContext.getFramingMode() == AnalyticColumn.FRAMING_ROWS && !wholePartition;
+
+        final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+        valueTypes.add(ColumnType.LONG); // FRAME_HEAD
+        valueTypes.add(ColumnType.LONG); // FRAME_TAIL
+        valueTypes.add(ColumnType.LONG); // PEERS_HEAD
+        valueTypes.add(ColumnType.LONG); // FRAME_ROWS
+        valueTypes.add(ColumnType.LONG); // FIRST_VALUE
+        valueTypes.add(ColumnType.LONG); // LAST_VALUE
+        aggregate.pushValueTypes(valueTypes);
+        this.partitions = new AnalyticPartitions(configuration, analyticContext, valueTypes);
+
+        if (rowsFraming && rowsLo == AnalyticColumn.UNBOUNDED_PRECEDING) {
+            // running aggregate does not need to revisit rows
+            this.rows = null;
+        } else {
+            this.rows = Vm.getARWInstance(
+                    configuration.getSqlAnalyticStorePageSize(),
+                    configuration.getSqlAnalyticStoreMaxPages(),
+                    MemoryTag.NATIVE_DEFAULT
+            );
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(partitions);
+        Misc.free(rows);
+        Misc.free(arg);
+        Misc.free(orderByFunction);
+    }
+
+    @Override
+    int getPassCount() {
+        // ROWS frame ends on current row, value is final as soon as the row is seen
+        return rowsFraming ? AnalyticFunction.STREAM : AnalyticFunction.TWO_PASS;
+    }
+
+    @Override
+    void finish() {
+        if (rowsFraming || spi == null) {
+            return;
+        }
+        partitions.toTop();
+        MapValue state;
+        while ((state = partitions.nextValue()) != null) {
+            putPeers(state, -1);
+        }
+    }
+
+    @Override
+    void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+        this.spi = spi;
+        final MapValue state = partitions.valueOf(record);
+        final long value = arg != null ? readValue(arg, record, valueType) : 0;
+
+        if (rows == null) {
+            if (state.isNew()) {
+                aggregate.clear(state);
+                state.putLong(FRAME_ROWS, 0);
+                state.putLong(FIRST_VALUE, value);
+            }
+            add(state, value);
+            putValue(recordOffset, aggregate.getResult(state));
+            return;
+        }
+
+        final long orderByValue = orderByFunction != null ? orderByFunction.getLong(record) : 0;
+        final long entry = newEntry(recordOffset, orderByValue, value);
+
+        if (state.isNew()) {
+            aggregate.clear(state);
+            state.putLong(FRAME_HEAD, entry);
+            state.putLong(PEERS_HEAD, entry);
+            state.putLong(FRAME_ROWS, 0);
+            state.putLong(FIRST_VALUE, value);
+        } else {
+            final long tail = state.getLong(FRAME_TAIL);
+            rows.putLong(tail + ENTRY_NEXT, entry);
+            if (!rowsFraming && !wholePartition && !isPeer(record, rows.getLong(tail + ENTRY_RECORD_OFFSET))) {
+                // frame of previous peer group is complete
+                putPeers(state, entry);
+                if (rowsLo == AnalyticColumn.UNBOUNDED_PRECEDING) {
+                    // running aggregate never revisits rows of complete peer groups
+                    for (long e = state.getLong(FRAME_HEAD); e != entry; ) {
+                        final long next = rows.getLong(e + ENTRY_NEXT);
+                        freeEntry(e);
+                        e = next;
+                    }
+                    state.putLong(FRAME_HEAD, entry);
+                }
+                state.putLong(PEERS_HEAD, entry);
+            }
+        }
+        state.putLong(FRAME_TAIL, entry);
+        add(state, value);
+
+        if (rowsFraming) {
+            if (rowsLo != AnalyticColumn.UNBOUNDED_PRECEDING) {
+                // frame is current row and -rowsLo preceding rows
+                boolean stale = false;
+                while (state.getLong(FRAME_ROWS) > 1 - rowsLo) {
+                    stale |= !removeHead(state);
+                }
+                if (stale) {
+                    recompute(state);
+                }
+            }
+            putValue(recordOffset, aggregate.getResult(state));
+        } else if (rowsLo != AnalyticColumn.UNBOUNDED_PRECEDING) {
+            boolean stale = false;
+            while (!inRange(rows.getLong(state.getLong(FRAME_HEAD) + ENTRY_ORDER_BY_VALUE), orderByValue)) {
+                stale |= !removeHead(state);
+            }
+            if (stale) {
+                recompute(state);
+            }
+        }
+    }
+
+    @Override
+    void reset() {
+        super.reset();
+        partitions.clear();
+        if (rows != null) {
+            rows.jumpTo(0);
+        }
+        freeEntry = -1;
+    }
+
+    private void add(MapValue state, long value) {
+        aggregate.add(state, value);
+        state.putLong(FRAME_ROWS, state.getLong(FRAME_ROWS) + 1);
+        state.putLong(LAST_VALUE, value);
+    }
+
+    private void freeEntry(long entry) {
+        rows.putLong(entry + ENTRY_NEXT, freeEntry);
+        freeEntry = entry;
+    }
+
+    private boolean inRange(long headValue, long currentValue) {
+        if (headValue == Numbers.LONG_NaN || currentValue == Numbers.LONG_NaN) {
+            return headValue == currentValue;
+        }
+        return (orderByDescending ? headValue - currentValue : currentValue - headValue) <= -rowsLo;
+    }
+
+    private boolean isPeer(Record record, long recordOffset) {
+        orderByComparator.setLeft(record);
+        return orderByComparator.compare(spi.getRecordAt(recordOffset)) == 0;
+    }
+
+    private long newEntry(long recordOffset, long orderByValue, long value) {
+        final long entry;
+        if (freeEntry != -1) {
+            entry = freeEntry;
+            freeEntry = rows.getLong(entry + ENTRY_NEXT);
+        } else {
+            entry = rows.getAppendOffset();
+            rows.skip(ENTRY_SIZE);
+        }
+        rows.putLong(entry + ENTRY_RECORD_OFFSET, recordOffset);
+        rows.putLong(entry + ENTRY_ORDER_BY_VALUE, orderByValue);
+        rows.putLong(entry + ENTRY_VALUE, value);
+        rows.putLong(entry + ENTRY_NEXT, -1);
+        return entry;
+    }
+
+    private void putPeers(MapValue state, long stopEntry) {
+        final long result = aggregate.getResult(state);
+        for (long entry = state.getLong(PEERS_HEAD); entry != stopEntry; entry = rows.getLong(entry + ENTRY_NEXT)) {
+            putValue(rows.getLong(entry + ENTRY_RECORD_OFFSET), result);
+        }
+    }
+
+    private void recompute(MapValue state) {
+        aggregate.clear(state);
+        for (long entry = state.getLong(FRAME_HEAD); entry != -1; entry = rows.getLong(entry + ENTRY_NEXT)) {
+            aggregate.add(state, rows.getLong(entry + ENTRY_VALUE));
+        }
+    }
+
+    /**
+     * Removes head row from the frame.
+     *
+     * @return false when aggregate state has to be re-computed over remaining frame rows
+     */
+    private boolean removeHead(MapValue state) {
+        final long head = state.getLong(FRAME_HEAD);
+        final long next = rows.getLong(head + ENTRY_NEXT);
+        state.putLong(FRAME_HEAD, next);
+        state.putLong(FRAME_ROWS, state.getLong(FRAME_ROWS) - 1);
+        state.putLong(FIRST_VALUE, rows.getLong(next + ENTRY_VALUE));
+        final boolean removed = aggregate.remove(state, rows.getLong(head + ENTRY_VALUE));
+        freeEntry(head);
+        return removed;
+    }
+
+    /**
+     * Aggregate over values of frame rows. Aggregate state is stored in partition state starting
+     * at {@link #AGGREGATE_STATE} index. Values are raw 8-byte bits as read by {@link #readValue(Function, Record, int)}.
+     */
+    interface FrameAggregate {
+        void add(MapValue state, long value);
+
+        void clear(MapValue state);
+
+        long getResult(MapValue state);
+
+        void pushValueTypes(ArrayColumnTypes columnTypes);
+
+        /**
+         * Removes value of the row leaving the frame.
+         *
+         * @return false when aggregate cannot be updated without re-visiting remaining frame rows
+         */
+        boolean remove(MapValue state, long value);
+    }
+}
@@ -0,0 +1,200 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.AnalyticSPI;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.std.IntList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+/**
+ * Implements lag(x [, offset [, default]]) and lead(x [, offset [, default]]). Each partition keeps
+ * ring of the last "offset" entries. Lag keeps values of preceding rows. Lead keeps offsets of
+ * preceding rows and writes current value into the row "offset" rows back, rows near the end of
+ * partition retain default value.
+ */
+class LagLeadAnalyticProcessor extends AnalyticProcessor {
+    private static final int ROW_COUNT = 0;
+    private static final int RING_OFFSET = 1;
+    private final AnalyticPartitions partitions;
+    private final Function arg;
+    private final int valueType;
+    private final long offset;
+    private final long defaultValue;
+    private final boolean lead;
+    private final MemoryARW ring;
+
+    private LagLeadAnalyticProcessor(
+            CairoConfiguration configuration,
+            AnalyticContext analyticContext,
+            Function arg,
+            int valueType,
+            long offset,
+            long defaultValue,
+            boolean lead
+    ) {
+        this.arg = arg;
+        this.valueType = valueType;
+        this.offset = offset;
+        this.defaultValue = defaultValue;
+        this.lead = lead;
+        final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+        valueTypes.add(ColumnType.LONG); // ROW_COUNT
+        valueTypes.add(ColumnType.LONG); // RING_OFFSET
+        this.partitions = new AnalyticPartitions(configuration, analyticContext, valueTypes);
+        this.ring = Vm.getARWInstance(
+                configuration.getSqlAnalyticStorePageSize(),
+                configuration.getSqlAnalyticStoreMaxPages(),
+                MemoryTag.NATIVE_DEFAULT
+        );
+    }
+
+    static Function newFunction(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            AnalyticContext analyticContext,
+            boolean lead
+    ) throws SqlException {
+        final int argCount = args == null ? 0 : args.size();
+        if (argCount < 1 || argCount > 3) {
+            throw SqlException.$(position, "between one and three arguments expected");
+        }
+
+        final Function arg = args.getQuick(0);
+        final int valueType = valueTypeOf(arg, argPositions.getQuick(0));
+
+        long offset = 1;
+        if (argCount > 1) {
+            final Function offsetArg = args.getQuick(1);
+            switch (ColumnType.tagOf(offsetArg.getType())) {
+                case ColumnType.BYTE:
+                case ColumnType.SHORT:
+                case ColumnType.INT:
+                case ColumnType.LONG:
+                    break;
+                default:
+                    throw SqlException.$(argPositions.getQuick(1), "integer offset expected");
+            }
+            if (!offsetArg.isConstant()) {
+                throw SqlException.$(argPositions.getQuick(1), "constant offset expected");
+            }
+            offset = offsetArg.getLong(null);
+            if (offset < 0) {
+                throw SqlException.$(argPositions.getQuick(1), "offset must be non-negative");
+            }
+        }
+
+        long defaultValue = nullValue(valueType);
+        if (argCount > 2) {
+            final Function defaultArg = args.getQuick(2);
+            if (!defaultArg.isConstant()) {
+                throw SqlException.$(argPositions.getQuick(2), "constant default value expected");
+            }
+            final int defaultType = valueTypeOf(defaultArg, argPositions.getQuick(2));
+            if (defaultType != valueType && defaultType != ColumnType.LONG && valueType != ColumnType.DOUBLE) {
+                throw SqlException.$(argPositions.getQuick(2), "default value type does not match argument type");
+            }
+            defaultValue = readValue(defaultArg, null, valueType);
+        }
+
+        return AnalyticProcessor.newFunction(
+                valueType,
+                new LagLeadAnalyticProcessor(configuration, analyticContext, arg, valueType, offset, defaultValue, lead)
+        );
+    }
+
+    @Override
+    public void close() {
+        Misc.free(partitions);
+        Misc.free(ring);
+        Misc.free(arg);
+    }
+
+    @Override
+    int getPassCount() {
+        // lead writes value into the row "offset" rows back
+        return lead && offset > 0 ? AnalyticFunction.TWO_PASS : AnalyticFunction.STREAM;
+    }
+
+    @Override
+    void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+        this.spi = spi;
+        final long value = readValue(arg, record, valueType);
+        if (offset == 0) {
+            putValue(recordOffset, value);
+            return;
+        }
+
+        final MapValue state = partitions.valueOf(record);
+        final long ringOffset;
+        final long rowCount;
+        if (state.isNew()) {
+            ringOffset = ring.getAppendOffset();
+            for (long i = 0; i < offset; i++) {
+                ring.putLong(0);
+            }
+            rowCount = 0;
+            state.putLong(RING_OFFSET, ringOffset);
+        } else {
+            ringOffset = state.getLong(RING_OFFSET);
+            rowCount = state.getLong(ROW_COUNT);
+        }
+        state.putLong(ROW_COUNT, rowCount + 1);
+
+        final long slot = ringOffset + (rowCount % offset) * Long.BYTES;
+        if (lead) {
+            putValue(recordOffset, defaultValue);
+            if (rowCount >= offset) {
+                putValue(ring.getLong(slot), value);
+            }
+            ring.putLong(slot, recordOffset);
+        } else {
+            putValue(recordOffset, rowCount >= offset ? ring.getLong(slot) : defaultValue);
+            ring.putLong(slot, value);
+        }
+    }
+
+    @Override
+    void reset() {
+        super.reset();
+        partitions.clear();
+        ring.jumpTo(0);
+    }
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+
+public class LastValueFunctionFactory implements FunctionFactory {
+
+    @Override
+    public String getSignature() {
+        return "last_value(V)";
+    }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        if (args == null || args.size() != 1) {
+            throw SqlException.$(position, "exactly one argument expected");
+        }
+        final Function arg = args.getQuick(0);
+        final int valueType = AnalyticProcessor.valueTypeOf(arg, argPositions.getQuick(0));
+        return AnalyticProcessor.newFunction(
+                valueType,
+                new FrameAnalyticProcessor(
+                        configuration,
+                        sqlExecutionContext.getAnalyticContext(),
+                        LastValueAggregate.INSTANCE,
+                        arg,
+                        valueType
+                )
+        );
+    }
+
+    private static class LastValueAggregate implements FrameAnalyticProcessor.FrameAggregate {
+        private static final LastValueAggregate INSTANCE = new LastValueAggregate();
+
+        @Override
+        public void add(MapValue state, long value) {
+        }
+
+        @Override
+        public void clear(MapValue state) {
+        }
+
+        @Override
+        public long getResult(MapValue state) {
+            return state.getLong(FrameAnalyticProcessor.LAST_VALUE);
+        }
+
+        @Override
+        public void pushValueTypes(ArrayColumnTypes columnTypes) {
+        }
+
+        @Override
+        public boolean remove(MapValue state, long value) {
+            return true;
+        }
+    }
+}
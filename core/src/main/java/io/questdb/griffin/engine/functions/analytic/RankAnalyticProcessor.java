@@ -0,0 +1,103 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.AnalyticSPI;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.std.Misc;
+
+/**
+ * Implements rank() and dense_rank(). Row is compared to the previous row of its partition,
+ * rank changes when rows are not peers with respect to "order by" of OVER clause. Without
+ * "order by" all rows of partition are peers and have rank of 1.
+ */
+class RankAnalyticProcessor extends AnalyticProcessor {
+    private static final int ROW_COUNT = 0;
+    private static final int RANK = 1;
+    private static final int LAST_RECORD_OFFSET = 2;
+    private final AnalyticPartitions partitions;
+    private final RecordComparator orderByComparator;
+    private final boolean dense;
+
+    RankAnalyticProcessor(CairoConfiguration configuration, AnalyticContext analyticContext, boolean dense) {
+        this.orderByComparator = analyticContext.getOrderByComparator();
+        this.dense = dense;
+        final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+        valueTypes.add(ColumnType.LONG); // ROW_COUNT
+        valueTypes.add(ColumnType.LONG); // RANK
+        valueTypes.add(ColumnType.LONG); // LAST_RECORD_OFFSET
+        this.partitions = new AnalyticPartitions(configuration, analyticContext, valueTypes);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(partitions);
+    }
+
+    @Override
+    int getPassCount() {
+        // rows are compared to the previous row of partition, which has to stay addressable
+        return orderByComparator == null ? AnalyticFunction.STREAM : AnalyticFunction.TWO_PASS;
+    }
+
+    @Override
+    void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+        this.spi = spi;
+        final MapValue state = partitions.valueOf(record);
+        final long rowCount;
+        long rank;
+        if (state.isNew()) {
+            rowCount = 1;
+            rank = 1;
+        } else {
+            rowCount = state.getLong(ROW_COUNT) + 1;
+            rank = state.getLong(RANK);
+            if (orderByComparator != null) {
+                orderByComparator.setLeft(record);
+                if (orderByComparator.compare(spi.getRecordAt(state.getLong(LAST_RECORD_OFFSET))) != 0) {
+                    rank = dense ? rank + 1 : rowCount;
+                }
+            }
+        }
+        state.putLong(ROW_COUNT, rowCount);
+        state.putLong(RANK, rank);
+        state.putLong(LAST_RECORD_OFFSET, recordOffset);
+        putValue(recordOffset, rank);
+    }
+
+    @Override
+    void reset() {
+        super.reset();
+        partitions.clear();
+    }
+}
@@ -54,6 +54,16 @@ public class RowNumberFunctionFactory implements FunctionFactory {
         return "row_number()";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         final AnalyticContext analyticContext = sqlExecutionContext.getAnalyticContext();
@@ -70,7 +80,7 @@ public class RowNumberFunctionFactory implements FunctionFactory {
                     analyticContext.getPartitionBySink()
             );
         }
-        return null;
+        return new RowNumberFunction(null, null, null);
     }
 
     private static class RowNumberFunction extends LongFunction implements ScalarFunction, AnalyticFunction, Closeable {
@@ -78,6 +88,7 @@ public class RowNumberFunctionFactory implements FunctionFactory {
         private final VirtualRecord partitionByRecord;
         private final RecordSink partitionBySink;
         private int columnIndex;
+        private long rowCount;
 
         public RowNumberFunction(Map map, VirtualRecord partitionByRecord, RecordSink partitionBySink) {
             this.map = map;
@@ -87,8 +98,10 @@ public class RowNumberFunctionFactory implements FunctionFactory {
 
         @Override
         public void close() {
-            Misc.free(map);
-            Misc.free(partitionByRecord.getFunctions());
+            if (map != null) {
+                Misc.free(map);
+                Misc.free(partitionByRecord.getFunctions());
+            }
         }
 
         @Override
@@ -97,8 +110,17 @@ public class RowNumberFunctionFactory implements FunctionFactory {
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public int getPassCount() {
+            return STREAM;
+        }
+
         @Override
         public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            if (map == null) {
+                Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), rowCount++);
+                return;
+            }
             partitionByRecord.of(record);
             MapKey key = map.withKey();
             key.put(partitionByRecord, partitionBySink);
@@ -123,7 +145,10 @@ public class RowNumberFunctionFactory implements FunctionFactory {
 
         @Override
         public void reset() {
-            map.clear();
+            if (map != null) {
+                map.clear();
+            }
+            rowCount = 0;
         }
 
         @Override
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+
+import static io.questdb.griffin.engine.functions.analytic.FrameAnalyticProcessor.AGGREGATE_STATE;
+
+public class SumDoubleAnalyticFunctionFactory implements FunctionFactory {
+
+    @Override
+    public String getSignature() {
+        return "sum(D)";
+    }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
+        return AnalyticProcessor.newFunction(
+                ColumnType.DOUBLE,
+                new FrameAnalyticProcessor(
+                        configuration,
+                        sqlExecutionContext.getAnalyticContext(),
+                        new SumAggregate(),
+                        args.getQuick(0),
+                        ColumnType.DOUBLE
+                )
+        );
+    }
+
+    private static class SumAggregate implements FrameAnalyticProcessor.FrameAggregate {
+        private static final int SUM = AGGREGATE_STATE;
+        private static final int COUNT = AGGREGATE_STATE + 1;
+
+        @Override
+        public void add(MapValue state, long value) {
+            final double d = Double.longBitsToDouble(value);
+            if (d == d) {
+                state.putDouble(SUM, state.getDouble(SUM) + d);
+                state.putLong(COUNT, state.getLong(COUNT) + 1);
+            }
+        }
+
+        @Override
+        public void clear(MapValue state) {
+            state.putDouble(SUM, 0);
+            state.putLong(COUNT, 0);
+        }
+
+        @Override
+        public long getResult(MapValue state) {
+            final long count = state.getLong(COUNT);
+            return Double.doubleToRawLongBits(count > 0 ? state.getDouble(SUM) : Double.NaN);
+        }
+
+        @Override
+        public void pushValueTypes(ArrayColumnTypes columnTypes) {
+            columnTypes.add(ColumnType.DOUBLE);
+            columnTypes.add(ColumnType.LONG);
+        }
+
+        @Override
+        public boolean remove(MapValue state, long value) {
+            final double d = Double.longBitsToDouble(value);
+            if (d == d) {
+                state.putDouble(SUM, state.getDouble(SUM) - d);
+                state.putLong(COUNT, state.getLong(COUNT) - 1);
+            }
+            return true;
+        }
+    }
+}
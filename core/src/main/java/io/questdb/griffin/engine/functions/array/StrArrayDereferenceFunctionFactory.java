@@ -40,6 +40,11 @@ public class StrArrayDereferenceFunctionFactory implements FunctionFactory {
         return "[](S[]I)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new StrArrayDereferenceFunction(args.getQuick(0), args.getQuick(1));
@@ -42,6 +42,11 @@ public class Base64FunctionFactory implements FunctionFactory {
         return "base64(Ui)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position,
                                 ObjList<Function> args,
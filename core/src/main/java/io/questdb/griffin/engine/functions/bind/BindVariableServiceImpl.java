@@ -184,6 +184,11 @@ public class BindVariableServiceImpl implements BindVariableService {
         return indexedVariables.size();
     }
 
+    @Override
+    public ObjList<CharSequence> getNamedVariables() {
+        return namedVariables.keys();
+    }
+
     @Override
     public void setBin(CharSequence name, BinarySequence value) throws SqlException {
         int index = namedVariables.keyIndex(name);
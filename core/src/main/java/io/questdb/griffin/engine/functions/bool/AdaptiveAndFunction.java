@@ -0,0 +1,177 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.bool;
+
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.griffin.engine.functions.MultiArgFunction;
+import io.questdb.std.NanosecondClock;
+import io.questdb.std.ObjList;
+
+/**
+ * Conjunction of row filter predicates, which orders predicates by their observed cost and selectivity.
+ * <p>
+ * First rows of the cursor are sampled: every predicate is evaluated for every sampled row, to measure
+ * time it takes and the share of rows it rejects. Predicates are then ordered by the cost per rejected row,
+ * so that cheap and selective ones run first and short-circuit the rest. Sampling is repeated periodically
+ * to follow data distribution changes as cursor moves along. Rewinding the cursor keeps the learned order,
+ * only a new cursor samples from scratch.
+ */
+public class AdaptiveAndFunction extends BooleanFunction implements MultiArgFunction {
+    private final ObjList<Function> args;
+    private final NanosecondClock clock;
+    private final int sampleSize;
+    private final int sampleInterval;
+    private final long[] costs;
+    private final long[] passCounts;
+    private final double[] ranks;
+    private int sampleRemaining;
+    private int rowsUntilSample;
+
+    public AdaptiveAndFunction(ObjList<Function> args, NanosecondClock clock, int sampleSize, int sampleInterval) {
+        this.args = args;
+        this.clock = clock;
+        this.sampleSize = sampleSize;
+        this.sampleInterval = sampleInterval;
+        final int n = args.size();
+        this.costs = new long[n];
+        this.passCounts = new long[n];
+        this.ranks = new double[n];
+    }
+
+    /**
+     * Replaces chain of AND functions with the adaptive conjunction of its operands.
+     *
+     * @param filter         compiled filter
+     * @param clock          clock to time predicates with
+     * @param sampleSize     number of rows to sample, 0 leaves filter as is
+     * @param sampleInterval number of rows between samples
+     * @return adaptive conjunction or the filter itself when it is not a conjunction
+     */
+    public static Function of(Function filter, NanosecondClock clock, int sampleSize, int sampleInterval) {
+        if (sampleSize < 1 || !(filter instanceof AndFunctionFactory.AndFunction)) {
+            return filter;
+        }
+        final ObjList<Function> args = new ObjList<>();
+        collectConjuncts(filter, args);
+        return new AdaptiveAndFunction(args, clock, sampleSize, sampleInterval);
+    }
+
+    @Override
+    public ObjList<Function> getArgs() {
+        return args;
+    }
+
+    @Override
+    public boolean getBool(Record rec) {
+        if (sampleRemaining > 0) {
+            return sample(rec);
+        }
+
+        if (--rowsUntilSample == 0) {
+            startSample();
+        }
+
+        for (int i = 0, n = args.size(); i < n; i++) {
+            if (!args.getQuick(i).getBool(rec)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        MultiArgFunction.super.init(symbolTableSource, executionContext);
+        startSample();
+    }
+
+    private static void collectConjuncts(Function function, ObjList<Function> sink) {
+        if (function instanceof AndFunctionFactory.AndFunction) {
+            final AndFunctionFactory.AndFunction and = (AndFunctionFactory.AndFunction) function;
+            collectConjuncts(and.getLeft(), sink);
+            collectConjuncts(and.getRight(), sink);
+        } else {
+            sink.add(function);
+        }
+    }
+
+    private void reorder() {
+        final int n = args.size();
+        for (int i = 0; i < n; i++) {
+            // cost of a predicate per row it rejects, predicate that never rejects goes last
+            final long rejected = sampleSize - passCounts[i];
+            ranks[i] = rejected > 0 ? (double) (costs[i] + 1) / rejected : Double.MAX_VALUE;
+        }
+
+        // insertion sort keeps order of predicates with equal rank
+        for (int i = 1; i < n; i++) {
+            final Function f = args.getQuick(i);
+            final double rank = ranks[i];
+            int j = i - 1;
+            while (j >= 0 && ranks[j] > rank) {
+                args.setQuick(j + 1, args.getQuick(j));
+                ranks[j + 1] = ranks[j];
+                j--;
+            }
+            args.setQuick(j + 1, f);
+            ranks[j + 1] = rank;
+        }
+    }
+
+    private boolean sample(Record rec) {
+        // evaluate every predicate to measure them independently of each other
+        boolean result = true;
+        for (int i = 0, n = args.size(); i < n; i++) {
+            final long start = clock.getTicks();
+            final boolean pass = args.getQuick(i).getBool(rec);
+            costs[i] += clock.getTicks() - start;
+            if (pass) {
+                passCounts[i]++;
+            } else {
+                result = false;
+            }
+        }
+
+        if (--sampleRemaining == 0) {
+            reorder();
+            rowsUntilSample = sampleInterval;
+        }
+        return result;
+    }
+
+    private void startSample() {
+        for (int i = 0, n = args.size(); i < n; i++) {
+            costs[i] = 0;
+            passCounts[i] = 0;
+        }
+        sampleRemaining = sampleSize;
+    }
+}
@@ -43,6 +43,11 @@ public class AllNotEqStrFunctionFactory implements FunctionFactory {
         return "<>all(Ss[])";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         Function arrayFunction = args.getQuick(1);
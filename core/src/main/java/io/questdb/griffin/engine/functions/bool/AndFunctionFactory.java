@@ -42,6 +42,11 @@ public class AndFunctionFactory implements FunctionFactory {
         return "and(TT)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         Function leftFunc = args.getQuick(0);
@@ -69,14 +74,14 @@ public class AndFunctionFactory implements FunctionFactory {
                 rightFunc.close();
             }
         }
-        return new MyBooleanFunction(leftFunc, rightFunc);
+        return new AndFunction(leftFunc, rightFunc);
     }
 
-    private static class MyBooleanFunction extends BooleanFunction implements BinaryFunction {
+    static class AndFunction extends BooleanFunction implements BinaryFunction {
         final Function left;
         final Function right;
 
-        public MyBooleanFunction(Function left, Function right) {
+        public AndFunction(Function left, Function right) {
             this.left = left;
             this.right = right;
         }
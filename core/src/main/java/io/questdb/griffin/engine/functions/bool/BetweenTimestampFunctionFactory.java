@@ -43,6 +43,11 @@ public class BetweenTimestampFunctionFactory implements FunctionFactory {
         return "between(NNN)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
@@ -44,6 +44,11 @@ public class InCharFunctionFactory implements FunctionFactory {
         return "in(Av)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
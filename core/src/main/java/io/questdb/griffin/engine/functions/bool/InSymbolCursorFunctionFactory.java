@@ -41,6 +41,11 @@ public class InSymbolCursorFunctionFactory implements FunctionFactory {
         return "in(KC)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
         SymbolFunction symbolFunction = (SymbolFunction) args.getQuick(0);
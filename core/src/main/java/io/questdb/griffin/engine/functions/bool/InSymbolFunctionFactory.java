@@ -45,6 +45,11 @@ public class InSymbolFunctionFactory implements FunctionFactory {
         return "in(Kv)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
 
@@ -47,6 +47,11 @@ public class InTimestampStrFunctionFactory implements FunctionFactory {
         return "in(NS)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
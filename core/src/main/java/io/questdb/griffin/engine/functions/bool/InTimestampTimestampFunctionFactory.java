@@ -43,6 +43,11 @@ public class InTimestampTimestampFunctionFactory implements FunctionFactory {
         return "in(NV)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
         boolean allConst = true;
@@ -42,6 +42,11 @@ public class OrFunctionFactory implements FunctionFactory {
         return "or(TT)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         final Function leftFunc = args.getQuick(0);
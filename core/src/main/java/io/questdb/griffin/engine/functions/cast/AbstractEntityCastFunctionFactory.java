@@ -32,6 +32,11 @@ import io.questdb.std.IntList;
 import io.questdb.std.ObjList;
 
 public abstract class AbstractEntityCastFunctionFactory implements FunctionFactory {
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return args.getQuick(0);
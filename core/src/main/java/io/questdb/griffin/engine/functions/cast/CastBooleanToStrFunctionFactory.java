@@ -42,6 +42,11 @@ public class CastBooleanToStrFunctionFactory implements FunctionFactory {
         return "cast(Ts)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         Function func = args.getQuick(0);
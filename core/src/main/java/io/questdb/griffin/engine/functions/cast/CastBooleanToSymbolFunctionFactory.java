@@ -41,6 +41,11 @@ public class CastBooleanToSymbolFunctionFactory implements FunctionFactory {
         return "cast(Tk)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         final Function arg = args.getQuick(0);
@@ -39,6 +39,11 @@ public class CastBooleanToTimestampFunctionFactory implements FunctionFactory {
         return "cast(Tn)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new Func(args.getQuick(0));
@@ -39,6 +39,11 @@ public class CastByteToLongFunctionFactory implements FunctionFactory {
         return "cast(Bl)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
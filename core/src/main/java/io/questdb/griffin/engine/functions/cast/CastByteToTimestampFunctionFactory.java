@@ -39,6 +39,11 @@ public class CastByteToTimestampFunctionFactory implements FunctionFactory {
         return "cast(Bn)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
@@ -40,6 +40,11 @@ public class CastCharToIntFunctionFactory implements FunctionFactory {
         return "cast(Ai)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
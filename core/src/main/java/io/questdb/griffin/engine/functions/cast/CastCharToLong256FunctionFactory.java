@@ -40,6 +40,11 @@ public class CastCharToLong256FunctionFactory implements FunctionFactory {
         return "cast(Ah)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new Func(args.getQuick(0));
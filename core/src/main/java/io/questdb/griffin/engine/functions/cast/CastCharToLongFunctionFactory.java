@@ -39,6 +39,11 @@ public class CastCharToLongFunctionFactory implements FunctionFactory {
         return "cast(Al)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
@@ -39,6 +39,11 @@ public class CastCharToTimestampFunctionFactory implements FunctionFactory {
         return "cast(An)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
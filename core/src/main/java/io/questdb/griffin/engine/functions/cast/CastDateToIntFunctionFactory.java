@@ -41,6 +41,11 @@ public class CastDateToIntFunctionFactory implements FunctionFactory {
         return "cast(Mi)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
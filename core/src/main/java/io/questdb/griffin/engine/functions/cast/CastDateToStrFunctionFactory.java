@@ -42,6 +42,11 @@ public class CastDateToStrFunctionFactory implements FunctionFactory {
         return "cast(Ms)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         Function func = args.getQuick(0);
@@ -45,6 +45,11 @@ public class CastDateToSymbolFunctionFactory implements FunctionFactory {
         return "cast(Mk)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         final Function arg = args.getQuick(0);
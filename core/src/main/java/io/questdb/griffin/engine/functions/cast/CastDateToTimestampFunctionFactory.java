@@ -41,6 +41,11 @@ public class CastDateToTimestampFunctionFactory implements FunctionFactory {
         return "cast(Mn)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         Function var = args.getQuick(0);
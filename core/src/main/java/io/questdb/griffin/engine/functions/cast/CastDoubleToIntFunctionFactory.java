@@ -41,6 +41,11 @@ public class CastDoubleToIntFunctionFactory implements FunctionFactory {
         return "cast(Di)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
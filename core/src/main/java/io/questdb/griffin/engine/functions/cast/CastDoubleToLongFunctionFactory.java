@@ -40,6 +40,11 @@ public class CastDoubleToLongFunctionFactory implements FunctionFactory {
         return "cast(Dl)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
@@ -46,6 +46,11 @@ public class CastDoubleToStrFunctionFactory implements FunctionFactory {
         return "cast(Ds)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         Function intFunc = args.getQuick(0);
@@ -45,6 +45,11 @@ public class CastDoubleToSymbolFunctionFactory implements FunctionFactory {
         return "cast(Dk)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         final Function arg = args.getQuick(0);
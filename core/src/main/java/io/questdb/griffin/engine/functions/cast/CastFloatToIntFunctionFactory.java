@@ -41,6 +41,11 @@ public class CastFloatToIntFunctionFactory implements FunctionFactory {
         return "cast(Fi)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
@@ -40,6 +40,11 @@ public class CastFloatToLongFunctionFactory implements FunctionFactory {
         return "cast(Fl)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
@@ -46,6 +46,11 @@ public class CastGeoHashToGeoHashFunctionFactory implements FunctionFactory {
         return "cast(Gg)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position,
                                 ObjList<Function> args,
@@ -46,6 +46,11 @@ public class CastLongToGeoHashFunctionFactory implements FunctionFactory {
         return "cast(Lg)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
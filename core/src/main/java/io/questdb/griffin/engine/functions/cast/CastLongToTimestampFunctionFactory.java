@@ -40,6 +40,11 @@ public class CastLongToTimestampFunctionFactory implements FunctionFactory {
         return "cast(Ln)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         Function var = args.getQuick(0);
@@ -39,6 +39,11 @@ public class CastNullFunctionFactory implements FunctionFactory {
         return "cast(oV)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
         if (args.size() == 2) {
@@ -41,6 +41,11 @@ public class CastShortToSymbolFunctionFactory implements FunctionFactory {
         return "cast(Ek)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         final Function arg = args.getQuick(0);
@@ -38,6 +38,11 @@ public class CastStrToBinaryFunctionFactory implements FunctionFactory {
         return "cast(Su)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         // expression parser will only allow casting 'null' to binary, nothing else.
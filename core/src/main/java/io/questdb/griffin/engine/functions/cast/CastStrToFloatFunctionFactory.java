@@ -42,6 +42,11 @@ public class CastStrToFloatFunctionFactory implements FunctionFactory {
         return "cast(Sf)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new Func(args.getQuick(0));
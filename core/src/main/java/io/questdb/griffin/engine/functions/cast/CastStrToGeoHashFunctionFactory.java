@@ -47,6 +47,11 @@ public class CastStrToGeoHashFunctionFactory implements FunctionFactory {
         return "cast(Sg)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position,
                                 ObjList<Function> args,
@@ -47,6 +47,11 @@ public class CastStrToSymbolFunctionFactory implements FunctionFactory {
         return "cast(Sk)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         final Function arg = args.getQuick(0);
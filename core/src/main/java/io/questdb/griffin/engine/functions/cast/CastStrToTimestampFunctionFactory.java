@@ -42,6 +42,11 @@ public class CastStrToTimestampFunctionFactory implements FunctionFactory {
         return "cast(Sn)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new Func(position, args.getQuick(0));
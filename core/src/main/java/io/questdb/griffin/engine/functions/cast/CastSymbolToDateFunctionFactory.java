@@ -43,6 +43,11 @@ public class CastSymbolToDateFunctionFactory implements FunctionFactory {
         return "cast(Km)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new Func(args.getQuick(0));
@@ -42,6 +42,11 @@ public class CastSymbolToDoubleFunctionFactory implements FunctionFactory {
         return "cast(Kd)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new Func(args.getQuick(0));
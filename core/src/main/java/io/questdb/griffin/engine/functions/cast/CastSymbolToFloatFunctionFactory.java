@@ -42,6 +42,11 @@ public class CastSymbolToFloatFunctionFactory implements FunctionFactory {
         return "cast(Kf)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new Func(args.getQuick(0));
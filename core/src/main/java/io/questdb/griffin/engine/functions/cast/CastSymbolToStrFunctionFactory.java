@@ -43,6 +43,11 @@ public class CastSymbolToStrFunctionFactory implements FunctionFactory {
         return "cast(Ks)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         Function func = args.getQuick(0);
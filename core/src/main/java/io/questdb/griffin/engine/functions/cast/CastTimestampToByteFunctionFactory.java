@@ -41,6 +41,11 @@ public class CastTimestampToByteFunctionFactory implements FunctionFactory {
         return "cast(Nb)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new Func(args.getQuick(0));
@@ -41,6 +41,11 @@ public class CastTimestampToIntFunctionFactory implements FunctionFactory {
         return "cast(Ni)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new Func(args.getQuick(0));
@@ -38,6 +38,11 @@ public class VarcharCastHelperFunctionFactory implements FunctionFactory {
         return "VARCHAR(I)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new StrConstant(null);
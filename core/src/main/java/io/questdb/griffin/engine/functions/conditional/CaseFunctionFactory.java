@@ -41,6 +41,11 @@ public class CaseFunctionFactory implements FunctionFactory {
         return "case(V)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
@@ -41,6 +41,11 @@ public class CoalesceFunctionFactory implements FunctionFactory {
         return "coalesce(V)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
@@ -52,6 +52,11 @@ public class SwitchFunctionFactory implements FunctionFactory {
         return "switch(V)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
         int n = args.size();
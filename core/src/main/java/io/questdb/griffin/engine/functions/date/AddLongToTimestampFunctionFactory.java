@@ -41,6 +41,11 @@ public class AddLongToTimestampFunctionFactory implements FunctionFactory {
         return "+(NL)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new AddLongFunc(args.getQuick(0), args.getQuick(1));
@@ -43,6 +43,11 @@ public class DayOfWeekFunctionFactory implements FunctionFactory {
         return "day_of_week(N)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         final Function arg = args.getQuick(0);
@@ -43,6 +43,11 @@ public class DaysPerMonthFunctionFactory implements FunctionFactory {
         return "days_in_month(N)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         final Function arg = args.getQuick(0);
@@ -49,6 +49,11 @@ public class TimestampAddFunctionFactory implements FunctionFactory {
         return "dateadd(AIN)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
 
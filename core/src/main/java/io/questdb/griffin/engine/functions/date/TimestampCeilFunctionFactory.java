@@ -43,6 +43,11 @@ public class TimestampCeilFunctionFactory implements FunctionFactory {
         return "timestamp_ceil(sN)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
         final Function kind = args.getQuick(0);
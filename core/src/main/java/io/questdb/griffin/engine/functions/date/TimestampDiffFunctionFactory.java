@@ -48,6 +48,11 @@ public class TimestampDiffFunctionFactory implements FunctionFactory {
         return "datediff(ANN)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
 
@@ -43,6 +43,11 @@ public class TimestampFloorFunctionFactory implements FunctionFactory {
         return "timestamp_floor(sN)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
         final char c = args.getQuick(0).getChar(null);
@@ -44,6 +44,11 @@ public class TimestampSequenceFunctionFactory implements FunctionFactory {
         return "timestamp_sequence(NL)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
@@ -53,6 +53,11 @@ public class ToStrDateFunctionFactory implements FunctionFactory {
         return "to_str(Ms)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
@@ -53,6 +53,11 @@ public class ToStrTimestampFunctionFactory implements FunctionFactory {
         return "to_str(Ns)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
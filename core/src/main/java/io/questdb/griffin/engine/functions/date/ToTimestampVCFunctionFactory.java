@@ -48,6 +48,11 @@ public class ToTimestampVCFunctionFactory implements FunctionFactory {
         return "to_timestamp(Ss)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
@@ -46,6 +46,11 @@ public class ToTimezoneTimestampFunctionFactory implements FunctionFactory {
         return "to_timezone(NS)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
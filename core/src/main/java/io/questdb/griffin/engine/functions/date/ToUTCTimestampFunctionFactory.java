@@ -45,6 +45,11 @@ public class ToUTCTimestampFunctionFactory implements FunctionFactory {
         return "to_utc(NS)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
@@ -41,6 +41,11 @@ public class EqBinaryFunctionFactory implements FunctionFactory {
         return "=(UU)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isBoolean() {
         return true;
@@ -40,6 +40,11 @@ public class EqBooleanFunctionFactory implements FunctionFactory {
         return "=(TT)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isBoolean() {
         return true;
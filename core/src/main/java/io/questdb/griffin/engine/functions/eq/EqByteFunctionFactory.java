@@ -40,6 +40,11 @@ public class EqByteFunctionFactory implements FunctionFactory {
         return "=(BB)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isBoolean() {
         return true;
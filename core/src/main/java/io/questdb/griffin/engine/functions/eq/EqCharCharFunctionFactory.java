@@ -40,6 +40,11 @@ public class EqCharCharFunctionFactory implements FunctionFactory {
         return "=(AA)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isBoolean() {
         return true;
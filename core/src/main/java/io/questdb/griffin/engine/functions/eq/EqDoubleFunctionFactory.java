@@ -43,6 +43,11 @@ public class EqDoubleFunctionFactory implements FunctionFactory {
         return "=(DD)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isBoolean() {
         return true;
@@ -48,6 +48,11 @@ public class EqGeoHashGeoHashFunctionFactory implements FunctionFactory {
         return "=(GG)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isBoolean() {
         return true;
@@ -40,6 +40,11 @@ public class EqIntFunctionFactory implements FunctionFactory {
         return "=(II)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isBoolean() {
         return true;
@@ -43,6 +43,11 @@ public class EqIntStrCFunctionFactory implements FunctionFactory {
         return "=(Is)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isBoolean() {
         return true;
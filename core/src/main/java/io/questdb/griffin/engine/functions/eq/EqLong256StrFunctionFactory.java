@@ -47,6 +47,11 @@ public class EqLong256StrFunctionFactory implements FunctionFactory {
         return "=(Hs)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isBoolean() {
         return true;
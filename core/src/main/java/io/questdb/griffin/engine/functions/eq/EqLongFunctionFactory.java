@@ -40,6 +40,11 @@ public class EqLongFunctionFactory implements FunctionFactory {
         return "=(LL)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isBoolean() {
         return true;
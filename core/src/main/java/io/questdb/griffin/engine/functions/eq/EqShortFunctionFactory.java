@@ -40,6 +40,11 @@ public class EqShortFunctionFactory implements FunctionFactory {
         return "=(EE)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isBoolean() {
         return true;
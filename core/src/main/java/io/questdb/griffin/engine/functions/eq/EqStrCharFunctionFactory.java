@@ -44,6 +44,11 @@ public class EqStrCharFunctionFactory implements FunctionFactory {
         return "=(SA)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isBoolean() {
         return true;
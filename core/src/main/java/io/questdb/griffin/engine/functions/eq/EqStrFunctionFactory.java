@@ -42,6 +42,11 @@ public class EqStrFunctionFactory implements FunctionFactory {
         return "=(SS)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isBoolean() {
         return true;
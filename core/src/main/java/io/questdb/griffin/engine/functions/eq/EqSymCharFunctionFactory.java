@@ -47,6 +47,11 @@ public class EqSymCharFunctionFactory implements FunctionFactory {
         return "=(KA)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isBoolean() {
         return true;
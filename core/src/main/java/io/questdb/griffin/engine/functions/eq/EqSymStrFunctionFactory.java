@@ -43,6 +43,11 @@ public class EqSymStrFunctionFactory implements FunctionFactory {
         return "=(KS)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isBoolean() {
         return true;
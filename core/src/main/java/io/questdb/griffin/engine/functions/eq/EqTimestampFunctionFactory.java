@@ -41,6 +41,11 @@ public class EqTimestampFunctionFactory implements FunctionFactory {
         return "=(NN)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isBoolean() {
         return true;
@@ -40,6 +40,11 @@ public class NullIfCharCharFunctionFactory implements FunctionFactory {
         return "nullif(AA)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
 
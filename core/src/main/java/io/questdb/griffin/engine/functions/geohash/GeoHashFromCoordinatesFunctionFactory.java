@@ -46,6 +46,11 @@ public class GeoHashFromCoordinatesFunctionFactory implements FunctionFactory {
         return "make_geohash(DDi)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position, ObjList<Function> args,
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.std.HyperLogLog;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+
+/**
+ * Base for approx_count_distinct() functions. Each group owns fixed size HyperLogLog
+ * sketch allocated in native memory shared by all groups of the function. Map value holds
+ * the count, harmonic sum and zero register count of the sketch and the sketch offset.
+ * Count is either a value set by fill/interpolation or ESTIMATE marker, in which case it is
+ * derived from the sum and zero count. Keeping the summary in the map value makes the
+ * estimate O(1) and lets sketch memory be reused after toTop(), which sample by calls
+ * between buckets while the values of completed buckets are still to be read.
+ */
+public abstract class AbstractApproxCountDistinctGroupByFunction extends LongFunction implements GroupByFunction, UnaryFunction {
+    private static final long ESTIMATE = -1L;
+    protected final Function arg;
+    private final int precision;
+    private final MemoryCARW sketches;
+    private final long sketchSize;
+    private int valueIndex;
+
+    public AbstractApproxCountDistinctGroupByFunction(Function arg, int precision, CairoConfiguration configuration) {
+        this.arg = arg;
+        this.precision = precision;
+        this.sketchSize = HyperLogLog.sizeOf(precision);
+        this.sketches = Vm.getCARWInstance(
+                Math.max(sketchSize, configuration.getSqlMapPageSize()),
+                configuration.getSqlMapMaxPages(),
+                MemoryTag.NATIVE_DEFAULT
+        );
+    }
+
+    static int getPrecision(Function precision, int position) throws SqlException {
+        final int value = precision.getInt(null);
+        if (value < HyperLogLog.MIN_PRECISION || value > HyperLogLog.MAX_PRECISION) {
+            throw SqlException.$(position, "precision must be between ").put(HyperLogLog.MIN_PRECISION).put(" and ").put(HyperLogLog.MAX_PRECISION);
+        }
+        return value;
+    }
+
+    @Override
+    public void close() {
+        UnaryFunction.super.close();
+        Misc.free(sketches);
+    }
+
+    @Override
+    public void computeFirst(MapValue mapValue, Record record) {
+        final long offset = sketches.getAppendOffset();
+        HyperLogLog.clear(sketches.appendAddressFor(sketchSize), precision);
+        mapValue.putLong(valueIndex, ESTIMATE);
+        mapValue.putDouble(valueIndex + 1, sketchSize);
+        mapValue.putInt(valueIndex + 2, (int) sketchSize);
+        mapValue.putLong(valueIndex + 3, offset);
+        add(mapValue, record);
+    }
+
+    @Override
+    public void computeNext(MapValue mapValue, Record record) {
+        add(mapValue, record);
+    }
+
+    @Override
+    public Function getArg() {
+        return arg;
+    }
+
+    @Override
+    public long getLong(Record rec) {
+        final long count = rec.getLong(valueIndex);
+        if (count != ESTIMATE) {
+            return count;
+        }
+        return HyperLogLog.estimate(rec.getDouble(valueIndex + 1), rec.getInt(valueIndex + 2), precision);
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        UnaryFunction.super.init(symbolTableSource, executionContext);
+        // keyed group by does not call toTop() before aggregation
+        sketches.jumpTo(0);
+    }
+
+    @Override
+    public boolean isConstant() {
+        return false;
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes columnTypes) {
+        this.valueIndex = columnTypes.getColumnCount();
+        columnTypes.add(ColumnType.LONG);
+        columnTypes.add(ColumnType.DOUBLE);
+        columnTypes.add(ColumnType.INT);
+        columnTypes.add(ColumnType.LONG);
+    }
+
+    @Override
+    public void setEmpty(MapValue mapValue) {
+        mapValue.putLong(valueIndex, 0L);
+    }
+
+    @Override
+    public void setLong(MapValue mapValue, long value) {
+        mapValue.putLong(valueIndex, value);
+    }
+
+    @Override
+    public void setNull(MapValue mapValue) {
+        mapValue.putLong(valueIndex, Numbers.LONG_NaN);
+    }
+
+    @Override
+    public void toTop() {
+        UnaryFunction.super.toTop();
+        sketches.jumpTo(0);
+    }
+
+    /**
+     * Adds value of the argument to the sketch of the group, null values are ignored.
+     *
+     * @param mapValue group value
+     * @param record   current record
+     */
+    protected abstract void add(MapValue mapValue, Record record);
+
+    protected void addHash(MapValue mapValue, long hash) {
+        final int previous = HyperLogLog.add(sketches.addressOf(mapValue.getLong(valueIndex + 3)), precision, hash);
+        if (previous > -1) {
+            mapValue.addDouble(valueIndex + 1, HyperLogLog.weight(HyperLogLog.rank(hash, precision)) - HyperLogLog.weight(previous));
+            if (previous == 0) {
+                mapValue.addInt(valueIndex + 2, -1);
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.QuantileSketch;
+
+/**
+ * Approximate percentile over {@link QuantileSketch}. Sketch stores are allocated lazily, per sign
+ * of the values, in native memory shared by all groups of the function. Map value holds value count,
+ * zero count and offset and base of each store. Count of SET marker means the value was set by
+ * fill/interpolation and is held in the map value itself.
+ * <p>
+ * Stores are read when value is requested, which happens after sample by has moved on to other
+ * buckets, therefore sketch memory is reset on init() only.
+ */
+public class ApproxPercentileDoubleGroupByFunction extends DoubleFunction implements GroupByFunction, UnaryFunction {
+    private static final long SET = -1L;
+    private static final long NO_STORE = -1L;
+    private final Function arg;
+    private final double percentile;
+    private final MemoryCARW stores;
+    private int valueIndex;
+
+    public ApproxPercentileDoubleGroupByFunction(Function arg, double percentile, CairoConfiguration configuration) {
+        this.arg = arg;
+        this.percentile = percentile;
+        this.stores = Vm.getCARWInstance(
+                Math.max(QuantileSketch.STORE_SIZE, configuration.getSqlMapPageSize()),
+                configuration.getSqlMapMaxPages(),
+                MemoryTag.NATIVE_DEFAULT
+        );
+    }
+
+    @Override
+    public void close() {
+        UnaryFunction.super.close();
+        Misc.free(stores);
+    }
+
+    @Override
+    public void computeFirst(MapValue mapValue, Record record) {
+        mapValue.putLong(valueIndex, 0L);
+        mapValue.putLong(valueIndex + 2, 0L);
+        mapValue.putLong(valueIndex + 3, NO_STORE);
+        mapValue.putLong(valueIndex + 5, NO_STORE);
+        computeNext(mapValue, record);
+    }
+
+    @Override
+    public void computeNext(MapValue mapValue, Record record) {
+        final double value = arg.getDouble(record);
+        if (Double.isNaN(value)) {
+            return;
+        }
+
+        mapValue.addLong(valueIndex, 1);
+        final double abs = Math.abs(value);
+        if (abs < Double.MIN_NORMAL) {
+            mapValue.addLong(valueIndex + 2, 1);
+        } else {
+            // positive store is at valueIndex + 3, negative at valueIndex + 5
+            add(mapValue, value > 0 ? valueIndex + 3 : valueIndex + 5, QuantileSketch.key(abs));
+        }
+    }
+
+    @Override
+    public Function getArg() {
+        return arg;
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        final long count = rec.getLong(valueIndex);
+        if (count == SET) {
+            return rec.getDouble(valueIndex + 1);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        final long positiveOffset = rec.getLong(valueIndex + 3);
+        final long negativeOffset = rec.getLong(valueIndex + 5);
+        return QuantileSketch.quantile(
+                negativeOffset == NO_STORE ? 0 : stores.addressOf(negativeOffset),
+                rec.getInt(valueIndex + 6),
+                rec.getLong(valueIndex + 2),
+                positiveOffset == NO_STORE ? 0 : stores.addressOf(positiveOffset),
+                rec.getInt(valueIndex + 4),
+                count,
+                percentile
+        );
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        UnaryFunction.super.init(symbolTableSource, executionContext);
+        stores.jumpTo(0);
+    }
+
+    @Override
+    public boolean isConstant() {
+        return false;
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes columnTypes) {
+        this.valueIndex = columnTypes.getColumnCount();
+        columnTypes.add(ColumnType.LONG); // count
+        columnTypes.add(ColumnType.DOUBLE); // value set by fill
+        columnTypes.add(ColumnType.LONG); // zero count
+        columnTypes.add(ColumnType.LONG); // positive store offset
+        columnTypes.add(ColumnType.INT); // positive store base
+        columnTypes.add(ColumnType.LONG); // negative store offset
+        columnTypes.add(ColumnType.INT); // negative store base
+    }
+
+    @Override
+    public void setDouble(MapValue mapValue, double value) {
+        mapValue.putLong(valueIndex, SET);
+        mapValue.putDouble(valueIndex + 1, value);
+    }
+
+    @Override
+    public void setNull(MapValue mapValue) {
+        setDouble(mapValue, Double.NaN);
+    }
+
+    private void add(MapValue mapValue, int storeIndex, int key) {
+        final long offset = mapValue.getLong(storeIndex);
+        if (offset == NO_STORE) {
+            final long newOffset = stores.getAppendOffset();
+            final long store = stores.appendAddressFor(QuantileSketch.STORE_SIZE);
+            QuantileSketch.clear(store);
+            final int base = QuantileSketch.newBase(key);
+            mapValue.putLong(storeIndex, newOffset);
+            mapValue.putInt(storeIndex + 1, QuantileSketch.add(store, base, key, 1));
+        } else {
+            mapValue.putInt(storeIndex + 1, QuantileSketch.add(stores.addressOf(offset), mapValue.getInt(storeIndex + 1), key, 1));
+        }
+    }
+}
@@ -37,6 +37,11 @@ public class AvgDoubleGroupByFunctionFactory implements FunctionFactory {
         return "avg(D)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
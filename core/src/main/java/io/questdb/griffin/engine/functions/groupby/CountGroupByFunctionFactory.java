@@ -37,6 +37,11 @@ public class CountGroupByFunctionFactory implements FunctionFactory {
         return "count()";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
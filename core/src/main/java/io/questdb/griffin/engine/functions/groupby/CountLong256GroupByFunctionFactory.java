@@ -37,6 +37,11 @@ public class CountLong256GroupByFunctionFactory implements FunctionFactory {
         return "count_distinct(H)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class CountStringGroupByFunctionFactory implements FunctionFactory {
         return "count_distinct(S)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
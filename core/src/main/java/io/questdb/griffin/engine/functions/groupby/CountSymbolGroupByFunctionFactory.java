@@ -37,6 +37,11 @@ public class CountSymbolGroupByFunctionFactory implements FunctionFactory {
         return "count_distinct(K)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
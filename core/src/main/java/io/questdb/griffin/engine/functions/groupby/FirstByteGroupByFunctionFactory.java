@@ -37,6 +37,11 @@ public class FirstByteGroupByFunctionFactory implements FunctionFactory {
         return "first(B)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class FirstCharGroupByFunctionFactory implements FunctionFactory {
         return "first(A)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
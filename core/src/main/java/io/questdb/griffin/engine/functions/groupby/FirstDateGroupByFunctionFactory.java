@@ -37,6 +37,11 @@ public class FirstDateGroupByFunctionFactory implements FunctionFactory {
         return "first(M)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class FirstDoubleGroupByFunctionFactory implements FunctionFactory {
         return "first(D)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class FirstFloatGroupByFunctionFactory implements FunctionFactory {
         return "first(F)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -38,6 +38,11 @@ public class FirstGeoHashGroupByFunctionFactory implements FunctionFactory {
         return "first(G)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class FirstIntGroupByFunctionFactory implements FunctionFactory {
         return "first(I)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
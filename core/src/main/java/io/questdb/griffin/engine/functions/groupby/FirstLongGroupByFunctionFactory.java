@@ -37,6 +37,11 @@ public class FirstLongGroupByFunctionFactory implements FunctionFactory {
         return "first(L)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
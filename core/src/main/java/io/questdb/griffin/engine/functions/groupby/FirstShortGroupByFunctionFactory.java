@@ -37,6 +37,11 @@ public class FirstShortGroupByFunctionFactory implements FunctionFactory {
         return "first(E)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
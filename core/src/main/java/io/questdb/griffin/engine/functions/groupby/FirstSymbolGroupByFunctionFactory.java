@@ -38,6 +38,11 @@ public class FirstSymbolGroupByFunctionFactory implements FunctionFactory {
         return "first(K)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class FirstTimestampGroupByFunctionFactory implements FunctionFactory {
         return "first(N)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
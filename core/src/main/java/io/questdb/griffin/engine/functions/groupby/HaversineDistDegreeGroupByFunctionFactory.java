@@ -37,6 +37,11 @@ public class HaversineDistDegreeGroupByFunctionFactory implements FunctionFactor
         return "haversine_dist_deg(DDN)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class IsLongOrderedGroupByFunctionFactory implements FunctionFactory {
         return "isOrdered(L)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class KSumDoubleGroupByFunctionFactory implements FunctionFactory {
         return "ksum(D)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class LastByteGroupByFunctionFactory implements FunctionFactory {
         return "last(B)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class LastCharGroupByFunctionFactory implements FunctionFactory {
         return "last(A)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class LastDateGroupByFunctionFactory implements FunctionFactory {
         return "last(M)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class LastDoubleGroupByFunctionFactory implements FunctionFactory {
         return "last(D)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class LastFloatGroupByFunctionFactory implements FunctionFactory {
         return "last(F)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -40,6 +40,11 @@ public class LastGeoHashGroupByFunctionFactory implements FunctionFactory {
         return "last(G)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class LastIntGroupByFunctionFactory implements FunctionFactory {
         return "last(I)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
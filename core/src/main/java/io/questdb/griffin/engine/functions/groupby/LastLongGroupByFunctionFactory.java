@@ -37,6 +37,11 @@ public class LastLongGroupByFunctionFactory implements FunctionFactory {
         return "last(L)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class LastShortGroupByFunctionFactory implements FunctionFactory {
         return "last(E)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -38,6 +38,11 @@ public class LastSymbolGroupByFunctionFactory implements FunctionFactory {
         return "last(K)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
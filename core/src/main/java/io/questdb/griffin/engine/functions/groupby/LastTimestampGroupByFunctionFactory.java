@@ -37,6 +37,11 @@ public class LastTimestampGroupByFunctionFactory implements FunctionFactory {
         return "last(N)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class MaxCharGroupByFunctionFactory implements FunctionFactory {
         return "max(A)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class MaxDateGroupByFunctionFactory implements FunctionFactory {
         return "max(M)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class MaxDoubleGroupByFunctionFactory implements FunctionFactory {
         return "max(D)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
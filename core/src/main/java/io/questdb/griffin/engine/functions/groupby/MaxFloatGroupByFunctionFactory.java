@@ -37,6 +37,11 @@ public class MaxFloatGroupByFunctionFactory implements FunctionFactory {
         return "max(F)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
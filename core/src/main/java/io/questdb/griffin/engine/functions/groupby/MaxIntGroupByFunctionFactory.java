@@ -37,6 +37,11 @@ public class MaxIntGroupByFunctionFactory implements FunctionFactory {
         return "max(I)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class MaxLongGroupByFunctionFactory implements FunctionFactory {
         return "max(L)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
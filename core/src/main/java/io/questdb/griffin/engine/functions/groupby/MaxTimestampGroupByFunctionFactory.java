@@ -37,6 +37,11 @@ public class MaxTimestampGroupByFunctionFactory implements FunctionFactory {
         return "max(N)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class MinCharGroupByFunctionFactory implements FunctionFactory {
         return "min(A)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
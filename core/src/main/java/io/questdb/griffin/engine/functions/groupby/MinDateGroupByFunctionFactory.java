@@ -37,6 +37,11 @@ public class MinDateGroupByFunctionFactory implements FunctionFactory {
         return "min(M)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
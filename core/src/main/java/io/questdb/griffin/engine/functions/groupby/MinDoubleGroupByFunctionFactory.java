@@ -37,6 +37,11 @@ public class MinDoubleGroupByFunctionFactory implements FunctionFactory {
         return "min(D)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
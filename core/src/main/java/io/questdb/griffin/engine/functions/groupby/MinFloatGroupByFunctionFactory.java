@@ -37,6 +37,11 @@ public class MinFloatGroupByFunctionFactory implements FunctionFactory {
         return "min(F)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class MinIntGroupByFunctionFactory implements FunctionFactory {
         return "min(I)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
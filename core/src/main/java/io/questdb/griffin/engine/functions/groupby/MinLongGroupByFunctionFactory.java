@@ -37,6 +37,11 @@ public class MinLongGroupByFunctionFactory implements FunctionFactory {
         return "min(L)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
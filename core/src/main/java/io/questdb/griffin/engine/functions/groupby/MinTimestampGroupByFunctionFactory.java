@@ -37,6 +37,11 @@ public class MinTimestampGroupByFunctionFactory implements FunctionFactory {
         return "min(N)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class NSumDoubleGroupByFunctionFactory implements FunctionFactory {
         return "nsum(D)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
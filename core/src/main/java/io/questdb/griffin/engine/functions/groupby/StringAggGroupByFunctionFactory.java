@@ -45,6 +45,11 @@ public class StringAggGroupByFunctionFactory implements FunctionFactory {
         return "string_agg(Sa)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
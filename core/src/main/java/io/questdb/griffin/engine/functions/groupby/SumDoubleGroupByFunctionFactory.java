@@ -37,6 +37,11 @@ public class SumDoubleGroupByFunctionFactory implements FunctionFactory {
         return "sum(D)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class SumFloatGroupByFunctionFactory implements FunctionFactory {
         return "sum(F)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class SumIntGroupByFunctionFactory implements FunctionFactory {
         return "sum(I)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
@@ -37,6 +37,11 @@ public class SumLongGroupByFunctionFactory implements FunctionFactory {
         return "sum(L)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isGroupBy() {
         return true;
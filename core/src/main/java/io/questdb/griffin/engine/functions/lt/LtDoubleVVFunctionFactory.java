@@ -40,6 +40,11 @@ public class LtDoubleVVFunctionFactory implements FunctionFactory {
         return "<(DD)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isBoolean() {
         return true;
@@ -41,6 +41,11 @@ public class LtIntFunctionFactory implements FunctionFactory {
         return "<(II)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isBoolean() {
         return true;
@@ -42,6 +42,11 @@ public class LtTimestampFunctionFactory implements FunctionFactory {
         return "<(NN)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isBoolean() {
         return true;
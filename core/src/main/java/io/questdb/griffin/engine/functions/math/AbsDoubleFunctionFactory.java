@@ -40,6 +40,11 @@ public class AbsDoubleFunctionFactory implements FunctionFactory {
         return "abs(D)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new AbsFunction(args.getQuick(0));
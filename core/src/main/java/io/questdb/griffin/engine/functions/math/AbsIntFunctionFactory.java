@@ -40,6 +40,11 @@ public class AbsIntFunctionFactory implements FunctionFactory {
         return "abs(I)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position, ObjList<Function> args,
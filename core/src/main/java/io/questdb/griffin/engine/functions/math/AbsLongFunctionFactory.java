@@ -39,6 +39,11 @@ public class AbsLongFunctionFactory implements FunctionFactory {
         return "abs(L)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new AbsFunction(args.getQuick(0));
@@ -40,6 +40,11 @@ public class AddFloatFunctionFactory implements FunctionFactory {
         return "+(FF)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new Func(args.getQuick(0), args.getQuick(1));
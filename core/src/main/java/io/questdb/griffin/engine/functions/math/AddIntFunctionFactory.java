@@ -41,6 +41,11 @@ public class AddIntFunctionFactory implements FunctionFactory {
         return "+(II)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new AddIntFunc(args.getQuick(0), args.getQuick(1));
@@ -41,6 +41,11 @@ public class BitwiseAndLongFunctionFactory implements FunctionFactory {
         return "&(LL)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
@@ -41,6 +41,11 @@ public class BitwiseNotIntFunctionFactory implements FunctionFactory {
         return "~(I)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
@@ -41,6 +41,11 @@ public class BitwiseNotLongFunctionFactory implements FunctionFactory {
         return "~(L)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
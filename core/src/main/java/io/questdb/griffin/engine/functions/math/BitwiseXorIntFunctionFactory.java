@@ -41,6 +41,11 @@ public class BitwiseXorIntFunctionFactory implements FunctionFactory {
         return "^(II)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
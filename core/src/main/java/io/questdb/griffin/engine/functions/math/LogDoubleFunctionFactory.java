@@ -40,6 +40,11 @@ public class LogDoubleFunctionFactory implements FunctionFactory {
         return "log(D)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position, ObjList<Function> args,
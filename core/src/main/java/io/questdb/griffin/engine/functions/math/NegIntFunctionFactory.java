@@ -41,6 +41,11 @@ public class NegIntFunctionFactory implements FunctionFactory {
         return "-(I)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
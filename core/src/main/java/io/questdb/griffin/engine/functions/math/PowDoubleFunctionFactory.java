@@ -40,6 +40,11 @@ public class PowDoubleFunctionFactory implements FunctionFactory {
         return "power(DD)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration1, SqlExecutionContext sqlExecutionContext) {
         return new SubtractIntVVFunc(args.getQuick(0), args.getQuick(1));
@@ -40,6 +40,11 @@ public class RoundDoubleZeroScaleFunctionFactory implements FunctionFactory {
         return "round(D)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new RoundDoubleZeroScaleFunction(args.getQuick(0));
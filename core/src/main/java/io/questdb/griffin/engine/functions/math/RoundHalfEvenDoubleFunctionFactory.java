@@ -44,6 +44,11 @@ public class RoundHalfEvenDoubleFunctionFactory implements FunctionFactory {
         return "round_half_even(DI)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         Function scale = args.getQuick(1);
@@ -46,6 +46,11 @@ public class RoundUpDoubleFunctionFactory implements FunctionFactory {
         return "round_up(DI)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         Function scale = args.getQuick(1);
@@ -40,6 +40,11 @@ public class SqrtDoubleFunctionFactory implements FunctionFactory {
         return "sqrt(D)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new SqrtFunction(args.getQuick(0));
@@ -70,6 +70,11 @@ public abstract class AbstractLikeStrFunctionFactory implements FunctionFactory
         return Chars.toString(sink);
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
         final Function value = args.getQuick(0);
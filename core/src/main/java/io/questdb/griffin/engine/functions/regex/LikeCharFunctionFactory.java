@@ -41,6 +41,11 @@ public class LikeCharFunctionFactory implements FunctionFactory {
         return "like(Sa)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new MatchFunction(
@@ -48,6 +48,11 @@ public class MatchStrFunctionFactory implements FunctionFactory {
         return "~(SS)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
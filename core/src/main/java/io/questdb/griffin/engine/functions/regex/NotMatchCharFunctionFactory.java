@@ -41,6 +41,11 @@ public class NotMatchCharFunctionFactory implements FunctionFactory {
         return "!~(Sa)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new MatchFunction(
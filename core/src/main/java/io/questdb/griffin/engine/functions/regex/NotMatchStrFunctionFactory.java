@@ -46,6 +46,11 @@ public class NotMatchStrFunctionFactory implements FunctionFactory {
         return "!~(Ss)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
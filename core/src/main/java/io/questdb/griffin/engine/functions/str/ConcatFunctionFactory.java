@@ -120,6 +120,11 @@ public class ConcatFunctionFactory implements FunctionFactory {
         return "concat(V)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, @Transient ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         final ObjList<Function> functions = new ObjList<>(args.size());
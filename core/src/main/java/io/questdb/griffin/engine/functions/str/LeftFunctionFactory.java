@@ -47,6 +47,11 @@ public class LeftFunctionFactory implements FunctionFactory {
         return "left(SI)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         final Function strFunc = args.getQuick(0);
@@ -40,6 +40,11 @@ public class LengthBinFunctionFactory implements FunctionFactory {
         return "length(U)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new LengthFunc(args.getQuick(0));
@@ -40,6 +40,11 @@ public class LengthStrFunctionFactory implements FunctionFactory {
         return "length(S)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new LengthStrVFunc(args.getQuick(0));
@@ -40,6 +40,11 @@ public class LengthSymbolFunctionFactory implements FunctionFactory {
         return "length(K)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new LengthSymbolVFunc(args.getQuick(0));
@@ -42,6 +42,11 @@ public class ReplaceStrFunctionFactory implements FunctionFactory {
         return "replace(SSS)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         final Function term = args.getQuick(1);
@@ -44,6 +44,11 @@ public class StrPosCharFunctionFactory implements FunctionFactory {
         return "strpos(SA)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
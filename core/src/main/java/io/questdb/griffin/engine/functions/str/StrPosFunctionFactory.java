@@ -44,6 +44,11 @@ public class StrPosFunctionFactory implements FunctionFactory {
         return "strpos(SS)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
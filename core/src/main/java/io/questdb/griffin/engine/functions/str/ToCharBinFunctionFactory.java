@@ -45,6 +45,11 @@ public class ToCharBinFunctionFactory implements FunctionFactory {
         return "to_char(U)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new ToCharBinFunc(args.getQuick(0));
@@ -42,6 +42,11 @@ public class ToLowercaseFunctionFactory implements FunctionFactory {
         return "to_lowercase(S)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(final int position, final ObjList<Function> args, IntList argPositions, final CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new ToLowercaseFunc(args.get(0));
@@ -42,6 +42,11 @@ public class ToUppercaseFunctionFactory implements FunctionFactory {
         return "to_uppercase(S)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(final int position, final ObjList<Function> args, IntList argPositions, final CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new ToUppercaseFunc(args.get(0));
@@ -32,9 +32,12 @@ import io.questdb.cairo.map.Map;
 import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.griffin.engine.RowIdSpill;
 import io.questdb.std.BytecodeAssembler;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
@@ -48,6 +51,7 @@ public class DistinctRecordCursorFactory implements RecordCursorFactory {
     private final RecordSink mapSink;
     // this sink is used to copy recordKeyMap keys to dataMap
     private final RecordMetadata metadata;
+    private final RowIdSpill spill;
 
     public DistinctRecordCursorFactory(
             CairoConfiguration configuration,
@@ -62,12 +66,15 @@ public class DistinctRecordCursorFactory implements RecordCursorFactory {
         this.dataMap = MapFactory.createMap(configuration, metadata);
         this.base = base;
         this.metadata = metadata;
-        this.cursor = new DistinctRecordCursor();
+        // rows can be spilled only when they can be re-read by row id
+        this.spill = base.recordCursorSupportsRandomAccess() ? new RowIdSpill(configuration) : null;
+        this.cursor = new DistinctRecordCursor(spill);
     }
 
     @Override
     public void close() {
         dataMap.close();
+        Misc.free(spill);
         base.close();
     }
 
@@ -94,19 +101,33 @@ public class DistinctRecordCursorFactory implements RecordCursorFactory {
         return base.recordCursorSupportsRandomAccess();
     }
 
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).child(base);
+    }
+
     private static class DistinctRecordCursor implements RecordCursor {
+        private final RowIdSpill spill;
+        private final RowIdSpill.PartitionProcessor partitionProcessor = this::processPartition;
         private RecordCursor baseCursor;
         private Map dataMap;
         private RecordSink recordSink;
         private Record record;
         private SqlExecutionInterruptor interruptor;
+        // number of base rows, which went through the map before it overflowed
+        private long rowCount;
+        private long spillIndex;
 
-        public DistinctRecordCursor() {
+        public DistinctRecordCursor(RowIdSpill spill) {
+            this.spill = spill;
         }
 
         @Override
         public void close() {
             Misc.free(baseCursor);
+            if (spill != null) {
+                spill.clear();
+            }
         }
 
         @Override
@@ -121,15 +142,27 @@ public class DistinctRecordCursorFactory implements RecordCursorFactory {
 
         @Override
         public boolean hasNext() {
-            while (baseCursor.hasNext()) {
-                interruptor.checkInterrupted();
-                MapKey key = dataMap.withKey();
-                recordSink.copy(record, key);
-                if (key.create()) {
-                    return true;
+            if (spill != null && spill.isOpen()) {
+                return nextSpilled();
+            }
+            try {
+                while (baseCursor.hasNext()) {
+                    interruptor.checkInterrupted();
+                    MapKey key = dataMap.withKey();
+                    recordSink.copy(record, key);
+                    rowCount++;
+                    if (key.create()) {
+                        return true;
+                    }
                 }
+                return false;
+            } catch (LimitOverflowException e) {
+                if (spill == null) {
+                    throw e;
+                }
+                spill();
+                return nextSpilled();
             }
-            return false;
         }
 
         @Override
@@ -146,6 +179,10 @@ public class DistinctRecordCursorFactory implements RecordCursorFactory {
         public void toTop() {
             baseCursor.toTop();
             dataMap.clear();
+            if (spill != null) {
+                spill.clear();
+            }
+            rowCount = 0;
         }
 
         public void of(RecordCursor baseCursor, Map dataMap, RecordSink recordSink, SqlExecutionInterruptor interruptor) {
@@ -154,11 +191,53 @@ public class DistinctRecordCursorFactory implements RecordCursorFactory {
             this.recordSink = recordSink;
             this.record = baseCursor.getRecord();
             this.interruptor = interruptor;
+            this.rowCount = 0;
         }
 
         @Override
         public long size() {
             return -1;
         }
+
+        private boolean nextSpilled() {
+            final long size = spill.size();
+            while (spillIndex < size) {
+                final long rowId = spill.getRowId(spillIndex++);
+                if (rowId != -1) {
+                    baseCursor.recordAt(record, rowId);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void spill() {
+            // rows before rowCount have been returned already, spill keeps them
+            // to reject their duplicates among the rows that follow
+            spill.clear();
+            spill.add(baseCursor, recordSink, interruptor);
+            spill.process(partitionProcessor);
+            dataMap.clear();
+            spillIndex = rowCount;
+        }
+
+        private void processPartition(int partitionIndex, int pass, int passMask) {
+            dataMap.clear();
+            for (long i = 0, n = spill.getPartitionSize(partitionIndex); i < n; i++) {
+                interruptor.checkInterrupted();
+                final long index = spill.get(partitionIndex, i);
+                final long rowId = spill.getRowId(index);
+                if (rowId != -1) {
+                    baseCursor.recordAt(record, rowId);
+                    if (spill.isInPass(record, recordSink, pass, passMask)) {
+                        MapKey key = dataMap.withKey();
+                        recordSink.copy(record, key);
+                        if (!key.create()) {
+                            spill.reject(index);
+                        }
+                    }
+                }
+            }
+        }
     }
 }
@@ -32,6 +32,7 @@ import io.questdb.cairo.map.FastMap;
 import io.questdb.cairo.map.Map;
 import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.SqlExecutionInterruptor;
@@ -99,6 +100,11 @@ public class DistinctTimeSeriesRecordCursorFactory implements RecordCursorFactor
         return base.recordCursorSupportsRandomAccess();
     }
 
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).child(base);
+    }
+
     private static class DistinctTimeSeriesRecordCursor implements RecordCursor {
         private final Map dataMap;
         private final RecordSink recordSink;
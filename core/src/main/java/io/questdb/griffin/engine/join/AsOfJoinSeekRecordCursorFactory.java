@@ -0,0 +1,314 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.api.MemoryR;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.AbstractDataFrameRecordCursor;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Rows;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+/**
+ * ASOF join for slaves that are plain timestamp ordered table scans. Instead of
+ * scrolling the slave along with master, slave row is found by binary search on the designated
+ * timestamp of slave data frames. Keyed join resolves slave row by walking bitmap index of
+ * the slave symbol backwards from timestamp position. Cost of the join is therefore
+ * proportional to the size of master rather than size of slave.
+ */
+public class AsOfJoinSeekRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory masterFactory;
+    private final RecordCursorFactory slaveFactory;
+    private final AsOfJoinSeekRecordCursor cursor;
+
+    /**
+     * @param masterKeyIndex index of master SYMBOL or STRING key column, -1 for join without keys
+     * @param slaveKeyIndex  index of slave indexed SYMBOL key column, -1 for join without keys
+     */
+    public AsOfJoinSeekRecordCursorFactory(
+            RecordMetadata metadata,
+            RecordCursorFactory masterFactory,
+            RecordCursorFactory slaveFactory,
+            int columnSplit,
+            int masterKeyIndex,
+            int slaveKeyIndex
+    ) {
+        super(metadata);
+        this.masterFactory = masterFactory;
+        this.slaveFactory = slaveFactory;
+        final RecordMetadata masterMetadata = masterFactory.getMetadata();
+        final RecordMetadata slaveMetadata = slaveFactory.getMetadata();
+        this.cursor = new AsOfJoinSeekRecordCursor(
+                columnSplit,
+                NullRecordFactory.getInstance(slaveMetadata),
+                masterMetadata.getTimestampIndex(),
+                masterKeyIndex,
+                masterKeyIndex != -1 && ColumnType.isSymbol(masterMetadata.getColumnType(masterKeyIndex)),
+                slaveKeyIndex != -1 ? slaveMetadata.getColumnName(slaveKeyIndex) : null
+        );
+    }
+
+    @Override
+    public void close() {
+        ((JoinRecordMetadata) getMetadata()).close();
+        masterFactory.close();
+        slaveFactory.close();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        RecordCursor masterCursor = masterFactory.getCursor(executionContext);
+        RecordCursor slaveCursor = null;
+        try {
+            slaveCursor = slaveFactory.getCursor(executionContext);
+            cursor.of(masterCursor, slaveCursor);
+            return cursor;
+        } catch (Throwable e) {
+            Misc.free(slaveCursor);
+            Misc.free(masterCursor);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).child(masterFactory).child(slaveFactory);
+    }
+
+    private static class AsOfJoinSeekRecordCursor implements NoRandomAccessRecordCursor {
+        // each slave data frame is described by partition index, row lo, row hi and timestamp column address
+        private static final int FRAME_ENTRY_SIZE = 4;
+        private final OuterJoinRecord record;
+        private final int columnSplit;
+        private final int masterTimestampIndex;
+        private final int masterKeyIndex;
+        private final boolean masterKeySymbol;
+        private final CharSequence slaveKeyColumnName;
+        private final LongList frames = new LongList();
+        private RecordCursor masterCursor;
+        private RecordCursor slaveCursor;
+        private Record masterRecord;
+        private Record slaveRecB;
+        private TableReader reader;
+        private SymbolMapReader slaveKeySymbolTable;
+        private int slaveKeyColumnIndex;
+        // master timestamps are ascending, searches resume where previous search stopped
+        private int frameIndex;
+        private long rowLo;
+        private long lastTimestamp;
+
+        public AsOfJoinSeekRecordCursor(
+                int columnSplit,
+                Record nullRecord,
+                int masterTimestampIndex,
+                int masterKeyIndex,
+                boolean masterKeySymbol,
+                CharSequence slaveKeyColumnName
+        ) {
+            this.record = new OuterJoinRecord(columnSplit, nullRecord);
+            this.columnSplit = columnSplit;
+            this.masterTimestampIndex = masterTimestampIndex;
+            this.masterKeyIndex = masterKeyIndex;
+            this.masterKeySymbol = masterKeySymbol;
+            this.slaveKeyColumnName = slaveKeyColumnName;
+        }
+
+        @Override
+        public void close() {
+            masterCursor = Misc.free(masterCursor);
+            slaveCursor = Misc.free(slaveCursor);
+            reader = null;
+            slaveKeySymbolTable = null;
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            if (columnIndex < columnSplit) {
+                return masterCursor.getSymbolTable(columnIndex);
+            }
+            return slaveCursor.getSymbolTable(columnIndex - columnSplit);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (masterCursor.hasNext()) {
+                final long timestamp = masterRecord.getTimestamp(masterTimestampIndex);
+                final long rowId = masterKeyIndex == -1 ? seek(timestamp) : seekKeyed(timestamp, indexKeyOf(masterRecord));
+                if (rowId != -1) {
+                    slaveCursor.recordAt(slaveRecB, rowId);
+                    record.hasSlave(true);
+                } else {
+                    record.hasSlave(false);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public long size() {
+            return masterCursor.size();
+        }
+
+        @Override
+        public void toTop() {
+            masterCursor.toTop();
+            record.hasSlave(false);
+            resetSearch();
+        }
+
+        private int indexKeyOf(Record masterRecord) {
+            final CharSequence value = masterKeySymbol ? masterRecord.getSym(masterKeyIndex) : masterRecord.getStr(masterKeyIndex);
+            final int symbolKey = slaveKeySymbolTable.keyOf(value);
+            return symbolKey == SymbolTable.VALUE_NOT_FOUND ? SymbolTable.VALUE_NOT_FOUND : TableUtils.toIndexKey(symbolKey);
+        }
+
+        private void of(RecordCursor masterCursor, RecordCursor slaveCursor) {
+            this.masterCursor = masterCursor;
+            this.slaveCursor = slaveCursor;
+            this.masterRecord = masterCursor.getRecord();
+            this.slaveRecB = slaveCursor.getRecordB();
+            record.of(masterRecord, slaveRecB);
+            record.hasSlave(false);
+
+            final DataFrameCursor dataFrameCursor = ((AbstractDataFrameRecordCursor) slaveCursor).getDataFrameCursor();
+            reader = dataFrameCursor.getTableReader();
+            final int timestampIndex = reader.getMetadata().getTimestampIndex();
+            frames.clear();
+            DataFrame frame;
+            while ((frame = dataFrameCursor.next()) != null) {
+                final long lo = frame.getRowLo();
+                final long hi = frame.getRowHi();
+                if (lo < hi) {
+                    final int partitionIndex = frame.getPartitionIndex();
+                    // this assumes reader uses single page to map the whole column
+                    final MemoryR column = reader.getColumn(TableReader.getPrimaryColumnIndex(reader.getColumnBase(partitionIndex), timestampIndex));
+                    frames.add(partitionIndex);
+                    frames.add(lo);
+                    frames.add(hi);
+                    frames.add(column.getPageAddress(0));
+                }
+            }
+            dataFrameCursor.toTop();
+
+            if (slaveKeyColumnName != null) {
+                slaveKeyColumnIndex = reader.getMetadata().getColumnIndex(slaveKeyColumnName);
+                slaveKeySymbolTable = reader.getSymbolMapReader(slaveKeyColumnIndex);
+            }
+            resetSearch();
+        }
+
+        private void resetSearch() {
+            frameIndex = 0;
+            rowLo = frames.size() > 0 ? frames.getQuick(1) : 0;
+            lastTimestamp = Long.MIN_VALUE;
+        }
+
+        /**
+         * Finds last slave row with timestamp less than or equal to given timestamp.
+         * Frame and row where the row is found become lower boundary of the next search.
+         *
+         * @param timestamp master timestamp
+         * @return row id of slave row or -1 when all slave rows are after timestamp
+         */
+        private long seek(long timestamp) {
+            final int frameCount = frames.size() / FRAME_ENTRY_SIZE;
+            if (frameCount == 0) {
+                return -1;
+            }
+
+            if (timestamp < lastTimestamp) {
+                resetSearch();
+            }
+            lastTimestamp = timestamp;
+
+            // skip to the last frame that starts at or before timestamp
+            while (frameIndex + 1 < frameCount) {
+                final int next = (frameIndex + 1) * FRAME_ENTRY_SIZE;
+                final long nextLo = frames.getQuick(next + 1);
+                if (Unsafe.getUnsafe().getLong(frames.getQuick(next + 3) + nextLo * Long.BYTES) > timestamp) {
+                    break;
+                }
+                frameIndex++;
+                rowLo = nextLo;
+            }
+
+            final int base = frameIndex * FRAME_ENTRY_SIZE;
+            final long row = Vect.boundedBinarySearch64Bit(
+                    frames.getQuick(base + 3),
+                    timestamp,
+                    rowLo,
+                    frames.getQuick(base + 2) - 1,
+                    BinarySearch.SCAN_DOWN
+            );
+
+            if (row < rowLo) {
+                // first row of the first frame is already after timestamp
+                return -1;
+            }
+            rowLo = row;
+            return Rows.toRowID((int) frames.getQuick(base), row);
+        }
+
+        private long seekKeyed(long timestamp, int indexKey) {
+            // position is searched even for unknown keys to keep search boundaries moving
+            if (seek(timestamp) == -1 || indexKey == SymbolTable.VALUE_NOT_FOUND) {
+                return -1;
+            }
+
+            long hi = rowLo;
+            for (int i = frameIndex; i > -1; i--) {
+                final int base = i * FRAME_ENTRY_SIZE;
+                final int partitionIndex = (int) frames.getQuick(base);
+                if (i < frameIndex) {
+                    hi = frames.getQuick(base + 2) - 1;
+                }
+                final RowCursor rowCursor = reader
+                        .getBitmapIndexReader(partitionIndex, slaveKeyColumnIndex, BitmapIndexReader.DIR_BACKWARD)
+                        .getCursor(true, indexKey, frames.getQuick(base + 1), hi);
+                if (rowCursor.hasNext()) {
+                    return Rows.toRowID(partitionIndex, rowCursor.next());
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.griffin.engine.RecordKeyWriter;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import io.questdb.tasks.HashJoinBuildTask;
+
+/**
+ * Inner hash join, which splits build side into partitions by hash of the join key. Each partition
+ * has its own small map and row id chain and partitions are built in parallel on the shared worker
+ * pool, query thread helps out with building while it waits. Probe side is streamed on the query thread
+ * and visits exactly one partition per master row.
+ */
+public class HashJoinLightPartitionedRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final int MIN_MAP_PAGE_SIZE = 4096;
+    private static final ArrayColumnTypes KEY_TYPES = new ArrayColumnTypes().add(ColumnType.BINARY);
+    private final ObjList<HashJoinPartition> partitions;
+    private final RecordKeyWriter keyWriter;
+    private final RecordCursorFactory masterFactory;
+    private final RecordCursorFactory slaveFactory;
+    private final RecordSink masterKeySink;
+    private final RecordSink slaveKeySink;
+    private final HashJoinRecordCursor cursor;
+    private final MemoryCARW rowIds;
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+    private final int partitionMask;
+
+    public HashJoinLightPartitionedRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordMetadata metadata,
+            RecordCursorFactory masterFactory,
+            RecordCursorFactory slaveFactory,
+            @Transient ArrayColumnTypes valueTypes, // this expected to be just LONG, we store chain references in map
+            RecordSink masterKeySink,
+            RecordSink slaveKeySink,
+            int columnSplit,
+            int partitionCount
+    ) {
+        super(metadata);
+        assert Numbers.isPow2(partitionCount);
+        this.masterFactory = masterFactory;
+        this.slaveFactory = slaveFactory;
+        this.masterKeySink = masterKeySink;
+        this.slaveKeySink = slaveKeySink;
+        this.partitionMask = partitionCount - 1;
+        // partitions split memory budget of the single map between them
+        final int mapPageSize = Math.max(MIN_MAP_PAGE_SIZE, Numbers.ceilPow2(configuration.getSqlMapPageSize() / partitionCount));
+        final int keyCapacity = Math.max(16, configuration.getSqlMapKeyCapacity() / partitionCount);
+        final long valuePageSize = configuration.getSqlHashJoinLightValuePageSize();
+        final int valueMaxPages = configuration.getSqlHashJoinLightValueMaxPages();
+        this.partitions = new ObjList<>(partitionCount);
+        try {
+            for (int i = 0; i < partitionCount; i++) {
+                partitions.add(
+                        new HashJoinPartition(
+                                // staged keys are bound the same way as records of the full hash join
+                                configuration.getSqlHashJoinValuePageSize(),
+                                configuration.getSqlHashJoinValueMaxPages(),
+                                mapPageSize,
+                                KEY_TYPES,
+                                valueTypes,
+                                keyCapacity,
+                                configuration.getSqlFastMapLoadFactor(),
+                                configuration.getSqlMapMaxResizes(),
+                                valuePageSize,
+                                valueMaxPages
+                        )
+                );
+            }
+            this.keyWriter = new RecordKeyWriter(configuration.getSqlMapPageSize(), configuration.getSqlMapMaxPages());
+        } catch (Throwable e) {
+            Misc.freeObjList(partitions);
+            throw e;
+        }
+        this.rowIds = Vm.getCARWInstance(valuePageSize, valueMaxPages, MemoryTag.NATIVE_DEFAULT);
+        this.cursor = new HashJoinRecordCursor(columnSplit);
+    }
+
+    /**
+     * Partitioning is only worthwhile when each partition map gets a meaningful share of map memory.
+     * Configurations with tiny map pages, typically used to restrict memory, keep single map join and
+     * its resize limits.
+     *
+     * @param configuration cairo configuration
+     * @return true when join build side can be partitioned
+     */
+    public static boolean isSupported(CairoConfiguration configuration) {
+        final int partitionCount = configuration.getSqlHashJoinPartitionCount();
+        return partitionCount > 1 && configuration.getSqlMapPageSize() / partitionCount >= MIN_MAP_PAGE_SIZE;
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjList(partitions);
+        keyWriter.close();
+        rowIds.close();
+        ((JoinRecordMetadata) getMetadata()).close();
+        masterFactory.close();
+        slaveFactory.close();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        RecordCursor slaveCursor = slaveFactory.getCursor(executionContext);
+        try {
+            stageSlaveRecords(slaveCursor, executionContext.getSqlExecutionInterruptor());
+            buildPartitions(executionContext.getMessageBus());
+        } catch (Throwable e) {
+            slaveCursor.close();
+            throw e;
+        }
+        rowIds.jumpTo(0);
+        cursor.of(masterFactory.getCursor(executionContext), slaveCursor);
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        // slave is always random access, joined rows are addressed by pairs of row ids
+        return masterFactory.recordCursorSupportsRandomAccess();
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).child(masterFactory).child(slaveFactory);
+    }
+
+    private void buildPartitions(MessageBus bus) {
+        final RingQueue<HashJoinBuildTask> queue = bus.getHashJoinBuildQueue();
+        final Sequence pubSeq = bus.getHashJoinBuildPubSeq();
+        final Sequence subSeq = bus.getHashJoinBuildSubSeq();
+
+        doneLatch.reset();
+        int queuedCount = 0;
+        for (int i = 0, n = partitions.size(); i < n; i++) {
+            final HashJoinPartition partition = partitions.getQuick(i);
+            if (partition.isEmpty()) {
+                continue;
+            }
+            final long seq = pubSeq.next();
+            if (seq < 0) {
+                partition.build();
+            } else {
+                queue.get(seq).of(partition, doneLatch);
+                pubSeq.done(seq);
+                queuedCount++;
+            }
+        }
+
+        // process outstanding tasks while waiting for workers
+        while (doneLatch.getCount() > -queuedCount) {
+            final long seq = subSeq.next();
+            if (seq > -1) {
+                queue.get(seq).run();
+                subSeq.done(seq);
+            }
+        }
+        doneLatch.await(queuedCount);
+
+        for (int i = 0, n = partitions.size(); i < n; i++) {
+            final Throwable error = partitions.getQuick(i).getError();
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+        }
+    }
+
+    private void stageSlaveRecords(RecordCursor slaveCursor, SqlExecutionInterruptor interruptor) {
+        for (int i = 0, n = partitions.size(); i < n; i++) {
+            partitions.getQuick(i).clear();
+        }
+        final Record record = slaveCursor.getRecord();
+        while (slaveCursor.hasNext()) {
+            interruptor.checkInterrupted();
+            keyWriter.clear();
+            slaveKeySink.copy(record, keyWriter);
+            partitions.getQuick(keyWriter.partitionOf(partitionMask)).stage(
+                    keyWriter.getAddress(),
+                    keyWriter.getLength(),
+                    record.getRowId()
+            );
+        }
+    }
+
+    private class HashJoinRecordCursor implements RecordCursor {
+        private final RowIdJoinRecord record;
+        private final RowIdJoinRecord recordB;
+        private final int columnSplit;
+        private RecordCursor masterCursor;
+        private RecordCursor slaveCursor;
+        private Record masterRecord;
+        private LongChain.TreeCursor slaveChainCursor;
+        private Record slaveRecord;
+
+        public HashJoinRecordCursor(int columnSplit) {
+            this.record = new RowIdJoinRecord(columnSplit, rowIds);
+            this.recordB = new RowIdJoinRecord(columnSplit, rowIds);
+            this.columnSplit = columnSplit;
+        }
+
+        @Override
+        public void close() {
+            masterCursor = Misc.free(masterCursor);
+            slaveCursor = Misc.free(slaveCursor);
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public Record getRecordB() {
+            return recordB;
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            ((RowIdJoinRecord) record).recordAt(masterCursor, slaveCursor, atRowId);
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            if (columnIndex < columnSplit) {
+                return masterCursor.getSymbolTable(columnIndex);
+            }
+            return slaveCursor.getSymbolTable(columnIndex - columnSplit);
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+            masterCursor.toTop();
+            slaveChainCursor = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            record.clearRowId();
+            if (slaveChainCursor != null && slaveChainCursor.hasNext()) {
+                slaveCursor.recordAt(slaveRecord, slaveChainCursor.next());
+                return true;
+            }
+
+            while (masterCursor.hasNext()) {
+                keyWriter.clear();
+                masterKeySink.copy(masterRecord, keyWriter);
+                final HashJoinPartition partition = partitions.getQuick(keyWriter.partitionOf(partitionMask));
+                final MapValue value = partition.find(keyWriter.getAddress(), keyWriter.getLength());
+                if (value != null) {
+                    slaveChainCursor = partition.getChainCursor(value.getLong(0));
+                    // we know cursor has values
+                    // advance to get first value
+                    slaveChainCursor.hasNext();
+                    slaveCursor.recordAt(slaveRecord, slaveChainCursor.next());
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void of(RecordCursor masterCursor, RecordCursor slaveCursor) {
+            this.masterCursor = masterCursor;
+            this.slaveCursor = slaveCursor;
+            this.masterRecord = masterCursor.getRecord();
+            this.slaveRecord = slaveCursor.getRecordB();
+            record.of(masterRecord, slaveRecord);
+            record.clearRowId();
+            if (masterFactory.recordCursorSupportsRandomAccess()) {
+                // slave record "A" is free once slave map is built
+                recordB.of(masterCursor.getRecordB(), slaveCursor.getRecord());
+            }
+            slaveChainCursor = null;
+        }
+    }
+}
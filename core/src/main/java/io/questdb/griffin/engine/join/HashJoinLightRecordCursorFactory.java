@@ -33,9 +33,13 @@ import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
 
@@ -47,6 +51,7 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
     private final RecordSink masterKeySink;
     private final RecordSink slaveKeySink;
     private final HashJoinRecordCursor cursor;
+    private final MemoryCARW rowIds;
 
     public HashJoinLightRecordCursorFactory(
             CairoConfiguration configuration,
@@ -65,6 +70,7 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
         this.slaveFactory = slaveFactory;
         joinKeyMap = MapFactory.createMap(configuration, joinColumnTypes, valueTypes);
         slaveChain = new LongChain(configuration.getSqlHashJoinLightValuePageSize(), configuration.getSqlHashJoinLightValueMaxPages());
+        rowIds = Vm.getCARWInstance(configuration.getSqlHashJoinLightValuePageSize(), configuration.getSqlHashJoinLightValueMaxPages(), MemoryTag.NATIVE_DEFAULT);
         this.masterKeySink = masterKeySink;
         this.slaveKeySink = slaveKeySink;
         this.cursor = new HashJoinRecordCursor(columnSplit, joinKeyMap, slaveChain);
@@ -74,6 +80,7 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
     public void close() {
         joinKeyMap.close();
         slaveChain.close();
+        rowIds.close();
         ((JoinRecordMetadata) getMetadata()).close();
         masterFactory.close();
         slaveFactory.close();
@@ -88,13 +95,20 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
             slaveCursor.close();
             throw e;
         }
+        rowIds.jumpTo(0);
         cursor.of(masterFactory.getCursor(executionContext), slaveCursor);
         return cursor;
     }
 
     @Override
     public boolean recordCursorSupportsRandomAccess() {
-        return false;
+        // slave is always random access, joined rows are addressed by pairs of row ids
+        return masterFactory.recordCursorSupportsRandomAccess();
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).child(masterFactory).child(slaveFactory);
     }
 
     private void buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionInterruptor interruptor) {
@@ -116,8 +130,9 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
         }
     }
 
-    private class HashJoinRecordCursor implements NoRandomAccessRecordCursor {
-        private final JoinRecord record;
+    private class HashJoinRecordCursor implements RecordCursor {
+        private final RowIdJoinRecord record;
+        private final RowIdJoinRecord recordB;
         private final LongChain slaveChain;
         private final Map joinKeyMap;
         private final int columnSplit;
@@ -132,7 +147,8 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
                 Map joinKeyMap,
                 LongChain slaveChain
         ) {
-            this.record = new JoinRecord(columnSplit);
+            this.record = new RowIdJoinRecord(columnSplit, rowIds);
+            this.recordB = new RowIdJoinRecord(columnSplit, rowIds);
             this.joinKeyMap = joinKeyMap;
             this.slaveChain = slaveChain;
             this.columnSplit = columnSplit;
@@ -149,6 +165,16 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
             return record;
         }
 
+        @Override
+        public Record getRecordB() {
+            return recordB;
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            ((RowIdJoinRecord) record).recordAt(masterCursor, slaveCursor, atRowId);
+        }
+
         @Override
         public SymbolTable getSymbolTable(int columnIndex) {
             if (columnIndex < columnSplit) {
@@ -170,6 +196,7 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
 
         @Override
         public boolean hasNext() {
+            record.clearRowId();
             if (slaveChainCursor != null && slaveChainCursor.hasNext()) {
                 slaveCursor.recordAt(slaveRecord, slaveChainCursor.next());
                 return true;
@@ -197,6 +224,11 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
             this.masterRecord = masterCursor.getRecord();
             this.slaveRecord = slaveCursor.getRecordB();
             record.of(masterRecord, slaveRecord);
+            record.clearRowId();
+            if (masterFactory.recordCursorSupportsRandomAccess()) {
+                // slave record "A" is free once slave map is built
+                recordB.of(masterCursor.getRecordB(), slaveCursor.getRecord());
+            }
             slaveChainCursor = null;
         }
     }
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.*;
+
+import java.io.Closeable;
+
+/**
+ * One partition of the hash join build side. Slave rows are first staged into partition by the
+ * query thread as [key length, row id, key bytes] entries and then {@link #build()} folds staged
+ * entries into a map of row id chains. Partitions share no state, which lets workers build them
+ * in parallel.
+ */
+public class HashJoinPartition implements Closeable, Mutable {
+    private static final int ENTRY_HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    private final MemoryCARW stage;
+    private final Map map;
+    private final LongChain chain;
+    private final DirectBinarySequence key = new DirectBinarySequence();
+    private Throwable error;
+
+    public HashJoinPartition(
+            long stagePageSize,
+            int stageMaxPages,
+            int mapPageSize,
+            @Transient ColumnTypes keyTypes,
+            @Transient ColumnTypes valueTypes,
+            int keyCapacity,
+            double loadFactor,
+            int maxResizes,
+            long chainPageSize,
+            int chainMaxPages
+    ) {
+        this.stage = Vm.getCARWInstance(stagePageSize, stageMaxPages, MemoryTag.NATIVE_DEFAULT);
+        this.map = new FastMap(mapPageSize, keyTypes, valueTypes, keyCapacity, loadFactor, maxResizes);
+        this.chain = new LongChain(chainPageSize, chainMaxPages);
+    }
+
+    public void build() {
+        try {
+            final long limit = stage.getAppendOffset();
+            long offset = 0;
+            while (offset < limit) {
+                final long address = stage.addressOf(offset);
+                final int len = Unsafe.getUnsafe().getInt(address);
+                final long rowId = Unsafe.getUnsafe().getLong(address + Integer.BYTES);
+                final MapKey mapKey = map.withKey();
+                mapKey.putBin(key.of(address + ENTRY_HEADER_SIZE, len));
+                final MapValue value = mapKey.createValue();
+                if (value.isNew()) {
+                    final long chainOffset = chain.put(rowId, -1);
+                    value.putLong(0, chainOffset);
+                    value.putLong(1, chainOffset);
+                } else {
+                    value.putLong(1, chain.put(rowId, value.getLong(1)));
+                }
+                offset += ENTRY_HEADER_SIZE + len;
+            }
+        } catch (Throwable e) {
+            // building may run on a worker thread, the query thread rethrows
+            error = e;
+        }
+    }
+
+    @Override
+    public void clear() {
+        stage.jumpTo(0);
+        map.clear();
+        chain.clear();
+        error = null;
+    }
+
+    @Override
+    public void close() {
+        stage.close();
+        map.close();
+        chain.close();
+    }
+
+    public LongChain.TreeCursor getChainCursor(long offset) {
+        return chain.getCursor(offset);
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isEmpty() {
+        return stage.getAppendOffset() == 0;
+    }
+
+    /**
+     * Finds chain of slave row ids for serialized join key.
+     *
+     * @param address address of serialized key
+     * @param len     length of serialized key
+     * @return value holding head and tail offsets of row id chain or null when key is not found
+     */
+    public MapValue find(long address, int len) {
+        final MapKey mapKey = map.withKey();
+        mapKey.putBin(key.of(address, len));
+        return mapKey.findValue();
+    }
+
+    void stage(long keyAddress, int keyLen, long rowId) {
+        stage.putInt(keyLen);
+        stage.putLong(rowId);
+        stage.putBlockOfBytes(keyAddress, keyLen);
+    }
+}
@@ -31,7 +31,7 @@ import io.questdb.std.str.CharSink;
 
 public class JoinRecord implements Record {
     private final int split;
-    private Record master;
+    protected Record master;
     protected Record slave;
 
     public JoinRecord(int split) {
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.vm.api.MemoryCARW;
+
+/**
+ * Join record, which can be addressed by row id when both master and slave cursors support random access.
+ * Row id of the record is an index of master and slave row id pair. Pairs are recorded only when row id
+ * is requested, e.g. by light sort, which lets consumers keep row ids instead of copying joined columns
+ * and fetch those columns only for rows they return.
+ */
+public class RowIdJoinRecord extends JoinRecord {
+    private final MemoryCARW rowIds;
+    private long rowId = -1;
+
+    public RowIdJoinRecord(int split, MemoryCARW rowIds) {
+        super(split);
+        this.rowIds = rowIds;
+    }
+
+    @Override
+    public long getRowId() {
+        if (rowId == -1) {
+            rowId = rowIds.getAppendOffset() >>> 4;
+            rowIds.putLong(master.getRowId());
+            rowIds.putLong(slave.getRowId());
+        }
+        return rowId;
+    }
+
+    void clearRowId() {
+        rowId = -1;
+    }
+
+    void recordAt(RecordCursor masterCursor, RecordCursor slaveCursor, long atRowId) {
+        final long offset = atRowId << 4;
+        masterCursor.recordAt(master, rowIds.getLong(offset));
+        slaveCursor.recordAt(slave, rowIds.getLong(offset + 8));
+        rowId = atRowId;
+    }
+}
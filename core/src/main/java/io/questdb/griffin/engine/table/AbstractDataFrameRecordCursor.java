@@ -53,6 +53,10 @@ public abstract class AbstractDataFrameRecordCursor implements RecordCursor {
         dataFrameCursor = Misc.free(dataFrameCursor);
     }
 
+    public DataFrameCursor getDataFrameCursor() {
+        return dataFrameCursor;
+    }
+
     @Override
     public Record getRecord() {
         return recordA;
@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.table;
 import io.questdb.cairo.*;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.vm.api.MemoryR;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.IntList;
@@ -39,11 +40,13 @@ import org.jetbrains.annotations.Nullable;
 
 public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorFactory {
     private final DataFrameRecordCursor cursor;
+    private final RowCursorFactory rowCursorFactory;
     private final boolean followsOrderByAdvice;
     private final Function filter;
     private final boolean framingSupported;
     private final IntList columnIndexes;
     private final IntList columnSizes;
+    private final boolean entityCursor;
     private TableReaderPageFrameCursor pageFrameCursor;
 
     public DataFrameRecordCursorFactory(
@@ -60,11 +63,13 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         super(metadata, dataFrameCursorFactory);
 
         this.cursor = new DataFrameRecordCursor(rowCursorFactory, rowCursorFactory.isEntity(), filter, columnIndexes);
+        this.rowCursorFactory = rowCursorFactory;
         this.followsOrderByAdvice = followsOrderByAdvice;
         this.filter = filter;
         this.framingSupported = framingSupported;
         this.columnIndexes = columnIndexes;
         this.columnSizes = columnSizes;
+        this.entityCursor = rowCursorFactory.isEntity();
     }
 
     @Override
@@ -96,11 +101,32 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         return true;
     }
 
+    /**
+     * Cursor of this factory can be positioned by timestamp when it visits every row of
+     * its data frames in ascending timestamp order. Such cursor is an instance of
+     * {@link AbstractDataFrameRecordCursor} and its data frames can be binary searched on the
+     * designated timestamp column.
+     *
+     * @return true when rows of this factory can be looked up by timestamp
+     */
+    public boolean supportsTimestampSeek() {
+        return entityCursor && filter == null && dataFrameCursorFactory.getOrder() == DataFrameCursorFactory.ORDER_ASC;
+    }
+
     @Override
     public boolean supportPageFrameCursor() {
         return framingSupported;
     }
 
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this);
+        if (filter != null) {
+            sink.attr("filter").val(true);
+        }
+        sink.child(dataFrameCursorFactory).child(rowCursorFactory);
+    }
+
     @Override
     public void toSink(CharSink sink) {
         sink.put("{\"name\":\"DataFrameRecordCursorFactory\", \"cursorFactory\":");
@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.table;
 
 import io.questdb.cairo.BitmapIndexReader;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.EmptyTableRandomRecordCursor;
@@ -81,6 +82,11 @@ public class FilterOnSubQueryRecordCursorFactory extends AbstractDataFrameRecord
         return true;
     }
 
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).child(dataFrameCursorFactory).child(recordCursorFactory);
+    }
+
     @Override
     protected RecordCursor getCursorInstance(
             DataFrameCursor dataFrameCursor,
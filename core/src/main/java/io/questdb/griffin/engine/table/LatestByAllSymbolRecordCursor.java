@@ -0,0 +1,190 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import io.questdb.tasks.LatestByAllSymbolTask;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Finds latest row for every value of non-indexed symbol column. Data frames are visited from newest
+ * to oldest, each frame is split into row ranges that are scanned backwards by worker threads. Each
+ * range collects keys that newer frames did not resolve and stops as soon as it has seen all of them.
+ * Results of ranges are merged newest first once the frame is done. Scan stops after the frame in
+ * which all keys were resolved. Null key is resolved upfront when the column has neither null values
+ * nor rows that predate the column.
+ */
+class LatestByAllSymbolRecordCursor extends AbstractRecordListCursor {
+    // smaller ranges are not worth the hand-off to a worker
+    private static final long MIN_TASK_ROW_COUNT = 64 * 1024;
+    private final int columnIndex;
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+    // per range bit sets of keys seen by the range, kept zeroed between frames
+    private final DirectLongList seenBits = new DirectLongList(16);
+    // per range pairs of slot and row id
+    private final ObjList<DirectLongList> foundLists = new ObjList<>();
+
+    public LatestByAllSymbolRecordCursor(int columnIndex, @NotNull DirectLongList rows, @NotNull IntList columnIndexes) {
+        super(rows, columnIndexes);
+        this.columnIndex = columnIndex;
+    }
+
+    void freeScratch() {
+        seenBits.close();
+        Misc.freeObjList(foundLists);
+        foundLists.clear();
+    }
+
+    @Override
+    protected void buildTreeMap(SqlExecutionContext executionContext) {
+        final MessageBus bus = executionContext.getMessageBus();
+        final RingQueue<LatestByAllSymbolTask> queue = bus.getLatestByAllSymbolQueue();
+        final Sequence pubSeq = bus.getLatestByAllSymbolPubSeq();
+        final Sequence subSeq = bus.getLatestByAllSymbolSubSeq();
+        final SqlExecutionInterruptor interruptor = executionContext.getSqlExecutionInterruptor();
+        final int workerCount = executionContext.getWorkerCount();
+
+        // frame metadata is based on TableReader, which is "full" metadata
+        // this cursor works with subset of columns, which warrants column index remap
+        final int frameColumnIndex = columnIndexes.getQuick(columnIndex);
+        final TableReader reader = dataFrameCursor.getTableReader();
+
+        // slot 0 is for null symbol
+        final int keyCount = getSymbolTable(columnIndex).size() + 1;
+        rows.extend(keyCount);
+        final long slotsAddress = rows.getAddress();
+        Vect.setMemoryLong(slotsAddress, -1, keyCount);
+        final long seenWordCount = (keyCount + 63) >>> 6;
+        // bits can be left behind by interrupted scan
+        Vect.memset(seenBits.getAddress(), seenBits.getCapacity() * Long.BYTES, 0);
+        int foundCount = 0;
+        if (!reader.getSymbolMapReader(frameColumnIndex).containsNullValue() && !reader.hasColumnTop(frameColumnIndex)) {
+            // column has no nulls, scan must not wait for them
+            Unsafe.getUnsafe().putLong(slotsAddress, LatestByAllSymbolTask.SLOT_ABSENT);
+            foundCount++;
+        }
+
+        DataFrame frame;
+        while (foundCount < keyCount && (frame = dataFrameCursor.next()) != null) {
+            interruptor.checkInterrupted();
+            final int partitionIndex = frame.getPartitionIndex();
+            final long rowLo = frame.getRowLo();
+            final long rowHi = frame.getRowHi() - 1;
+            if (rowHi < rowLo) {
+                continue;
+            }
+
+            final int columnBase = reader.getColumnBase(partitionIndex);
+            long columnTop = reader.getColumnTop(columnBase, frameColumnIndex);
+            final long keysAddress = columnTop <= rowHi
+                    ? reader.getColumn(TableReader.getPrimaryColumnIndex(columnBase, frameColumnIndex)).getPageAddress(0)
+                    : 0;
+            if (keysAddress == 0) {
+                // partition predates the column
+                columnTop = rowHi + 1;
+            }
+            final long taskRowCount = Math.max(MIN_TASK_ROW_COUNT, (rowHi - rowLo + workerCount) / workerCount);
+            final int taskCount = (int) ((rowHi - rowLo + taskRowCount) / taskRowCount);
+            ensureScratch(taskCount, seenWordCount);
+            final int unresolvedCount = keyCount - foundCount;
+
+            doneLatch.reset();
+            int queuedCount = 0;
+            int taskIndex = 0;
+            for (long hi = rowHi; hi >= rowLo; hi -= taskRowCount, taskIndex++) {
+                final long lo = Math.max(rowLo, hi - taskRowCount + 1);
+                final long seenAddress = seenBits.getAddress() + taskIndex * seenWordCount * Long.BYTES;
+                final DirectLongList found = foundLists.getQuick(taskIndex);
+                final long seq = pubSeq.next();
+                if (seq < 0) {
+                    LatestByAllSymbolTask.scan(keysAddress, columnTop, lo, hi, partitionIndex, slotsAddress, keyCount, unresolvedCount, seenAddress, found);
+                } else {
+                    queue.get(seq).of(keysAddress, columnTop, lo, hi, partitionIndex, slotsAddress, keyCount, unresolvedCount, seenAddress, found, doneLatch);
+                    pubSeq.done(seq);
+                    queuedCount++;
+                }
+            }
+
+            // process our own queue
+            // this should fix deadlock with 1 worker configuration
+            while (doneLatch.getCount() > -queuedCount) {
+                final long seq = subSeq.next();
+                if (seq > -1) {
+                    queue.get(seq).run();
+                    subSeq.done(seq);
+                }
+            }
+            doneLatch.await(queuedCount);
+
+            // ranges are in descending row order, the first range to find a key has its latest row
+            for (int i = 0; i < taskCount; i++) {
+                final DirectLongList found = foundLists.getQuick(i);
+                final long seenAddress = seenBits.getAddress() + i * seenWordCount * Long.BYTES;
+                for (long j = 0, n = found.size(); j < n; j += 2) {
+                    final int slot = (int) found.get(j);
+                    final long slotAddress = slotsAddress + ((long) slot << 3);
+                    if (Unsafe.getUnsafe().getLong(slotAddress) == -1) {
+                        Unsafe.getUnsafe().putLong(slotAddress, found.get(j + 1));
+                        foundCount++;
+                    }
+                    final long wordAddress = seenAddress + ((long) (slot >>> 6) << 3);
+                    Unsafe.getUnsafe().putLong(wordAddress, 0);
+                }
+                found.clear();
+            }
+        }
+
+        // compact populated slots into the list of rows
+        long rowCount = 0;
+        for (long i = 0; i < keyCount; i++) {
+            final long rowId = rows.get(i);
+            if (rowId > -1) {
+                rows.set(rowCount++, rowId);
+            }
+        }
+        rows.setPos(rowCount);
+        Vect.sortULongAscInPlace(rows.getAddress(), rowCount);
+    }
+
+    private void ensureScratch(int taskCount, long seenWordCount) {
+        final long capacity = taskCount * seenWordCount;
+        final long oldCapacity = seenBits.getCapacity();
+        if (oldCapacity < capacity) {
+            seenBits.extend(capacity);
+            Vect.memset(seenBits.getAddress() + oldCapacity * Long.BYTES, (capacity - oldCapacity) * Long.BYTES, 0);
+        }
+        while (foundLists.size() < taskCount) {
+            foundLists.add(new DirectLongList(16));
+        }
+    }
+}
@@ -32,20 +32,29 @@ import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.griffin.engine.RowIdSpill;
 import io.questdb.std.Misc;
 
 class ExceptRecordCursor implements RecordCursor {
     private final Map map;
     private final RecordSink recordSink;
+    private final RowIdSpill spill;
+    private final RowIdSpill.PartitionProcessor partitionProcessor = this::processPartition;
     private RecordCursor masterCursor;
     private RecordCursor slaveCursor;
     private Record masterRecord;
     private RecordCursor symbolCursor;
     private SqlExecutionInterruptor interruptor;
+    // number of master rows, which have been probed before the map overflowed
+    private long rowCount;
+    private long masterRowCount;
+    private long spillIndex;
 
-    public ExceptRecordCursor(Map map, RecordSink recordSink) {
+    public ExceptRecordCursor(Map map, RecordSink recordSink, RowIdSpill spill) {
         this.map = map;
         this.recordSink = recordSink;
+        this.spill = spill;
     }
 
     void of(RecordCursor masterCursor, RecordCursor slaveCursor, SqlExecutionContext executionContext) {
@@ -54,7 +63,18 @@ class ExceptRecordCursor implements RecordCursor {
         this.masterRecord = masterCursor.getRecord();
         interruptor = executionContext.getSqlExecutionInterruptor();
         map.clear();
-        populateSlaveMap(slaveCursor);
+        rowCount = 0;
+        if (spill != null) {
+            spill.clear();
+        }
+        try {
+            populateSlaveMap(slaveCursor);
+        } catch (LimitOverflowException e) {
+            if (spill == null) {
+                throw e;
+            }
+            spill();
+        }
         toTop();
     }
 
@@ -72,6 +92,9 @@ class ExceptRecordCursor implements RecordCursor {
     public void close() {
         Misc.free(this.masterCursor);
         Misc.free(this.slaveCursor);
+        if (spill != null) {
+            spill.clear();
+        }
         interruptor = null;
     }
 
@@ -82,17 +105,84 @@ class ExceptRecordCursor implements RecordCursor {
 
     @Override
     public boolean hasNext() {
-        while (masterCursor.hasNext()) {
-            MapKey key = map.withKey();
-            key.put(masterRecord, recordSink);
-            if (key.notFound()) {
+        if (spill != null && spill.isOpen()) {
+            return nextSpilled();
+        }
+        try {
+            while (masterCursor.hasNext()) {
+                MapKey key = map.withKey();
+                key.put(masterRecord, recordSink);
+                rowCount++;
+                if (key.notFound()) {
+                    return true;
+                }
+                interruptor.checkInterrupted();
+            }
+            return false;
+        } catch (LimitOverflowException e) {
+            if (spill == null) {
+                throw e;
+            }
+            spill();
+            spillIndex = rowCount;
+            return nextSpilled();
+        }
+    }
+
+    private boolean nextSpilled() {
+        while (spillIndex < masterRowCount) {
+            final long rowId = spill.getRowId(spillIndex++);
+            if (rowId != -1) {
+                masterCursor.recordAt(masterRecord, rowId);
                 return true;
             }
-            interruptor.checkInterrupted();
         }
         return false;
     }
 
+    private void spill() {
+        // slave rows are never returned, they are only kept to build partition maps
+        spill.clear();
+        spill.add(masterCursor, recordSink, interruptor);
+        masterRowCount = spill.size();
+        spill.add(slaveCursor, recordSink, interruptor);
+        spill.process(partitionProcessor);
+        map.clear();
+    }
+
+    private void processPartition(int partitionIndex, int pass, int passMask) {
+        map.clear();
+        final long size = spill.getPartitionSize(partitionIndex);
+        final Record slaveRecord = slaveCursor.getRecord();
+        for (long i = 0; i < size; i++) {
+            final long index = spill.get(partitionIndex, i);
+            if (index >= masterRowCount) {
+                slaveCursor.recordAt(slaveRecord, spill.getRowId(index));
+                if (spill.isInPass(slaveRecord, recordSink, pass, passMask)) {
+                    MapKey key = map.withKey();
+                    key.put(slaveRecord, recordSink);
+                    key.createValue();
+                }
+                interruptor.checkInterrupted();
+            }
+        }
+        for (long i = 0; i < size; i++) {
+            final long index = spill.get(partitionIndex, i);
+            final long rowId = index < masterRowCount ? spill.getRowId(index) : -1;
+            if (rowId != -1) {
+                masterCursor.recordAt(masterRecord, rowId);
+                if (spill.isInPass(masterRecord, recordSink, pass, passMask)) {
+                    MapKey key = map.withKey();
+                    key.put(masterRecord, recordSink);
+                    if (!key.notFound()) {
+                        spill.reject(index);
+                    }
+                }
+                interruptor.checkInterrupted();
+            }
+        }
+    }
+
     @Override
     public Record getRecordB() {
         return masterCursor.getRecordB();
@@ -112,6 +202,8 @@ class ExceptRecordCursor implements RecordCursor {
     public void toTop() {
         symbolCursor = masterCursor;
         masterCursor.toTop();
+        rowCount = 0;
+        spillIndex = 0;
     }
 
     @Override
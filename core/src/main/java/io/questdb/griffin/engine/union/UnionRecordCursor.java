@@ -30,12 +30,16 @@ import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.griffin.engine.RowIdSpill;
 import io.questdb.std.Misc;
 
 class UnionRecordCursor implements NoRandomAccessRecordCursor {
     private final DelegatingRecordImpl record = new DelegatingRecordImpl();
     private final Map map;
     private final RecordSink recordSink;
+    private final RowIdSpill spill;
+    private final RowIdSpill.PartitionProcessor partitionProcessor = this::processPartition;
     private RecordCursor masterCursor;
     private RecordCursor slaveCursor;
     private final NextMethod nextSlave = this::nextSlave;
@@ -45,10 +49,15 @@ class UnionRecordCursor implements NoRandomAccessRecordCursor {
     private RecordCursor symbolCursor;
     private final NextMethod nextMaster = this::nextMaster;
     private SqlExecutionInterruptor interruptor;
+    // number of master and slave rows, which went through the map before it overflowed
+    private long rowCount;
+    private long masterRowCount;
+    private long spillIndex;
 
-    public UnionRecordCursor(Map map, RecordSink recordSink) {
+    public UnionRecordCursor(Map map, RecordSink recordSink, RowIdSpill spill) {
         this.map = map;
         this.recordSink = recordSink;
+        this.spill = spill;
     }
 
     void of(RecordCursor masterCursor, RecordCursor slaveCursor, SqlExecutionContext executionContext) {
@@ -64,6 +73,9 @@ class UnionRecordCursor implements NoRandomAccessRecordCursor {
     public void close() {
         Misc.free(this.masterCursor);
         Misc.free(this.slaveCursor);
+        if (spill != null) {
+            spill.clear();
+        }
         interruptor = null;
     }
 
@@ -74,7 +86,18 @@ class UnionRecordCursor implements NoRandomAccessRecordCursor {
 
     @Override
     public boolean hasNext() {
-        return nextMethod.next();
+        if (spill != null && spill.isOpen()) {
+            return nextSpilled();
+        }
+        try {
+            return nextMethod.next();
+        } catch (LimitOverflowException e) {
+            if (spill == null) {
+                throw e;
+            }
+            spill();
+            return nextSpilled();
+        }
     }
 
     private boolean nextSlave() {
@@ -83,6 +106,7 @@ class UnionRecordCursor implements NoRandomAccessRecordCursor {
             if (next) {
                 MapKey key = map.withKey();
                 key.put(record, recordSink);
+                rowCount++;
                 if (key.create()) {
                     return true;
                 }
@@ -102,6 +126,7 @@ class UnionRecordCursor implements NoRandomAccessRecordCursor {
         if (masterCursor.hasNext()) {
             MapKey key = map.withKey();
             key.put(record, recordSink);
+            rowCount++;
             key.create();
             return true;
         }
@@ -115,9 +140,70 @@ class UnionRecordCursor implements NoRandomAccessRecordCursor {
         return nextMethod.next();
     }
 
+    private boolean nextSpilled() {
+        final long size = spill.size();
+        while (spillIndex < size) {
+            final long index = spillIndex++;
+            final long rowId = spill.getRowId(index);
+            if (rowId != -1) {
+                positionSpilled(index, rowId);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void positionSpilled(long index, long rowId) {
+        if (index < masterRowCount) {
+            masterCursor.recordAt(masterRecord, rowId);
+            record.of(masterRecord);
+            symbolCursor = masterCursor;
+        } else {
+            slaveCursor.recordAt(slaveRecord, rowId);
+            record.of(slaveRecord);
+            symbolCursor = slaveCursor;
+        }
+    }
+
+    private void processPartition(int partitionIndex, int pass, int passMask) {
+        map.clear();
+        for (long i = 0, n = spill.getPartitionSize(partitionIndex); i < n; i++) {
+            interruptor.checkInterrupted();
+            final long index = spill.get(partitionIndex, i);
+            final long rowId = spill.getRowId(index);
+            if (rowId != -1) {
+                positionSpilled(index, rowId);
+                if (spill.isInPass(record, recordSink, pass, passMask)) {
+                    MapKey key = map.withKey();
+                    key.put(record, recordSink);
+                    // master rows are returned regardless, same as in nextMaster()
+                    if (!key.create() && index >= masterRowCount) {
+                        spill.reject(index);
+                    }
+                }
+            }
+        }
+    }
+
+    private void spill() {
+        // rows before rowCount have been returned already, spill keeps them
+        // to reject their duplicates among the rows that follow
+        spill.clear();
+        spill.add(masterCursor, recordSink, interruptor);
+        masterRowCount = spill.size();
+        spill.add(slaveCursor, recordSink, interruptor);
+        spill.process(partitionProcessor);
+        map.clear();
+        spillIndex = rowCount;
+    }
+
     @Override
     public void toTop() {
         map.clear();
+        if (spill != null) {
+            spill.clear();
+        }
+        rowCount = 0;
         record.of(masterRecord);
         nextMethod = nextMaster;
         symbolCursor = masterCursor;
@@ -32,8 +32,10 @@ import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.RowIdSpill;
 import io.questdb.std.Misc;
 
 public class UnionRecordCursorFactory implements RecordCursorFactory {
@@ -42,6 +44,7 @@ public class UnionRecordCursorFactory implements RecordCursorFactory {
     private final RecordCursorFactory slaveFactory;
     private final UnionRecordCursor cursor;
     private final Map map;
+    private final RowIdSpill spill;
 
     public UnionRecordCursorFactory(
             CairoConfiguration configuration,
@@ -55,7 +58,11 @@ public class UnionRecordCursorFactory implements RecordCursorFactory {
         this.masterFactory = masterFactory;
         this.slaveFactory = slaveFactory;
         this.map = MapFactory.createMap(configuration, metadata, valueTypes);
-        this.cursor = new UnionRecordCursor(map, recordSink);
+        // rows can be spilled only when they can be re-read by row id
+        this.spill = masterFactory.recordCursorSupportsRandomAccess() && slaveFactory.recordCursorSupportsRandomAccess()
+                ? new RowIdSpill(configuration)
+                : null;
+        this.cursor = new UnionRecordCursor(map, recordSink, spill);
     }
 
     @Override
@@ -84,10 +91,16 @@ public class UnionRecordCursorFactory implements RecordCursorFactory {
         return false;
     }
 
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).child(masterFactory).child(slaveFactory);
+    }
+
     @Override
     public void close() {
         Misc.free(masterFactory);
         Misc.free(slaveFactory);
         Misc.free(map);
+        Misc.free(spill);
     }
 }
@@ -29,10 +29,21 @@ import io.questdb.std.ObjList;
 import io.questdb.std.ObjectFactory;
 
 public final class AnalyticColumn extends QueryColumn {
+    public static final int FRAMING_RANGE = 0;
+    public static final int FRAMING_ROWS = 1;
+    // frame bounds are row offsets relative to current row, negative values are preceding rows
+    public static final long UNBOUNDED_PRECEDING = Long.MIN_VALUE;
+    public static final long UNBOUNDED_FOLLOWING = Long.MAX_VALUE;
+    public static final long CURRENT_ROW = 0;
     public final static ObjectFactory<AnalyticColumn> FACTORY = AnalyticColumn::new;
     private final ObjList<ExpressionNode> partitionBy = new ObjList<>(2);
     private final ObjList<ExpressionNode> orderBy = new ObjList<>(2);
     private final IntList orderByDirection = new IntList(2);
+    private int framingMode = FRAMING_RANGE;
+    private long rowsLo = UNBOUNDED_PRECEDING;
+    private long rowsHi = CURRENT_ROW;
+    private int rowsLoPosition;
+    private int rowsHiPosition;
 
     private AnalyticColumn() {
     }
@@ -48,6 +59,15 @@ public final class AnalyticColumn extends QueryColumn {
         partitionBy.clear();
         orderBy.clear();
         orderByDirection.clear();
+        framingMode = FRAMING_RANGE;
+        rowsLo = UNBOUNDED_PRECEDING;
+        rowsHi = CURRENT_ROW;
+        rowsLoPosition = 0;
+        rowsHiPosition = 0;
+    }
+
+    public int getFramingMode() {
+        return framingMode;
     }
 
     public ObjList<ExpressionNode> getPartitionBy() {
@@ -62,8 +82,42 @@ public final class AnalyticColumn extends QueryColumn {
         return orderByDirection;
     }
 
+    public long getRowsHi() {
+        return rowsHi;
+    }
+
+    public int getRowsHiPosition() {
+        return rowsHiPosition;
+    }
+
+    public long getRowsLo() {
+        return rowsLo;
+    }
+
+    public int getRowsLoPosition() {
+        return rowsLoPosition;
+    }
+
+    public boolean isDefaultFrame() {
+        return framingMode == FRAMING_RANGE && rowsLo == UNBOUNDED_PRECEDING && rowsHi == CURRENT_ROW;
+    }
+
     @Override
     public AnalyticColumn of(CharSequence alias, ExpressionNode ast) {
         return (AnalyticColumn) super.of(alias, ast);
     }
+
+    public void setFramingMode(int framingMode) {
+        this.framingMode = framingMode;
+    }
+
+    public void setRowsHi(long rowsHi, int position) {
+        this.rowsHi = rowsHi;
+        this.rowsHiPosition = position;
+    }
+
+    public void setRowsLo(long rowsLo, int position) {
+        this.rowsLo = rowsLo;
+        this.rowsLoPosition = position;
+    }
 }
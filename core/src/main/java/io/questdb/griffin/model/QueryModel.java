@@ -24,6 +24,7 @@
 
 package io.questdb.griffin.model;
 
+import io.questdb.cairo.TableStatistics;
 import io.questdb.cairo.sql.Function;
 import io.questdb.std.*;
 import io.questdb.std.str.CharSink;
@@ -115,6 +116,8 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
     private int modelPosition = 0;
     private int orderByAdviceMnemonic;
     private int tableId;
+    private TableStatistics tableStatistics;
+    private long tableRowCount;
 
     private QueryModel() {
         joinModels.add(this);
@@ -229,6 +232,8 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         columnNameToAliasMap.clear();
         tableNameFunction = null;
         tableId = -1;
+        tableStatistics = null;
+        tableRowCount = -1;
         tableVersion = -1;
         bottomUpColumnNames.clear();
         expressionModels.clear();
@@ -315,6 +320,14 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         return tableId;
     }
 
+    public long getTableRowCount() {
+        return tableRowCount;
+    }
+
+    public TableStatistics getTableStatistics() {
+        return tableStatistics;
+    }
+
     public void moveAliasFrom(QueryModel that) {
         final ExpressionNode alias = that.alias;
         if (alias != null && !Chars.startsWith(alias.token, SUB_QUERY_ALIAS_PREFIX)) {
@@ -569,6 +582,14 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         this.tableId = id;
     }
 
+    public void setTableRowCount(long tableRowCount) {
+        this.tableRowCount = tableRowCount;
+    }
+
+    public void setTableStatistics(TableStatistics tableStatistics) {
+        this.tableStatistics = tableStatistics;
+    }
+
     public void setTableName(ExpressionNode tableName) {
         this.tableName = tableName;
     }
@@ -747,6 +768,20 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         return modelTypeName.get(selectModelType);
     }
 
+    private static void frameBoundToSink(CharSink sink, long bound) {
+        if (bound == AnalyticColumn.UNBOUNDED_PRECEDING) {
+            sink.put("unbounded preceding");
+        } else if (bound == AnalyticColumn.UNBOUNDED_FOLLOWING) {
+            sink.put("unbounded following");
+        } else if (bound == AnalyticColumn.CURRENT_ROW) {
+            sink.put("current row");
+        } else if (bound < 0) {
+            sink.put(-bound).put(" preceding");
+        } else {
+            sink.put(bound).put(" following");
+        }
+    }
+
     private void sinkColumns(CharSink sink, ObjList<QueryColumn> columns) {
         for (int i = 0, n = columns.size(); i < n; i++) {
             if (i > 0) {
@@ -794,6 +829,17 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
                             }
                         }
                     }
+
+                    if (!ac.isDefaultFrame()) {
+                        if (partitionBy.size() > 0 || orderBy.size() > 0) {
+                            sink.put(' ');
+                        }
+                        sink.put(ac.getFramingMode() == AnalyticColumn.FRAMING_ROWS ? "rows" : "range");
+                        sink.put(" between ");
+                        frameBoundToSink(sink, ac.getRowsLo());
+                        sink.put(" and ");
+                        frameBoundToSink(sink, ac.getRowsHi());
+                    }
                     sink.put(')');
                 }
             } else {
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.metrics;
+
+import io.questdb.std.str.CharSink;
+
+import java.util.concurrent.atomic.LongAdder;
+
+class GaugeWithOneLabelImpl implements GaugeWithOneLabel {
+    private final CharSequence name;
+    private final CharSequence labelName0;
+    private final CharSequence[] labelValues0;
+    private final LongAdder[] gauges;
+
+    GaugeWithOneLabelImpl(CharSequence name, CharSequence labelName0, CharSequence[] labelValues0) {
+        this.name = name;
+        this.labelName0 = labelName0;
+        this.labelValues0 = labelValues0;
+        this.gauges = new LongAdder[labelValues0.length];
+        for (int i = 0, n = labelValues0.length; i < n; i++) {
+            gauges[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void inc(short label0) {
+        gauges[label0].increment();
+    }
+
+    @Override
+    public void dec(short label0) {
+        gauges[label0].decrement();
+    }
+
+    @Override
+    public void scrapeIntoPrometheus(CharSink sink) {
+        sink.put(PrometheusFormatUtils.TYPE_PREFIX);
+        sink.put(name);
+        sink.put(" gauge\n");
+        for (int i = 0, n = gauges.length; i < n; i++) {
+            sink.put(PrometheusFormatUtils.METRIC_NAME_PREFIX);
+            sink.put(name);
+            sink.put('{');
+            PrometheusFormatUtils.appendLabel(sink, labelName0, labelValues0[i]);
+            sink.put('}');
+            PrometheusFormatUtils.appendSampleLineSuffix(sink, gauges[i].longValue());
+        }
+        PrometheusFormatUtils.appendNewLine(sink);
+    }
+}
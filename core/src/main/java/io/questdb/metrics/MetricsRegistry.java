@@ -35,4 +35,6 @@ public interface MetricsRegistry extends Scrapable {
                                     CharSequence labelName1, CharSequence[] labelValues1);
 
     Gauge newGauge(CharSequence name);
+
+    GaugeWithOneLabel newGauge(CharSequence name, CharSequence labelName0, CharSequence[] labelValues0);
 }
@@ -26,7 +26,7 @@ package io.questdb.metrics;
 
 import io.questdb.std.str.CharSink;
 
-class NullGauge implements Gauge {
+class NullGauge implements Gauge, GaugeWithOneLabel {
     public static final NullGauge INSTANCE = new NullGauge();
 
     private NullGauge() {
@@ -40,6 +40,14 @@ class NullGauge implements Gauge {
     public void dec() {
     }
 
+    @Override
+    public void inc(short label0) {
+    }
+
+    @Override
+    public void dec(short label0) {
+    }
+
     @Override
     public void scrapeIntoPrometheus(CharSink sink) {
     }
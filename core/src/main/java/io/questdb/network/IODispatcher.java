@@ -46,6 +46,8 @@ public interface IODispatcher<C extends IOContext> extends Closeable, Job {
     int DISCONNECT_REASON_KICKED_TXT_NOT_ENOUGH_LINES = 14;
     int DISCONNECT_REASON_PEER_DISCONNECT_AT_RECV = 15;
     int DISCONNECT_REASON_TEST = 16;
+    int DISCONNECT_REASON_IDLE = 17;
+    int DISCONNECT_REASON_SHUTDOWN = 18;
 
     void disconnect(C context, int reason);
 
@@ -39,6 +39,11 @@ public class DirectBinarySequence implements BinarySequence, Mutable {
         len = 0;
     }
 
+    @Override
+    public void copyTo(long address, long start, long length) {
+        Vect.memcpy(address, this.address + start, Math.min(this.len - start, length));
+    }
+
     @Override
     public long length() {
         return len;
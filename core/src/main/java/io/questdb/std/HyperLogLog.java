@@ -0,0 +1,177 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+/**
+ * HyperLogLog cardinality sketch over native memory. Sketch is a block of 2^precision
+ * single byte registers. Callers own the memory, this class only interprets it, which
+ * allows sketches to live in any native buffer, e.g. virtual memory shared by all groups
+ * of a group-by function.
+ * <p>
+ * Estimate is a function of the harmonic sum of registers and the number of zero
+ * registers. Callers that need estimate often can maintain both incrementally using
+ * value returned by {@link #add(long, int, long)} and {@link #weight(int)}, instead of
+ * scanning registers.
+ * <p>
+ * Sketches of the same precision are mergeable, merge result is equivalent to a sketch
+ * built over the union of the inputs.
+ */
+public final class HyperLogLog {
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+    public static final int DEFAULT_PRECISION = 12;
+
+    private HyperLogLog() {
+    }
+
+    /**
+     * Adds pre-hashed value to the sketch.
+     *
+     * @param registers address of the sketch
+     * @param precision sketch precision
+     * @param hash      64-bit hash of the value, see {@link #hash(long)}
+     * @return previous value of the updated register or -1 if sketch has not changed
+     */
+    public static int add(long registers, int precision, long hash) {
+        final long p = registers + (hash >>> (64 - precision));
+        final int rank = rank(hash, precision);
+        final int current = Unsafe.getUnsafe().getByte(p);
+        if (rank > current) {
+            Unsafe.getUnsafe().putByte(p, (byte) rank);
+            return current;
+        }
+        return -1;
+    }
+
+    public static void clear(long registers, int precision) {
+        Vect.memset(registers, sizeOf(precision), 0);
+    }
+
+    /**
+     * Estimates number of distinct values added to the sketch.
+     *
+     * @param registers address of the sketch
+     * @param precision sketch precision
+     * @return estimated cardinality
+     */
+    public static long estimate(long registers, int precision) {
+        double sum = 0;
+        int zeros = 0;
+        for (long p = registers, hi = registers + sizeOf(precision); p < hi; p++) {
+            final int r = Unsafe.getUnsafe().getByte(p);
+            if (r == 0) {
+                zeros++;
+            }
+            sum += weight(r);
+        }
+        return estimate(sum, zeros, precision);
+    }
+
+    /**
+     * Estimates cardinality from sketch summary. Small cardinalities are corrected
+     * using linear counting. Hashes are 64-bit, so large range correction is not required.
+     *
+     * @param sum       sum of {@link #weight(int)} of all registers
+     * @param zeros     number of zero registers
+     * @param precision sketch precision
+     * @return estimated cardinality
+     */
+    public static long estimate(double sum, int zeros, int precision) {
+        final int m = 1 << precision;
+        final double estimate = alpha(m) * m * m / sum;
+        if (zeros > 0 && estimate <= 2.5 * m) {
+            return Math.round(m * Math.log((double) m / zeros));
+        }
+        return Math.round(estimate);
+    }
+
+    public static long hash(long value) {
+        // murmur3 64-bit finalizer
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    public static long hash(CharSequence value) {
+        long h = 0;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            h = 31 * h + value.charAt(i);
+        }
+        return hash(h ^ value.length());
+    }
+
+    public static long hash(long l0, long l1, long l2, long l3) {
+        return hash(hash(hash(hash(l0) ^ l1) ^ l2) ^ l3);
+    }
+
+    /**
+     * Merges source sketch into destination sketch. Both sketches must have the same precision.
+     *
+     * @param dst       address of the destination sketch
+     * @param src       address of the source sketch
+     * @param precision precision of both sketches
+     */
+    public static void merge(long dst, long src, int precision) {
+        for (long i = 0, n = sizeOf(precision); i < n; i++) {
+            final byte r = Unsafe.getUnsafe().getByte(src + i);
+            if (r > Unsafe.getUnsafe().getByte(dst + i)) {
+                Unsafe.getUnsafe().putByte(dst + i, r);
+            }
+        }
+    }
+
+    public static int rank(long hash, int precision) {
+        // guard bit caps rank at 64 - precision + 1
+        return Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+    }
+
+    public static long sizeOf(int precision) {
+        return 1L << precision;
+    }
+
+    /**
+     * @param rank register value
+     * @return contribution of register to the harmonic sum, 2^-rank
+     */
+    public static double weight(int rank) {
+        return Double.longBitsToDouble((long) (1023 - rank) << 52);
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+/**
+ * Relative-error quantile sketch over native memory, in the spirit of DDSketch. Values are
+ * mapped to logarithmic buckets, so that any value reported for a quantile is within
+ * {@link #RELATIVE_ACCURACY} of the true value of that quantile.
+ * <p>
+ * Sketch consists of up to two stores, one for positive and one for negative values, plus
+ * count of zeros. Store is a window of {@link #BUCKETS} long counters over bucket keys,
+ * starting at "base" key, which is kept by the caller. When values fall outside the window,
+ * window slides towards them and buckets of lowest magnitude are collapsed. Quantiles
+ * closest to zero lose accuracy first, higher quantiles, which are of most interest, keep the
+ * error guarantee over nine orders of magnitude of value range.
+ * <p>
+ * Stores are mergeable, merge result is equivalent to a store built over the union of the inputs.
+ */
+public final class QuantileSketch {
+    public static final int BUCKETS = 1024;
+    public static final long STORE_SIZE = BUCKETS * Long.BYTES;
+    public static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LN_GAMMA = Math.log(GAMMA);
+
+    private QuantileSketch() {
+    }
+
+    /**
+     * Adds count to the bucket of the given key, sliding store window when key is outside of it.
+     *
+     * @param store address of the store
+     * @param base  key of the first bucket in the store
+     * @param key   bucket key, see {@link #key(double)}
+     * @param count count to add
+     * @return new base of the store
+     */
+    public static int add(long store, int base, int key, long count) {
+        if (key < base) {
+            // slide down as far as highest non-empty bucket allows
+            final int lo = Math.max(key, base - BUCKETS + 1 + highestNonEmpty(store));
+            if (lo < base) {
+                final int shift = base - lo;
+                Vect.memmove(store + (long) shift * Long.BYTES, store, (long) (BUCKETS - shift) * Long.BYTES);
+                Vect.memset(store, (long) shift * Long.BYTES, 0);
+                base = lo;
+            }
+            addCount(store, Math.max(0, key - base), count);
+            return base;
+        }
+
+        if (key >= base + BUCKETS) {
+            final int shift = key - BUCKETS + 1 - base;
+            if (shift < BUCKETS) {
+                long collapsed = 0;
+                for (int i = 0; i <= shift; i++) {
+                    collapsed += getCount(store, i);
+                }
+                Vect.memmove(store, store + (long) shift * Long.BYTES, (long) (BUCKETS - shift) * Long.BYTES);
+                Vect.memset(store + (long) (BUCKETS - shift) * Long.BYTES, (long) shift * Long.BYTES, 0);
+                Unsafe.getUnsafe().putLong(store, collapsed);
+            } else {
+                final long collapsed = sum(store);
+                clear(store);
+                Unsafe.getUnsafe().putLong(store, collapsed);
+            }
+            base += shift;
+        }
+        addCount(store, key - base, count);
+        return base;
+    }
+
+    public static void clear(long store) {
+        Vect.memset(store, STORE_SIZE, 0);
+    }
+
+    /**
+     * Maps absolute value to bucket key.
+     *
+     * @param absValue positive value, no smaller than {@link Double#MIN_NORMAL}
+     * @return bucket key
+     */
+    public static int key(double absValue) {
+        return (int) Math.ceil(Math.log(absValue) / LN_GAMMA);
+    }
+
+    /**
+     * Merges source store into destination store.
+     *
+     * @param dst     address of the destination store
+     * @param dstBase base of the destination store
+     * @param src     address of the source store
+     * @param srcBase base of the source store
+     * @return new base of the destination store
+     */
+    public static int merge(long dst, int dstBase, long src, int srcBase) {
+        // add from the top down, so that window slides at most once
+        for (int i = BUCKETS - 1; i > -1; i--) {
+            final long count = getCount(src, i);
+            if (count > 0) {
+                dstBase = add(dst, dstBase, srcBase + i, count);
+            }
+        }
+        return dstBase;
+    }
+
+    /**
+     * @param key bucket key
+     * @return initial store base, that places given key in the middle of the store window
+     */
+    public static int newBase(int key) {
+        return key - BUCKETS / 2;
+    }
+
+    /**
+     * Finds value at the given quantile.
+     *
+     * @param negative     address of negative values store or 0 if there are no negative values
+     * @param negativeBase base of the negative values store
+     * @param zeroCount    number of zero values
+     * @param positive     address of positive values store or 0 if there are no positive values
+     * @param positiveBase base of the positive values store
+     * @param count        total number of values, must be greater than 0
+     * @param quantile     quantile between 0 and 1
+     * @return approximate value at the quantile
+     */
+    public static double quantile(long negative, int negativeBase, long zeroCount, long positive, int positiveBase, long count, double quantile) {
+        final double rank = quantile * (count - 1);
+        long n = 0;
+        if (negative != 0) {
+            for (int i = BUCKETS - 1; i > -1; i--) {
+                n += getCount(negative, i);
+                if (n > rank) {
+                    return -value(negativeBase + i);
+                }
+            }
+        }
+
+        n += zeroCount;
+        if (n > rank) {
+            return 0;
+        }
+
+        if (positive != 0) {
+            for (int i = 0; i < BUCKETS; i++) {
+                n += getCount(positive, i);
+                if (n > rank) {
+                    return value(positiveBase + i);
+                }
+            }
+        }
+        // unreachable when count is consistent with the stores
+        return Double.NaN;
+    }
+
+    /**
+     * @param key bucket key
+     * @return value representing the bucket, it is within relative accuracy of all values in the bucket
+     */
+    public static double value(int key) {
+        return 2 * Math.pow(GAMMA, key) / (GAMMA + 1);
+    }
+
+    private static void addCount(long store, int index, long count) {
+        final long p = store + (long) index * Long.BYTES;
+        Unsafe.getUnsafe().putLong(p, Unsafe.getUnsafe().getLong(p) + count);
+    }
+
+    private static long getCount(long store, int index) {
+        return Unsafe.getUnsafe().getLong(store + (long) index * Long.BYTES);
+    }
+
+    private static int highestNonEmpty(long store) {
+        for (int i = BUCKETS - 1; i > -1; i--) {
+            if (getCount(store, i) != 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static long sum(long store) {
+        long sum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            sum += getCount(store, i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.tasks;
+
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.mp.CountDownLatchSPI;
+
+public class ColumnCopyTask {
+    private TableWriter writer;
+    private int columnIndex;
+    private PageFrame frame;
+    private PageFrameCursor cursor;
+    private long lo;
+    private long hi;
+    private CountDownLatchSPI doneLatch;
+
+    public void of(
+            TableWriter writer,
+            int columnIndex,
+            PageFrame frame,
+            PageFrameCursor cursor,
+            long lo,
+            long hi,
+            CountDownLatchSPI doneLatch
+    ) {
+        this.writer = writer;
+        this.columnIndex = columnIndex;
+        this.frame = frame;
+        this.cursor = cursor;
+        this.lo = lo;
+        this.hi = hi;
+        this.doneLatch = doneLatch;
+    }
+
+    public boolean run() {
+        try {
+            writer.copyPageFrameColumn(columnIndex, frame, cursor, lo, hi);
+        } finally {
+            // release references, task slot is reused
+            writer = null;
+            frame = null;
+            cursor = null;
+            final CountDownLatchSPI latch = doneLatch;
+            doneLatch = null;
+            latch.countDown();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.tasks;
+
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.mp.CountDownLatchSPI;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Rows;
+import io.questdb.std.Unsafe;
+
+public class LatestByAllSymbolTask {
+    // slot value of the key that is known not to occur in the table
+    public static final long SLOT_ABSENT = -2;
+    private long keysAddress;
+    private long columnTop;
+    private long rowLo;
+    private long rowHi;
+    private int partitionIndex;
+    private long slotsAddress;
+    private int slotCount;
+    private int unresolvedCount;
+    private long seenAddress;
+    private DirectLongList found;
+    private CountDownLatchSPI doneLatch;
+
+    /**
+     * Scans symbol keys of partition backwards from rowHi to rowLo (both inclusive) and collects the
+     * highest row id of every key that newer frames did not resolve. Slot 0 is reserved for null symbol,
+     * slot of key k is k + 1. Slots of resolved keys hold row id or {@link #SLOT_ABSENT}, others hold -1. Slots are read-only
+     * while the frame is scanned, tasks scanning disjoint ranges of the frame collect what they find
+     * into their own list, which is merged once all tasks of the frame are done.
+     *
+     * @param keysAddress     address of symbol key column in partition, 0 when column top covers entire range
+     * @param columnTop       column top of symbol column in partition
+     * @param rowLo           lowest row to scan, inclusive
+     * @param rowHi           highest row to scan, inclusive
+     * @param partitionIndex  partition index to compose row id
+     * @param slotsAddress    address of slot array
+     * @param slotCount       number of slots
+     * @param unresolvedCount number of slots that hold -1, scan stops once it has seen as many keys
+     * @param seenAddress     zeroed bit set of slotCount bits, private to this scan
+     * @param found           receives pairs of slot and row id, private to this scan
+     */
+    public static void scan(
+            long keysAddress,
+            long columnTop,
+            long rowLo,
+            long rowHi,
+            int partitionIndex,
+            long slotsAddress,
+            int slotCount,
+            int unresolvedCount,
+            long seenAddress,
+            DirectLongList found
+    ) {
+        int remaining = unresolvedCount;
+        for (long row = rowHi; row >= rowLo && remaining > 0; row--) {
+            final int key = row < columnTop ? SymbolTable.VALUE_IS_NULL : Unsafe.getUnsafe().getInt(keysAddress + (row - columnTop) * Integer.BYTES);
+            final int slot = key == SymbolTable.VALUE_IS_NULL ? 0 : key + 1;
+            if (slot < 0 || slot >= slotCount) {
+                // key is outside of symbol table snapshot
+                continue;
+            }
+            if (Unsafe.getUnsafe().getLong(slotsAddress + ((long) slot << 3)) != -1) {
+                // newer frame has the key, or key does not occur
+                continue;
+            }
+            final long wordAddress = seenAddress + ((long) (slot >>> 6) << 3);
+            final long word = Unsafe.getUnsafe().getLong(wordAddress);
+            final long bit = 1L << (slot & 63);
+            if ((word & bit) == 0) {
+                // rows are scanned backwards, first row of the key is the latest
+                Unsafe.getUnsafe().putLong(wordAddress, word | bit);
+                found.add(slot);
+                found.add(Rows.toRowID(partitionIndex, row));
+                remaining--;
+            }
+        }
+    }
+
+    public void of(
+            long keysAddress,
+            long columnTop,
+            long rowLo,
+            long rowHi,
+            int partitionIndex,
+            long slotsAddress,
+            int slotCount,
+            int unresolvedCount,
+            long seenAddress,
+            DirectLongList found,
+            CountDownLatchSPI doneLatch
+    ) {
+        this.keysAddress = keysAddress;
+        this.columnTop = columnTop;
+        this.rowLo = rowLo;
+        this.rowHi = rowHi;
+        this.partitionIndex = partitionIndex;
+        this.slotsAddress = slotsAddress;
+        this.slotCount = slotCount;
+        this.unresolvedCount = unresolvedCount;
+        this.seenAddress = seenAddress;
+        this.found = found;
+        this.doneLatch = doneLatch;
+    }
+
+    public boolean run() {
+        try {
+            scan(keysAddress, columnTop, rowLo, rowHi, partitionIndex, slotsAddress, slotCount, unresolvedCount, seenAddress, found);
+        } finally {
+            found = null;
+            final CountDownLatchSPI latch = doneLatch;
+            doneLatch = null;
+            latch.countDown();
+        }
+        return true;
+    }
+}
@@ -108,6 +108,13 @@ public class MetricsTest {
             return delegate.newGauge(name);
         }
 
+        @Override
+        public GaugeWithOneLabel newGauge(CharSequence name, CharSequence labelName0, CharSequence[] labelValues0) {
+            addMetricName(name);
+            addLabelNames(name, Collections.singletonList(labelName0));
+            return delegate.newGauge(name, labelName0, labelValues0);
+        }
+
         @Override
         public void scrapeIntoPrometheus(CharSink sink) {
             delegate.scrapeIntoPrometheus(sink);
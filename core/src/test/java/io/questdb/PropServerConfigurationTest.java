@@ -87,8 +87,9 @@ public class PropServerConfigurationTest {
         Assert.assertTrue(configuration.getHttpServerConfiguration().isEnabled());
         Assert.assertFalse(configuration.getHttpServerConfiguration().getHttpContextConfiguration().getDumpNetworkTraffic());
         Assert.assertFalse(configuration.getHttpServerConfiguration().getHttpContextConfiguration().allowDeflateBeforeSend());
-        Assert.assertEquals(16, configuration.getHttpServerConfiguration().getQueryCacheRows());
-        Assert.assertEquals(4, configuration.getHttpServerConfiguration().getQueryCacheBlocks());
+        Assert.assertEquals(16, configuration.getCairoConfiguration().getSqlCacheRows());
+        Assert.assertEquals(4, configuration.getCairoConfiguration().getSqlCacheBlocks());
+        Assert.assertEquals(4, configuration.getCairoConfiguration().getSqlCachePoolSize());
 
         // this is going to need interesting validation logic
         // configuration path is expected to be relative and we need to check if absolute path is good
@@ -158,6 +159,8 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(0.7, configuration.getCairoConfiguration().getSqlCompactMapLoadFactor(), 0.000001);
         Assert.assertEquals(8192, configuration.getCairoConfiguration().getSqlExpressionPoolCapacity());
         Assert.assertEquals(0.5, configuration.getCairoConfiguration().getSqlFastMapLoadFactor(), 0.0000001);
+        Assert.assertEquals(1024, configuration.getCairoConfiguration().getSqlFilterSampleSize());
+        Assert.assertEquals(1024 * 1024, configuration.getCairoConfiguration().getSqlFilterSampleInterval());
         Assert.assertEquals(64, configuration.getCairoConfiguration().getSqlJoinContextPoolCapacity());
         Assert.assertEquals(2048, configuration.getCairoConfiguration().getSqlLexerPoolCapacity());
         Assert.assertEquals(2097152, configuration.getCairoConfiguration().getSqlMapKeyCapacity());
@@ -165,6 +168,10 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlMapMaxPages());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlMapMaxResizes());
         Assert.assertEquals(1024, configuration.getCairoConfiguration().getSqlModelPoolCapacity());
+        Assert.assertEquals(16, configuration.getCairoConfiguration().getSqlSetSpillPartitionCount());
+        Assert.assertEquals(1024 * 1024, configuration.getCairoConfiguration().getSqlSetSpillPageSize());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getSqlResultCacheSize());
+        Assert.assertEquals(1024 * 1024, configuration.getCairoConfiguration().getSqlResultCacheEntryMaxSize());
         Assert.assertEquals(4 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortKeyPageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlSortKeyMaxPages());
         Assert.assertEquals(8 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortLightValuePageSize());
@@ -174,6 +181,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(1000, configuration.getCairoConfiguration().getSqlLatestByRowCount());
         Assert.assertEquals(1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinLightValuePageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlHashJoinLightValueMaxPages());
+        Assert.assertEquals(8, configuration.getCairoConfiguration().getSqlHashJoinPartitionCount());
         Assert.assertEquals(16 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortValuePageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlSortValueMaxPages());
         Assert.assertEquals(10000, configuration.getCairoConfiguration().getWorkStealTimeoutNanos());
@@ -196,6 +204,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(2048, configuration.getLineUdpReceiverConfiguration().getMsgBufferSize());
         Assert.assertEquals(10000, configuration.getLineUdpReceiverConfiguration().getMsgCount());
         Assert.assertEquals(8388608, configuration.getLineUdpReceiverConfiguration().getReceiveBufferSize());
+        Assert.assertEquals(1, configuration.getLineUdpReceiverConfiguration().getSocketCount());
         Assert.assertSame(AllowAllCairoSecurityContext.INSTANCE, configuration.getLineUdpReceiverConfiguration().getCairoSecurityContext());
         Assert.assertTrue(configuration.getLineUdpReceiverConfiguration().isEnabled());
         Assert.assertEquals(-1, configuration.getLineUdpReceiverConfiguration().ownThreadAffinity());
@@ -250,8 +259,13 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(10_000_000, configuration.getLineTcpReceiverConfiguration().getNUpdatesPerLoadRebalance());
         Assert.assertEquals(1.9, configuration.getLineTcpReceiverConfiguration().getMaxLoadRatio(), 0.001);
         Assert.assertEquals(30_000, configuration.getLineTcpReceiverConfiguration().getMaintenanceInterval());
+        Assert.assertEquals(1_000, configuration.getLineTcpReceiverConfiguration().getMaintenanceCommitSlack());
         Assert.assertEquals(PartitionBy.DAY, configuration.getLineTcpReceiverConfiguration().getDefaultPartitionBy());
         Assert.assertEquals(0, configuration.getLineTcpReceiverConfiguration().getAggressiveReadRetryCount());
+        Assert.assertFalse(configuration.getLineTcpReceiverConfiguration().isAckEnabled());
+        Assert.assertEquals(100, configuration.getLineTcpReceiverConfiguration().getAckCommitInterval());
+        Assert.assertEquals(0, configuration.getLineTcpReceiverConfiguration().getConnectionMaxRowsPerSecond());
+        Assert.assertEquals(0, configuration.getLineTcpReceiverConfiguration().getTableMaxRowsPerSecond());
         Assert.assertEquals(10_000, configuration.getLineTcpReceiverConfiguration().getWriterIdleTimeout());
         Assert.assertEquals(0, configuration.getCairoConfiguration().getSampleByIndexSearchPageSize());
 
@@ -440,8 +454,9 @@ public class PropServerConfigurationTest {
             Assert.assertTrue(configuration.getHttpServerConfiguration().haltOnError());
             Assert.assertEquals(128, configuration.getHttpServerConfiguration().getHttpContextConfiguration().getSendBufferSize());
             Assert.assertEquals("index2.html", configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().getIndexFileName());
-            Assert.assertEquals(32, configuration.getHttpServerConfiguration().getQueryCacheRows());
-            Assert.assertEquals(16, configuration.getHttpServerConfiguration().getQueryCacheBlocks());
+            Assert.assertEquals(32, configuration.getCairoConfiguration().getSqlCacheRows());
+            Assert.assertEquals(16, configuration.getCairoConfiguration().getSqlCacheBlocks());
+            Assert.assertEquals(8, configuration.getCairoConfiguration().getSqlCachePoolSize());
 
             Assert.assertTrue(configuration.getHttpServerConfiguration().getHttpContextConfiguration().readOnlySecurityContext());
             Assert.assertEquals(50000, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getMaxQueryResponseRowLimit());
@@ -509,6 +524,8 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(0.8, configuration.getCairoConfiguration().getSqlCompactMapLoadFactor(), 0.000001);
             Assert.assertEquals(1024, configuration.getCairoConfiguration().getSqlExpressionPoolCapacity());
             Assert.assertEquals(0.3, configuration.getCairoConfiguration().getSqlFastMapLoadFactor(), 0.0000001);
+            Assert.assertEquals(256, configuration.getCairoConfiguration().getSqlFilterSampleSize());
+            Assert.assertEquals(65536, configuration.getCairoConfiguration().getSqlFilterSampleInterval());
             Assert.assertEquals(32, configuration.getCairoConfiguration().getSqlJoinContextPoolCapacity());
             Assert.assertEquals(1024, configuration.getCairoConfiguration().getSqlLexerPoolCapacity());
             Assert.assertEquals(1024, configuration.getCairoConfiguration().getSqlMapKeyCapacity());
@@ -516,6 +533,10 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(1026, configuration.getCairoConfiguration().getSqlMapMaxPages());
             Assert.assertEquals(128, configuration.getCairoConfiguration().getSqlMapMaxResizes());
             Assert.assertEquals(256, configuration.getCairoConfiguration().getSqlModelPoolCapacity());
+            Assert.assertEquals(32, configuration.getCairoConfiguration().getSqlSetSpillPartitionCount());
+            Assert.assertEquals(2 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSetSpillPageSize());
+            Assert.assertEquals(64 * 1024 * 1024, configuration.getCairoConfiguration().getSqlResultCacheSize());
+            Assert.assertEquals(4 * 1024 * 1024, configuration.getCairoConfiguration().getSqlResultCacheEntryMaxSize());
             Assert.assertEquals(10 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortKeyPageSize());
             Assert.assertEquals(256, configuration.getCairoConfiguration().getSqlSortKeyMaxPages());
             Assert.assertEquals(3 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortLightValuePageSize());
@@ -525,6 +546,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(10000, configuration.getCairoConfiguration().getSqlLatestByRowCount());
             Assert.assertEquals(2 * 1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinLightValuePageSize());
             Assert.assertEquals(1025, configuration.getCairoConfiguration().getSqlHashJoinLightValueMaxPages());
+            Assert.assertEquals(16, configuration.getCairoConfiguration().getSqlHashJoinPartitionCount());
             Assert.assertEquals(4 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortValuePageSize());
             Assert.assertEquals(1028, configuration.getCairoConfiguration().getSqlSortValueMaxPages());
             Assert.assertEquals(1000000, configuration.getCairoConfiguration().getWorkStealTimeoutNanos());
@@ -554,6 +576,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(4 * 1024 * 1024, configuration.getLineUdpReceiverConfiguration().getMsgBufferSize());
             Assert.assertEquals(4000, configuration.getLineUdpReceiverConfiguration().getMsgCount());
             Assert.assertEquals(512, configuration.getLineUdpReceiverConfiguration().getReceiveBufferSize());
+            Assert.assertEquals(4, configuration.getLineUdpReceiverConfiguration().getSocketCount());
             Assert.assertFalse(configuration.getLineUdpReceiverConfiguration().isEnabled());
             Assert.assertEquals(2, configuration.getLineUdpReceiverConfiguration().ownThreadAffinity());
             Assert.assertTrue(configuration.getLineUdpReceiverConfiguration().ownThread());
@@ -588,8 +611,13 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(100_000, configuration.getLineTcpReceiverConfiguration().getNUpdatesPerLoadRebalance());
             Assert.assertEquals(1.5, configuration.getLineTcpReceiverConfiguration().getMaxLoadRatio(), 0.001);
             Assert.assertEquals(1000, configuration.getLineTcpReceiverConfiguration().getMaintenanceInterval());
+            Assert.assertEquals(500, configuration.getLineTcpReceiverConfiguration().getMaintenanceCommitSlack());
             Assert.assertEquals(PartitionBy.MONTH, configuration.getLineTcpReceiverConfiguration().getDefaultPartitionBy());
             Assert.assertEquals(10_000, configuration.getLineTcpReceiverConfiguration().getAggressiveReadRetryCount());
+            Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().isAckEnabled());
+            Assert.assertEquals(50, configuration.getLineTcpReceiverConfiguration().getAckCommitInterval());
+            Assert.assertEquals(100000, configuration.getLineTcpReceiverConfiguration().getConnectionMaxRowsPerSecond());
+            Assert.assertEquals(500000, configuration.getLineTcpReceiverConfiguration().getTableMaxRowsPerSecond());
             Assert.assertEquals(5_000, configuration.getLineTcpReceiverConfiguration().getWriterIdleTimeout());
 
             Assert.assertTrue(configuration.getCairoConfiguration().getTelemetryConfiguration().getEnabled());
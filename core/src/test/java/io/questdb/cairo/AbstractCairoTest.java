@@ -36,6 +36,8 @@ import io.questdb.std.Misc;
 import io.questdb.std.Rnd;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
+import io.questdb.std.datetime.millitime.MillisecondClock;
+import io.questdb.std.datetime.millitime.MillisecondClockImpl;
 import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
 import org.jetbrains.annotations.Nullable;
@@ -58,6 +60,9 @@ public class AbstractCairoTest {
     protected static long currentMicros = -1;
     protected final static MicrosecondClock testMicrosClock =
             () -> currentMicros >= 0 ? currentMicros : MicrosecondClockImpl.INSTANCE.getTicks();
+    protected static long currentMillis = -1;
+    protected final static MillisecondClock testMillisClock =
+            () -> currentMillis >= 0 ? currentMillis : MillisecondClockImpl.INSTANCE.getTicks();
     protected static CairoEngine engine;
     protected static String inputRoot = null;
     protected static FilesFacade ff;
@@ -103,6 +108,11 @@ public class AbstractCairoTest {
                 return testMicrosClock;
             }
 
+            @Override
+            public MillisecondClock getMillisecondClock() {
+                return testMillisClock;
+            }
+
             @Override
             public CharSequence getInputRoot() {
                 return inputRoot;
@@ -165,6 +175,7 @@ public class AbstractCairoTest {
         configOverrideMaxUncommittedRows = -1;
         configOverrideCommitLag = -1;
         currentMicros = -1;
+        currentMillis = -1;
         sampleByIndexSearchPageSize = -1;
         defaultMapType = null;
     }
@@ -24,6 +24,9 @@
 
 package io.questdb.cairo;
 
+import io.questdb.MessageBus;
+import io.questdb.MessageBusImpl;
+import io.questdb.WorkerPoolAwareConfiguration;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.vm.Vm;
@@ -33,6 +36,7 @@ import io.questdb.cairo.vm.api.MemoryMAR;
 import io.questdb.griffin.model.IntervalUtils;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
 import io.questdb.std.*;
 import io.questdb.std.datetime.DateFormat;
 import io.questdb.std.datetime.DateLocale;
@@ -47,6 +51,9 @@ import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class TableWriterTest extends AbstractCairoTest {
@@ -2520,6 +2527,47 @@ public class TableWriterTest extends AbstractCairoTest {
         testRollback(N);
     }
 
+    @Test
+    public void testScheduleColumnSync() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            int N = 1000;
+            create(FF, PartitionBy.DAY, N);
+            AtomicInteger asyncSyncCount = new AtomicInteger();
+            FilesFacade ff = new FilesFacadeImpl() {
+                @Override
+                public int msync(long addr, long len, boolean async) {
+                    if (async) {
+                        asyncSyncCount.incrementAndGet();
+                    }
+                    return super.msync(addr, len, async);
+                }
+            };
+
+            try (TableWriter writer = new TableWriter(new DefaultCairoConfiguration(root) {
+                @Override
+                public FilesFacade getFilesFacade() {
+                    return ff;
+                }
+            }, PRODUCT)) {
+                // nothing to sync outside of transaction
+                writer.scheduleColumnSync();
+                Assert.assertEquals(0, asyncSyncCount.get());
+
+                populateProducts(writer, new Rnd(), TimestampFormatUtils.parseTimestamp("2013-03-04T00:00:00.000Z"), N, 60000L * 1000L);
+                writer.scheduleColumnSync();
+                Assert.assertTrue(asyncSyncCount.get() > 0);
+                Assert.assertTrue(writer.inTransaction());
+
+                writer.commit(CommitMode.SYNC);
+                Assert.assertEquals(N, writer.size());
+            }
+
+            try (TableReader reader = new TableReader(configuration, PRODUCT)) {
+                Assert.assertEquals(N, reader.size());
+            }
+        });
+    }
+
     @Test
     public void testSelectPartitionDirFmt() {
         Assert.assertNull(TableWriter.selectPartitionDirFmt(PartitionBy.NONE));
@@ -2580,6 +2628,79 @@ public class TableWriterTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testSyncCommitColumnsInParallel() throws Exception {
+        final int N = 10000;
+        create(FF, PartitionBy.DAY, 0);
+        final AtomicInteger syncCount = new AtomicInteger();
+        final Set<Thread> syncThreads = ConcurrentHashMap.newKeySet();
+        final Thread committingThread = Thread.currentThread();
+        final AtomicBoolean committing = new AtomicBoolean();
+        final FilesFacade ff = new FilesFacadeImpl() {
+            @Override
+            public int msync(long addr, long len, boolean async) {
+                syncCount.incrementAndGet();
+                syncThreads.add(Thread.currentThread());
+                if (committing.get() && Thread.currentThread() == committingThread) {
+                    // slow disk, gives workers time to pick up column syncs
+                    Os.sleep(5);
+                }
+                return super.msync(addr, len, async);
+            }
+        };
+        final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+            @Override
+            public FilesFacade getFilesFacade() {
+                return ff;
+            }
+        };
+        final WorkerPool pool = new WorkerPool(new WorkerPoolAwareConfiguration() {
+            @Override
+            public int[] getWorkerAffinity() {
+                return new int[]{-1, -1};
+            }
+
+            @Override
+            public int getWorkerCount() {
+                return 2;
+            }
+
+            @Override
+            public boolean haltOnError() {
+                return false;
+            }
+
+            @Override
+            public boolean isEnabled() {
+                return true;
+            }
+        });
+        final MessageBus messageBus = new MessageBusImpl(configuration);
+        pool.assignCleaner(Path.CLEANER);
+        pool.assign(new O3CallbackJob(messageBus));
+        pool.start(LOG);
+        try {
+            TestUtils.assertMemoryLeak(() -> {
+                try (TableWriter writer = new TableWriter(configuration, PRODUCT, messageBus)) {
+                    populateProducts(writer, new Rnd(), TimestampFormatUtils.parseTimestamp("2013-03-04T00:00:00.000Z"), N, 60000L * 1000L);
+                    syncCount.set(0);
+                    syncThreads.clear();
+                    committing.set(true);
+                    writer.commit(CommitMode.SYNC);
+                    committing.set(false);
+                    Assert.assertEquals(N, writer.size());
+                    // every column is synced, along with transaction and symbol files
+                    Assert.assertTrue(syncCount.get() >= writer.getMetadata().getColumnCount());
+                    // column syncs ran on worker threads as well as on the committing thread
+                    Assert.assertTrue(syncThreads.contains(committingThread));
+                    Assert.assertTrue(syncThreads.size() > 1);
+                }
+            });
+        } finally {
+            pool.halt();
+        }
+    }
+
     @Test
     public void testTableDoesNotExist() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
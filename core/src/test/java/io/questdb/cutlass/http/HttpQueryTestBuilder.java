@@ -193,8 +193,6 @@ public class HttpQueryTestBuilder {
                     }
                 });
 
-                QueryCache.configure(httpConfiguration);
-
                 workerPool.start(LOG);
 
                 try {
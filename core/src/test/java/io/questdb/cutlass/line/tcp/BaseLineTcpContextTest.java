@@ -24,6 +24,7 @@
 
 package io.questdb.cutlass.line.tcp;
 
+import io.questdb.Metrics;
 import io.questdb.cairo.AbstractCairoTest;
 import io.questdb.cairo.TableReader;
 import io.questdb.log.Log;
@@ -34,6 +35,8 @@ import io.questdb.network.*;
 import io.questdb.std.*;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
+import io.questdb.std.datetime.millitime.MillisecondClock;
+import io.questdb.std.datetime.millitime.MillisecondClockImpl;
 import io.questdb.std.str.FloatingDirectCharSink;
 import org.junit.Assert;
 import org.junit.Before;
@@ -91,11 +94,19 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
     protected WorkerPool workerPool;
     protected int nWriterThreads;
     protected long microSecondTicks;
+    protected long milliSecondTicks;
+    protected long idleConnectionTimeout;
+    protected int connectionMaxRowsPerSecond;
+    protected int tableMaxRowsPerSecond;
 
     @Before
     public void before() {
         nWriterThreads = 2;
         microSecondTicks = -1;
+        milliSecondTicks = -1;
+        idleConnectionTimeout = 0;
+        connectionMaxRowsPerSecond = 0;
+        tableMaxRowsPerSecond = 0;
         recvBuffer = null;
         disconnected = true;
         netMsgBufferSize.set(512);
@@ -182,6 +193,21 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
                 };
             }
 
+            @Override
+            public MillisecondClock getMillisecondClock() {
+                return () -> milliSecondTicks >= 0 ? milliSecondTicks : MillisecondClockImpl.INSTANCE.getTicks();
+            }
+
+            @Override
+            public IODispatcherConfiguration getNetDispatcherConfiguration() {
+                return new DefaultIODispatcherConfiguration() {
+                    @Override
+                    public long getIdleConnectionTimeout() {
+                        return idleConnectionTimeout;
+                    }
+                };
+            }
+
             @Override
             public String getAuthDbPath() {
                 if (withAuth) {
@@ -196,6 +222,16 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
             public long getWriterIdleTimeout() {
                 return 150;
             }
+
+            @Override
+            public int getConnectionMaxRowsPerSecond() {
+                return connectionMaxRowsPerSecond;
+            }
+
+            @Override
+            public int getTableMaxRowsPerSecond() {
+                return tableMaxRowsPerSecond;
+            }
         };
     }
 
@@ -254,7 +290,8 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
                 engine,
                 createWorkerPool(1, true),
                 null,
-                workerPool = createWorkerPool(nWriterThreads, false)) {
+                workerPool = createWorkerPool(nWriterThreads, false),
+                Metrics.disabled().lineTcp()) {
 
             @Override
             protected NetworkIOJob createNetworkIOJob(IODispatcher<LineTcpConnectionContext> dispatcher, int workerId) {
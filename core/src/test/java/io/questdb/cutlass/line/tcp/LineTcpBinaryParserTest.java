@@ -0,0 +1,267 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cutlass.line.tcp.LineTcpParser.ParseResult;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.test.tools.TestUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class LineTcpBinaryParserTest {
+    private static final int BUF_SIZE = 1024;
+    private final LineTcpBinaryParser parser = new LineTcpBinaryParser();
+    private long buf;
+    private long pos;
+
+    @Before
+    public void setUp() {
+        buf = Unsafe.malloc(BUF_SIZE, MemoryTag.NATIVE_DEFAULT);
+        pos = buf;
+    }
+
+    @After
+    public void tearDown() {
+        parser.close();
+        Unsafe.free(buf, BUF_SIZE, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    @Test
+    public void testColumnIdOutOfSequence() {
+        putTable(0, "t");
+        putColumn(0, 1, LineTcpParser.ENTITY_TYPE_INTEGER, "x");
+        assertError("column id is out of sequence");
+    }
+
+    @Test
+    public void testNonAsciiNames() {
+        putTable(0, "t");
+        putTable(1, "погода");
+        putColumn(0, 0, LineTcpParser.ENTITY_TYPE_INTEGER, "x");
+        putColumn(0, 1, LineTcpParser.ENTITY_TYPE_INTEGER, "поле");
+        putColumn(1, 0, LineTcpParser.ENTITY_TYPE_INTEGER, "x");
+        putRows(0, 1, 0);
+        putLong(1000);
+        putLong(1);
+        putRows(0, 1, 1);
+        putLong(2000);
+        putLong(2);
+        putRows(1, 1, 0);
+        putLong(3000);
+        putLong(3);
+
+        final long hi = pos;
+        parser.of(buf);
+        Assert.assertEquals(ParseResult.MEASUREMENT_COMPLETE, parser.parse(hi));
+        final LineTcpParser row = parser.getMeasurement();
+        Assert.assertFalse(row.hasNonAsciiChars());
+        parser.nextMeasurement();
+
+        // non-ASCII column name
+        Assert.assertEquals(ParseResult.MEASUREMENT_COMPLETE, parser.parse(hi));
+        Assert.assertEquals(2000, row.getTimestamp());
+        Assert.assertTrue(row.hasNonAsciiChars());
+        parser.nextMeasurement();
+
+        // non-ASCII table name
+        Assert.assertEquals(ParseResult.MEASUREMENT_COMPLETE, parser.parse(hi));
+        Assert.assertEquals(3000, row.getTimestamp());
+        Assert.assertTrue(row.hasNonAsciiChars());
+        parser.nextMeasurement();
+        Assert.assertEquals(ParseResult.BUFFER_UNDERFLOW, parser.parse(hi));
+    }
+
+    @Test
+    public void testRows() {
+        putTable(0, "weather");
+        putColumn(0, 0, LineTcpParser.ENTITY_TYPE_TAG, "city");
+        putColumn(0, 1, LineTcpParser.ENTITY_TYPE_FLOAT, "temp");
+        putColumn(0, 2, LineTcpParser.ENTITY_TYPE_BOOLEAN, "ok");
+        putColumn(0, 3, LineTcpParser.ENTITY_TYPE_STRING, "note");
+        putRows(0, 2, 0, 1, 2, 3);
+        putLong(1000);
+        putStr("london");
+        putDouble(12.5);
+        putByte(1);
+        putStr(null);
+        putLong(2000);
+        putStr("мюнхен");
+        putDouble(-3);
+        putByte(0);
+        putStr("ok");
+
+        // every prefix of the stream must underflow and resume without losing state
+        final long hi = pos;
+        parser.of(buf);
+        for (long p = buf; p < hi; p++) {
+            final ParseResult rc = parser.parse(p);
+            if (rc == ParseResult.MEASUREMENT_COMPLETE) {
+                parser.nextMeasurement();
+            } else {
+                Assert.assertEquals(ParseResult.BUFFER_UNDERFLOW, rc);
+            }
+        }
+        parser.clear();
+
+        parser.of(buf);
+        Assert.assertEquals(ParseResult.MEASUREMENT_COMPLETE, parser.parse(hi));
+        LineTcpParser row = parser.getMeasurement();
+        TestUtils.assertEquals("weather", row.getMeasurementName());
+        Assert.assertEquals(1000, row.getTimestamp());
+        Assert.assertEquals(4, row.getnEntities());
+        Assert.assertFalse(row.hasNonAsciiChars());
+        TestUtils.assertEquals("city", row.getEntity(0).getName());
+        Assert.assertEquals(LineTcpParser.ENTITY_TYPE_TAG, row.getEntity(0).getType());
+        TestUtils.assertEquals("london", row.getEntity(0).getValue());
+        Assert.assertEquals(12.5, row.getEntity(1).getFloatValue(), 0);
+        Assert.assertTrue(row.getEntity(2).getBooleanValue());
+        Assert.assertEquals(LineTcpParser.ENTITY_TYPE_NULL, row.getEntity(3).getType());
+
+        // not consumed until told so
+        Assert.assertEquals(ParseResult.MEASUREMENT_COMPLETE, parser.parse(hi));
+        Assert.assertEquals(1000, row.getTimestamp());
+        parser.nextMeasurement();
+
+        Assert.assertEquals(ParseResult.MEASUREMENT_COMPLETE, parser.parse(hi));
+        Assert.assertEquals(2000, row.getTimestamp());
+        Assert.assertTrue(row.hasNonAsciiChars());
+        Assert.assertEquals(-3, row.getEntity(1).getFloatValue(), 0);
+        Assert.assertFalse(row.getEntity(2).getBooleanValue());
+        Assert.assertEquals(LineTcpParser.ENTITY_TYPE_STRING, row.getEntity(3).getType());
+        TestUtils.assertEquals("ok", row.getEntity(3).getValue());
+        parser.nextMeasurement();
+
+        Assert.assertEquals(hi, parser.getBufferAddress());
+        Assert.assertEquals(ParseResult.BUFFER_UNDERFLOW, parser.parse(hi));
+    }
+
+    @Test
+    public void testRowsOfUndefinedColumn() {
+        putTable(0, "t");
+        putColumn(0, 0, LineTcpParser.ENTITY_TYPE_INTEGER, "x");
+        putRows(0, 1, 1);
+        assertError("rows of undefined column");
+    }
+
+    @Test
+    public void testRowsOfUndefinedTable() {
+        putRows(0, 1, 0);
+        assertError("rows of undefined table");
+    }
+
+    @Test
+    public void testUnknownFrame() {
+        putByte('X');
+        assertError("unknown frame type");
+    }
+
+    @Test
+    public void testUnsupportedColumnType() {
+        putTable(0, "t");
+        putColumn(0, 0, LineTcpParser.ENTITY_TYPE_LONG256, "x");
+        assertError("unsupported column type");
+    }
+
+    private void assertError(String error) {
+        parser.of(buf);
+        Assert.assertEquals(ParseResult.ERROR, parser.parse(pos));
+        Assert.assertEquals(error, parser.getError());
+    }
+
+    private void putByte(int b) {
+        Unsafe.getUnsafe().putByte(pos++, (byte) b);
+    }
+
+    private void putBytes(byte[] bytes) {
+        for (byte b : bytes) {
+            putByte(b);
+        }
+    }
+
+    private void putColumn(int tableId, int columnId, byte type, String name) {
+        putByte(LineTcpBinaryParser.FRAME_COLUMN);
+        putShort(tableId);
+        putShort(columnId);
+        putByte(type);
+        putName(name);
+    }
+
+    private void putDouble(double value) {
+        Unsafe.getUnsafe().putDouble(pos, value);
+        pos += Double.BYTES;
+    }
+
+    private void putInt(int value) {
+        Unsafe.getUnsafe().putInt(pos, value);
+        pos += Integer.BYTES;
+    }
+
+    private void putLong(long value) {
+        Unsafe.getUnsafe().putLong(pos, value);
+        pos += Long.BYTES;
+    }
+
+    private void putName(String name) {
+        final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        putShort(bytes.length);
+        putBytes(bytes);
+    }
+
+    private void putRows(int tableId, int rowCount, int... columnIds) {
+        putByte(LineTcpBinaryParser.FRAME_ROWS);
+        putShort(tableId);
+        putShort(columnIds.length);
+        putInt(rowCount);
+        for (int columnId : columnIds) {
+            putShort(columnId);
+        }
+    }
+
+    private void putShort(int value) {
+        Unsafe.getUnsafe().putShort(pos, (short) value);
+        pos += Short.BYTES;
+    }
+
+    private void putStr(String value) {
+        if (value == null) {
+            putInt(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        putBytes(bytes);
+    }
+
+    private void putTable(int tableId, String name) {
+        putByte(LineTcpBinaryParser.FRAME_TABLE);
+        putShort(tableId);
+        putName(name);
+    }
+}
@@ -32,6 +32,7 @@ import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.SqlExecutionContextImpl;
 import io.questdb.std.Chars;
 import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.Os;
 import io.questdb.std.str.LPSZ;
 import org.jetbrains.annotations.NotNull;
 import org.junit.Assert;
@@ -746,6 +747,40 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         testFragmentation("weat".length(), "weather1");
     }
 
+    @Test
+    public void testMaintenanceCommitsOnlyDueTables() throws Exception {
+        nWriterThreads = 1;
+        currentMillis = 1000;
+        runInContext(() -> {
+            recvBuffer = "due,location=us-midwest temperature=82 1465839830100400200\n";
+            handleContextIO();
+            currentMillis = 1100;
+            assertTableSizeEventually("due", 1);
+
+            // maintenance has just run, next run is at 1200
+            currentMillis = 1105;
+            recvBuffer = "slack,location=us-midwest temperature=83 1465839830100500200\n";
+            handleContextIO();
+            currentMillis = 1160;
+            recvBuffer = "due,location=us-eastcoast temperature=81 1465839830101400200\n" +
+                    "notDue,location=us-eastcoast temperature=89 1465839830102400200\n";
+            handleContextIO();
+            Assert.assertFalse(disconnected);
+
+            // "due" is due, "slack" is due within the slack and "notDue" is 60ms away
+            currentMillis = 1200;
+            assertTableSizeEventually("due", 2);
+            assertTableSizeEventually("slack", 1);
+            try (TableReader reader = new TableReader(configuration, "notDue")) {
+                Assert.assertEquals(0, reader.size());
+            }
+
+            closeContext();
+            assertTable("location\ttemperature\ttimestamp\n" +
+                    "us-eastcoast\t89.0\t2016-06-13T17:43:50.102400Z\n", "notDue");
+        });
+    }
+
     @Test
     public void testMaxSizes() throws Exception {
         String table = "maxSize";
@@ -906,6 +941,29 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         });
     }
 
+    @Test
+    public void testMultipleTablesBatched() throws Exception {
+        // runs of rows per table are longer than a single queue event fits
+        String table1 = "batched1";
+        String table2 = "batched2";
+        runInContext(() -> {
+            StringBuilder lines = new StringBuilder();
+            StringBuilder expected1 = new StringBuilder("location\ttemperature\ttimestamp\n");
+            StringBuilder expected2 = new StringBuilder("location\ttemperature\ttimestamp\n");
+            for (int i = 0; i < 60; i++) {
+                boolean first = (i / 15) % 2 == 0;
+                lines.append(first ? table1 : table2).append(",location=us-midwest temperature=").append(i).append(" 1465839830").append(100 + i).append("000000\n");
+                (first ? expected1 : expected2).append("us-midwest\t").append(i).append(".0\t2016-06-13T17:43:50.").append(100 + i).append("000Z\n");
+            }
+            recvBuffer = lines.toString();
+            handleContextIO();
+            Assert.assertFalse(disconnected);
+            closeContext();
+            assertTable(expected1.toString(), table1);
+            assertTable(expected2.toString(), table2);
+        });
+    }
+
     @Test
     public void testOverflow() throws Exception {
         runInContext(() -> {
@@ -946,6 +1004,48 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         });
     }
 
+    @Test
+    public void testIdle() throws Exception {
+        String table = "idle";
+        idleConnectionTimeout = 1000;
+        milliSecondTicks = 0;
+        runInContext(() -> {
+            milliSecondTicks = 1000;
+            Assert.assertFalse(context.isIdle());
+            milliSecondTicks = 1001;
+            Assert.assertTrue(context.isIdle());
+
+            // reading data resets idle time
+            recvBuffer = table + ",location=us-midwest temperature=82 1465839830100400200\n";
+            handleContextIO();
+            Assert.assertFalse(disconnected);
+            Assert.assertFalse(context.isIdle());
+            closeContext();
+        });
+    }
+
+    @Test
+    public void testIdleTimeoutDisabled() throws Exception {
+        milliSecondTicks = 0;
+        runInContext(() -> {
+            milliSecondTicks = Long.MAX_VALUE / 2;
+            Assert.assertFalse(context.isIdle());
+            closeContext();
+        });
+    }
+
+    @Test
+    public void testRateLimitedConnection() throws Exception {
+        connectionMaxRowsPerSecond = 5;
+        assertRateLimited("rateLimitedConnection");
+    }
+
+    @Test
+    public void testRateLimitedTable() throws Exception {
+        tableMaxRowsPerSecond = 5;
+        assertRateLimited("rateLimitedTable");
+    }
+
     @Test
     public void testSingleMeasurement() throws Exception {
         String table = "singleMeasurement";
@@ -1133,6 +1233,30 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         }
     }
 
+    private void assertRateLimited(String table) throws Exception {
+        runInContext(() -> {
+            StringBuilder lines = new StringBuilder();
+            StringBuilder expected = new StringBuilder("location\ttemperature\ttimestamp\n");
+            for (int i = 0; i < 12; i++) {
+                lines.append(table).append(",location=us-midwest temperature=").append(i).append(" 1465839830").append(100 + i).append("000000\n");
+                expected.append("us-midwest\t").append(i).append(".0\t2016-06-13T17:43:50.").append(100 + i).append("000Z\n");
+            }
+            recvBuffer = lines.toString();
+            // connection stops once the rows allowed in the current second are used up
+            Assert.assertTrue(handleContextIO());
+            Assert.assertFalse(disconnected);
+
+            final long deadline = System.currentTimeMillis() + 10_000;
+            while (handleContextIO()) {
+                Assert.assertTrue(System.currentTimeMillis() < deadline);
+                Os.sleep(10);
+            }
+            Assert.assertFalse(disconnected);
+            closeContext();
+            assertTable(expected.toString(), table);
+        });
+    }
+
     private void assertTableCount(CharSequence tableName, int nExpectedRows, long maxExpectedTimestampNanos) {
         try (TableReader reader = new TableReader(configuration, tableName)) {
             Assert.assertEquals(maxExpectedTimestampNanos / 1000, reader.getMaxTimestamp());
@@ -1150,6 +1274,16 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         }
     }
 
+    private void assertTableSizeEventually(CharSequence tableName, long expectedSize) {
+        try (TableReader reader = new TableReader(configuration, tableName)) {
+            for (int i = 0; i < 1000 && reader.size() < expectedSize; i++) {
+                Os.sleep(10);
+                reader.reload();
+            }
+            Assert.assertEquals(expectedSize, reader.size());
+        }
+    }
+
     @NotNull
     private String makeMessages(String table) {
         return table + ",location=us-midwest temperature=82 1465839830100400200\n" +
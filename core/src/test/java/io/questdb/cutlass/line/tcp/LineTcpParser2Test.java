@@ -168,6 +168,35 @@ public class LineTcpParser2Test extends LineUdpLexerTest {
         );
     }
 
+    @Test
+    public void testLongValues() {
+        // values longer than a machine word, delimiters and non-ascii bytes at every lane offset
+        assertThat(
+                "measurement_with_long_name,long_tag_name=long_tag_value_0123456789 long_field_name=\"long string, with = and spaces 0123456789\",other_field=1234567890123i 1465839830100400200\n" +
+                        "значение_таблицы,tag=ascii_tag_value_0123456789 field=\"ascii string value 0123456789\" 1465839830100400200--non ascii--\n" +
+                        "measurement_with_long_name,tag=tag_value_0123456789ж field=1i 1465839830100400200--non ascii--\n" +
+                        "measurement_with_long_name,tag=tag_value_0123456789 field=\"string value 0123456789_ж\" 1465839830100400200--non ascii--\n" +
+                        "measurement_with_long_name,tag=tag_value_0123456789 field=1i 1465839830100400200\n",
+                "measurement_with_long_name,long_tag_name=long_tag_value_0123456789 long_field_name=\"long string, with = and spaces 0123456789\",other_field=1234567890123i 1465839830100400200\n" +
+                        "значение_таблицы,tag=ascii_tag_value_0123456789 field=\"ascii string value 0123456789\" 1465839830100400200\n" +
+                        "measurement_with_long_name,tag=tag_value_0123456789ж field=1i 1465839830100400200\n" +
+                        "measurement_with_long_name,tag=tag_value_0123456789 field=\"string value 0123456789_ж\" 1465839830100400200\n" +
+                        "measurement_with_long_name,tag=tag_value_0123456789 field=1i 1465839830100400200\n"
+        );
+
+        assertThat(
+                "measurement_with_long_name,tag=long tag value with spaces field=\"long string value \"quoted\" 0123456789\" 1465839830100400200\n",
+                "measurement_with_long_name,tag=long\\ tag\\ value\\ with\\ spaces field=\"long string value \\\"quoted\\\" 0123456789\" 1465839830100400200\n"
+        );
+
+        assertThat(
+                "measurement_with_long_name,tag=value_0123456789 field=1i\n" +
+                        "measurement_with_long_name,tag=value field=value_0123456789\n",
+                "measurement_with_long_name,tag=value_0123456789 field=1i\r\n" +
+                        "measurement_with_long_name,tag=value field=value_0123456789\r"
+        );
+    }
+
     @Test
     public void testSupportsUtf8Chars() {
         assertThat(
@@ -29,10 +29,13 @@ import io.questdb.cairo.pool.PoolListener;
 import io.questdb.cairo.pool.ex.EntryLockedException;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.sql.ReaderOutOfDateException;
+import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cutlass.line.AbstractLineSender;
 import io.questdb.cutlass.line.AuthenticatedLineTcpSender;
+import io.questdb.cutlass.line.LineTcpAsyncSender;
+import io.questdb.cutlass.line.LineTcpBinarySender;
 import io.questdb.cutlass.line.LineTcpSender;
 import io.questdb.griffin.CompiledQuery;
 import io.questdb.griffin.SqlCompiler;
@@ -49,6 +52,7 @@ import io.questdb.network.DefaultIODispatcherConfiguration;
 import io.questdb.network.IODispatcherConfiguration;
 import io.questdb.network.Net;
 import io.questdb.network.NetworkError;
+import io.questdb.network.NetworkFacadeImpl;
 import io.questdb.std.*;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.datetime.microtime.TimestampFormatUtils;
@@ -108,6 +112,7 @@ public class LineTcpReceiverTest extends AbstractCairoTest {
     private int msgBufferSize = 1024;
     private long minIdleMsBeforeWriterRelease = 30000;
     private int aggressiveReadRetryCount = 0;
+    private boolean ackEnabled = false;
     private final LineTcpReceiverConfiguration lineConfiguration = new DefaultLineTcpReceiverConfiguration() {
         @Override
         public IODispatcherConfiguration getNetDispatcherConfiguration() {
@@ -169,6 +174,16 @@ public class LineTcpReceiverTest extends AbstractCairoTest {
         public int getAggressiveReadRetryCount() {
             return aggressiveReadRetryCount;
         }
+
+        @Override
+        public boolean isAckEnabled() {
+            return ackEnabled;
+        }
+
+        @Override
+        public long getAckCommitInterval() {
+            return 10;
+        }
     };
 
     private Path path;
@@ -176,6 +191,120 @@ public class LineTcpReceiverTest extends AbstractCairoTest {
     @After
     public void cleanup() {
         maxMeasurementSize = 50;
+        ackEnabled = false;
+    }
+
+    @Test
+    public void testAckWithTcpSender() throws Exception {
+        ackEnabled = true;
+        runInContext((receiver) -> {
+            try (LineTcpSender sender = new LineTcpSender(Net.parseIPv4("127.0.0.1"), bindPort, msgBufferSize)) {
+                for (int i = 0; i < 100; i++) {
+                    sender.metric("ack").tag("tag", i % 2 == 0 ? "a" : "b").field("value", i).$(i * 1000L);
+                }
+                // rejected line is acknowledged as well, it is not going to be written
+                sender.put("ack value=\"not a number\"");
+                sender.$();
+                Assert.assertTrue(sender.flushAndWait(10_000));
+                assertRowCount(100);
+
+                for (int i = 100; i < 150; i++) {
+                    sender.metric("ack").tag("tag", "c").field("value", i).$(i * 1000L);
+                }
+                Assert.assertTrue(sender.flushAndWait(10_000));
+                assertRowCount(150);
+            }
+        });
+    }
+
+    @Test
+    public void testAsyncSender() throws Exception {
+        ackEnabled = true;
+        runInContext((receiver) -> {
+            try (LineTcpAsyncSender sender = new LineTcpAsyncSender(NetworkFacadeImpl.INSTANCE, Net.parseIPv4("127.0.0.1"), bindPort, 256, 4, 2, true, 10_000)) {
+                for (int i = 0; i < 500; i++) {
+                    sender.metric("ack")
+                            .tag("tag", i % 2 == 0 ? "a" : "b")
+                            .field("value", i)
+                            .field("double", i / 2.0)
+                            .field("bool", i % 3 == 0)
+                            .timestampField("ts", i * Timestamps.SECOND_MICROS)
+                            .$(i * 1000L);
+                }
+                Assert.assertTrue(sender.flushAndWait(10_000));
+                assertRowCount(500);
+            }
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "ack")) {
+                final TableReaderMetadata metadata = reader.getMetadata();
+                Assert.assertEquals(ColumnType.TIMESTAMP, metadata.getColumnType(metadata.getColumnIndex("ts")));
+            }
+        });
+    }
+
+    @Test
+    public void testAsyncSenderCloseStopsReconnect() throws Exception {
+        ackEnabled = true;
+        runInContext((receiver) -> {
+            final NetworkFacadeImpl nf = new NetworkFacadeImpl() {
+                private volatile boolean down;
+
+                @Override
+                public long connect(long fd, long sockaddr) {
+                    return down ? -1 : super.connect(fd, sockaddr);
+                }
+
+                @Override
+                public int send(long fd, long buffer, int bufferLen) {
+                    down = true;
+                    return Net.EOTHERDISCONNECT;
+                }
+            };
+            final long start = System.currentTimeMillis();
+            try (LineTcpAsyncSender sender = new LineTcpAsyncSender(nf, Net.parseIPv4("127.0.0.1"), bindPort, 256, 4, 1, true, 60_000)) {
+                sender.metric("ack").tag("tag", "a").field("value", 1).$(1000L);
+                sender.flush();
+                Assert.assertFalse(sender.flushAndWait(100));
+            }
+            // send thread would retry for a minute
+            Assert.assertTrue(System.currentTimeMillis() - start < 30_000);
+        });
+    }
+
+    @Test
+    public void testAsyncSenderReconnect() throws Exception {
+        ackEnabled = true;
+        runInContext((receiver) -> {
+            final NetworkFacadeImpl nf = new NetworkFacadeImpl() {
+                private int bufferSends;
+
+                @Override
+                public int send(long fd, long buffer, int bufferLen) {
+                    // drop connection instead of sending the fifth buffer
+                    if (++bufferSends == 5) {
+                        return Net.EOTHERDISCONNECT;
+                    }
+                    return super.send(fd, buffer, bufferLen);
+                }
+            };
+            try (LineTcpAsyncSender sender = new LineTcpAsyncSender(nf, Net.parseIPv4("127.0.0.1"), bindPort, 256, 4, 2, true, 10_000)) {
+                for (int i = 0; i < 500; i++) {
+                    sender.metric("ack").tag("tag", "a").field("value", i).$(i * 1000L);
+                }
+                Assert.assertTrue(sender.flushAndWait(10_000));
+            }
+            // unacknowledged lines are replayed, some of them can be committed twice
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "ack")) {
+                final int columnIndex = reader.getMetadata().getColumnIndex("value");
+                final LongHashSet values = new LongHashSet();
+                final RecordCursor cursor = reader.getCursor();
+                final Record record = cursor.getRecord();
+                while (cursor.hasNext()) {
+                    values.add(record.getLong(columnIndex));
+                }
+                Assert.assertEquals(500, values.size());
+                Assert.assertTrue(reader.size() >= 500);
+            }
+        });
     }
 
     @Test
@@ -809,6 +938,63 @@ public class LineTcpReceiverTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testWithBinaryTcpSender() throws Exception {
+        runInContext((receiver) -> {
+            send(receiver, "table", WAIT_ENGINE_TABLE_RELEASE, () -> {
+                try (LineTcpBinarySender sender = new LineTcpBinarySender(Net.parseIPv4("127.0.0.1"), bindPort, msgBufferSize)) {
+                    sender.metric("other").field("x", 1L).$(0);
+                    for (int i = 0; i < 40; i++) {
+                        sender.metric("table")
+                                .tag("tag1", i % 2 == 0 ? "value 1" : "значение 2")
+                                .field("long", i)
+                                .field("double", i / 2.0)
+                                .field("bool", i % 3 == 0)
+                                .field("str", i % 4 == 1 ? null : "строка " + i);
+                        if (i >= 38) {
+                            sender.field("added", "late");
+                        }
+                        sender.$(i * Timestamps.SECOND_MICROS * 1000L);
+                    }
+                    sender.metric("table").field("long", -1L).$(40 * Timestamps.SECOND_MICROS * 1000L);
+                    sender.flush();
+                }
+            });
+
+            StringSink expected = new StringSink();
+            expected.put("tag1\tlong\tdouble\tbool\tstr\ttimestamp\tadded\n");
+            for (int i = 0; i < 40; i++) {
+                expected.put(i % 2 == 0 ? "value 1" : "значение 2").put('\t')
+                        .put(i).put('\t')
+                        .put(i / 2.0).put('\t')
+                        .put(i % 3 == 0).put('\t')
+                        .put(i % 4 == 1 ? "" : "строка " + i).put('\t');
+                TimestampFormatUtils.appendDateTimeUSec(expected, i * Timestamps.SECOND_MICROS);
+                expected.put('\t').put(i >= 38 ? "late" : "").put('\n');
+            }
+            expected.put("\t-1\tNaN\tfalse\t\t1970-01-01T00:00:40.000000Z\t\n");
+            assertTable(expected, "table");
+        });
+    }
+
+    @Test
+    public void testWithBinaryTcpSenderNonAsciiColumnNames() throws Exception {
+        runInContext((receiver) -> {
+            send(receiver, "table", WAIT_ENGINE_TABLE_RELEASE, () -> {
+                try (LineTcpBinarySender sender = new LineTcpBinarySender(Net.parseIPv4("127.0.0.1"), bindPort, msgBufferSize)) {
+                    sender.metric("table").tag("тег", "значение").field("поле", 1L).$(0);
+                    sender.metric("table").tag("тег", "value").field("поле", 2L).$(Timestamps.SECOND_MICROS * 1000L);
+                    sender.flush();
+                }
+            });
+
+            String expected = "тег\tполе\ttimestamp\n" +
+                    "значение\t1\t1970-01-01T00:00:00.000000Z\n" +
+                    "value\t2\t1970-01-01T00:00:01.000000Z\n";
+            assertTable(expected, "table");
+        });
+    }
+
     @Test
     public void testStringsWithTcpSenderWithNewLineChars() throws Exception {
         runInContext((receiver) -> {
@@ -1049,6 +1235,12 @@ public class LineTcpReceiverTest extends AbstractCairoTest {
         }
     }
 
+    private void assertRowCount(long expected) {
+        try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "ack")) {
+            Assert.assertEquals(expected, reader.size());
+        }
+    }
+
     private void assertTable(CharSequence expected, CharSequence tableName) {
         try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, tableName)) {
             assertCursorTwoPass(expected, reader.getCursor(), reader.getMetadata());
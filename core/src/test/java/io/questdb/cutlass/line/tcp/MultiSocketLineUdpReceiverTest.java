@@ -0,0 +1,185 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cutlass.line.LineUdpSender;
+import io.questdb.cutlass.line.udp.DefaultLineUdpReceiverConfiguration;
+import io.questdb.cutlass.line.udp.LineUdpReceiverConfiguration;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.mp.WorkerPoolConfiguration;
+import io.questdb.network.Net;
+import io.questdb.network.NetworkFacade;
+import io.questdb.network.NetworkFacadeImpl;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.ObjList;
+import io.questdb.std.Os;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class MultiSocketLineUdpReceiverTest extends AbstractCairoTest {
+    private final static Log LOG = LogFactory.getLog(MultiSocketLineUdpReceiverTest.class);
+    private static final int PORT = 9017;
+    private static final int SOCKET_COUNT = 3;
+    private final WorkerPool ioWorkerPool = new WorkerPool(new TestWorkerPoolConfiguration(SOCKET_COUNT));
+    private final WorkerPool writerWorkerPool = new WorkerPool(new TestWorkerPoolConfiguration(2));
+    private final LineUdpReceiverConfiguration udpConfiguration = new DefaultLineUdpReceiverConfiguration() {
+        @Override
+        public int getPort() {
+            return PORT;
+        }
+
+        @Override
+        public int getSocketCount() {
+            return SOCKET_COUNT;
+        }
+
+        @Override
+        public boolean isUnicast() {
+            return true;
+        }
+    };
+    private final LineTcpReceiverConfiguration lineConfiguration = new DefaultLineTcpReceiverConfiguration() {
+        @Override
+        public long getMaintenanceInterval() {
+            return 25;
+        }
+    };
+
+    @Test
+    public void testReceiveOnSockets() throws Exception {
+        assertMemoryLeak(() -> {
+            try (TableModel model = new TableModel(configuration, "tab", PartitionBy.NONE)
+                    .col("colour", ColumnType.SYMBOL)
+                    .col("shape", ColumnType.SYMBOL)
+                    .col("size", ColumnType.DOUBLE)
+                    .timestamp()) {
+                CairoTestUtils.create(model);
+            }
+
+            try (MultiSocketLineUdpReceiver ignored = new MultiSocketLineUdpReceiver(
+                    udpConfiguration,
+                    lineConfiguration,
+                    engine,
+                    ioWorkerPool,
+                    writerWorkerPool,
+                    new ObjList<>()
+            )) {
+                ioWorkerPool.assignCleaner(Path.CLEANER);
+                writerWorkerPool.assignCleaner(Path.CLEANER);
+                ioWorkerPool.start(LOG);
+                writerWorkerPool.start(LOG);
+                try {
+                    // each sender has its own source port, kernel spreads them across sockets
+                    for (int s = 0; s < 4; s++) {
+                        try (LineUdpSender sender = new LineUdpSender(NetworkFacadeImpl.INSTANCE, 0, Net.parseIPv4("127.0.0.1"), PORT, 1400, 1)) {
+                            for (int i = 0; i < 10; i++) {
+                                sender.metric("tab").tag("colour", "blue").tag("shape", "x square").field("size", 3.4).$(100000000000L);
+                            }
+                            sender.flush();
+                        }
+                    }
+                    // malformed line is skipped, last line of datagram does not have to be terminated
+                    sendDatagram("tab,colour=blue shape\ntab,colour=blue,shape=x\\ square size=3.4 100000000000");
+                    assertRowCount(41);
+                } finally {
+                    ioWorkerPool.halt();
+                    writerWorkerPool.halt();
+                }
+            }
+
+            final StringBuilder expected = new StringBuilder("colour\tshape\tsize\ttimestamp\n");
+            for (int i = 0; i < 41; i++) {
+                expected.append("blue\tx square\t3.4000000000000004\t1970-01-01T00:01:40.000000Z\n");
+            }
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "tab")) {
+                TestUtils.assertReader(expected, reader, sink);
+            }
+        });
+    }
+
+    private void assertRowCount(int expected) {
+        final long deadline = System.currentTimeMillis() + 30_000;
+        try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "tab")) {
+            while (reader.size() < expected && System.currentTimeMillis() < deadline) {
+                Os.sleep(10);
+                reader.reload();
+            }
+            Assert.assertEquals(expected, reader.size());
+        }
+    }
+
+    private void sendDatagram(String lines) {
+        final NetworkFacade nf = NetworkFacadeImpl.INSTANCE;
+        final byte[] bytes = lines.getBytes(StandardCharsets.UTF_8);
+        final long buf = Unsafe.malloc(bytes.length, MemoryTag.NATIVE_DEFAULT);
+        final long fd = nf.socketUdp();
+        final long sockaddr = nf.sockaddr(Net.parseIPv4("127.0.0.1"), PORT);
+        try {
+            for (int i = 0; i < bytes.length; i++) {
+                Unsafe.getUnsafe().putByte(buf + i, bytes[i]);
+            }
+            Assert.assertEquals(bytes.length, nf.sendTo(fd, buf, bytes.length, sockaddr));
+        } finally {
+            nf.freeSockAddr(sockaddr);
+            nf.close(fd);
+            Unsafe.free(buf, bytes.length, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    private static class TestWorkerPoolConfiguration implements WorkerPoolConfiguration {
+        private final int[] affinity;
+
+        private TestWorkerPoolConfiguration(int workerCount) {
+            affinity = new int[workerCount];
+            Arrays.fill(affinity, -1);
+        }
+
+        @Override
+        public int[] getWorkerAffinity() {
+            return affinity;
+        }
+
+        @Override
+        public int getWorkerCount() {
+            return affinity.length;
+        }
+
+        @Override
+        public boolean haltOnError() {
+            return true;
+        }
+    }
+}
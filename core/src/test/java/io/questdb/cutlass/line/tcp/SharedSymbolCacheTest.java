@@ -0,0 +1,129 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SharedSymbolCacheTest {
+    private static final int VALUE_SIZE = 16;
+
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        final int nValues = 20_000;
+        final int nReaders = 3;
+        TestUtils.assertMemoryLeak(() -> {
+            final long values = createValues(nValues);
+            try (SharedSymbolCache cache = new SharedSymbolCache()) {
+                final CyclicBarrier barrier = new CyclicBarrier(nReaders + 1);
+                final AtomicInteger errors = new AtomicInteger();
+                final AtomicReference<Throwable> error = new AtomicReference<>();
+                final Thread[] readers = new Thread[nReaders];
+                for (int t = 0; t < nReaders; t++) {
+                    readers[t] = new Thread(() -> {
+                        try {
+                            barrier.await();
+                            for (int i = 0; i < nValues; i++) {
+                                // value is either not cached yet or it has the right key, while the cache
+                                // is being rehashed underneath
+                                final int key = cache.get(values + (long) i * VALUE_SIZE, values + (long) (i + 1) * VALUE_SIZE);
+                                if (key != SymbolTable.VALUE_NOT_FOUND && key != i) {
+                                    errors.incrementAndGet();
+                                }
+                            }
+                        } catch (Throwable e) {
+                            error.compareAndSet(null, e);
+                        }
+                    });
+                    readers[t].start();
+                }
+
+                barrier.await();
+                for (int i = 0; i < nValues; i++) {
+                    cache.put(values + (long) i * VALUE_SIZE, values + (long) (i + 1) * VALUE_SIZE, i);
+                }
+                for (int t = 0; t < nReaders; t++) {
+                    readers[t].join();
+                }
+
+                Assert.assertNull(error.get());
+                Assert.assertEquals(0, errors.get());
+                Assert.assertEquals(nValues, cache.size());
+                for (int i = 0; i < nValues; i++) {
+                    Assert.assertEquals(i, cache.get(values + (long) i * VALUE_SIZE, values + (long) (i + 1) * VALUE_SIZE));
+                }
+            } finally {
+                Unsafe.free(values, (long) nValues * VALUE_SIZE, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
+    @Test
+    public void testPutAndGet() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final long values = createValues(2);
+            try (SharedSymbolCache cache = new SharedSymbolCache()) {
+                final long hi = values + VALUE_SIZE;
+                Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, cache.get(values, hi));
+                cache.put(values, hi, 42);
+                Assert.assertEquals(42, cache.get(values, hi));
+                // value is cached once
+                cache.put(values, hi, 43);
+                Assert.assertEquals(42, cache.get(values, hi));
+                Assert.assertEquals(1, cache.size());
+
+                // prefix and empty values are different values
+                Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, cache.get(values, hi - 1));
+                Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, cache.get(values, values));
+                cache.put(values, values, 7);
+                Assert.assertEquals(7, cache.get(values, values));
+                Assert.assertEquals(42, cache.get(values, hi));
+                Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, cache.get(hi, hi + VALUE_SIZE));
+            } finally {
+                Unsafe.free(values, 2 * VALUE_SIZE, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
+    private static long createValues(int count) {
+        final long values = Unsafe.malloc((long) count * VALUE_SIZE, MemoryTag.NATIVE_DEFAULT);
+        for (int i = 0; i < count; i++) {
+            final long p = values + (long) i * VALUE_SIZE;
+            for (int j = 0; j < VALUE_SIZE; j++) {
+                Unsafe.getUnsafe().putByte(p + j, (byte) ('a' + ((i >>> ((j % 4) * 4)) & 0xf) + j % 3));
+            }
+        }
+        return values;
+    }
+}
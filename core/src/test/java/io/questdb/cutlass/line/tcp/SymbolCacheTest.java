@@ -33,16 +33,15 @@ import io.questdb.mp.RingQueue;
 import io.questdb.mp.SCSequence;
 import io.questdb.mp.SOCountDownLatch;
 import io.questdb.mp.SPSequence;
-import io.questdb.std.Chars;
-import io.questdb.std.MemoryTag;
-import io.questdb.std.Mutable;
-import io.questdb.std.Rnd;
+import io.questdb.std.*;
 import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.str.DirectByteCharSequence;
 import io.questdb.std.str.Path;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -83,8 +82,8 @@ public class SymbolCacheTest extends AbstractGriffinTest {
                             // we pretend we don't know this upfront. The aim is to cause
                             // race condition between lookup and table writer
                             final CharSequence value2 = rndCache.nextString(5);
-                            symbolCache.getSymbolKey(constValue);
-                            symbolCache.getSymbolKey(value2);
+                            getSymbolKey(symbolCache, constValue);
+                            getSymbolKey(symbolCache, value2);
                             final long cursor = pubSeq.nextBully();
                             final Holder h = wheel.get(cursor);
                             // publish the value2 to the table writer
@@ -191,10 +190,10 @@ public class SymbolCacheTest extends AbstractGriffinTest {
                     writer.commit();
                     Assert.assertEquals(1, txMem.getInt(symCountOffset));
                     Assert.assertEquals(1, txMem.getInt(transientSymCountOffset));
-                    int rc = cache.getSymbolKey("missing");
+                    int rc = getSymbolKey(cache, "missing");
                     Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, rc);
                     Assert.assertEquals(0, cache.getCacheValueCount());
-                    rc = cache.getSymbolKey("sym21");
+                    rc = getSymbolKey(cache, "sym21");
                     Assert.assertEquals(0, rc);
                     Assert.assertEquals(1, cache.getCacheValueCount());
 
@@ -205,10 +204,10 @@ public class SymbolCacheTest extends AbstractGriffinTest {
                     writer.commit();
                     Assert.assertEquals(1, txMem.getInt(symCountOffset));
                     Assert.assertEquals(1, txMem.getInt(transientSymCountOffset));
-                    rc = cache.getSymbolKey("missing");
+                    rc = getSymbolKey(cache, "missing");
                     Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, rc);
                     Assert.assertEquals(1, cache.getCacheValueCount());
-                    rc = cache.getSymbolKey("sym21");
+                    rc = getSymbolKey(cache, "sym21");
                     Assert.assertEquals(0, rc);
                     Assert.assertEquals(1, cache.getCacheValueCount());
 
@@ -221,10 +220,10 @@ public class SymbolCacheTest extends AbstractGriffinTest {
                     writer.commit();
                     Assert.assertEquals(2, txMem.getInt(symCountOffset));
                     Assert.assertEquals(2, txMem.getInt(transientSymCountOffset));
-                    rc = cache.getSymbolKey("sym21");
+                    rc = getSymbolKey(cache, "sym21");
                     Assert.assertEquals(0, rc);
                     Assert.assertEquals(1, cache.getCacheValueCount());
-                    rc = cache.getSymbolKey("sym22");
+                    rc = getSymbolKey(cache, "sym22");
                     Assert.assertEquals(1, rc);
                     Assert.assertEquals(2, cache.getCacheValueCount());
 
@@ -241,10 +240,10 @@ public class SymbolCacheTest extends AbstractGriffinTest {
                     r.append();
                     Assert.assertEquals(2, txMem.getInt(symCountOffset));
                     Assert.assertEquals(5, txMem.getInt(transientSymCountOffset));
-                    rc = cache.getSymbolKey("sym22");
+                    rc = getSymbolKey(cache, "sym22");
                     Assert.assertEquals(1, rc);
                     Assert.assertEquals(2, cache.getCacheValueCount());
-                    rc = cache.getSymbolKey("sym24");
+                    rc = getSymbolKey(cache, "sym24");
                     Assert.assertEquals(3, rc);
                     Assert.assertEquals(3, cache.getCacheValueCount());
                     writer.commit();
@@ -277,7 +276,7 @@ public class SymbolCacheTest extends AbstractGriffinTest {
 
                     Assert.assertEquals(5, txMem.getInt(symCountOffset));
                     Assert.assertEquals(5, txMem.getInt(transientSymCountOffset));
-                    rc = cache.getSymbolKey("sym24");
+                    rc = getSymbolKey(cache, "sym24");
                     Assert.assertEquals(3, rc);
                     Assert.assertEquals(1, cache.getCacheValueCount());
 
@@ -286,13 +285,13 @@ public class SymbolCacheTest extends AbstractGriffinTest {
                     r.append();
                     Assert.assertEquals(5, txMem.getInt(symCountOffset));
                     Assert.assertEquals(6, txMem.getInt(transientSymCountOffset));
-                    rc = cache.getSymbolKey("sym26");
+                    rc = getSymbolKey(cache, "sym26");
                     Assert.assertEquals(5, rc);
                     Assert.assertEquals(2, cache.getCacheValueCount());
                     writer.commit();
                     Assert.assertEquals(6, txMem.getInt(symCountOffset));
                     Assert.assertEquals(6, txMem.getInt(transientSymCountOffset));
-                    rc = cache.getSymbolKey("sym26");
+                    rc = getSymbolKey(cache, "sym26");
                     Assert.assertEquals(5, rc);
                     Assert.assertEquals(2, cache.getCacheValueCount());
                 }
@@ -300,6 +299,19 @@ public class SymbolCacheTest extends AbstractGriffinTest {
         });
     }
 
+    private static int getSymbolKey(SymbolCache cache, CharSequence value) {
+        final byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        final long mem = Unsafe.malloc(bytes.length, MemoryTag.NATIVE_DEFAULT);
+        try {
+            for (int i = 0; i < bytes.length; i++) {
+                Unsafe.getUnsafe().putByte(mem + i, bytes[i]);
+            }
+            return cache.getSymbolKey(new DirectByteCharSequence().of(mem, mem + bytes.length), value);
+        } finally {
+            Unsafe.free(mem, bytes.length, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
     private static class Holder implements Mutable {
         String value1;
         String value2;
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableStatistics;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.griffin.model.QueryModel;
+import io.questdb.std.IntList;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AnalyzeTableTest extends AbstractGriffinTest {
+
+    @Test
+    public void testAnalyzeCollectsStatistics() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x as (" +
+                            "select" +
+                            " rnd_int(0, 99, 4) i," +
+                            " rnd_symbol(5, 4, 4, 2) sym," +
+                            " x l," +
+                            " rnd_double(3) d," +
+                            " concat('k', rnd_int(0, 49, 0)) s," +
+                            " rnd_geohash(20) g," +
+                            " timestamp_sequence(0, 60000000) ts" +
+                            " from long_sequence(10000)" +
+                            ") timestamp(ts) partition by DAY",
+                    sqlExecutionContext
+            );
+
+            Assert.assertNull(engine.getTableStatistics("x", -1));
+            Assert.assertEquals(CompiledQuery.ANALYZE, compiler.compile("analyze table x", sqlExecutionContext).getType());
+
+            final TableStatistics statistics = engine.getTableStatistics("x", -1);
+            Assert.assertNotNull(statistics);
+            Assert.assertEquals(10000, statistics.getRowCount());
+            Assert.assertEquals(7, statistics.getPartitionCount());
+
+            long rowCount = 0;
+            for (int i = 0, n = statistics.getPartitionCount(); i < n; i++) {
+                rowCount += statistics.getPartitionRowCount(i);
+            }
+            Assert.assertEquals(10000, rowCount);
+
+            assertDistinctCount(100, statistics.getDistinctCount("i"));
+            Assert.assertEquals(5, statistics.getDistinctCount("SYM"));
+            assertDistinctCount(10000, statistics.getDistinctCount("l"));
+            assertDistinctCount(50, statistics.getDistinctCount("s"));
+            assertDistinctCount(10000, statistics.getDistinctCount("ts"));
+            Assert.assertEquals(TableStatistics.UNKNOWN, statistics.getDistinctCount("unknown"));
+
+            assertNullCount(statistics, "i", "select count() from x where i = null");
+            assertNullCount(statistics, "sym", "select count() from x where sym = null");
+            assertNullCount(statistics, "d", "select count() from x where d = null");
+            Assert.assertEquals(0, statistics.getNullCount("l"));
+            Assert.assertEquals(0, statistics.getNullCount("s"));
+        });
+    }
+
+    @Test
+    public void testAnalyzeMissingTable() throws Exception {
+        assertFailure("analyze table y", null, 14, "table 'y' does not exist");
+    }
+
+    @Test
+    public void testAnalyzeMissingTableKeyword() throws Exception {
+        assertFailure("analyze x", null, 8, "'table' expected");
+    }
+
+    @Test
+    public void testAnalyzeMissingTableName() throws Exception {
+        assertFailure("analyze table x,", "create table x (a int)", 16, "table name expected");
+    }
+
+    @Test
+    public void testDropTableRemovesStatistics() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x from long_sequence(10))", sqlExecutionContext);
+            compiler.compile("analyze table x", sqlExecutionContext);
+            Assert.assertNotNull(engine.getTableStatistics("x", -1));
+            compiler.compile("drop table x", sqlExecutionContext);
+            Assert.assertNull(engine.getTableStatistics("x", -1));
+        });
+    }
+
+    @Test
+    public void testJoinOrderUsesStatistics() throws Exception {
+        assertMemoryLeak(() -> {
+            // joining "c" first produces 100 rows, joining "b" first produces 10000 rows
+            compiler.compile("create table a as (select x bx, x % 1000 cy from long_sequence(10000))", sqlExecutionContext);
+            compiler.compile("create table b as (select x % 10 x, x v from long_sequence(10000))", sqlExecutionContext);
+            compiler.compile("create table c as (select x y, x * 10 w from long_sequence(10))", sqlExecutionContext);
+
+            final String query = "select a.bx, b.v, c.w from a join b on a.bx = b.x join c on a.cy = c.y order by 1, 2, 3";
+            assertOrderedJoinModels(query, 0, 1, 2);
+
+            final StringSink expected = new StringSink();
+            TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+
+            compiler.compile("analyze table a, b, c", sqlExecutionContext);
+            assertOrderedJoinModels(query, 0, 2, 1);
+
+            TestUtils.assertSql(compiler, sqlExecutionContext, query, sink, expected);
+        });
+    }
+
+    @Test
+    public void testJoinOrderWithoutAllStatistics() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table a as (select x bx, x % 1000 cy from long_sequence(10000))", sqlExecutionContext);
+            compiler.compile("create table b as (select x % 10 x, x v from long_sequence(10000))", sqlExecutionContext);
+            compiler.compile("create table c as (select x y, x * 10 w from long_sequence(10))", sqlExecutionContext);
+            compiler.compile("analyze table a, c", sqlExecutionContext);
+            // "b" falls back to its row count and is assumed to have unique keys
+            assertOrderedJoinModels("select a.bx, b.v, c.w from a join b on a.bx = b.x join c on a.cy = c.y", 0, 2, 1);
+        });
+    }
+
+    @Test
+    public void testRenameTableRemovesStatistics() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x from long_sequence(10))", sqlExecutionContext);
+            compiler.compile("analyze table x", sqlExecutionContext);
+            compiler.compile("rename table x to y", sqlExecutionContext);
+            Assert.assertNull(engine.getTableStatistics("x", -1));
+            Assert.assertNull(engine.getTableStatistics("y", -1));
+        });
+    }
+
+    @Test
+    public void testTruncateTableRemovesStatistics() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x from long_sequence(10))", sqlExecutionContext);
+            compiler.compile("analyze table x", sqlExecutionContext);
+            final TableStatistics statistics = engine.getTableStatistics("x", -1);
+            Assert.assertNotNull(statistics);
+            compiler.compile("truncate table x", sqlExecutionContext);
+            Assert.assertNull(engine.getTableStatistics("x", -1));
+
+            // statistics collected before truncate are stale even when truncate bypassed SQL
+            engine.putTableStatistics("x", statistics);
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                Assert.assertNull(engine.getTableStatistics(reader));
+            }
+        });
+    }
+
+    private static void assertDistinctCount(long expected, long actual) {
+        Assert.assertEquals(expected, actual, expected * 0.05);
+    }
+
+    private static void assertNullCount(TableStatistics statistics, CharSequence columnName, CharSequence query) throws SqlException {
+        sink.clear();
+        TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+        Assert.assertEquals("count\n" + statistics.getNullCount(columnName) + "\n", sink.toString());
+    }
+
+    private static void assertOrderedJoinModels(CharSequence query, int... expected) throws SqlException {
+        QueryModel model = (QueryModel) compiler.testCompileModel(query, sqlExecutionContext);
+        while (model.getJoinModels().size() < 2) {
+            model = model.getNestedModel();
+        }
+        final IntList ordered = model.getOrderedJoinModels();
+        Assert.assertEquals(expected.length, ordered.size());
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertEquals(expected[i], ordered.getQuick(i));
+        }
+    }
+}
@@ -24,6 +24,7 @@
 
 package io.questdb.griffin;
 
+import io.questdb.test.tools.TestUtils;
 import org.junit.Test;
 
 public class AsOfJoinTest extends AbstractGriffinTest {
@@ -71,6 +72,26 @@ public class AsOfJoinTest extends AbstractGriffinTest {
         );
     }
 
+    @Test
+    public void testAsOfJoinSeekIntervalSlave() throws Exception {
+        assertAsOfJoinSeek("trades t asof join (quotes where ts > '1970-01-02T05') q");
+    }
+
+    @Test
+    public void testAsOfJoinSeekKeyed() throws Exception {
+        assertAsOfJoinSeek("trades t asof join quotes q on (sym)");
+    }
+
+    @Test
+    public void testAsOfJoinSeekKeyedOnString() throws Exception {
+        assertAsOfJoinSeek("trades t asof join quotes q on t.s = q.sym");
+    }
+
+    @Test
+    public void testAsOfJoinSeekNoKey() throws Exception {
+        assertAsOfJoinSeek("trades t asof join quotes q");
+    }
+
     @Test
     public void testAsofJoinDynamicTimestamp() throws Exception {
         compiler.compile(
@@ -661,5 +682,37 @@ public class AsOfJoinTest extends AbstractGriffinTest {
         });
     }
 
-}
+    private void assertAsOfJoinSeek(String query) throws Exception {
+        assertMemoryLeak(() -> {
+            // dense slave spread over several partitions, key 'd' is never quoted
+            compiler.compile(
+                    "create table quotes as (" +
+                            "select rnd_symbol('a','b','c') sym, rnd_double() price, timestamp_sequence(3600000000L, 7000000) ts" +
+                            " from long_sequence(50000)" +
+                            "), index(sym) timestamp(ts) partition by DAY",
+                    sqlExecutionContext
+            );
+            // sparse master, which starts before the first quote and ends after the last one
+            compiler.compile(
+                    "create table trades as (" +
+                            "select rnd_symbol('a','b','c','d') sym, rnd_str('a','b','c','d') s, timestamp_sequence(0, 3700000000L) ts" +
+                            " from long_sequence(100)" +
+                            ") timestamp(ts)",
+                    sqlExecutionContext
+            );
+
+            compiler.setFullFatJoins(true);
+            try {
+                TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+            } finally {
+                compiler.setFullFatJoins(false);
+            }
+            final String expected = sink.toString();
 
+            sink.clear();
+            TestUtils.printSql(compiler, sqlExecutionContext, "explain " + query, sink);
+            TestUtils.assertContains(sink, "AsOfJoinSeek");
+            assertSql(query, expected);
+        });
+    }
+}
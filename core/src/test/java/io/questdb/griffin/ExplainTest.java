@@ -0,0 +1,268 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.ProfiledRecordCursorFactory;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExplainTest extends AbstractGriffinTest {
+
+    @Test
+    public void testAnalyzeAsOfJoin() throws Exception {
+        assertAnalyze(
+                "explain analyze select * from x asof join y on s",
+                "Selected\n" +
+                        "  actual: rows=100 loops=1 time=? memory_growth=?\n" +
+                        "    AsOfJoinSeek\n" +
+                        "      actual: rows=100 loops=1 time=? memory_growth=?\n" +
+                        "        DataFrame\n" +
+                        "          actual: rows=100 loops=1 time=? memory_growth=?\n" +
+                        "            FullFwdDataFrame\n" +
+                        "              table: x\n" +
+                        "              actual: frames=5 rows=100 time=?\n" +
+                        "            DataFrameRow\n" +
+                        "        DataFrame\n" +
+                        "            FullFwdDataFrame\n" +
+                        "              table: y\n" +
+                        "              actual: frames=1 rows=10 time=?\n" +
+                        "            DataFrameRow\n"
+        );
+    }
+
+    @Test
+    public void testAnalyzeFilteredIntervalScan() throws Exception {
+        assertAnalyze(
+                "explain analyze select * from x where ts in '1970-01-02' and d > 0.5",
+                "Filtered\n" +
+                        "  actual: rows=16 loops=1 time=? memory_growth=?\n" +
+                        "    DataFrame\n" +
+                        "      actual: rows=24 loops=1 time=? memory_growth=?\n" +
+                        "        IntervalFwdDataFrame\n" +
+                        "          table: x\n" +
+                        "          actual: frames=1 rows=24 time=?\n" +
+                        "        DataFrameRow\n"
+        );
+    }
+
+    @Test
+    public void testAnalyzeJoinGroupBy() throws Exception {
+        assertAnalyze(
+                "explain analyze select x.s, count() from x join y on s",
+                "GroupBy\n" +
+                        "  vectorized: false\n" +
+                        "  actual: rows=2 loops=1 time=? memory_growth=?\n" +
+                        "    Selected\n" +
+                        "      actual: rows=350 loops=1 time=? memory_growth=?\n" +
+                        "        HashJoinLightPartitioned\n" +
+                        "          actual: rows=350 loops=1 time=? memory_growth=?\n" +
+                        "            DataFrame\n" +
+                        "              actual: rows=100 loops=1 time=? memory_growth=?\n" +
+                        "                FullFwdDataFrame\n" +
+                        "                  table: x\n" +
+                        "                  actual: frames=5 rows=100 time=?\n" +
+                        "                DataFrameRow\n" +
+                        "            DataFrame\n" +
+                        "              actual: rows=10 loops=1 time=? memory_growth=?\n" +
+                        "                FullFwdDataFrame\n" +
+                        "                  table: y\n" +
+                        "                  actual: frames=1 rows=10 time=?\n" +
+                        "                DataFrameRow\n"
+        );
+    }
+
+    @Test
+    public void testAnalyzeExcludesTimeSpentByParent() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            final long[] ticks = {0};
+            try (
+                    RecordCursorFactory factory = new ProfiledRecordCursorFactory(
+                            compiler.compile("x", sqlExecutionContext).getRecordCursorFactory(),
+                            () -> ticks[0]
+                    )
+            ) {
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    while (cursor.hasNext()) {
+                        // parent consumes the row
+                        ticks[0] += 1_000_000;
+                    }
+                }
+                final PlanSink planSink = new PlanSink();
+                planSink.of(factory);
+                // attributes of the root node follow its type
+                final String actual = planSink.getLine(1).toString();
+                Assert.assertTrue(actual, actual.contains("actual: rows=100 loops=1 time=0us "));
+            }
+        });
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+        assertPlan(
+                "explain select * from x where d > 0.5",
+                "Filtered\n" +
+                        "    DataFrame\n" +
+                        "        FullFwdDataFrame\n" +
+                        "          table: x\n" +
+                        "        DataFrameRow\n"
+        );
+    }
+
+    @Test
+    public void testGroupByNotVectorized() throws Exception {
+        assertPlan(
+                "explain select s, sum(d) from x where d > 0.5",
+                "GroupBy\n" +
+                        "  vectorized: false\n" +
+                        "    Filtered\n" +
+                        "        DataFrame\n" +
+                        "            FullFwdDataFrame\n" +
+                        "              table: x\n" +
+                        "            DataFrameRow\n"
+        );
+    }
+
+    @Test
+    public void testGroupByVectorized() throws Exception {
+        assertPlan(
+                "explain select s, sum(d) from x",
+                "GroupBy\n" +
+                        "  vectorized: true\n" +
+                        "    DataFrame\n" +
+                        "        FullFwdDataFrame\n" +
+                        "          table: x\n" +
+                        "        DataFrameRow\n"
+        );
+    }
+
+    @Test
+    public void testIndexedSymbol() throws Exception {
+        assertPlan(
+                "explain select * from x where s = 'a'",
+                "DeferredSingleSymbolFilterDataFrame\n" +
+                        "    FullFwdDataFrame\n" +
+                        "      table: x\n" +
+                        "    SymbolIndexRow\n"
+        );
+    }
+
+    @Test
+    public void testIntervalScan() throws Exception {
+        assertPlan(
+                "explain select * from x where ts in '1970-01-02'",
+                "DataFrame\n" +
+                        "    IntervalFwdDataFrame\n" +
+                        "      table: x\n" +
+                        "    DataFrameRow\n"
+        );
+    }
+
+    @Test
+    public void testJoinOrderByLimit() throws Exception {
+        assertPlan(
+                "explain select * from x join y on s order by d limit 5",
+                "Limit\n" +
+                        "    SortedLight\n" +
+                        "        Selected\n" +
+                        "            HashJoinLightPartitioned\n" +
+                        "                DataFrame\n" +
+                        "                    FullFwdDataFrame\n" +
+                        "                      table: x\n" +
+                        "                    DataFrameRow\n" +
+                        "                DataFrame\n" +
+                        "                    FullFwdDataFrame\n" +
+                        "                      table: y\n" +
+                        "                    DataFrameRow\n"
+        );
+    }
+
+    @Test
+    public void testLatestBy() throws Exception {
+        assertPlan(
+                "explain select * from x latest by s",
+                "LatestByAllIndexedFiltered\n" +
+                        "    FullBwdDataFrame\n" +
+                        "      table: x\n"
+        );
+    }
+
+    @Test
+    public void testNotSelect() throws Exception {
+        assertMemoryLeak(() -> {
+            try {
+                compiler.compile("explain create table z (a int)", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "select query expected");
+            }
+        });
+    }
+
+    @Test
+    public void testUnion() throws Exception {
+        assertPlan(
+                "explain select s from x union select s from y",
+                "Union\n" +
+                        "    DataFrame\n" +
+                        "        FullFwdDataFrame\n" +
+                        "          table: x\n" +
+                        "        DataFrameRow\n" +
+                        "    DataFrame\n" +
+                        "        FullFwdDataFrame\n" +
+                        "          table: y\n" +
+                        "        DataFrameRow\n"
+        );
+    }
+
+    private static void createTables() throws SqlException {
+        compiler.compile("create table x as (select rnd_symbol('a', 'b', 'c') s, rnd_double() d, timestamp_sequence(0, 3600000000) ts from long_sequence(100)), index(s) timestamp(ts) partition by day", sqlExecutionContext);
+        compiler.compile("create table y as (select rnd_symbol('a', 'b', 'c') s, rnd_int() i, timestamp_sequence(0, 36000000000) ts from long_sequence(10)), index(s) timestamp(ts)", sqlExecutionContext);
+    }
+
+    private void assertAnalyze(String query, String expectedPlan) throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+            // timings and memory vary between runs
+            final String actual = sink.toString()
+                    .replaceAll("time=\\d+us", "time=?")
+                    .replaceAll("memory_growth=\\d+", "memory_growth=?");
+            TestUtils.assertEquals("QUERY PLAN\n" + expectedPlan, actual);
+        });
+    }
+
+    private void assertPlan(String query, String expectedPlan) throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+            TestUtils.assertEquals("QUERY PLAN\n" + expectedPlan, sink);
+        });
+    }
+}
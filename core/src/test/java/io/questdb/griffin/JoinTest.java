@@ -24,10 +24,13 @@
 
 package io.questdb.griffin;
 
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
 import io.questdb.cairo.TableWriter;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.LimitOverflowException;
 import io.questdb.std.Chars;
 import io.questdb.std.Misc;
 import io.questdb.std.datetime.microtime.TimestampFormatUtils;
@@ -36,6 +39,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 public class JoinTest extends AbstractGriffinTest {
+    private boolean fullFatJoins = false;
 
     @Test
     public void testAsOfCorrectness() throws Exception {
@@ -2025,7 +2029,7 @@ public class JoinTest extends AbstractGriffinTest {
             compiler.compile("create table y as (select x, cast(2*((x-1)/2) as int)+2 m, abs(rnd_int() % 100) b from long_sequence(10))", sqlExecutionContext);
 
             // master records should be filtered out because slave records missing
-            assertQuery(expected, "select x.c, x.a, b from x join y on y.m = x.c and 1 < 10", null);
+            assertQuery(expected, "select x.c, x.a, b from x join y on y.m = x.c and 1 < 10", null, !fullFatJoins);
         });
     }
 
@@ -2083,7 +2087,7 @@ public class JoinTest extends AbstractGriffinTest {
             compiler.compile("create table y as (select cast((x-1)/4 + 1 as int) c, abs(rnd_int() % 100) b from long_sequence(20))", sqlExecutionContext);
             compiler.compile("create table z as (select cast((x-1)/2 + 1 as int) c, abs(rnd_int() % 1000) d from long_sequence(40))", sqlExecutionContext);
 
-            assertQuery(expected, "select z.c, x.a, b, d, d-b from x join y on(c) join z on (c)", null);
+            assertQuery(expected, "select z.c, x.a, b, d, d-b from x join y on(c) join z on (c)", null, !fullFatJoins);
         });
     }
 
@@ -2164,7 +2168,7 @@ public class JoinTest extends AbstractGriffinTest {
             );
 
             // filter is applied to final join result
-            assertQuery(expected, "select * from x join y on (kk)", null);
+            assertQuery(expected, "select * from x join y on (kk)", null, !fullFatJoins);
         });
     }
 
@@ -2222,7 +2226,7 @@ public class JoinTest extends AbstractGriffinTest {
             compiler.compile("create table y as (select cast((x-1)/4 + 1 as int) m, abs(rnd_int() % 100) b from long_sequence(20))", sqlExecutionContext);
             compiler.compile("create table z as (select cast((x-1)/2 + 1 as int) c, abs(rnd_int() % 1000) d from long_sequence(40))", sqlExecutionContext);
 
-            assertQuery(expected, "select z.c, x.a, b, d, d-b from x join y on y.m = x.c join z on (c)", null);
+            assertQuery(expected, "select z.c, x.a, b, d, d-b from x join y on y.m = x.c join z on (c)", null, !fullFatJoins);
         });
     }
 
@@ -2262,7 +2266,7 @@ public class JoinTest extends AbstractGriffinTest {
             compiler.compile("create table z as (select cast((x-1)/2 + 1 as int) c, abs(rnd_int() % 1000) d from long_sequence(16))", sqlExecutionContext);
 
             // filter is applied to intermediate join result
-            assertQueryAndCache(expected, "select z.c, x.a, b, d, d-b from x join y on y.m = x.c join z on (c) where y.b < 20", null, false);
+            assertQueryAndCache(expected, "select z.c, x.a, b, d, d-b from x join y on y.m = x.c join z on (c) where y.b < 20", null, !fullFatJoins, false);
 
             compiler.compile("insert into x select cast(x+6 as int) c, abs(rnd_int() % 650) a from long_sequence(3)", sqlExecutionContext);
             compiler.compile("insert into y select cast((x+19)/4 + 1 as int) m, abs(rnd_int() % 100) b from long_sequence(16)", sqlExecutionContext);
@@ -2278,7 +2282,7 @@ public class JoinTest extends AbstractGriffinTest {
                             "9\t100\t8\t667\t659\n" +
                             "9\t100\t8\t456\t448\n",
                     "select z.c, x.a, b, d, d-b from x join y on y.m = x.c join z on (c) where y.b < 20",
-                    null);
+                    null, !fullFatJoins);
 
         });
     }
@@ -2323,7 +2327,8 @@ public class JoinTest extends AbstractGriffinTest {
             assertQuery(
                     expected,
                     "select z.c, x.a, b, d, d-b from x join y on y.m = x.c join z on (c) where d-b > 100",
-                    null
+                    null,
+                    !fullFatJoins
             );
         });
     }
@@ -2333,6 +2338,103 @@ public class JoinTest extends AbstractGriffinTest {
         testFullFat(this::testJoinInnerLastFilter);
     }
 
+    @Test
+    public void testJoinInnerManyKeysPartitioned() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x as (select" +
+                            " rnd_int(0, 2000, 2) i," +
+                            " rnd_symbol(500, 3, 6, 5) sym," +
+                            " concat('k', rnd_int(0, 400, 0)) s," +
+                            " x" +
+                            " from long_sequence(5000))",
+                    sqlExecutionContext
+            );
+            compiler.compile(
+                    "create table y as (select" +
+                            " rnd_int(0, 2000, 2) i," +
+                            " rnd_symbol(500, 3, 6, 5) sym," +
+                            " concat('k', rnd_int(0, 400, 0)) s," +
+                            " x" +
+                            " from long_sequence(7000))",
+                    sqlExecutionContext
+            );
+
+            assertPartitionedJoin("select x.x, y.x from x join y on (i)");
+            assertPartitionedJoin("select x.x, y.x from x join y on (sym)");
+            assertPartitionedJoin("select x.x, y.x from x join y on (s)");
+            assertPartitionedJoin("select x.x, y.x from x join y on (i, sym, s)");
+        });
+    }
+
+    @Test
+    public void testJoinInnerPartitionedValueLimit() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select rnd_int(0, 2000, 0) i, x from long_sequence(100))", sqlExecutionContext);
+            compiler.compile("create table y as (select rnd_int(0, 2000, 0) i, x from long_sequence(10000))", sqlExecutionContext);
+
+            final DefaultCairoConfiguration limitedConfiguration = new DefaultCairoConfiguration(root) {
+                @Override
+                public int getSqlHashJoinValuePageSize() {
+                    return 4096;
+                }
+
+                @Override
+                public int getSqlHashJoinValueMaxPages() {
+                    return 2;
+                }
+            };
+            try (
+                    CairoEngine limitedEngine = new CairoEngine(limitedConfiguration);
+                    SqlCompiler limitedCompiler = new SqlCompiler(limitedEngine);
+                    SqlExecutionContext limitedContext = new SqlExecutionContextImpl(limitedEngine, 1)
+            ) {
+                try (RecordCursorFactory factory = limitedCompiler.compile("select x.x, y.x from x join y on (i)", limitedContext).getRecordCursorFactory()) {
+                    try (RecordCursor ignored = factory.getCursor(limitedContext)) {
+                        Assert.fail();
+                    } catch (LimitOverflowException e) {
+                        TestUtils.assertContains(e.getFlyweightMessage(), "Maximum number of pages (2) breached");
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testJoinInnerOrderByRowIds() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x as (select" +
+                            " rnd_int(0, 500, 0) i," +
+                            " rnd_str(50, 100, 2) s," +
+                            " x" +
+                            " from long_sequence(2000))",
+                    sqlExecutionContext
+            );
+            compiler.compile(
+                    "create table y as (select" +
+                            " rnd_int(0, 500, 0) i," +
+                            " rnd_str(50, 100, 2) s," +
+                            " rnd_bin(10, 20, 2) b," +
+                            " x" +
+                            " from long_sequence(3000))",
+                    sqlExecutionContext
+            );
+            compiler.compile(
+                    "create table z as (select" +
+                            " rnd_int(0, 500, 0) i," +
+                            " rnd_symbol(20, 3, 6, 5) sym," +
+                            " x" +
+                            " from long_sequence(1000))",
+                    sqlExecutionContext
+            );
+
+            assertSortedJoin("select x.x, y.x, y.s, y.b, x.s from x join y on (i) order by y.s, x.x, y.x");
+            assertSortedJoin("select x.x, y.x, y.s, x.s from x join y on (i) order by x.s desc, x.x, y.x limit 40");
+            assertSortedJoin("select x.x, y.x, z.x, z.sym, y.s from x join y on (i) join z on (i) order by z.sym, y.s, x.x, y.x, z.x");
+        });
+    }
+
     @Test
     public void testJoinInnerLong256AndChar() throws Exception {
         assertMemoryLeak(() -> {
@@ -2377,7 +2479,7 @@ public class JoinTest extends AbstractGriffinTest {
             );
 
             // filter is applied to final join result
-            assertQuery(expected, "select * from x join y on (kk)", null);
+            assertQuery(expected, "select * from x join y on (kk)", null, !fullFatJoins);
         });
     }
 
@@ -2447,7 +2549,7 @@ public class JoinTest extends AbstractGriffinTest {
             compiler.compile("create table x as (select cast(x as int) c, abs(rnd_int() % 650) a from long_sequence(10))", sqlExecutionContext);
             compiler.compile("create table y as (select x, cast(2*((x-1)/2) as int)+2 m, abs(rnd_int() % 100) b from long_sequence(10))", sqlExecutionContext);
 
-            assertQueryAndCache(expected, "select x.c, x.a, b from x join y on y.m = x.c", null, false);
+            assertQueryAndCache(expected, "select x.c, x.a, b from x join y on y.m = x.c", null, !fullFatJoins, false);
 
             compiler.compile("insert into x select cast(x+10 as int) c, abs(rnd_int() % 650) a from long_sequence(4)", sqlExecutionContext);
             compiler.compile("insert into y select x, cast(2*((x-1+10)/2) as int)+2 m, abs(rnd_int() % 100) b from long_sequence(6)", sqlExecutionContext);
@@ -2458,7 +2560,7 @@ public class JoinTest extends AbstractGriffinTest {
                             "14\t197\t50\n" +
                             "14\t197\t68\n",
                     "select x.c, x.a, b from x join y on y.m = x.c",
-                    null);
+                    null, !fullFatJoins);
         });
     }
 
@@ -2561,7 +2663,7 @@ public class JoinTest extends AbstractGriffinTest {
             compiler.compile("create table z as (select rnd_symbol('D','B',null,'A') c, abs(rnd_int() % 1000) d from long_sequence(16))", sqlExecutionContext);
 
             // filter is applied to intermediate join result
-            assertQueryAndCache(expected, "select x.c xc, z.c zc, y.m yc, x.a, b, d, d-b from x join y on y.m = x.c join z on (c)", null, false);
+            assertQueryAndCache(expected, "select x.c xc, z.c zc, y.m yc, x.a, b, d, d-b from x join y on y.m = x.c join z on (c)", null, !fullFatJoins, false);
 
             compiler.compile("insert into x select rnd_symbol('L','K','P') c, abs(rnd_int() % 650) a from long_sequence(3)", sqlExecutionContext);
             compiler.compile("insert into y select rnd_symbol('P','L','K') m, abs(rnd_int() % 100) b from long_sequence(6)", sqlExecutionContext);
@@ -2571,7 +2673,7 @@ public class JoinTest extends AbstractGriffinTest {
                             "L\tL\tL\t148\t38\t121\t83\n" +
                             "L\tL\tL\t148\t52\t121\t69\n",
                     "select x.c xc, z.c zc, y.m yc, x.a, b, d, d-b from x join y on y.m = x.c join z on (c)",
-                    null);
+                    null, !fullFatJoins);
 
         });
     }
@@ -2605,7 +2707,7 @@ public class JoinTest extends AbstractGriffinTest {
             compiler.compile("create table z as (select cast((x-1)/2 + 1 as int) c, abs(rnd_int() % 1000) d from long_sequence(16))", sqlExecutionContext);
 
             // filter is applied to intermediate join result
-            assertQueryAndCache(expected, "select z.c, x.a, b, d, a+b from x join y on y.m = x.c join z on (c) where a+b < 300", null, false);
+            assertQueryAndCache(expected, "select z.c, x.a, b, d, a+b from x join y on y.m = x.c join z on (c) where a+b < 300", null, !fullFatJoins, false);
 
             compiler.compile("insert into x select cast(x+6 as int) c, abs(rnd_int() % 650) a from long_sequence(3)", sqlExecutionContext);
             compiler.compile("insert into y select cast((x+19)/4 + 1 as int) m, abs(rnd_int() % 100) b from long_sequence(16)", sqlExecutionContext);
@@ -2625,7 +2727,7 @@ public class JoinTest extends AbstractGriffinTest {
                             "9\t100\t8\t667\t108\n" +
                             "9\t100\t8\t456\t108\n",
                     "select z.c, x.a, b, d, a+b from x join y on y.m = x.c join z on (c) where a+b < 300",
-                    null);
+                    null, !fullFatJoins);
 
         });
     }
@@ -2684,7 +2786,7 @@ public class JoinTest extends AbstractGriffinTest {
             compiler.compile("create table y as (select cast((x-1)/4 + 1 as int) c, abs(rnd_int() % 100) b from long_sequence(20))", sqlExecutionContext);
             compiler.compile("create table z as (select cast((x-1)/2 + 1 as int) c, abs(rnd_int() % 1000) d from long_sequence(40))", sqlExecutionContext);
 
-            assertQuery(expected, "select z.c, x.a, b, d, d-b, ts from x join y on(c) join z on (c)", "ts");
+            assertQuery(expected, "select z.c, x.a, b, d, d-b, ts from x join y on(c) join z on (c)", "ts", !fullFatJoins);
         });
     }
 
@@ -2800,6 +2902,40 @@ public class JoinTest extends AbstractGriffinTest {
         }));
     }
 
+    private void assertPartitionedJoin(String query) throws SqlException {
+        sink.clear();
+        TestUtils.printSql(compiler, sqlExecutionContext, "explain " + query, sink);
+        TestUtils.assertContains(sink, "HashJoinLightPartitioned");
+
+        compiler.setFullFatJoins(true);
+        try {
+            TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+        } finally {
+            compiler.setFullFatJoins(false);
+        }
+        final String expected = sink.toString();
+        // non-empty result, keys are expected to match
+        Assert.assertTrue(expected.length() > 100);
+        TestUtils.assertSql(compiler, sqlExecutionContext, query, sink, expected);
+    }
+
+    private void assertSortedJoin(String query) throws SqlException {
+        compiler.setFullFatJoins(true);
+        try {
+            TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+        } finally {
+            compiler.setFullFatJoins(false);
+        }
+        final String expected = sink.toString();
+        Assert.assertTrue(expected.length() > 100);
+
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            // sort keeps row ids of joined rows instead of copying them
+            Assert.assertTrue(factory.recordCursorSupportsRandomAccess());
+            assertCursor(expected, factory, true, true, false, true);
+        }
+    }
+
     private void testJoinWithGeohash2() throws Exception {
         testFullFat(() -> assertMemoryLeak(() -> {
             final String query = "with x1 as (select distinct * from x)," +
@@ -3689,7 +3825,7 @@ public class JoinTest extends AbstractGriffinTest {
                             "from\n" +
                             "c\n" +
                             "join contactlist on c.contactid = contactlist._id\n",
-                    null, false, false, true);
+                    null, true, false, true);
         });
     }
 
@@ -3837,10 +3973,12 @@ public class JoinTest extends AbstractGriffinTest {
 
     private void testFullFat(TestMethod method) throws Exception {
         compiler.setFullFatJoins(true);
+        fullFatJoins = true;
         try {
             method.run();
         } finally {
             compiler.setFullFatJoins(false);
+            fullFatJoins = false;
         }
     }
 
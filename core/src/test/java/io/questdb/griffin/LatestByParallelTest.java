@@ -32,13 +32,18 @@ import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.griffin.engine.functions.rnd.SharedRandom;
 import io.questdb.griffin.engine.table.LatestByAllIndexedJob;
+import io.questdb.griffin.engine.table.LatestByAllSymbolJob;
+import io.questdb.griffin.engine.table.LatestByAllSymbolRecordCursorFactory;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.WorkerPool;
+import io.questdb.std.Chars;
+import io.questdb.std.Files;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.FilesFacadeImpl;
 import io.questdb.std.Misc;
 import io.questdb.std.Rnd;
+import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.Path;
 import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
@@ -48,6 +53,7 @@ import org.junit.rules.TemporaryFolder;
 import org.junit.rules.TestName;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class LatestByParallelTest {
     protected static final StringSink sink = new StringSink();
@@ -55,6 +61,7 @@ public class LatestByParallelTest {
     @ClassRule
     public static TemporaryFolder temp = new TemporaryFolder();
     protected static CharSequence root;
+    private static FilesFacade ff = FilesFacadeImpl.INSTANCE;
     @Rule
     public TestName testName = new TestName();
 
@@ -75,6 +82,7 @@ public class LatestByParallelTest {
 
     @After
     public void tearDown() {
+        ff = FilesFacadeImpl.INSTANCE;
         TestUtils.removeTestPath(root);
     }
 
@@ -98,6 +106,61 @@ public class LatestByParallelTest {
         executeVanilla(LatestByParallelTest::testLatestByAll);
     }
 
+    @Test
+    public void testLatestByAllNotIndexedLargeParallel() throws Exception {
+        executeWithPool(4, 8, LatestByParallelTest::testLatestByAllNotIndexedLarge);
+    }
+
+    @Test
+    public void testLatestByAllNotIndexedLargeVanilla() throws Exception {
+        executeVanilla(LatestByParallelTest::testLatestByAllNotIndexedLarge);
+    }
+
+    @Test
+    public void testLatestByAllNotIndexedFewKeysParallel() throws Exception {
+        executeWithPool(4, 8, LatestByParallelTest::testLatestByAllNotIndexedFewKeys);
+    }
+
+    @Test
+    public void testLatestByAllNotIndexedFewKeysVanilla() throws Exception {
+        executeVanilla(LatestByParallelTest::testLatestByAllNotIndexedFewKeys);
+    }
+
+    @Test
+    public void testLatestByAllNotIndexedNoNullsParallel() throws Exception {
+        assertOldestPartitionNotScanned(() -> executeWithPool(4, 8, LatestByParallelTest::testLatestByAllNotIndexedNoNulls));
+    }
+
+    @Test
+    public void testLatestByAllNotIndexedNoNullsVanilla() throws Exception {
+        assertOldestPartitionNotScanned(() -> executeVanilla(LatestByParallelTest::testLatestByAllNotIndexedNoNulls));
+    }
+
+    @Test
+    public void testLatestByAllNotIndexedIntervalParallel() throws Exception {
+        executeWithPool(4, 8, LatestByParallelTest::testLatestByAllNotIndexedInterval);
+    }
+
+    @Test
+    public void testLatestByAllNotIndexedIntervalVanilla() throws Exception {
+        executeVanilla(LatestByParallelTest::testLatestByAllNotIndexedInterval);
+    }
+
+    @Test
+    public void testLatestByAllNotIndexedParallel1() throws Exception {
+        executeWithPool(4, 8, LatestByParallelTest::testLatestByAllNotIndexed);
+    }
+
+    @Test
+    public void testLatestByAllNotIndexedParallel2() throws Exception {
+        executeWithPool(8, 4, LatestByParallelTest::testLatestByAllNotIndexed);
+    }
+
+    @Test
+    public void testLatestByAllNotIndexedVanilla() throws Exception {
+        executeVanilla(LatestByParallelTest::testLatestByAllNotIndexed);
+    }
+
     @Test
     public void testLatestByFilteredParallel1() throws Exception {
         executeWithPool(4, 8, LatestByParallelTest::testLatestByFiltered);
@@ -195,6 +258,183 @@ public class LatestByParallelTest {
         assertQuery(compiler, sqlExecutionContext, expected, ddl, query);
     }
 
+    private static void testLatestByAllNotIndexed(
+            CairoEngine engine,
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+
+        final String expected = "a\tb\tk\n" +
+                "23.90529010846525\tRXGZ\t1970-01-03T07:33:20.000000Z\n" +
+                "12.026122412833129\tHYRX\t1970-01-11T10:00:00.000000Z\n" +
+                "48.820511018586934\tVTJW\t1970-01-12T13:46:40.000000Z\n" +
+                "49.00510449885239\tPEHN\t1970-01-18T08:40:00.000000Z\n" +
+                "40.455469747939254\t\t1970-01-22T23:46:40.000000Z\n";
+
+        final String ddl = "create table x as " +
+                "(" +
+                "select" +
+                " rnd_double(0)*100 a," +
+                " rnd_symbol(5,4,4,1) b," +
+                " timestamp_sequence(0, 100000000000) k" +
+                " from" +
+                " long_sequence(20)" +
+                ") timestamp(k) partition by DAY";
+
+        final String query = "select * from x latest by b";
+
+        assertQuery(compiler, sqlExecutionContext, expected, ddl, query);
+        assertSymbolScan(compiler, sqlExecutionContext, query);
+    }
+
+    private static void testLatestByAllNotIndexedLarge(
+            CairoEngine engine,
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        // most symbols only occur in older partitions, newer partitions are large enough to be split between workers
+        compiler.compile(
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " rnd_double(0)*100 a," +
+                        " rnd_symbol(300,4,8,1) b," +
+                        " timestamp_sequence(0, 1000000) k" +
+                        " from" +
+                        " long_sequence(200000)" +
+                        ") timestamp(k) partition by DAY",
+                sqlExecutionContext
+        );
+        compiler.compile(
+                "insert into x select" +
+                        " rnd_double(0)*100 a," +
+                        " rnd_symbol(10,4,4,0) b," +
+                        " timestamp_sequence(200000000000, 1000000) k" +
+                        " from" +
+                        " long_sequence(300000)",
+                sqlExecutionContext
+        );
+        compiler.compile("create table y as (select * from x), index(b) timestamp(k) partition by DAY", sqlExecutionContext);
+
+        assertSymbolScan(compiler, sqlExecutionContext, "select * from x latest by b");
+        TestUtils.assertSqlCursors(
+                compiler,
+                sqlExecutionContext,
+                "select * from y latest by b",
+                "select * from x latest by b",
+                LOG
+        );
+    }
+
+    private static void testLatestByAllNotIndexedFewKeys(
+            CairoEngine engine,
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        // every key occurs in the newest partition, scan stops part way through it
+        compiler.compile(
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " rnd_double(0)*100 a," +
+                        " rnd_symbol(8,4,4,1) b," +
+                        " timestamp_sequence(0, 1000000) k" +
+                        " from" +
+                        " long_sequence(400000)" +
+                        ") timestamp(k) partition by DAY",
+                sqlExecutionContext
+        );
+        compiler.compile("create table y as (select * from x), index(b) timestamp(k) partition by DAY", sqlExecutionContext);
+
+        assertSymbolScan(compiler, sqlExecutionContext, "select * from x latest by b");
+        TestUtils.assertSqlCursors(
+                compiler,
+                sqlExecutionContext,
+                "select * from y latest by b",
+                "select * from x latest by b",
+                LOG
+        );
+    }
+
+    private static void testLatestByAllNotIndexedNoNulls(
+            CairoEngine engine,
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        // symbol column has no nulls, every key occurs in the newest partition
+        compiler.compile(
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " rnd_double(0)*100 a," +
+                        " rnd_symbol(8,4,4,0) b," +
+                        " timestamp_sequence(0, 1000000) k" +
+                        " from" +
+                        " long_sequence(400000)" +
+                        ") timestamp(k) partition by DAY",
+                sqlExecutionContext
+        );
+
+        assertSymbolScan(compiler, sqlExecutionContext, "select * from x latest by b");
+        TestUtils.assertSql(
+                compiler,
+                sqlExecutionContext,
+                "select count() from (x latest by b) where k > '1970-01-05'",
+                sink,
+                "count\n8\n"
+        );
+    }
+
+    private static void testLatestByAllNotIndexedInterval(
+            CairoEngine engine,
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        compiler.compile(
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " rnd_double(0)*100 a," +
+                        " rnd_symbol(300,4,8,1) b," +
+                        " timestamp_sequence(0, 1000000) k" +
+                        " from" +
+                        " long_sequence(400000)" +
+                        ") timestamp(k) partition by DAY",
+                sqlExecutionContext
+        );
+        compiler.compile("create table y as (select * from x), index(b) timestamp(k) partition by DAY", sqlExecutionContext);
+
+        assertSymbolScan(compiler, sqlExecutionContext, "select * from x latest by b where k < '1970-01-04'");
+        TestUtils.assertSqlCursors(
+                compiler,
+                sqlExecutionContext,
+                "select * from y latest by b where k < '1970-01-04'",
+                "select * from x latest by b where k < '1970-01-04'",
+                LOG
+        );
+    }
+
+    private static void assertOldestPartitionNotScanned(TestUtils.LeakProneCode code) throws Exception {
+        final AtomicInteger oldestPartitionReads = new AtomicInteger();
+        ff = new FilesFacadeImpl() {
+            @Override
+            public long openRO(LPSZ name) {
+                if (Chars.contains(name, "1970-01-01") && Chars.endsWith(name, Files.SEPARATOR + "b.d")) {
+                    oldestPartitionReads.incrementAndGet();
+                }
+                return super.openRO(name);
+            }
+        };
+        code.run();
+        Assert.assertEquals(0, oldestPartitionReads.get());
+    }
+
+    private static void assertSymbolScan(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext, String query) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertTrue(factory instanceof LatestByAllSymbolRecordCursorFactory);
+        }
+    }
+
     private static void testLatestByTimestamp(
             CairoEngine engine,
             SqlCompiler compiler,
@@ -281,7 +521,7 @@ public class LatestByParallelTest {
                 final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
                     @Override
                     public FilesFacade getFilesFacade() {
-                        return FilesFacadeImpl.INSTANCE;
+                        return ff;
                     }
                 };
 
@@ -291,7 +531,7 @@ public class LatestByParallelTest {
                 final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
                     @Override
                     public FilesFacade getFilesFacade() {
-                        return FilesFacadeImpl.INSTANCE;
+                        return ff;
                     }
 
                     @Override
@@ -320,6 +560,7 @@ public class LatestByParallelTest {
                     if (pool != null) {
                         pool.assignCleaner(Path.CLEANER);
                         pool.assign(new LatestByAllIndexedJob(engine.getMessageBus()));
+                        pool.assign(new LatestByAllSymbolJob(engine.getMessageBus()));
                         pool.start(LOG);
                     }
 
@@ -336,7 +577,12 @@ public class LatestByParallelTest {
     }
 
     protected static void executeVanilla(LatestByRunnable code) throws Exception {
-        executeVanilla(() -> execute(null, code, new DefaultCairoConfiguration(root)));
+        executeVanilla(() -> execute(null, code, new DefaultCairoConfiguration(root) {
+            @Override
+            public FilesFacade getFilesFacade() {
+                return ff;
+            }
+        }));
     }
 
     static void executeVanilla(TestUtils.LeakProneCode code) throws Exception {
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.std.IntList;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueryPlanCacheTest extends AbstractGriffinTest {
+
+    @Test
+    public void testBindVariableTypesAreCached() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x, rnd_symbol('a','b') s from long_sequence(10))", sqlExecutionContext);
+            try (QueryPlanCache cache = new QueryPlanCache(4, 2)) {
+                bindVariableService.clear();
+                final String sql = "select * from x where x > $1 and s = $2";
+                final RecordCursorFactory factory = compile(sql);
+                final IntList types = new IntList();
+                types.add(bindVariableService.getFunction(0).getType());
+                types.add(bindVariableService.getFunction(1).getType());
+                cache.push(sql, factory, types);
+
+                // caller without bind variables cannot use the factory
+                Assert.assertNull(cache.poll(sql, null));
+
+                // undefined bind variables are defined with cached types
+                bindVariableService.clear();
+                Assert.assertSame(factory, cache.poll(sql, bindVariableService));
+                Assert.assertEquals(2, bindVariableService.getIndexedVariableCount());
+                Assert.assertEquals(types.getQuick(0), bindVariableService.getFunction(0).getType());
+                Assert.assertEquals(types.getQuick(1), bindVariableService.getFunction(1).getType());
+                cache.push(sql, factory, types);
+
+                // bind variables of other types do not match
+                bindVariableService.clear();
+                bindVariableService.setStr(0, "10");
+                bindVariableService.setStr(1, "a");
+                Assert.assertNull(cache.poll(sql, bindVariableService));
+                final IntList otherTypes = new IntList();
+                otherTypes.add(ColumnType.STRING);
+                otherTypes.add(ColumnType.STRING);
+                // factory compiled for other types is closed
+                bindVariableService.clear();
+                cache.push(sql, compile(sql), otherTypes);
+
+                Assert.assertEquals(1, cache.size());
+                Assert.assertEquals(1, cache.getHitCount());
+                Assert.assertEquals(2, cache.getMissCount());
+            }
+        });
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x from long_sequence(10))", sqlExecutionContext);
+            try (QueryPlanCache cache = new QueryPlanCache(2, 1)) {
+                cache.push("select x from x", compile("select x from x"), null);
+                cache.push("select x + 1 from x", compile("select x + 1 from x"), null);
+                // touch the first query, second becomes least recently used
+                cache.push("select x from x", cache.poll("select x from x", null), null);
+                cache.push("select x + 2 from x", compile("select x + 2 from x"), null);
+
+                Assert.assertEquals(2, cache.size());
+                Assert.assertEquals(1, cache.getEvictionCount());
+                Assert.assertNull(cache.poll("select x + 1 from x", null));
+                final RecordCursorFactory factory = cache.poll("select x from x", null);
+                Assert.assertNotNull(factory);
+                cache.push("select x from x", factory, null);
+            }
+        });
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x from long_sequence(10))", sqlExecutionContext);
+            try (QueryPlanCache cache = new QueryPlanCache(0, 4)) {
+                cache.push("select x from x", compile("select x from x"), null);
+                Assert.assertEquals(0, cache.size());
+                Assert.assertNull(cache.poll("select x from x", null));
+            }
+        });
+    }
+
+    @Test
+    public void testNormalize() {
+        final StringSink sink = new StringSink();
+        QueryPlanCache.normalize("  select   a,\n\tb  from x  where s = 'a   b' and \"c  d\" > 1 \n", sink);
+        TestUtils.assertEquals("select a, b from x where s = 'a   b' and \"c  d\" > 1", sink);
+    }
+
+    @Test
+    public void testNormalizeComments() {
+        final StringSink sink = new StringSink();
+        final StringSink other = new StringSink();
+        QueryPlanCache.normalize("select 1 -- c\n, 2", sink);
+        QueryPlanCache.normalize("select 1 -- c , 2", other);
+        TestUtils.assertEquals("select 1 , 2", sink);
+        TestUtils.assertEquals("select 1", other);
+
+        QueryPlanCache.normalize("select /* a /* b */ c */ x,\r\n-- y\ny from x where s = '-- /*'", sink);
+        TestUtils.assertEquals("select x, y from x where s = '-- /*'", sink);
+    }
+
+    @Test
+    public void testPoolIsShared() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x from long_sequence(10))", sqlExecutionContext);
+            try (QueryPlanCache cache = new QueryPlanCache(4, 2)) {
+                final String sql = "select x from x";
+                Assert.assertNull(cache.poll(sql, null));
+
+                final RecordCursorFactory f1 = compile(sql);
+                final RecordCursorFactory f2 = compile(sql);
+                final RecordCursorFactory f3 = compile(sql);
+                cache.push(sql, f1, null);
+                cache.push("select  x\nfrom x", f2, null);
+                // pool is full, factory is closed
+                cache.push(sql, f3, null);
+                Assert.assertEquals(1, cache.size());
+
+                // factories are polled exclusively
+                final RecordCursorFactory p1 = cache.poll(sql, null);
+                final RecordCursorFactory p2 = cache.poll(" select x from x ", null);
+                Assert.assertNotNull(p1);
+                Assert.assertNotNull(p2);
+                Assert.assertNotSame(p1, p2);
+                Assert.assertNull(cache.poll(sql, null));
+                Assert.assertEquals(2, cache.getHitCount());
+                Assert.assertEquals(2, cache.getMissCount());
+
+                cache.push(sql, p1, null);
+                cache.push(sql, p2, null);
+            }
+        });
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x from long_sequence(10))", sqlExecutionContext);
+            try (QueryPlanCache cache = new QueryPlanCache(4, 2)) {
+                final String sql = "select x from x";
+                cache.push(sql, compile(sql), null);
+                cache.push(sql, compile(sql), null);
+                cache.remove(sql);
+                Assert.assertEquals(0, cache.size());
+                Assert.assertNull(cache.poll(sql, null));
+            }
+        });
+    }
+
+    private RecordCursorFactory compile(String sql) throws SqlException {
+        return compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory();
+    }
+}
@@ -0,0 +1,292 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.BindVariableService;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.engine.CachedResultRecordCursorFactory;
+import io.questdb.griffin.engine.functions.bind.BindVariableServiceImpl;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class QueryResultCacheTest extends AbstractGriffinTest {
+    private static final StringSink expectedSink = new StringSink();
+    private static CairoEngine cacheEngine;
+    private static SqlCompiler cacheCompiler;
+    private static BindVariableService cacheBindVariableService;
+    private static SqlExecutionContext cacheExecutionContext;
+
+    @BeforeClass
+    public static void setUpCacheEngine() {
+        final CairoConfiguration cacheConfiguration = new DefaultCairoConfiguration(root) {
+            @Override
+            public long getSqlResultCacheEntryMaxSize() {
+                return 64 * 1024;
+            }
+
+            @Override
+            public long getSqlResultCacheSize() {
+                return 1024 * 1024;
+            }
+        };
+        cacheEngine = new CairoEngine(cacheConfiguration);
+        cacheCompiler = new SqlCompiler(cacheEngine);
+        cacheBindVariableService = new BindVariableServiceImpl(cacheConfiguration);
+        cacheExecutionContext = new SqlExecutionContextImpl(cacheEngine, 1)
+                .with(
+                        AllowAllCairoSecurityContext.INSTANCE,
+                        cacheBindVariableService,
+                        null,
+                        -1,
+                        null
+                );
+    }
+
+    @AfterClass
+    public static void tearDownCacheEngine() {
+        cacheCompiler.close();
+        cacheEngine.close();
+    }
+
+    @Test
+    public void testAllTypes() throws Exception {
+        assertCached(
+                "create table x as (" +
+                        "select" +
+                        " rnd_boolean() a," +
+                        " rnd_byte() b," +
+                        " rnd_short() c," +
+                        " rnd_char() d," +
+                        " rnd_int(0, 1000, 2) e," +
+                        " rnd_long(0, 1000, 2) f," +
+                        " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) g," +
+                        " rnd_timestamp(to_timestamp('2015', 'yyyy'), to_timestamp('2016', 'yyyy'), 2) h," +
+                        " rnd_float(2) i," +
+                        " rnd_double(2) j," +
+                        " rnd_str(1, 5, 2) k," +
+                        " rnd_symbol(4, 1, 3, 2) l," +
+                        " rnd_bin(1, 20, 2) m," +
+                        " rnd_long256() n," +
+                        " rnd_geohash(5) o," +
+                        " rnd_geohash(15) p," +
+                        " rnd_geohash(30) q," +
+                        " rnd_geohash(60) r," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(100)" +
+                        ") timestamp(ts)",
+                "x"
+        );
+    }
+
+    @Test
+    public void testBindVariables() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x a from long_sequence(100))", sqlExecutionContext);
+            try {
+                final QueryResultCache cache = cacheEngine.getQueryResultCache();
+                final long hitCount = cache.getHitCount();
+                final String query = "select count() from x where a > $1";
+
+                cacheBindVariableService.setLong(0, 10);
+                TestUtils.printSql(cacheCompiler, cacheExecutionContext, query, sink);
+                TestUtils.assertEquals("count\n90\n", sink);
+
+                cacheBindVariableService.setLong(0, 50);
+                TestUtils.printSql(cacheCompiler, cacheExecutionContext, query, sink);
+                TestUtils.assertEquals("count\n50\n", sink);
+                Assert.assertEquals(2, cache.size());
+                Assert.assertEquals(hitCount, cache.getHitCount());
+
+                cacheBindVariableService.setLong(0, 10);
+                TestUtils.printSql(cacheCompiler, cacheExecutionContext, query, sink);
+                TestUtils.assertEquals("count\n90\n", sink);
+                Assert.assertEquals(hitCount + 1, cache.getHitCount());
+            } finally {
+                cacheBindVariableService.clear();
+                cacheEngine.clear();
+            }
+        });
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        assertMemoryLeak(() -> {
+            final LongList versions = new LongList();
+            versions.add(1);
+            try (QueryResultCache cache = new QueryResultCache(100, 100)) {
+                cache.release(cache.put("a", versions, newEntryMemory(40), 5));
+                final QueryResultCache.Entry pinned = cache.put("b", versions, newEntryMemory(40), 5);
+                final QueryResultCache.Entry entry = cache.acquire("a", versions);
+                Assert.assertNotNull(entry);
+                cache.release(entry);
+                // "b" is least recently used now
+                cache.release(cache.put("c", versions, newEntryMemory(40), 5));
+                Assert.assertEquals(2, cache.size());
+                Assert.assertEquals(80, cache.getSize());
+                Assert.assertEquals(1, cache.getEvictionCount());
+                Assert.assertNull(cache.acquire("b", versions));
+
+                // evicted entry stays readable until it is released
+                Assert.assertEquals(5, pinned.getRowCount());
+                cache.release(pinned);
+            }
+        });
+    }
+
+    @Test
+    public void testInvalidatedByCommit() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x a from long_sequence(10))", sqlExecutionContext);
+            try {
+                final QueryResultCache cache = cacheEngine.getQueryResultCache();
+                final long hitCount = cache.getHitCount();
+                final String query = "select sum(a) from x";
+                TestUtils.printSql(cacheCompiler, cacheExecutionContext, query, sink);
+                TestUtils.assertEquals("sum\n55\n", sink);
+                // whitespace does not make a different query
+                TestUtils.printSql(cacheCompiler, cacheExecutionContext, "select  sum(a)\nfrom x", sink);
+                TestUtils.assertEquals("sum\n55\n", sink);
+                Assert.assertEquals(hitCount + 1, cache.getHitCount());
+
+                executeInsert("insert into x values (45)");
+                TestUtils.printSql(cacheCompiler, cacheExecutionContext, query, sink);
+                TestUtils.assertEquals("sum\n100\n", sink);
+                Assert.assertEquals(hitCount + 1, cache.getHitCount());
+                Assert.assertEquals(1, cache.size());
+            } finally {
+                cacheEngine.clear();
+            }
+        });
+    }
+
+    @Test
+    public void testNonDeterministicQueryIsNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x a, rnd_symbol('a', 'b') s from long_sequence(10))", sqlExecutionContext);
+            try {
+                assertNotCached("select a, rnd_int() from x");
+                assertNotCached("select a, systimestamp() from x");
+                assertNotCached("select a, sysdate() from x");
+                assertNotCached("select a, now() from x");
+                assertNotCached("select * from x where s in (select s from x where a > 5)");
+                assertNotCached("select * from long_sequence(10)");
+                Assert.assertEquals(0, cacheEngine.getQueryResultCache().size());
+            } finally {
+                cacheEngine.clear();
+            }
+        });
+    }
+
+    @Test
+    public void testPartiallyReadResultIsNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x a from long_sequence(100))", sqlExecutionContext);
+            try (RecordCursorFactory factory = cacheCompiler.compile("x", cacheExecutionContext).getRecordCursorFactory()) {
+                Assert.assertTrue(factory instanceof CachedResultRecordCursorFactory);
+                try (RecordCursor cursor = factory.getCursor(cacheExecutionContext)) {
+                    Assert.assertTrue(cursor.hasNext());
+                    Assert.assertEquals(1, cursor.getRecord().getLong(0));
+                }
+                Assert.assertEquals(0, cacheEngine.getQueryResultCache().size());
+
+                try (RecordCursor cursor = factory.getCursor(cacheExecutionContext)) {
+                    Assert.assertTrue(cursor.hasNext());
+                    cursor.toTop();
+                    long count = 0;
+                    while (cursor.hasNext()) {
+                        count++;
+                    }
+                    Assert.assertEquals(100, count);
+                }
+                Assert.assertEquals(0, cacheEngine.getQueryResultCache().size());
+            } finally {
+                cacheEngine.clear();
+            }
+        });
+    }
+
+    @Test
+    public void testTooLargeResultIsNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x a from long_sequence(20000))", sqlExecutionContext);
+            try {
+                TestUtils.printSql(compiler, sqlExecutionContext, "x", expectedSink);
+                TestUtils.printSql(cacheCompiler, cacheExecutionContext, "x", sink);
+                TestUtils.assertEquals(expectedSink, sink);
+                Assert.assertEquals(0, cacheEngine.getQueryResultCache().size());
+            } finally {
+                cacheEngine.clear();
+            }
+        });
+    }
+
+    private static MemoryCARW newEntryMemory(int size) {
+        final MemoryCARW mem = Vm.getCARWInstance(64, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        mem.jumpTo(size);
+        return mem;
+    }
+
+    private void assertCached(String ddl, String query) throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(ddl, sqlExecutionContext);
+            TestUtils.printSql(compiler, sqlExecutionContext, query, expectedSink);
+            try {
+                final QueryResultCache cache = cacheEngine.getQueryResultCache();
+                final long hitCount = cache.getHitCount();
+                try (RecordCursorFactory factory = cacheCompiler.compile(query, cacheExecutionContext).getRecordCursorFactory()) {
+                    Assert.assertTrue(factory instanceof CachedResultRecordCursorFactory);
+                    // first execution populates the cache, second is served from it
+                    for (int i = 0; i < 2; i++) {
+                        TestUtils.printSql(cacheCompiler, cacheExecutionContext, query, sink);
+                        TestUtils.assertEquals(expectedSink, sink);
+                    }
+                }
+                Assert.assertEquals(hitCount + 1, cache.getHitCount());
+            } finally {
+                cacheEngine.clear();
+            }
+        });
+    }
+
+    private void assertNotCached(String query) throws SqlException {
+        try (RecordCursorFactory factory = cacheCompiler.compile(query, cacheExecutionContext).getRecordCursorFactory()) {
+            Assert.assertFalse(factory instanceof CachedResultRecordCursorFactory);
+        }
+    }
+}
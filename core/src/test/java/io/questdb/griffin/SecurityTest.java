@@ -348,17 +348,33 @@ public class SecurityTest extends AbstractGriffinTest {
                     "select distinct sym1, sym2 from tb1 where d < 0.07",
                     null,
                     true, readOnlyExecutionContext);
-            try {
-                assertQuery(
-                        memoryRestrictedCompiler,
-                        "sym1\tsym2\nHYRX\tGPGW\nVTJW\tIBBT\nVTJW\tGPGW\n",
-                        "select distinct sym1, sym2 from tb1",
-                        null,
-                        true, readOnlyExecutionContext);
-                Assert.fail();
-            } catch (Exception ex) {
-                Assert.assertTrue(ex.toString().contains("limit of 2 resizes exceeded"));
-            }
+            // distinct keys do not fit the map, rows are spilled to disk
+            assertQuery(
+                    memoryRestrictedCompiler,
+                    "sym1\tsym2\n" +
+                            "LPDX\tDOTS\n" +
+                            "IBBT\tGSHO\n" +
+                            "SXUX\tVDZJ\n" +
+                            "YSBE\tUICW\n" +
+                            "DEYY\tCXZO\n" +
+                            "VTJW\tOOZZ\n" +
+                            "SXUX\tRFBV\n" +
+                            "YSBE\tRFBV\n" +
+                            "OUOJ\tCTGQ\n" +
+                            "HFOW\tVDZJ\n" +
+                            "SXUX\tDSWU\n" +
+                            "SXUX\tIQBZ\n" +
+                            "RXGZ\tDOTS\n" +
+                            "EDRQ\tEDYY\n" +
+                            "FFYU\tCTGQ\n" +
+                            "DEYY\tDSWU\n" +
+                            "GPGW\tDOTS\n" +
+                            "SXUX\tZSRY\n" +
+                            "LPDX\tEDYY\n" +
+                            "SXUX\tGSHO\n",
+                    "select distinct sym1, sym2 from tb1",
+                    null,
+                    true, readOnlyExecutionContext);
         });
     }
 
@@ -578,17 +594,34 @@ public class SecurityTest extends AbstractGriffinTest {
                     "select sym1 from tb1 where d1 < 0.2 union select sym1 from tb2 where d2 < 0.1",
                     null,
                     false, readOnlyExecutionContext);
-            try {
-                assertQuery(
-                        memoryRestrictedCompiler,
-                        "sym1\td1\tts1\nVTJW\t0.1985581797355932\t1970-01-01T01:06:40.000000Z\nVTJW\t0.21583224269349388\t1970-01-01T01:40:00.000000Z\nRQQ\t0.5522494170511608\t1970-01-01T02:46:40.000000Z\n",
-                        "select sym1 from tb1 where d1 < 0.2 union select sym1 from tb2",
-                        null,
-                        false, readOnlyExecutionContext);
-                Assert.fail();
-            } catch (Exception ex) {
-                Assert.assertTrue(ex.toString().contains("limit of 2 resizes exceeded"));
-            }
+            // union keys do not fit the map, rows are spilled to disk
+            assertQuery(
+                    memoryRestrictedCompiler,
+                    "sym1\n" +
+                            "WCP\n" +
+                            "ICC\n" +
+                            "RSZ\n" +
+                            "HGO\n" +
+                            "ULO\n" +
+                            "ETJ\n" +
+                            "UIC\n" +
+                            "VTM\n" +
+                            "OZZ\n" +
+                            "RQQ\n" +
+                            "SRY\n" +
+                            "UOJ\n" +
+                            "FJG\n" +
+                            "WEK\n" +
+                            "XZO\n" +
+                            "GHV\n" +
+                            "VDZ\n" +
+                            "RFB\n" +
+                            "JMY\n" +
+                            "UED\n" +
+                            "SHR\n",
+                    "select sym1 from tb1 where d1 < 0.2 union select sym1 from tb2",
+                    null,
+                    false, readOnlyExecutionContext);
         });
     }
 
@@ -688,14 +721,14 @@ public class SecurityTest extends AbstractGriffinTest {
                     "sym1\tsym2\nVTJW\tFJG\nVTJW\tULO\n",
                     "select sym1, sym2 from tb1 inner join tb2 on tb2.ts2=tb1.ts1 where d1 < 0.3",
                     null,
-                    false, sqlExecutionContext);
+                    true, sqlExecutionContext);
             try {
                 assertQuery(
                         memoryRestrictedCompiler,
                         "sym1\tsym2\nVTJW\tFJG\nVTJW\tULO\n",
                         "select sym1, sym2 from tb1 inner join tb2 on tb2.ts2=tb1.ts1 where d1 < 0.3",
                         null,
-                        false, readOnlyExecutionContext);
+                        true, readOnlyExecutionContext);
                 Assert.fail();
             } catch (Exception ex) {
                 Assert.assertTrue(ex.toString().contains("limit of 2 resizes exceeded"));
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.RowIdSpill;
+import io.questdb.std.Chars;
+import io.questdb.std.Files;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.NativeLPSZ;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class SetOperationSpillTest extends AbstractGriffinTest {
+    private static final StringSink expectedSink = new StringSink();
+    private static CairoEngine spillEngine;
+    private static SqlCompiler spillCompiler;
+    private static SqlExecutionContext spillExecutionContext;
+
+    @BeforeClass
+    public static void setUpSpillEngine() {
+        final CairoConfiguration spillConfiguration = new DefaultCairoConfiguration(root) {
+            @Override
+            public int getSqlMapPageSize() {
+                return 64;
+            }
+
+            @Override
+            public int getSqlMapMaxResizes() {
+                return 4;
+            }
+
+            @Override
+            public long getSqlSetSpillPageSize() {
+                return 64 * 1024;
+            }
+        };
+        spillEngine = new CairoEngine(spillConfiguration);
+        spillCompiler = new SqlCompiler(spillEngine);
+        spillExecutionContext = new SqlExecutionContextImpl(spillEngine, 1);
+    }
+
+    @AfterClass
+    public static void tearDownSpillEngine() {
+        spillCompiler.close();
+        spillEngine.close();
+    }
+
+    @Test
+    public void testDistinct() throws Exception {
+        assertSpill(
+                "create table x as (select rnd_int(0, 499, 0) k, rnd_symbol('a', 'b', 'c') s from long_sequence(3000))",
+                "select distinct k, s from x"
+        );
+    }
+
+    @Test
+    public void testDistinctWithoutRandomAccess() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select rnd_int(0, 499, 0) k from long_sequence(3000))", sqlExecutionContext);
+            try {
+                TestUtils.printSql(spillCompiler, spillExecutionContext, "select distinct k from (x union all x)", sink);
+                Assert.fail();
+            } catch (Exception e) {
+                TestUtils.assertContains(e.getMessage(), "resizes exceeded");
+            } finally {
+                spillEngine.releaseAllReaders();
+            }
+        });
+    }
+
+    @Test
+    public void testExcept() throws Exception {
+        assertSpill(
+                "create table x as (select rnd_int(0, 999, 0) k, rnd_str(3, 3, 0) s from long_sequence(3000))",
+                "create table y as (select rnd_int(0, 999, 0) k, rnd_str(3, 3, 0) s from long_sequence(3000))",
+                "x except y"
+        );
+    }
+
+    @Test
+    public void testExceptSmallMaster() throws Exception {
+        // map overflows while slave keys are loaded, before any master row is probed
+        assertSpill(
+                "create table x as (select rnd_int(0, 999, 0) k from long_sequence(50))",
+                "create table y as (select rnd_int(0, 999, 0) k from long_sequence(3000))",
+                "x except y"
+        );
+    }
+
+    @Test
+    public void testIntersect() throws Exception {
+        assertSpill(
+                "create table x as (select rnd_int(0, 999, 0) k, rnd_str(3, 3, 0) s from long_sequence(3000))",
+                "create table y as (select rnd_int(0, 999, 0) k, rnd_str(3, 3, 0) s from long_sequence(3000))",
+                "x intersect y"
+        );
+    }
+
+    @Test
+    public void testLeftoverSpillFilesAreRemovedOnStartup() throws Exception {
+        assertMemoryLeak(() -> {
+            try (Path path = new Path()) {
+                path.of(root).concat(RowIdSpill.SPILL_DIR).slash$();
+                Assert.assertEquals(0, FilesFacadeImpl.INSTANCE.mkdirs(path, configuration.getMkDirMode()));
+                path.of(root).concat(RowIdSpill.SPILL_DIR).concat("1.r").$();
+                Assert.assertTrue(FilesFacadeImpl.INSTANCE.touch(path));
+
+                new CairoEngine(configuration).close();
+                path.of(root).concat(RowIdSpill.SPILL_DIR).$();
+                Assert.assertFalse(FilesFacadeImpl.INSTANCE.exists(path));
+            }
+        });
+    }
+
+    @Test
+    public void testSpillFilesAreRemovedOnError() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select rnd_int(0, 499, 0) k from long_sequence(3000))", sqlExecutionContext);
+            compiler.compile("create table y as (select rnd_int(250, 749, 0) k from long_sequence(3000))", sqlExecutionContext);
+            final FilesFacade ff = new FilesFacadeImpl() {
+                private long failFd = -1;
+
+                @Override
+                public boolean allocate(long fd, long size) {
+                    return fd != failFd && super.allocate(fd, size);
+                }
+
+                @Override
+                public long openRW(LPSZ name) {
+                    final long fd = super.openRW(name);
+                    if (Chars.endsWith(name, ".3")) {
+                        failFd = fd;
+                    }
+                    return fd;
+                }
+            };
+            final CairoConfiguration failingConfiguration = new DefaultCairoConfiguration(root) {
+                @Override
+                public FilesFacade getFilesFacade() {
+                    return ff;
+                }
+
+                @Override
+                public int getSqlMapMaxResizes() {
+                    return 4;
+                }
+
+                @Override
+                public int getSqlMapPageSize() {
+                    return 64;
+                }
+            };
+            try (
+                    CairoEngine engine = new CairoEngine(failingConfiguration);
+                    SqlCompiler compiler = new SqlCompiler(engine)
+            ) {
+                final SqlExecutionContext executionContext = new SqlExecutionContextImpl(engine, 1);
+                try {
+                    TestUtils.printSql(compiler, executionContext, "x union y", sink);
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "No space left");
+                }
+            }
+            assertNoSpillFiles();
+        });
+    }
+
+    @Test
+    public void testUnion() throws Exception {
+        assertSpill(
+                "create table x as (select rnd_int(0, 499, 0) k, rnd_symbol('a', 'b', 'c') s from long_sequence(3000))",
+                "create table y as (select rnd_int(250, 749, 0) k, rnd_symbol('a', 'b', 'c') s from long_sequence(3000))",
+                "x union y"
+        );
+    }
+
+    @Test
+    public void testUnionOverflowOnSlave() throws Exception {
+        // master keys fit the map, slave keys do not
+        assertSpill(
+                "create table x as (select rnd_int(0, 19, 0) k from long_sequence(100))",
+                "create table y as (select rnd_int(0, 999, 0) k from long_sequence(3000))",
+                "x union y"
+        );
+    }
+
+    private static void assertNoSpillFiles() {
+        try (Path path = new Path()) {
+            path.of(root).concat(RowIdSpill.SPILL_DIR).$();
+            if (!FilesFacadeImpl.INSTANCE.exists(path)) {
+                return;
+            }
+            final NativeLPSZ name = new NativeLPSZ();
+            FilesFacadeImpl.INSTANCE.iterateDir(path, (file, type) -> {
+                if (type == Files.DT_FILE) {
+                    Assert.fail("spill file is left behind: " + name.of(file));
+                }
+            });
+        }
+    }
+
+    private void assertSpill(String... ddlAndQuery) throws Exception {
+        assertMemoryLeak(() -> {
+            final int n = ddlAndQuery.length - 1;
+            for (int i = 0; i < n; i++) {
+                compiler.compile(ddlAndQuery[i], sqlExecutionContext);
+            }
+            final String query = ddlAndQuery[n];
+            TestUtils.printSql(compiler, sqlExecutionContext, query, expectedSink);
+            try {
+                try (RecordCursorFactory factory = spillCompiler.compile(query, spillExecutionContext).getRecordCursorFactory()) {
+                    try (RecordCursor cursor = factory.getCursor(spillExecutionContext)) {
+                        TestUtils.printCursor(cursor, factory.getMetadata(), true, sink, printer);
+                        TestUtils.assertEquals(expectedSink, sink);
+                        cursor.toTop();
+                        TestUtils.printCursor(cursor, factory.getMetadata(), true, sink, printer);
+                        TestUtils.assertEquals(expectedSink, sink);
+                    }
+                }
+                assertNoSpillFiles();
+            } finally {
+                spillEngine.releaseAllReaders();
+            }
+        });
+    }
+}
@@ -6207,7 +6207,7 @@ public class SqlCodeGeneratorTest extends AbstractGriffinTest {
                 "sensorId\tsensId\tmake\tcity\n",
                 "SELECT * FROM readings JOIN(SELECT ID sensId, make, city FROM sensors) ON readings.sensorId = sensId",
                 null,
-                false
+                true
         );
     }
 
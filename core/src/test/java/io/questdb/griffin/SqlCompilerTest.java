@@ -51,6 +51,20 @@ import static io.questdb.griffin.CompiledQuery.SET;
 public class SqlCompilerTest extends AbstractGriffinTest {
     private final static Path path = new Path();
     private static final Log LOG = LogFactory.getLog(SqlCompilerTest.class);
+    private static final String PAGE_FRAME_COPY_SOURCE = "create table x as (" +
+            "select" +
+            " rnd_int() i," +
+            " rnd_boolean() b," +
+            " rnd_str(3,5,2) c," +
+            " rnd_double(2) d," +
+            " rnd_short() f," +
+            " rnd_symbol('a','b','c',null) s," +
+            " rnd_long256() l," +
+            " rnd_geohash(20) g," +
+            " rnd_bin(10, 20, 2) m," +
+            " timestamp_sequence(0, 600000000) ts" +
+            " from long_sequence(5000)" +
+            ") timestamp(ts) partition by month";
 
     @Test
     public void assertCastString() throws SqlException {
@@ -2141,6 +2155,39 @@ public class SqlCompilerTest extends AbstractGriffinTest {
                         ")  timestamp(a) partition by DAY");
     }
 
+    @Test
+    public void testCreateAsSelectPageFrameCopy() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(PAGE_FRAME_COPY_SOURCE, sqlExecutionContext);
+            // target is partitioned differently to the source, frames are split on partition boundaries
+            compiler.compile("create table y as (select * from x), index(s) timestamp(ts) partition by day", sqlExecutionContext);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "x", "y", LOG);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "x where s = 'a'", "y where s = 'a'", LOG);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "x where s = null", "y where s = null", LOG);
+        });
+    }
+
+    @Test
+    public void testCreateAsSelectPageFrameCopyColumnTop() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(PAGE_FRAME_COPY_SOURCE, sqlExecutionContext);
+            compiler.compile("alter table x add column k long", sqlExecutionContext);
+            compiler.compile("alter table x add column t string", sqlExecutionContext);
+            executeInsert("insert into x (s, ts, k, t) values ('b', '1970-02-05', 42, 'abc')");
+            compiler.compile("create table y as (select * from x) timestamp(ts) partition by day", sqlExecutionContext);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "x", "y", LOG);
+        });
+    }
+
+    @Test
+    public void testCreateAsSelectPageFrameCopyNoTimestamp() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(PAGE_FRAME_COPY_SOURCE, sqlExecutionContext);
+            compiler.compile("create table y as (select * from x)", sqlExecutionContext);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "x", "y", LOG);
+        });
+    }
+
     @Test
     public void testCreateAsSelectRemoveColumn() throws SqlException {
         assertCreateTableAsSelect(
@@ -3334,6 +3381,28 @@ public class SqlCompilerTest extends AbstractGriffinTest {
         assertInsertAsSelectIOError(inError, ff);
     }
 
+    @Test
+    public void testInsertAsSelectPageFrameCopy() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(PAGE_FRAME_COPY_SOURCE, sqlExecutionContext);
+            compiler.compile("create table y as (select * from x where 1 = 2), index(s) timestamp(ts) partition by day", sqlExecutionContext);
+            compiler.compile("insert into y select * from x where ts < '1970-01-12T10'", sqlExecutionContext);
+            compiler.compile("insert into y select * from x where ts >= '1970-01-12T10'", sqlExecutionContext);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "x", "y", LOG);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "x where s = 'b'", "y where s = 'b'", LOG);
+
+            // rows overlap existing data and are copied one by one
+            compiler.compile("insert into y select * from x where ts < '1970-01-02'", sqlExecutionContext);
+            TestUtils.assertSqlCursors(
+                    compiler,
+                    sqlExecutionContext,
+                    "select * from (x where ts < '1970-01-02' union all x) order by ts, i",
+                    "select * from y order by ts, i",
+                    LOG
+            );
+        });
+    }
+
     @Test
     public void testInsertAsSelectTimestampNotSelected() throws Exception {
         testInsertAsSelectError("create table x (a INT, b INT, n TIMESTAMP) timestamp(n)",
@@ -3710,7 +3779,7 @@ public class SqlCompilerTest extends AbstractGriffinTest {
                     "APPL\tAPPL\tAPPL_APPL\n" +
                     "APPL\tAPPL\tAPPL_APPL\n" +
                     "APPL\tAPPL\tAPPL_APPL\n";
-            assertQuery(expected, "select xx.a, yy.b, concat(xx.a, '_', yy.b) c from xx join yy on xx.a = yy.b", null, false, false);
+            assertQuery(expected, "select xx.a, yy.b, concat(xx.a, '_', yy.b) c from xx join yy on xx.a = yy.b", null, true, false);
         });
     }
 
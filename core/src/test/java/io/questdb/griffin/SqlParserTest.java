@@ -4558,6 +4558,26 @@ public class SqlParserTest extends AbstractSqlParserTest {
         );
     }
 
+    @Test
+    public void testOuterJoinNullRejectingPredicate() throws SqlException {
+        assertQuery(
+                "select-choose x, y, s from (select [x] from l join (select [y, s] from r where s in ('a','b')) r on r.y = l.x)",
+                "select x, y, s from l left join r on l.x = r.y where r.s in ('a', 'b')",
+                modelOf("l").col("x", ColumnType.INT),
+                modelOf("r").col("y", ColumnType.INT).col("s", ColumnType.SYMBOL)
+        );
+    }
+
+    @Test
+    public void testOuterJoinNullablePredicate() throws SqlException {
+        assertQuery(
+                "select-choose x, y, s from (select [x] from l outer join select [y, s] from r on r.y = l.x post-join-where r.s != 'a')",
+                "select x, y, s from l left join r on l.x = r.y where r.s != 'a'",
+                modelOf("l").col("x", ColumnType.INT),
+                modelOf("r").col("y", ColumnType.INT).col("s", ColumnType.SYMBOL)
+        );
+    }
+
     @Test
     public void testOuterJoinColumnAlias() throws SqlException {
         assertQuery("select-choose customerId, kk, count from (select-group-by [customerId, kk, count() count] customerId, kk, count() count from (select-choose [c.customerId customerId, o.customerId kk] c.customerId customerId, o.customerId kk from (select [customerId] from customers c outer join select [customerId] from orders o on o.customerId = c.customerId post-join-where o.customerId = NaN) c) c) limit 10",
@@ -6043,6 +6063,27 @@ public class SqlParserTest extends AbstractSqlParserTest {
         );
     }
 
+    @Test
+    public void testUnionMoveWhereIntoAllBranches() throws Exception {
+        assertQuery(
+                "select-choose k, t from (select-choose [s k, ts t] s k, ts t from (select [s, ts] from x1 timestamp (ts) where ts in '2022-01-01' and s = 'a') union all select-choose [s, ts] s, ts from (select [s, ts] from x2 timestamp (ts) where ts in '2022-01-01' and s = 'a') union all select-choose s, ts from (select [s, ts] from x3 timestamp (ts) where ts in '2022-01-01' and s = 'a'))",
+                "(select s k, ts t from x1 union all select s, ts from x2 union all select s, ts from x3) where t in '2022-01-01' and k = 'a'",
+                modelOf("x1").col("s", ColumnType.SYMBOL).timestamp("ts"),
+                modelOf("x2").col("s", ColumnType.SYMBOL).timestamp("ts"),
+                modelOf("x3").col("s", ColumnType.SYMBOL).timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testUnionMoveWhereKeepWithLimit() throws Exception {
+        assertQuery(
+                "select-choose s, ts from (select [s, ts] from (select-choose [s, ts] s, ts from (select [s, ts] from x1 timestamp (ts)) union all select-choose [s, ts] s, ts from (select [s, ts] from x2 timestamp (ts)) limit 10) _xQdbA1 where s = 'a')",
+                "(select s, ts from x1 union all select s, ts from x2 limit 10) where s = 'a'",
+                modelOf("x1").col("s", ColumnType.SYMBOL).timestamp("ts"),
+                modelOf("x2").col("s", ColumnType.SYMBOL).timestamp("ts")
+        );
+    }
+
     @Test
     public void testUnionRemoveOrderBy() throws SqlException {
         assertQuery(
@@ -626,6 +626,29 @@ public class UnionTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testUnionAllFilterOnEveryBranch() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table east (region symbol index, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            compiler.compile("create table west (region symbol index, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            executeInsert("insert into east values ('a', '2022-01-01T10:00:00.000000Z')");
+            executeInsert("insert into east values ('b', '2022-01-01T11:00:00.000000Z')");
+            executeInsert("insert into east values ('a', '2022-01-02T10:00:00.000000Z')");
+            executeInsert("insert into west values ('a', '2022-01-01T12:00:00.000000Z')");
+            executeInsert("insert into west values ('b', '2022-01-01T13:00:00.000000Z')");
+            executeInsert("insert into west values ('a', '2022-01-02T12:00:00.000000Z')");
+
+            assertQuery(
+                    "r\tt\n" +
+                            "a\t2022-01-01T10:00:00.000000Z\n" +
+                            "a\t2022-01-01T12:00:00.000000Z\n",
+                    "(select region r, ts t from east union all select region, ts from west) where t in '2022-01-01' and r = 'a'",
+                    null,
+                    false
+            );
+        });
+    }
+
     @Test
     public void testUnionAllOfLiterals() throws Exception {
         assertMemoryLeak(() -> {
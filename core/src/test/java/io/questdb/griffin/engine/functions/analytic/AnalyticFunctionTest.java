@@ -0,0 +1,302 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AnalyticFunctionTest extends AbstractGriffinTest {
+
+    @Test
+    public void testFrameStartFollowing() throws Exception {
+        assertFailure(
+                "select sum(x) over (order by x rows between 1 following and current row) from long_sequence(10)",
+                null,
+                60,
+                "frame end cannot precede frame start"
+        );
+    }
+
+    @Test
+    public void testFrameEndPreceding() throws Exception {
+        assertFailure(
+                "select sum(x) over (order by x rows between 2 preceding and 1 preceding) from long_sequence(10)",
+                null,
+                60,
+                "frame end must be CURRENT ROW or, when frame start is UNBOUNDED PRECEDING, UNBOUNDED FOLLOWING"
+        );
+    }
+
+    @Test
+    public void testLagLead() throws Exception {
+        assertQuery(
+                "s\tx\tl1\tl2\td1\td2\n" +
+                        "1\t1\tNaN\t0\t2\t1970-01-01T00:00:04.000000Z\n" +
+                        "0\t2\t1\t0\t3\t1970-01-01T00:00:05.000000Z\n" +
+                        "1\t3\t2\t1\t4\t1970-01-01T00:00:06.000000Z\n" +
+                        "0\t4\t3\t2\t5\t1970-01-01T00:00:07.000000Z\n" +
+                        "1\t5\t4\t3\t6\t1970-01-01T00:00:08.000000Z\n" +
+                        "0\t6\t5\t4\t7\t1970-01-01T00:00:09.000000Z\n" +
+                        "1\t7\t6\t5\t8\t\n" +
+                        "0\t8\t7\t6\t9\t\n" +
+                        "1\t9\t8\t7\t10\t\n" +
+                        "0\t10\t9\t8\tNaN\t\n",
+                "select s, x, lag(x) over (order by x) l1, lag(x, 2, 0) over (order by x) l2, lead(x) over (order by x) d1, lead(ts, 2) over (partition by s order by ts) d2 from x",
+                "create table x as (select cast(x % 2 as int) s, x, timestamp_sequence(0, 1000000) ts from long_sequence(10)) timestamp(ts)",
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testNotAnalyticFunction() throws Exception {
+        assertFailure(
+                "select abs(x) over (order by x) from long_sequence(10)",
+                null,
+                7,
+                "unknown function name"
+        );
+    }
+
+    @Test
+    public void testPeers() throws Exception {
+        // rows with the same "order by" value are peers, they share RANGE frame and rank
+        assertQuery(
+                "k\tv\ts\tc\tr\tdr\n" +
+                        "0\t1\t3.0\t2\t1\t1\n" +
+                        "0\t2\t3.0\t2\t1\t1\n" +
+                        "1\t3\t15.0\t5\t3\t2\n" +
+                        "1\t4\t15.0\t5\t3\t2\n" +
+                        "1\t5\t15.0\t5\t3\t2\n" +
+                        "2\t6\t36.0\t8\t6\t3\n" +
+                        "2\t7\t36.0\t8\t6\t3\n" +
+                        "2\t8\t36.0\t8\t6\t3\n" +
+                        "3\t9\t55.0\t10\t9\t4\n" +
+                        "3\t10\t55.0\t10\t9\t4\n",
+                "select k, v, sum(v) over (order by k) s, count() over (order by k) c, rank() over (order by k) r, dense_rank() over (order by k) dr from x",
+                "create table x as (select x / 3 k, x v from long_sequence(10))",
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testRangeFrame() throws Exception {
+        assertQuery(
+                "ts\tv\ts\tc\n" +
+                        "1970-01-01T00:00:00.000000Z\t76\t76.0\t1\n" +
+                        "1970-01-01T00:00:01.995420Z\t74\t150.0\t2\n" +
+                        "1970-01-01T00:00:02.619615Z\t86\t160.0\t2\n" +
+                        "1970-01-01T00:00:04.149016Z\t73\t159.0\t2\n" +
+                        "1970-01-01T00:00:06.080632Z\t87\t160.0\t2\n" +
+                        "1970-01-01T00:00:08.045971Z\t45\t132.0\t2\n" +
+                        "1970-01-01T00:00:08.797588Z\t32\t77.0\t2\n" +
+                        "1970-01-01T00:00:10.102793Z\t31\t63.0\t2\n" +
+                        "1970-01-01T00:00:11.048090Z\t90\t121.0\t2\n" +
+                        "1970-01-01T00:00:12.523861Z\t35\t125.0\t2\n",
+                "select ts, v, sum(v) over (order by ts range 2000000 preceding) s, count() over (order by ts range between 2000000 preceding and current row) c from x",
+                "create table x as (select rnd_int(0, 100, 0) v, timestamp_sequence(0, rnd_long(0, 2000000, 0)) ts from long_sequence(10)) timestamp(ts)",
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testRangeFrameManyRows() throws Exception {
+        // rows leave frames and their entries are reused by rows that follow
+        assertQuery(
+                "count\n0\n",
+                "select count() from (" +
+                        "select x, sum(x) over (order by x range 5 preceding) s, count() over (order by k) c" +
+                        " from (select x, x / 2 k from long_sequence(10000))" +
+                        ") where (x > 5 and s <> 6 * x - 15) or (x < 10000 and c <> 2 * (x / 2) + 1)",
+                null,
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testRangeFrameRequiresSingleOrderBy() throws Exception {
+        assertFailure(
+                "select sum(x) over (order by x, x rows unbounded preceding), sum(x) over (order by x, x range 1 preceding) from long_sequence(10)",
+                null,
+                94,
+                "RANGE with offset requires exactly one ORDER BY column"
+        );
+    }
+
+    @Test
+    public void testRowsFrameStreamsWithinStoreLimit() throws Exception {
+        assertMemoryLeak(() -> {
+            // single page of analytic store would not fit rows of the result if they were buffered
+            final DefaultCairoConfiguration limitedConfiguration = new DefaultCairoConfiguration(root) {
+                @Override
+                public int getSqlAnalyticStoreMaxPages() {
+                    return 1;
+                }
+
+                @Override
+                public int getSqlAnalyticStorePageSize() {
+                    return 4096;
+                }
+            };
+            try (
+                    CairoEngine limitedEngine = new CairoEngine(limitedConfiguration);
+                    SqlCompiler limitedCompiler = new SqlCompiler(limitedEngine);
+                    SqlExecutionContext limitedContext = new SqlExecutionContextImpl(limitedEngine, 1)
+            ) {
+                try (
+                        RecordCursorFactory factory = limitedCompiler.compile(
+                                "select x, sum(x) over (partition by x % 3 rows 2 preceding) s, row_number() over (partition by x % 3) rn from long_sequence(100000)",
+                                limitedContext
+                        ).getRecordCursorFactory()
+                ) {
+                    Assert.assertFalse(factory.recordCursorSupportsRandomAccess());
+                    try (RecordCursor cursor = factory.getCursor(limitedContext)) {
+                        final Record record = cursor.getRecord();
+                        long rows = 0;
+                        while (cursor.hasNext()) {
+                            final long x = record.getLong(0);
+                            if (x > 6) {
+                                Assert.assertEquals(3 * x - 9, record.getDouble(1), 0.0000001);
+                            }
+                            Assert.assertEquals((x - 1) / 3, record.getLong(2));
+                            rows++;
+                        }
+                        Assert.assertEquals(100000, rows);
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testRowsFrame() throws Exception {
+        assertQuery(
+                "v\ts3\tmn\tmx\tf\tl\n" +
+                        "6\t6.0\t6.0\t6.0\t6\t6\n" +
+                        "76\t82.0\t6.0\t76.0\t6\t76\n" +
+                        "94\t176.0\t6.0\t94.0\t6\t94\n" +
+                        "74\t244.0\t74.0\t94.0\t76\t74\n" +
+                        "52\t220.0\t52.0\t94.0\t94\t52\n" +
+                        "86\t212.0\t52.0\t86.0\t74\t86\n" +
+                        "95\t233.0\t52.0\t95.0\t52\t95\n" +
+                        "73\t254.0\t73.0\t95.0\t86\t73\n" +
+                        "85\t253.0\t73.0\t95.0\t95\t85\n" +
+                        "87\t245.0\t73.0\t87.0\t73\t87\n",
+                "select v, sum(v) over (order by ts rows between 2 preceding and current row) s3, min(v) over (order by ts rows 2 preceding) mn, max(v) over (order by ts rows 2 preceding) mx, first_value(v) over (order by ts rows 2 preceding) f, last_value(v) over (order by ts rows 2 preceding) l from x",
+                "create table x as (select rnd_int(0, 100, 0) v, timestamp_sequence(0, 1000000) ts from long_sequence(10)) timestamp(ts)",
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testRunningAggregates() throws Exception {
+        assertQuery(
+                "s\tv\tsm\tav\tc\n" +
+                        "1\t6\t6.0\t6.0\t1\n" +
+                        "0\t76\t76.0\t76.0\t1\n" +
+                        "1\t94\t100.0\t50.0\t2\n" +
+                        "0\t74\t150.0\t75.0\t2\n" +
+                        "1\t52\t152.0\t50.666666666666664\t3\n" +
+                        "0\t86\t236.0\t78.66666666666667\t3\n" +
+                        "1\t95\t247.0\t61.75\t4\n" +
+                        "0\t73\t309.0\t77.25\t4\n" +
+                        "1\t85\t332.0\t66.4\t5\n" +
+                        "0\t87\t396.0\t79.2\t5\n",
+                "select s, v, sum(v) over (partition by s order by ts) sm, avg(v) over (partition by s order by ts) av, count() over (partition by s order by ts) c from x",
+                "create table x as (select cast(x % 2 as int) s, rnd_int(0, 100, 0) v, timestamp_sequence(0, 1000000) ts from long_sequence(10)) timestamp(ts)",
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        // values are final once row is seen, rows are not buffered
+        assertQuery(
+                "s\tx\trn\ts2\tl\tr\n" +
+                        "1\t1\t0\t1.0\tNaN\t1\n" +
+                        "0\t2\t0\t2.0\tNaN\t1\n" +
+                        "1\t3\t1\t4.0\t1\t1\n" +
+                        "0\t4\t1\t6.0\t2\t1\n" +
+                        "1\t5\t2\t8.0\t3\t1\n" +
+                        "0\t6\t2\t10.0\t4\t1\n",
+                "select s, x, row_number() over (partition by s) rn, sum(x) over (partition by s rows 1 preceding) s2, lag(x) over (partition by s) l, rank() over (partition by s) r from x",
+                "create table x as (select cast(x % 2 as int) s, x from long_sequence(6))",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testWholePartition() throws Exception {
+        assertQuery(
+                "s\tx\tsm\tl\tr\n" +
+                        "1\t1\t25.0\t9\t1\n" +
+                        "0\t2\t30.0\t10\t1\n" +
+                        "1\t3\t25.0\t9\t1\n" +
+                        "0\t4\t30.0\t10\t1\n" +
+                        "1\t5\t25.0\t9\t1\n" +
+                        "0\t6\t30.0\t10\t1\n" +
+                        "1\t7\t25.0\t9\t1\n" +
+                        "0\t8\t30.0\t10\t1\n" +
+                        "1\t9\t25.0\t9\t1\n" +
+                        "0\t10\t30.0\t10\t1\n",
+                "select s, x, sum(x) over (partition by s) sm, last_value(x) over (partition by s order by ts rows between unbounded preceding and unbounded following) l, rank() over (partition by s) r from x",
+                "create table x as (select cast(x % 2 as int) s, x, timestamp_sequence(0, 1000000) ts from long_sequence(10)) timestamp(ts)",
+                null,
+                true,
+                true,
+                false
+        );
+    }
+}
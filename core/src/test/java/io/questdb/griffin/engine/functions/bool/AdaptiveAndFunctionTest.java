@@ -0,0 +1,183 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.bool;
+
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.std.NanosecondClock;
+import io.questdb.std.ObjList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AdaptiveAndFunctionTest {
+    private long ticks;
+    private int row;
+
+    @Test
+    public void testCheapSelectivePredicateGoesFirst() {
+        final CountingPredicate expensive = new CountingPredicate(100, 10);
+        final CountingPredicate cheap = new CountingPredicate(1, 2);
+        final AdaptiveAndFunction and = newAnd(4, 0, expensive, cheap);
+
+        int passed = 0;
+        for (row = 0; row < 20; row++) {
+            if (and.getBool(null)) {
+                passed++;
+            }
+        }
+        // every 10th row passes the first predicate and every other row passes the second one
+        Assert.assertEquals(2, passed);
+        Assert.assertSame(cheap, and.getArgs().getQuick(0));
+        Assert.assertSame(expensive, and.getArgs().getQuick(1));
+        // both predicates are evaluated for 4 sampled rows, the rest short-circuits on "cheap"
+        Assert.assertEquals(20, cheap.calls);
+        Assert.assertEquals(4 + 8, expensive.calls);
+    }
+
+    @Test
+    public void testNonRejectingPredicateGoesLast() {
+        final CountingPredicate always = new CountingPredicate(1, 1);
+        final CountingPredicate selective = new CountingPredicate(50, 3);
+        final AdaptiveAndFunction and = newAnd(6, 0, always, selective);
+        for (row = 0; row < 6; row++) {
+            and.getBool(null);
+        }
+        Assert.assertSame(selective, and.getArgs().getQuick(0));
+        Assert.assertSame(always, and.getArgs().getQuick(1));
+    }
+
+    @Test
+    public void testNotConjunction() {
+        final Function f = new CountingPredicate(1, 1);
+        Assert.assertSame(f, AdaptiveAndFunction.of(f, () -> ticks, 1024, 1024));
+    }
+
+    @Test
+    public void testOfFlattensAndChain() {
+        final CountingPredicate a = new CountingPredicate(1, 1);
+        final CountingPredicate b = new CountingPredicate(1, 1);
+        final CountingPredicate c = new CountingPredicate(1, 1);
+        final Function filter = new AndFunctionFactory.AndFunction(new AndFunctionFactory.AndFunction(a, b), c);
+
+        Assert.assertSame(filter, AdaptiveAndFunction.of(filter, () -> ticks, 0, 1024));
+
+        final Function adaptive = AdaptiveAndFunction.of(filter, () -> ticks, 1024, 1024);
+        Assert.assertTrue(adaptive instanceof AdaptiveAndFunction);
+        final ObjList<Function> args = ((AdaptiveAndFunction) adaptive).getArgs();
+        Assert.assertEquals(3, args.size());
+        Assert.assertSame(a, args.getQuick(0));
+        Assert.assertSame(b, args.getQuick(1));
+        Assert.assertSame(c, args.getQuick(2));
+        Assert.assertFalse(adaptive.isConstant());
+    }
+
+    @Test
+    public void testResample() {
+        final CountingPredicate first = new CountingPredicate(1, 2);
+        final CountingPredicate second = new CountingPredicate(10, 3);
+        final AdaptiveAndFunction and = newAnd(6, 6, first, second);
+        for (row = 0; row < 6; row++) {
+            and.getBool(null);
+        }
+        Assert.assertSame(first, and.getArgs().getQuick(0));
+
+        // data changes: "first" stops rejecting rows, predicates swap places after next sample
+        first.period = 1;
+        for (; row < 18; row++) {
+            and.getBool(null);
+        }
+        Assert.assertSame(second, and.getArgs().getQuick(0));
+        Assert.assertSame(first, and.getArgs().getQuick(1));
+    }
+
+    @Test
+    public void testResultMatchesShortCircuit() {
+        final CountingPredicate a = new CountingPredicate(5, 3);
+        final CountingPredicate b = new CountingPredicate(1, 4);
+        final AdaptiveAndFunction and = newAnd(3, 5, a, b);
+        for (row = 0; row < 100; row++) {
+            Assert.assertEquals(row % 3 == 0 && row % 4 == 0, and.getBool(null));
+        }
+    }
+
+    @Test
+    public void testToTopKeepsOrder() {
+        final CountingPredicate expensive = new CountingPredicate(100, 10);
+        final CountingPredicate cheap = new CountingPredicate(1, 2);
+        final AdaptiveAndFunction and = newAnd(4, 1000, expensive, cheap);
+        for (row = 0; row < 4; row++) {
+            and.getBool(null);
+        }
+        Assert.assertSame(cheap, and.getArgs().getQuick(0));
+
+        // rewound cursor is not sampled again, "cheap" short-circuits every other row straight away
+        and.toTop();
+        expensive.calls = 0;
+        for (row = 0; row < 20; row++) {
+            and.getBool(null);
+        }
+        Assert.assertSame(cheap, and.getArgs().getQuick(0));
+        Assert.assertEquals(10, expensive.calls);
+    }
+
+    private AdaptiveAndFunction newAnd(int sampleSize, int sampleInterval, Function... args) {
+        final ObjList<Function> list = new ObjList<>();
+        for (Function f : args) {
+            list.add(f);
+        }
+        final NanosecondClock clock = () -> ticks;
+        final AdaptiveAndFunction and = new AdaptiveAndFunction(list, clock, sampleSize, sampleInterval);
+        try {
+            and.init(null, null);
+        } catch (SqlException e) {
+            throw new AssertionError(e);
+        }
+        return and;
+    }
+
+    /**
+     * Passes every period-th row, advances clock by cost on every call.
+     */
+    private class CountingPredicate extends BooleanFunction {
+        private final long cost;
+        private int period;
+        private int calls;
+
+        private CountingPredicate(long cost, int period) {
+            this.cost = cost;
+            this.period = period;
+        }
+
+        @Override
+        public boolean getBool(Record rec) {
+            ticks += cost;
+            calls++;
+            return row % period == 0;
+        }
+    }
+}
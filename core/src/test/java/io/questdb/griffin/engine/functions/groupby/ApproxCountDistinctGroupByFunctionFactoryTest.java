@@ -0,0 +1,161 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import org.junit.Test;
+
+public class ApproxCountDistinctGroupByFunctionFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testGroupKeyedStr() throws Exception {
+        assertQuery(
+                "a\tcount_distinct\tapprox_count_distinct\n" +
+                        "a\t4\t4\n" +
+                        "b\t4\t4\n" +
+                        "f\t3\t3\n" +
+                        "c\t3\t3\n" +
+                        "e\t2\t2\n" +
+                        "d\t1\t1\n",
+                "select a, count_distinct(s), approx_count_distinct(s) from x",
+                "create table x as (select * from (select rnd_symbol('a','b','c','d','e','f') a, rnd_str('344', 'xx2', '00s', '544', 'rraa', '0llp') s,  timestamp_sequence(0, 100000) ts from long_sequence(20)) timestamp(ts))",
+                null,
+                true,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupNotKeyedHighCardinality() throws Exception {
+        // default precision has 1.6% standard error
+        assertQuery(
+                "p12\tp16\n" +
+                        "true\ttrue\n",
+                "select abs(approx_count_distinct(x) - 1000000) < 50000 p12, abs(approx_count_distinct(x, 16) - 1000000) < 12000 p16 from x",
+                "create table x as (select x from long_sequence(1000000))",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupNotKeyedInt() throws Exception {
+        assertQuery(
+                "approx_count_distinct\n" +
+                        "5\n",
+                "select approx_count_distinct(i) from x",
+                "create table x as (select rnd_int(1, 5, 2) i from long_sequence(100))",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupNotKeyedLong256() throws Exception {
+        assertQuery(
+                "count_distinct\tapprox_count_distinct\n" +
+                        "100\t101\n",
+                "select count_distinct(l), approx_count_distinct(l) from x",
+                "create table x as (select rnd_long256() l from long_sequence(100))",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupNotKeyedSymbolWithNulls() throws Exception {
+        assertQuery(
+                "approx_count_distinct\n" +
+                        "4\n",
+                "select approx_count_distinct(s) from x",
+                "create table x as (select * from (select rnd_symbol(null, 'xx2', '00s', '544', 'rraa', null) s,  timestamp_sequence(0, 100000) ts from long_sequence(100)) timestamp(ts))",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testPrecisionOutOfRange() throws Exception {
+        assertFailure(
+                "select approx_count_distinct(x, 19) from long_sequence(10)",
+                null,
+                32,
+                "precision must be between 4 and 18"
+        );
+    }
+
+    @Test
+    public void testSampleFillValue() throws Exception {
+        assertQuery(
+                "ts\tcount_distinct\tapprox_count_distinct\n" +
+                        "1970-01-01T00:00:00.000000Z\t5\t5\n" +
+                        "1970-01-01T00:00:01.000000Z\t5\t5\n" +
+                        "1970-01-01T00:00:02.000000Z\t6\t6\n" +
+                        "1970-01-01T00:00:03.000000Z\t5\t5\n" +
+                        "1970-01-01T00:00:04.000000Z\t6\t6\n" +
+                        "1970-01-01T00:00:05.000000Z\t4\t4\n" +
+                        "1970-01-01T00:00:06.000000Z\t4\t4\n" +
+                        "1970-01-01T00:00:07.000000Z\t5\t5\n" +
+                        "1970-01-01T00:00:08.000000Z\t6\t6\n" +
+                        "1970-01-01T00:00:09.000000Z\t5\t5\n",
+                "select ts, count_distinct(s), approx_count_distinct(s) from x sample by 1s fill(99, 99)",
+                "create table x as (select * from (select rnd_str('344', 'xx2', '00s', '544', 'rraa', '0llp') s,  timestamp_sequence(0, 100000) ts from long_sequence(100)) timestamp(ts))",
+                "ts",
+                false
+        );
+    }
+
+    @Test
+    public void testSampleFillLinear() throws Exception {
+        assertQuery(
+                "ts\tapprox_count_distinct\n" +
+                        "1970-01-01T00:00:00.000000Z\t5\n" +
+                        "1970-01-01T00:00:01.000000Z\t5\n" +
+                        "1970-01-01T00:00:02.000000Z\t6\n" +
+                        "1970-01-01T00:00:03.000000Z\t5\n" +
+                        "1970-01-01T00:00:04.000000Z\t6\n" +
+                        "1970-01-01T00:00:05.000000Z\t4\n" +
+                        "1970-01-01T00:00:06.000000Z\t4\n" +
+                        "1970-01-01T00:00:07.000000Z\t5\n" +
+                        "1970-01-01T00:00:08.000000Z\t6\n" +
+                        "1970-01-01T00:00:09.000000Z\t5\n",
+                "select ts, approx_count_distinct(s) from x sample by 1s fill(linear)",
+                "create table x as (select * from (select rnd_str('344', 'xx2', '00s', '544', 'rraa', '0llp') s,  timestamp_sequence(0, 100000) ts from long_sequence(100)) timestamp(ts))",
+                "ts",
+                true,
+                true,
+                true
+        );
+    }
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import org.junit.Test;
+
+public class ApproxPercentileDoubleGroupByFunctionFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testAllNulls() throws Exception {
+        assertQuery(
+                "approx_median\n" +
+                        "NaN\n",
+                "select approx_median(d) from x",
+                "create table x as (select cast(null as double) d from long_sequence(10))",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupKeyed() throws Exception {
+        assertQuery(
+                "a\tp50\tp99\tmedian\n" +
+                        "a\t14917.202408662972\t29445.40112320983\t14917.202408662972\n" +
+                        "b\t14917.202408662972\t29445.40112320983\t14917.202408662972\n" +
+                        "c\t15218.560033080403\t29445.40112320983\t15218.560033080403\n",
+                "select a, approx_percentile(x, 0.5) p50, approx_percentile(x, 0.99) p99, approx_median(x) median from x order by a",
+                "create table x as (select rnd_symbol('a','b','c') a, x from long_sequence(30000))",
+                null,
+                true,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupNotKeyed() throws Exception {
+        assertQuery(
+                "p0\tp50\tp99\tp100\n" +
+                        "-4965.323255399839\t44815.395948093494\t93932.4970757807\t95830.12327933182\n",
+                "select approx_percentile(x, 0) p0, approx_percentile(x, 0.5) p50, approx_percentile(x, 0.99) p99, approx_percentile(x, 1.0) p100 from x",
+                // values are within 1% of exact percentiles -4999, 45000, 94000 and 95000
+                "create table x as (select x - 5000 x from long_sequence(100000))",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testPercentileOutOfRange() throws Exception {
+        assertFailure(
+                "select approx_percentile(x, 1.5) from long_sequence(10)",
+                null,
+                28,
+                "percentile must be between 0 and 1"
+        );
+    }
+
+    @Test
+    public void testSampleFillLinear() throws Exception {
+        assertQuery(
+                // buckets 2, 5, 8 and 11 are interpolated
+                "ts\tapprox_median\n" +
+                        "1970-01-01T00:00:00.000000Z\t66.0287116576987\n" +
+                        "1970-01-01T00:00:01.000000Z\t22.42224777916732\n" +
+                        "1970-01-01T00:00:02.000000Z\t15.418645659738768\n" +
+                        "1970-01-01T00:00:03.000000Z\t8.415043540310215\n" +
+                        "1970-01-01T00:00:04.000000Z\t29.667821411222455\n" +
+                        "1970-01-01T00:00:05.000000Z\t24.978121283022766\n" +
+                        "1970-01-01T00:00:06.000000Z\t20.288421154823077\n" +
+                        "1970-01-01T00:00:07.000000Z\t64.72121241695218\n" +
+                        "1970-01-01T00:00:08.000000Z\t74.33041378157364\n" +
+                        "1970-01-01T00:00:09.000000Z\t83.93961514619508\n" +
+                        "1970-01-01T00:00:10.000000Z\t98.50457626879137\n" +
+                        "1970-01-01T00:00:11.000000Z\t60.463412023979345\n" +
+                        "1970-01-01T00:00:12.000000Z\t22.42224777916732\n" +
+                        "1970-01-01T00:00:13.000000Z\t50.91110157430019\n",
+                "select ts, approx_median(d) from x sample by 1s fill(linear)",
+                "create table x as (select * from (select rnd_double() * 100 d, timestamp_sequence(0, 1500000) ts from long_sequence(10)) timestamp(ts))",
+                "ts",
+                true,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testSampleFillNone() throws Exception {
+        assertQuery(
+                "ts\tapprox_median\n" +
+                        "1970-01-01T00:00:00.000000Z\t29.667821411222455\n" +
+                        "1970-01-01T00:00:01.000000Z\t42.52427141344266\n" +
+                        "1970-01-01T00:00:02.000000Z\t57.402336358124934\n" +
+                        "1970-01-01T00:00:03.000000Z\t52.988893700585265\n" +
+                        "1970-01-01T00:00:04.000000Z\t80.648188221533\n" +
+                        "1970-01-01T00:00:05.000000Z\t46.066116134666\n" +
+                        "1970-01-01T00:00:06.000000Z\t57.402336358124934\n" +
+                        "1970-01-01T00:00:07.000000Z\t45.153915815167665\n" +
+                        "1970-01-01T00:00:08.000000Z\t62.18337446314563\n" +
+                        "1970-01-01T00:00:09.000000Z\t26.312891864394537\n",
+                "select ts, approx_median(d) from x sample by 1s",
+                "create table x as (select * from (select rnd_double() * 100 d, timestamp_sequence(0, 100000) ts from long_sequence(100)) timestamp(ts))",
+                "ts",
+                false
+        );
+    }
+}
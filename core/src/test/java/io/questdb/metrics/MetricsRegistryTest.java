@@ -117,6 +117,23 @@ public class MetricsRegistryTest {
         assertScrapable(gauge, expected2);
     }
 
+    @Test
+    public void testGaugeWithOneLabel() {
+        MetricsRegistry metricsRegistry = new MetricsRegistryImpl();
+        GaugeWithOneLabel gauge = metricsRegistry.newGauge("gauge", "label0", new CharSequence[]{"A", "B"});
+
+        gauge.inc((short) 0);
+        gauge.inc((short) 1);
+        gauge.inc((short) 1);
+        gauge.dec((short) 0);
+
+        String expected = "# TYPE questdb_gauge gauge\n" +
+                "questdb_gauge{label0=\"A\"} 0\n" +
+                "questdb_gauge{label0=\"B\"} 2\n" +
+                "\n";
+        assertScrapable(gauge, expected);
+    }
+
     @Test
     public void testNullGauge() {
         MetricsRegistry metricsRegistry = new NullMetricsRegistry();
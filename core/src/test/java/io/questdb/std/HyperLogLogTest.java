@@ -0,0 +1,148 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HyperLogLogTest {
+
+    @Test
+    public void testEmpty() {
+        final int precision = HyperLogLog.DEFAULT_PRECISION;
+        final long size = HyperLogLog.sizeOf(precision);
+        final long registers = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+        try {
+            HyperLogLog.clear(registers, precision);
+            Assert.assertEquals(0, HyperLogLog.estimate(registers, precision));
+        } finally {
+            Unsafe.free(registers, size, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    @Test
+    public void testEstimateErrorBounds() {
+        for (int precision = HyperLogLog.MIN_PRECISION; precision <= HyperLogLog.MAX_PRECISION; precision += 2) {
+            assertEstimate(precision, 10);
+            assertEstimate(precision, 1_000);
+            assertEstimate(precision, 1_000_000);
+        }
+    }
+
+    @Test
+    public void testIncrementalSummary() {
+        final int precision = 8;
+        final long size = HyperLogLog.sizeOf(precision);
+        final long registers = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+        try {
+            HyperLogLog.clear(registers, precision);
+            double sum = size;
+            int zeros = (int) size;
+            for (long i = 0; i < 10_000; i++) {
+                final long hash = HyperLogLog.hash(i);
+                final int previous = HyperLogLog.add(registers, precision, hash);
+                if (previous > -1) {
+                    sum += HyperLogLog.weight(HyperLogLog.rank(hash, precision)) - HyperLogLog.weight(previous);
+                    if (previous == 0) {
+                        zeros--;
+                    }
+                }
+                if (i % 100 == 0) {
+                    Assert.assertEquals(HyperLogLog.estimate(registers, precision), HyperLogLog.estimate(sum, zeros, precision));
+                }
+            }
+        } finally {
+            Unsafe.free(registers, size, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    @Test
+    public void testMerge() {
+        final int precision = 14;
+        final long size = HyperLogLog.sizeOf(precision);
+        final long a = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+        final long b = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+        final long union = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+        try {
+            HyperLogLog.clear(a, precision);
+            HyperLogLog.clear(b, precision);
+            HyperLogLog.clear(union, precision);
+            // overlapping ranges [0, 60000) and [40000, 100000)
+            for (long i = 0; i < 100_000; i++) {
+                final long hash = HyperLogLog.hash(i);
+                if (i < 60_000) {
+                    HyperLogLog.add(a, precision, hash);
+                }
+                if (i >= 40_000) {
+                    HyperLogLog.add(b, precision, hash);
+                }
+                HyperLogLog.add(union, precision, hash);
+            }
+            HyperLogLog.merge(a, b, precision);
+            Assert.assertEquals(HyperLogLog.estimate(union, precision), HyperLogLog.estimate(a, precision));
+        } finally {
+            Unsafe.free(a, size, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(b, size, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(union, size, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    @Test
+    public void testRepeatedValuesDoNotChangeSketch() {
+        final int precision = 10;
+        final long size = HyperLogLog.sizeOf(precision);
+        final long registers = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+        try {
+            HyperLogLog.clear(registers, precision);
+            Assert.assertEquals(0, HyperLogLog.add(registers, precision, HyperLogLog.hash("abc")));
+            Assert.assertEquals(-1, HyperLogLog.add(registers, precision, HyperLogLog.hash("abc")));
+            Assert.assertEquals(1, HyperLogLog.estimate(registers, precision));
+        } finally {
+            Unsafe.free(registers, size, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    private static void assertEstimate(int precision, long cardinality) {
+        final long size = HyperLogLog.sizeOf(precision);
+        final long registers = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+        try {
+            HyperLogLog.clear(registers, precision);
+            for (long i = 0; i < cardinality; i++) {
+                HyperLogLog.add(registers, precision, HyperLogLog.hash(i));
+            }
+            // standard error is 1.04/sqrt(m), allow 4 standard errors
+            final double tolerance = 4 * 1.04 / Math.sqrt(size);
+            final long estimate = HyperLogLog.estimate(registers, precision);
+            Assert.assertEquals(
+                    "precision=" + precision + ", cardinality=" + cardinality,
+                    cardinality,
+                    estimate,
+                    Math.max(1, cardinality * tolerance)
+            );
+        } finally {
+            Unsafe.free(registers, size, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QuantileSketchTest {
+
+    @Test
+    public void testCollapseLowest() {
+        final long store = Unsafe.malloc(QuantileSketch.STORE_SIZE, MemoryTag.NATIVE_DEFAULT);
+        try {
+            QuantileSketch.clear(store);
+            // span of 20 orders of magnitude does not fit the window
+            final int lo = QuantileSketch.key(1e-10);
+            final int hi = QuantileSketch.key(1e10);
+            int base = QuantileSketch.add(store, QuantileSketch.newBase(lo), lo, 1);
+            base = QuantileSketch.add(store, base, hi, 1);
+            Assert.assertEquals(hi - QuantileSketch.BUCKETS + 1, base);
+            // both values collapsed into lowest bucket and top one is intact
+            Assert.assertEquals(1e10, QuantileSketch.quantile(0, 0, 0, store, base, 2, 1), 1e10 * QuantileSketch.RELATIVE_ACCURACY);
+            Assert.assertEquals(QuantileSketch.value(base), QuantileSketch.quantile(0, 0, 0, store, base, 2, 0), 0);
+
+            // value below window goes into lowest bucket as well
+            base = QuantileSketch.add(store, base, lo, 1);
+            Assert.assertEquals(hi - QuantileSketch.BUCKETS + 1, base);
+            Assert.assertEquals(QuantileSketch.value(base), QuantileSketch.quantile(0, 0, 0, store, base, 3, 0.5), 0);
+        } finally {
+            Unsafe.free(store, QuantileSketch.STORE_SIZE, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    @Test
+    public void testMerge() {
+        final long a = Unsafe.malloc(QuantileSketch.STORE_SIZE, MemoryTag.NATIVE_DEFAULT);
+        final long b = Unsafe.malloc(QuantileSketch.STORE_SIZE, MemoryTag.NATIVE_DEFAULT);
+        final long union = Unsafe.malloc(QuantileSketch.STORE_SIZE, MemoryTag.NATIVE_DEFAULT);
+        try {
+            QuantileSketch.clear(a);
+            QuantileSketch.clear(b);
+            QuantileSketch.clear(union);
+            final int k = QuantileSketch.key(1);
+            int baseA = QuantileSketch.newBase(k);
+            int baseB = QuantileSketch.newBase(k);
+            int baseUnion = QuantileSketch.newBase(k);
+            for (int i = 1; i <= 10_000; i++) {
+                final int key = QuantileSketch.key(i);
+                if (i % 2 == 0) {
+                    baseA = QuantileSketch.add(a, baseA, key, 1);
+                } else {
+                    baseB = QuantileSketch.add(b, baseB, key, 1);
+                }
+                baseUnion = QuantileSketch.add(union, baseUnion, key, 1);
+            }
+            baseA = QuantileSketch.merge(a, baseA, b, baseB);
+            for (double q = 0; q <= 1; q += 0.05) {
+                Assert.assertEquals(
+                        QuantileSketch.quantile(0, 0, 0, union, baseUnion, 10_000, q),
+                        QuantileSketch.quantile(0, 0, 0, a, baseA, 10_000, q),
+                        0
+                );
+            }
+        } finally {
+            Unsafe.free(a, QuantileSketch.STORE_SIZE, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(b, QuantileSketch.STORE_SIZE, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(union, QuantileSketch.STORE_SIZE, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    @Test
+    public void testRelativeAccuracy() {
+        final long positive = Unsafe.malloc(QuantileSketch.STORE_SIZE, MemoryTag.NATIVE_DEFAULT);
+        final long negative = Unsafe.malloc(QuantileSketch.STORE_SIZE, MemoryTag.NATIVE_DEFAULT);
+        try {
+            QuantileSketch.clear(positive);
+            QuantileSketch.clear(negative);
+            final Rnd rnd = new Rnd();
+            final int n = 100_000;
+            final double[] values = new double[n];
+            int positiveBase = Integer.MIN_VALUE;
+            int negativeBase = Integer.MIN_VALUE;
+            long zeros = 0;
+            for (int i = 0; i < n; i++) {
+                // log-normal-ish values spanning several orders of magnitude, some negative
+                final double v = (rnd.nextInt(10) == 0 ? -1 : 1) * Math.exp(rnd.nextDouble() * 20 - 5);
+                values[i] = v;
+                final int key = QuantileSketch.key(Math.abs(v));
+                if (v > 0) {
+                    positiveBase = QuantileSketch.add(positive, positiveBase == Integer.MIN_VALUE ? QuantileSketch.newBase(key) : positiveBase, key, 1);
+                } else {
+                    negativeBase = QuantileSketch.add(negative, negativeBase == Integer.MIN_VALUE ? QuantileSketch.newBase(key) : negativeBase, key, 1);
+                }
+            }
+            java.util.Arrays.sort(values);
+            for (double q = 0; q <= 1; q += 0.01) {
+                final double expected = values[(int) (q * (n - 1))];
+                final double actual = QuantileSketch.quantile(negative, negativeBase, zeros, positive, positiveBase, n, q);
+                Assert.assertEquals("q=" + q, expected, actual, Math.abs(expected) * QuantileSketch.RELATIVE_ACCURACY);
+            }
+        } finally {
+            Unsafe.free(positive, QuantileSketch.STORE_SIZE, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(negative, QuantileSketch.STORE_SIZE, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+}